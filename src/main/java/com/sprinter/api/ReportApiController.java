@@ -1,12 +1,22 @@
 package com.sprinter.api;
 
+import com.sprinter.domain.enums.FlowDimension;
+import com.sprinter.domain.enums.FlowMetric;
 import com.sprinter.domain.enums.WorkItemStatus;
+import com.sprinter.dto.DeliveryForecast;
+import com.sprinter.dto.FlowTimeStats;
+import com.sprinter.service.FlowMetricsService;
+import com.sprinter.service.ForecastService;
 import com.sprinter.service.ReportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,7 +27,18 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ReportApiController {
 
-    private final ReportService reportService;
+    /** Barvy stavů sdílené všemi grafy. */
+    private static final Map<WorkItemStatus, String> STATUS_COLORS = Map.of(
+            WorkItemStatus.TO_DO,       "#6c757d",
+            WorkItemStatus.IN_PROGRESS, "#6DA3C7",
+            WorkItemStatus.IN_REVIEW,   "#f59e0b",
+            WorkItemStatus.DONE,        "#22c55e",
+            WorkItemStatus.CANCELLED,   "#ef4444"
+    );
+
+    private final ReportService      reportService;
+    private final FlowMetricsService flowMetricsService;
+    private final ForecastService    forecastService;
 
     /**
      * Vrátí počty položek dle stavu pro pie/bar chart (projekt).
@@ -29,25 +50,17 @@ public class ReportApiController {
         var data    = new java.util.ArrayList<Long>();
         var colors  = new java.util.ArrayList<String>();
 
-        Map<WorkItemStatus, String> statusColors = Map.of(
-                WorkItemStatus.TO_DO,       "#6c757d",
-                WorkItemStatus.IN_PROGRESS, "#6DA3C7",
-                WorkItemStatus.IN_REVIEW,   "#f59e0b",
-                WorkItemStatus.DONE,        "#22c55e",
-                WorkItemStatus.CANCELLED,   "#ef4444"
-        );
-
         for (var entry : counts.entrySet()) {
             labels.add(entry.getKey().getDisplayName());
             data.add(entry.getValue());
-            colors.add(statusColors.getOrDefault(entry.getKey(), "#999"));
+            colors.add(STATUS_COLORS.getOrDefault(entry.getKey(), "#999"));
         }
 
         return ResponseEntity.ok(Map.of(
                 "labels",           labels,
                 "data",             data,
                 "backgroundColor",  colors,
-                "completion",       reportService.getProjectCompletionPercent(projectId)
+                "completion",       reportService.getCompletionPercent(counts)
         ));
     }
 
@@ -76,4 +89,79 @@ public class ReportApiController {
                                 LinkedHashMap::new))
         ));
     }
+
+    /**
+     * Vrátí data cumulative flow diagramu (denní počty položek dle stavu).
+     * Výchozí období je posledních 30 dní.
+     */
+    @GetMapping("/projects/{projectId}/cfd")
+    public ResponseEntity<Map<String, Object>> cumulativeFlow(
+            @PathVariable Long projectId,
+            @RequestParam(required = false) Long sprintId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end   = to   != null ? to   : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+
+        var flow = reportService.getCumulativeFlow(projectId, sprintId, start, end);
+
+        // Dokončené dole, nové nahoře – obvyklé vrstvení CFD
+        var datasets = new ArrayList<Map<String, Object>>();
+        List<WorkItemStatus> order = List.of(WorkItemStatus.DONE, WorkItemStatus.IN_REVIEW,
+                WorkItemStatus.IN_PROGRESS, WorkItemStatus.TO_DO, WorkItemStatus.CANCELLED);
+        for (WorkItemStatus status : order) {
+            datasets.add(Map.of(
+                    "status",          status.name(),
+                    "label",           status.getDisplayName(),
+                    "data",            flow.counts().get(status),
+                    "backgroundColor", STATUS_COLORS.getOrDefault(status, "#999")
+            ));
+        }
+
+        return ResponseEntity.ok(Map.of(
+                "labels",   flow.days().stream().map(LocalDate::toString).toList(),
+                "datasets", datasets
+        ));
+    }
+
+    /**
+     * Vrátí percentily lead/cycle time projektu v členění dle dimenze (doby v hodinách).
+     */
+    @GetMapping("/projects/{projectId}/flow-times")
+    public ResponseEntity<List<FlowTimeStats>> projectFlowTimes(
+            @PathVariable Long projectId,
+            @RequestParam(defaultValue = "LEAD_TIME") FlowMetric    metric,
+            @RequestParam(defaultValue = "PROJECT")   FlowDimension dimension) {
+        return ResponseEntity.ok(flowMetricsService.getProjectStats(projectId, metric, dimension));
+    }
+
+    /**
+     * Vrátí percentily lead/cycle time sloučené přes všechny dostupné projekty.
+     */
+    @GetMapping("/flow-times")
+    public ResponseEntity<List<FlowTimeStats>> mergedFlowTimes(
+            @RequestParam(defaultValue = "LEAD_TIME") FlowMetric    metric,
+            @RequestParam(defaultValue = "PROJECT")   FlowDimension dimension) {
+        return ResponseEntity.ok(flowMetricsService.getMergedStats(metric, dimension));
+    }
+
+    /**
+     * Přepočítá histogramy doby průtoku projektu z historie stavů (jen manažer).
+     */
+    @PostMapping("/projects/{projectId}/flow-times/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildFlowTimes(@PathVariable Long projectId) {
+        int items = flowMetricsService.rebuildProject(projectId);
+        return ResponseEntity.ok(Map.of("items", items));
+    }
+
+    /**
+     * Vrátí Monte Carlo předpověď dokončení zbývající práce projektu nebo eposu.
+     */
+    @GetMapping("/projects/{projectId}/forecast")
+    public ResponseEntity<DeliveryForecast> forecast(
+            @PathVariable Long projectId,
+            @RequestParam(required = false) Long    epicId,
+            @RequestParam(required = false) Integer trials) {
+        return ResponseEntity.ok(forecastService.forecast(projectId, epicId, trials));
+    }
 }
@@ -0,0 +1,122 @@
+package com.sprinter.api;
+
+import com.sprinter.domain.entity.UploadSession;
+import com.sprinter.service.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST API pro obnovitelné nahrávání příloh po částech.
+ *
+ * <p>Postup klienta:
+ * <ol>
+ *   <li>{@code POST /work-items/{id}/uploads} – zahájení, vrátí {@code uploadId}</li>
+ *   <li>{@code PATCH /uploads/{uploadId}} s hlavičkou {@code Upload-Offset} a binárním
+ *       tělem ({@code application/offset+octet-stream}) – libovolně mnoho částí za sebou</li>
+ *   <li>po výpadku {@code HEAD /uploads/{uploadId}} – aktuální offset v {@code Upload-Offset}</li>
+ *   <li>{@code POST /uploads/{uploadId}/complete} – vytvoří přílohu</li>
+ * </ol>
+ */
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+public class UploadApiController {
+
+    private static final String OFFSET_HEADER = "Upload-Offset";
+    private static final String LENGTH_HEADER = "Upload-Length";
+
+    private final ResumableUploadService uploadService;
+
+    /**
+     * Zahájí nahrávání přílohy k pracovní položce.
+     */
+    @PostMapping("/work-items/{id}/uploads")
+    public ResponseEntity<Map<String, Object>> initiate(@PathVariable Long id,
+                                                        @RequestBody InitiateUploadRequest req,
+                                                        HttpServletRequest request) {
+        var session = uploadService.initiate(id, req.getFilename(), req.getContentType(),
+                                             req.getSize(), req.getSha256());
+        return ResponseEntity.created(URI.create(request.getContextPath() + "/api/v1/uploads/" + session.getId()))
+                .header(OFFSET_HEADER, "0")
+                .body(toBody(session));
+    }
+
+    /**
+     * Vrátí offset, od kterého má klient pokračovat.
+     */
+    @RequestMapping(value = "/uploads/{uploadId}", method = {RequestMethod.HEAD, RequestMethod.GET})
+    public ResponseEntity<Map<String, Object>> status(@PathVariable String uploadId) {
+        var session = uploadService.getSession(uploadId);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(OFFSET_HEADER, Long.toString(session.getReceivedBytes()))
+                .header(LENGTH_HEADER, Long.toString(session.getTotalSize()))
+                .body(toBody(session));
+    }
+
+    /**
+     * Zapíše část souboru od offsetu v hlavičce {@code Upload-Offset}.
+     * Tělo se čte přímo ze vstupu požadavku.
+     */
+    @PatchMapping(value = "/uploads/{uploadId}",
+                  consumes = {"application/offset+octet-stream", "application/octet-stream"})
+    public ResponseEntity<Void> appendChunk(@PathVariable String uploadId,
+                                            @RequestHeader(OFFSET_HEADER) long offset,
+                                            HttpServletRequest request) throws IOException {
+        long received = uploadService.appendChunk(uploadId, offset, request.getInputStream());
+        return ResponseEntity.status(HttpStatus.NO_CONTENT)
+                .header(OFFSET_HEADER, Long.toString(received))
+                .build();
+    }
+
+    /**
+     * Dokončí nahrávání a vytvoří přílohu.
+     */
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<Map<String, Object>> complete(@PathVariable String uploadId) {
+        var attachment = uploadService.complete(uploadId);
+        return ResponseEntity.ok(Map.of(
+                "success",      true,
+                "attachmentId", attachment.getId(),
+                "sha256",       attachment.getBlobSha256(),
+                "size",         attachment.getFileSize()
+        ));
+    }
+
+    /**
+     * Zruší nahrávání a smaže zapsaná data.
+     */
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<Void> abort(@PathVariable String uploadId) {
+        uploadService.abort(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static Map<String, Object> toBody(UploadSession session) {
+        var body = new LinkedHashMap<String, Object>();
+        body.put("uploadId", session.getId());
+        body.put("offset",   session.getReceivedBytes());
+        body.put("size",     session.getTotalSize());
+        return body;
+    }
+
+    // ---- Request DTOs ----
+
+    @Data
+    public static class InitiateUploadRequest {
+        private String filename;
+        private String contentType;
+        private long   size;
+        private String sha256;
+    }
+}
@@ -1,20 +1,33 @@
 package com.sprinter.api;
 
 import com.sprinter.domain.entity.WorkItem;
+import com.sprinter.domain.enums.DependencyType;
 import com.sprinter.domain.enums.WorkItemStatus;
 import com.sprinter.domain.repository.DocumentRepository;
 import com.sprinter.domain.repository.ProjectRepository;
 import com.sprinter.domain.repository.WorkItemRepository;
+import com.sprinter.dto.GanttWindow;
+import com.sprinter.dto.SprintPlan;
 import com.sprinter.security.SecurityUtils;
+import com.sprinter.service.BacklogRankService;
 import com.sprinter.service.ProjectService;
+import com.sprinter.service.ScheduleService;
+import com.sprinter.service.SprintPlanningService;
 import com.sprinter.service.SprintService;
 import com.sprinter.service.WorkItemService;
+import com.sprinter.service.planning.CapacityUnit;
+import com.sprinter.service.schedule.ProjectSchedule;
+import com.sprinter.service.schedule.ScheduleGraph;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -33,12 +46,15 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class WorkItemApiController {
 
-    private final WorkItemService    workItemService;
-    private final SprintService      sprintService;
-    private final ProjectService     projectService;
-    private final ProjectRepository  projectRepository;
-    private final WorkItemRepository workItemRepository;
-    private final DocumentRepository documentRepository;
+    private final WorkItemService       workItemService;
+    private final BacklogRankService    backlogRankService;
+    private final SprintService         sprintService;
+    private final SprintPlanningService sprintPlanningService;
+    private final ScheduleService       scheduleService;
+    private final ProjectService        projectService;
+    private final ProjectRepository     projectRepository;
+    private final WorkItemRepository    workItemRepository;
+    private final DocumentRepository    documentRepository;
 
     /**
      * Změní stav pracovní položky (pro Kanban drag &amp; drop).
@@ -82,6 +98,62 @@ public class WorkItemApiController {
         }
     }
 
+    /**
+     * Změní termíny položky (přetažení v Ganttově diagramu). V projektu
+     * s automatickým plánováním vrátí i položky, které se posunuly.
+     */
+    @PatchMapping("/work-items/{id}/dates")
+    public ResponseEntity<Map<String, Object>> updateDates(
+            @PathVariable Long id,
+            @RequestBody DatesUpdateRequest req) {
+        var moved = workItemService.changeDates(id, req.getStartDate(), req.getDueDate());
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "id",      id,
+                "moved",   moved.stream().map(m -> Map.of(
+                        "id",        "wi-" + m.id(),
+                        "startDate", m.startDate() != null ? m.startDate().toString() : "",
+                        "dueDate",   m.dueDate()   != null ? m.dueDate().toString()   : "")).toList()
+        ));
+    }
+
+    /**
+     * Přidá položce závislost na předchůdci. Závislost uzavírající cyklus
+     * se odmítne (422 s cestou cyklu ve zprávě).
+     */
+    @PostMapping("/work-items/{id}/dependencies")
+    public ResponseEntity<Map<String, Object>> addDependency(
+            @PathVariable Long id,
+            @RequestBody DependencyRequest req) {
+        var dep = workItemService.addDependency(req.getPredecessorId(), id, req.getType(), req.getLagDays());
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "id",      dep.getId(),
+                "type",    dep.getDependencyType().name(),
+                "lagDays", dep.getLagDays()
+        ));
+    }
+
+    /**
+     * Odebere závislost.
+     */
+    @DeleteMapping("/dependencies/{dependencyId}")
+    public ResponseEntity<Map<String, Object>> removeDependency(@PathVariable Long dependencyId) {
+        workItemService.removeDependency(dependencyId);
+        return ResponseEntity.ok(Map.of("success", true));
+    }
+
+    /**
+     * Přesune položku v ručním pořadí backlogu mezi dvě sousední položky.
+     * Zapíše se jen pořadí přesunuté položky.
+     */
+    @PatchMapping("/work-items/{id}/rank")
+    public ResponseEntity<Map<String, Object>> updateRank(@PathVariable Long id,
+                                                          @RequestBody RankUpdateRequest req) {
+        String rank = backlogRankService.move(id, req.getPreviousId(), req.getNextId());
+        return ResponseEntity.ok(Map.of("success", true, "rank", rank));
+    }
+
     /**
      * Vrátí položky sprintu jako JSON (pro inicializaci Kanban tabule).
      */
@@ -93,6 +165,27 @@ public class WorkItemApiController {
         return ResponseEntity.ok(items);
     }
 
+    /**
+     * Navrhne rozsah sprintu z backlogu dle kapacity, priorit a závislostí.
+     * Nic neukládá – přijetí viz {@link #acceptSprintPlan}.
+     */
+    @PostMapping("/sprints/{sprintId}/plan")
+    public ResponseEntity<SprintPlan> proposeSprintPlan(@PathVariable Long sprintId,
+                                                        @RequestBody SprintPlanRequest req) {
+        return ResponseEntity.ok(sprintPlanningService.propose(sprintId, req.getUnit(),
+                req.getCapacity(), req.getAssigneeCapacity()));
+    }
+
+    /**
+     * Přijme (případně upravený) návrh – přiřadí položky do sprintu jedním zápisem.
+     */
+    @PostMapping("/sprints/{sprintId}/plan/accept")
+    public ResponseEntity<Map<String, Object>> acceptSprintPlan(@PathVariable Long sprintId,
+                                                                @RequestBody AcceptPlanRequest req) {
+        int assigned = sprintPlanningService.accept(sprintId, req.getItemIds());
+        return ResponseEntity.ok(Map.of("success", true, "assigned", assigned));
+    }
+
     /**
      * Globální vyhledávání – projekty a pracovní položky přístupné přihlášenému uživateli.
      */
@@ -160,16 +253,40 @@ public class WorkItemApiController {
     }
 
     /**
-     * Vrátí položky pro Ganttův diagram jako JSON.
+     * Vrátí položky pro Ganttův diagram jako JSON – včetně závislostí,
+     * nejdřívějších/nejpozdějších termínů, rezervy a příznaku kritické cesty.
      */
     @GetMapping("/projects/{projectId}/gantt-items")
     public ResponseEntity<List<GanttItem>> getGanttItems(@PathVariable Long projectId) {
+        var schedule = scheduleService.computeSchedule(projectId);
+        var graph    = schedule.result().graph();
+
+        Map<Long, List<GanttLink>> links = new HashMap<>();
+        graph.forEachEdge((from, to, type, lag) ->
+                links.computeIfAbsent(graph.idOf(to), k -> new ArrayList<>())
+                     .add(GanttLink.of(graph.idOf(from), type, lag)));
+
         var items = workItemService.findGanttItems(projectId).stream()
-                .map(GanttItem::fromEntity)
+                .map(wi -> GanttItem.fromEntity(wi, schedule, links.getOrDefault(wi.getId(), List.of())))
                 .toList();
         return ResponseEntity.ok(items);
     }
 
+    /**
+     * Vrátí okno Ganttova diagramu: položky zasahující do období {@code from..to}
+     * (stránkované po řádcích) a závislosti, které se jich týkají. ID jsou číselná.
+     */
+    @GetMapping("/projects/{projectId}/gantt-window")
+    public ResponseEntity<GanttWindow> getGanttWindow(
+            @PathVariable Long projectId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0")    int rowOffset,
+            @RequestParam(defaultValue = "200")  int rowLimit,
+            @RequestParam(defaultValue = "true") boolean schedule) {
+        return ResponseEntity.ok(scheduleService.ganttWindow(projectId, from, to, rowOffset, rowLimit, schedule));
+    }
+
     // ---- Vnitřní DTO třídy pro API ----
 
     @Data
@@ -182,6 +299,37 @@ public class WorkItemApiController {
         private Long sprintId;  // null = backlog
     }
 
+    @Data
+    public static class DatesUpdateRequest {
+        private java.time.LocalDate startDate;
+        private java.time.LocalDate dueDate;
+    }
+
+    @Data
+    public static class RankUpdateRequest {
+        private Long previousId;   // null = na začátek
+        private Long nextId;       // null = na konec
+    }
+
+    @Data
+    public static class DependencyRequest {
+        private Long           predecessorId;
+        private DependencyType type;      // null = FINISH_TO_START
+        private Integer        lagDays;   // null = 0
+    }
+
+    @Data
+    public static class SprintPlanRequest {
+        private CapacityUnit      unit = CapacityUnit.STORY_POINTS;
+        private double            capacity;
+        private Map<Long, Double> assigneeCapacity;   // ID uživatele → kapacita
+    }
+
+    @Data
+    public static class AcceptPlanRequest {
+        private List<Long> itemIds;
+    }
+
     @Data
     public static class WorkItemSummary {
         private Long   id;
@@ -259,6 +407,30 @@ public class WorkItemApiController {
         private String priority;
         private String url;
 
+        // Harmonogram dle závislostí (CPM)
+        private String  earlyStart;
+        private String  earlyFinish;
+        private String  lateStart;
+        private String  lateFinish;
+        private Integer slackDays;
+        private boolean critical;
+        private List<GanttLink> dependencies = List.of();
+
+        public static GanttItem fromEntity(WorkItem wi, ProjectSchedule schedule, List<GanttLink> dependencies) {
+            var g = fromEntity(wi);
+            g.dependencies = dependencies;
+            int node = schedule.indexOf(wi.getId());
+            if (node >= 0 && schedule.result().scheduled(node)) {
+                g.earlyStart  = schedule.earlyStart(node).toString();
+                g.earlyFinish = schedule.earlyFinish(node).toString();
+                g.lateStart   = schedule.lateStart(node).toString();
+                g.lateFinish  = schedule.lateFinish(node).toString();
+                g.slackDays   = schedule.result().slack(node);
+                g.critical    = schedule.result().critical(node);
+            }
+            return g;
+        }
+
         public static GanttItem fromEntity(WorkItem wi) {
             var g = new GanttItem();
             g.id        = "wi-" + wi.getId();
@@ -274,4 +446,19 @@ public class WorkItemApiController {
             return g;
         }
     }
+
+    @Data
+    public static class GanttLink {
+        private String id;     // předchůdce ("wi-<id>")
+        private String type;   // FS | SS | FF | SF
+        private int    lag;
+
+        public static GanttLink of(long predecessorId, byte type, int lag) {
+            var l = new GanttLink();
+            l.id   = "wi-" + predecessorId;
+            l.type = ScheduleGraph.abbreviation(type);
+            l.lag  = lag;
+            return l;
+        }
+    }
 }
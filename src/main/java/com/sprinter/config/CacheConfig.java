@@ -0,0 +1,29 @@
+package com.sprinter.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Konfigurace aplikační cache.
+ *
+ * <p>Samotný {@code CacheManager} (Caffeine) vytváří Spring Boot podle
+ * {@code spring.cache.*} v application.yml – tam je i limit velikosti a zapnuté
+ * statistiky. Protože jsou cache vyjmenované předem, Actuator je automaticky
+ * registruje do metrik ({@code cache.gets}, {@code cache.puts}, {@code cache.evictions}).</p>
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Počty položek dle stavu – klíč je ID projektu. */
+    public static final String PROJECT_STATUS_COUNTS = "projectStatusCounts";
+
+    /** Story pointy dle stavu – klíč je ID sprintu. */
+    public static final String SPRINT_POINTS = "sprintPointsByStatus";
+
+    /** Výsledky Monte Carlo předpovědí – klíč jsou všechny vstupy simulace. */
+    public static final String DELIVERY_FORECASTS = "deliveryForecasts";
+
+    /** Grafy závislostí (CSR) pro kontrolu cyklů – klíč je ID projektu předchůdce. */
+    public static final String DEPENDENCY_GRAPHS = "dependencyGraphs";
+}
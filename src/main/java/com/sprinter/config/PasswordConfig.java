@@ -1,15 +1,21 @@
 package com.sprinter.config;
 
+import com.sprinter.security.BoundedPasswordEncoder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 /**
  * Konfigurace pro BCrypt password encoder.
  * Oddělen od SecurityConfig, aby se zabránilo cirkulární závislosti
- * SecurityConfig → LoginSuccessHandler → UserService → PasswordEncoder.
+ * SecurityConfig → … → UserService → PasswordEncoder.
+ *
+ * <p>Hashe se počítají na omezeném počtu vláken ({@link BoundedPasswordEncoder}),
+ * aby nápor přihlášení nezahltil CPU a vlákna požadavků.</p>
  */
 @Configuration
 public class PasswordConfig {
@@ -17,8 +23,20 @@ public class PasswordConfig {
     @Value("${sprinter.security.bcrypt-strength:12}")
     private int bcryptStrength;
 
+    /** Počet vláken pro výpočet hashů; 0 = počet procesorů. */
+    @Value("${sprinter.security.hashing-threads:0}")
+    private int hashingThreads;
+
+    @Value("${sprinter.security.hashing-queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${sprinter.security.hashing-timeout:PT5S}")
+    private Duration hashingTimeout;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(bcryptStrength);
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength),
+                threads, hashingQueueCapacity, hashingTimeout);
     }
 }
@@ -1,11 +1,19 @@
 package com.sprinter.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sprinter.security.ApiTokenAuthenticationFilter;
+import com.sprinter.security.BoundedPasswordEncoder;
+import com.sprinter.security.CachingPersistentTokenRepository;
+import com.sprinter.security.CachingRememberMeServices;
 import com.sprinter.security.CustomUserDetailsService;
 import com.sprinter.security.LoginSuccessHandler;
+import com.sprinter.service.ApiTokenService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -13,18 +21,28 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.authentication.rememberme.JdbcTokenRepositoryImpl;
-import org.springframework.security.web.authentication.rememberme.PersistentTokenRepository;
 
 import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
 
 /**
  * Konfigurace Spring Security.
  *
  * <p>PasswordEncoder je definován v {@link PasswordConfig}, aby se zabránilo
  * cirkulární závislosti přes LoginSuccessHandler → UserService → PasswordEncoder.</p>
+ *
+ * <p>{@code /api/**} má vlastní řetězec: přijímá osobní přístupové tokeny
+ * (bez session) i session prohlížeče a nepřihlášenému klientovi vrací 401
+ * místo přesměrování na přihlašovací stránku.</p>
  */
 @Configuration
 @EnableWebSecurity
@@ -36,6 +54,8 @@ public class SecurityConfig {
     private final DataSource               dataSource;
     private final LoginSuccessHandler      loginSuccessHandler;
     private final PasswordEncoder          passwordEncoder;
+    private final ApiTokenService          apiTokenService;
+    private final ObjectMapper             objectMapper;
 
     @Value("${sprinter.security.remember-me-key:sprinter-remember-me}")
     private String rememberMeKey;
@@ -56,14 +76,57 @@ public class SecurityConfig {
         return new ProviderManager(authenticationProvider());
     }
 
+    @Value("${sprinter.security.remember-me-cache-ttl:PT1M}")
+    private Duration rememberMeCacheTtl;
+
+    @Value("${sprinter.security.remember-me-grace-period:PT5S}")
+    private Duration rememberMeGracePeriod;
+
+    @Value("${sprinter.security.remember-me-cleanup-batch:500}")
+    private int rememberMeCleanupBatch;
+
     @Bean
-    public PersistentTokenRepository persistentTokenRepository() {
+    public CachingPersistentTokenRepository persistentTokenRepository() {
         var repo = new JdbcTokenRepositoryImpl();
         repo.setDataSource(dataSource);
-        return repo;
+        return new CachingPersistentTokenRepository(repo, dataSource, rememberMeCacheTtl, rememberMeGracePeriod,
+                Duration.ofSeconds(rememberMeValiditySeconds), rememberMeCleanupBatch);
+    }
+
+    @Bean
+    public CachingRememberMeServices rememberMeServices() {
+        var services = new CachingRememberMeServices(rememberMeKey, userDetailsService, persistentTokenRepository());
+        services.setTokenValiditySeconds(rememberMeValiditySeconds);
+        services.setParameter("remember-me");
+        return services;
+    }
+
+    /** Přetížení při hashování hesla se hlásí jinak než špatné heslo. */
+    private AuthenticationFailureHandler loginFailureHandler() {
+        var handler = new ExceptionMappingAuthenticationFailureHandler();
+        handler.setExceptionMappings(Map.of(BoundedPasswordEncoder.Busy.class.getName(), "/login?busy=true"));
+        handler.setDefaultFailureUrl("/login?error=true");
+        return handler;
+    }
+
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/api/**")
+            .authorizeHttpRequests(auth -> auth.anyRequest().authenticated())
+            .addFilterBefore(new ApiTokenAuthenticationFilter(apiTokenService, objectMapper),
+                             BasicAuthenticationFilter.class)
+            .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.NEVER))
+            .requestCache(AbstractHttpConfigurer::disable)
+            .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+            .csrf(AbstractHttpConfigurer::disable);
+
+        return http.build();
     }
 
     @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(auth -> auth
@@ -78,7 +141,7 @@ public class SecurityConfig {
                 .loginPage("/login")
                 .loginProcessingUrl("/login")
                 .successHandler(loginSuccessHandler)
-                .failureUrl("/login?error=true")
+                .failureHandler(loginFailureHandler())
                 .usernameParameter("username")
                 .passwordParameter("password")
                 .permitAll()
@@ -91,11 +154,8 @@ public class SecurityConfig {
                 .permitAll()
             )
             .rememberMe(rm -> rm
-                .tokenRepository(persistentTokenRepository())
-                .tokenValiditySeconds(rememberMeValiditySeconds)
+                .rememberMeServices(rememberMeServices())
                 .key(rememberMeKey)
-                .rememberMeParameter("remember-me")
-                .userDetailsService(userDetailsService)
             )
             .csrf(AbstractHttpConfigurer::disable);
 
@@ -1,23 +1,47 @@
 package com.sprinter.config;
 
-import com.sprinter.security.SecurityUtils;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-import org.springframework.web.servlet.resource.PathResourceResolver;
 
 /**
  * Konfigurace Spring MVC.
  *
- * <p>Registruje obslužné routery pro statické soubory, včetně uživatelsky
- * nahraných souborů (přílohy, avatary) z externího adresáře.</p>
+ * <p>Registruje obslužné routery pro statické soubory aplikace. Nahrané přílohy
+ * se neservírují staticky – stahují se přes {@code AttachmentController},
+ * který ověřuje přístup k projektu.</p>
+ *
+ * <p>Open-in-view (EntityManager otevřený po celý požadavek) se registruje zde
+ * místo výchozí konfigurace Spring Boot, aby šel vynechat u nahrávání a stahování
+ * příloh: EntityManager v OSIV drží spojení z poolu od prvního dotazu do konce
+ * požadavku, tedy i po dobu přenosu souboru (včetně rozsahových požadavků)
+ * a čekání na vygenerování náhledu. {@code AttachmentController} po
+ * {@code findAccessible} čte jen základní atributy přílohy a ID pracovní
+ * položky, takže otevřený EntityManager nepotřebuje.</p>
  */
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
-    @Value("${sprinter.uploads.dir}")
-    private String uploadsDir;
+    /** Požadavky, které přenášejí obsah souboru a nesmí držet spojení s databází. */
+    private static final String[] NO_OPEN_IN_VIEW = {
+            "/items/*/attachments",
+            "/api/v1/uploads/**",
+            "/attachments/**"
+    };
+
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor())
+                .excludePathPatterns(NO_OPEN_IN_VIEW);
+    }
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
@@ -25,12 +49,5 @@ public class WebMvcConfig implements WebMvcConfigurer {
         registry.addResourceHandler("/static/**")
                 .addResourceLocations("classpath:/static/")
                 .setCachePeriod(86400);   // 1 den cache v prohlížeči
-
-        // Uživatelsky nahrané soubory (přílohy, avatary)
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadsDir + "/")
-                .setCachePeriod(3600)
-                .resourceChain(true)
-                .addResolver(new PathResourceResolver());
     }
 }
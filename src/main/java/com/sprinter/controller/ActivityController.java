@@ -6,6 +6,7 @@ import com.sprinter.domain.repository.WorkItemRepository;
 import com.sprinter.dto.ActivityEntry;
 import com.sprinter.security.SecurityUtils;
 import com.sprinter.service.ProjectService;
+import com.sprinter.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Controller;
@@ -29,11 +30,13 @@ public class ActivityController {
     private final WorkItemRepository workItemRepository;
     private final DocumentRepository documentRepository;
     private final CommentRepository  commentRepository;
+    private final UserService        userService;
 
     @GetMapping
     public String activityList(Model model) {
-        var user = SecurityUtils.getCurrentUser().orElse(null);
-        if (user == null) return "redirect:/login";
+        var userId = SecurityUtils.getCurrentUserId().orElse(null);
+        if (userId == null) return "redirect:/login";
+        var user = userService.findById(userId);
 
         var projectIds = projectService.findProjectsForCurrentUser()
                 .stream().map(p -> p.getId()).toList();
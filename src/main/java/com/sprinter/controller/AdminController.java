@@ -2,6 +2,7 @@ package com.sprinter.controller;
 
 import com.sprinter.domain.enums.SystemRole;
 import com.sprinter.dto.UserDto;
+import com.sprinter.security.PrincipalRefresher;
 import com.sprinter.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -24,7 +25,8 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 @RequiredArgsConstructor
 public class AdminController {
 
-    private final UserService userService;
+    private final UserService        userService;
+    private final PrincipalRefresher principalRefresher;
 
     // ---- Správa uživatelů ----
 
@@ -109,8 +111,10 @@ public class AdminController {
         }
 
         try {
-            userService.updateUser(id, dto.getUsername(), dto.getEmail(),
+            var updated = userService.updateUser(id, dto.getUsername(), dto.getEmail(),
                     dto.getFirstName(), dto.getLastName(), dto.getSystemRole());
+            // Úprava vlastního účtu – jméno a role se hned projeví v session
+            principalRefresher.refreshIfCurrent(updated);
 
             // Volitelná změna hesla
             if (dto.getPassword() != null && !dto.getPassword().isBlank()) {
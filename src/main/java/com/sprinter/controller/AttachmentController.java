@@ -0,0 +1,281 @@
+package com.sprinter.controller;
+
+import com.sprinter.domain.entity.Attachment;
+import com.sprinter.exception.ResourceNotFoundException;
+import com.sprinter.service.FileStorageService;
+import com.sprinter.service.PreviewService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Controller pro stahování příloh.
+ *
+ * <p>Před odesláním ověří přístup k projektu. Podporuje podmíněné požadavky
+ * ({@code If-None-Match} – ETag je otisk obsahu) a jeden rozsah bajtů
+ * ({@code Range}/{@code If-Range}), takže prohlížeč může v dlouhých logech
+ * a videích přeskakovat a přerušené stahování navázat. Obsah se posílá bez
+ * kopírování přes uživatelský prostor – sendfile Tomcatu, jinak
+ * {@link FileChannel#transferTo}; objekt ze vzdáleného úložiště, který není
+ * v místní mezipaměti, se posílá proudem. Náhledy obrázků a PDF viz {@link PreviewService}.</p>
+ *
+ * <p>Obsah uložený komprimovaný gzipem se klientům, kteří gzip přijímají, posílá
+ * tak, jak leží na disku ({@code Content-Encoding: gzip}); ostatním se průběžně
+ * rozbaluje. Obě podoby mají vlastní ETag a rozsahy se počítají v té, která se posílá.</p>
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class AttachmentController {
+
+    private static final String SENDFILE_SUPPORT  = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START    = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END      = "org.apache.tomcat.sendfile.end";
+
+    /** Pod touto velikostí je běžný zápis levnější než sendfile (stejná mez jako DefaultServlet Tomcatu). */
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    /** Obsah adresovaný otiskem se nemění – prohlížeč ho nemusí znovu ověřovat. */
+    private static final String IMMUTABLE_CACHE = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePrivate().immutable().getHeaderValue();
+    private static final String REVALIDATE_CACHE = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private final FileStorageService fileStorageService;
+    private final PreviewService     previewService;
+
+    /**
+     * Stáhne přílohu (GET i HEAD).
+     */
+    @GetMapping("/attachments/{id}")
+    public void download(@PathVariable Long id,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Attachment attachment = fileStorageService.findAccessible(id);
+        boolean decompress = attachment.isGzipped() && !acceptsGzip(request);
+        Path file;
+        long length;
+        String etag;
+        try {
+            file = decompress ? null : fileStorageService.localFile(attachment).orElse(null);
+            length = decompress     ? attachment.getFileSize()
+                   : file != null   ? Files.size(file)
+                   : fileStorageService.storedSize(attachment);
+            etag = attachment.getBlobSha256() != null
+                    ? "\"" + attachment.getBlobSha256() + (attachment.isGzipped() && !decompress ? "-gzip" : "") + "\""
+                    : "\"legacy-" + id + "-" + length + "-" + Files.getLastModifiedTime(file).toMillis() + "\"";
+        } catch (NoSuchFileException e) {
+            log.warn("Příloha ID={} nemá uložený obsah {}", id, e.getMessage());
+            throw new ResourceNotFoundException("Soubor přílohy nebyl nalezen.");
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                attachment.getBlobSha256() != null ? IMMUTABLE_CACHE : REVALIDATE_CACHE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (attachment.isGzipped()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        // Rozsah – podporujeme jeden; více rozsahů se obslouží celým souborem (RFC 9110 to dovoluje)
+        long start = 0;
+        long end   = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, etag)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();   // neplatná hlavička Range se ignoruje
+            }
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(length);
+                end   = ranges.get(0).getRangeEnd(length);
+                if (start >= length || start > end) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        String contentType = attachment.getContentType() != null
+                ? attachment.getContentType() : "application/octet-stream";
+        response.setContentType(contentType);
+        if (attachment.isGzipped() && !decompress) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, Attachment.ENCODING_GZIP);
+        }
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.builder(isInline(contentType) ? "inline" : "attachment")
+                        .filename(attachment.getOriginalFilename(), StandardCharsets.UTF_8)
+                        .build().toString());
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+        if (decompress) {
+            writeDecompressed(attachment, start, count, response.getOutputStream());
+            return;
+        }
+        if (file == null) {
+            // Vzdálené úložiště, objekt mimo mezipaměť – proud s rozsahem přímo z úložiště
+            try (InputStream in = fileStorageService.openStoredRange(attachment, start, end)) {
+                copy(in, count, response.getOutputStream());
+            }
+            return;
+        }
+
+        if (count >= SENDFILE_MIN_BYTES && fileStorageService.isStableLocalFile(attachment)
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START,    start);
+            request.setAttribute(SENDFILE_END,      end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position  = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;   // soubor se mezitím zkrátil
+                }
+                position  += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * Vrátí náhled přílohy (JPEG). Chybějící náhled se vygeneruje – souběžné
+     * požadavky na stejný obsah čekají na jedno generování.
+     */
+    @GetMapping("/attachments/{id}/thumbnail")
+    public void thumbnail(@PathVariable Long id,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        Attachment attachment = fileStorageService.findAccessible(id);
+        if (!previewService.supports(attachment)) {
+            throw new ResourceNotFoundException("Příloha nemá náhled.");
+        }
+        String etag = "\"" + attachment.getBlobSha256() + "-thumb\"";
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE);
+            return;
+        }
+        Path thumbnail = previewService.awaitThumbnail(attachment.getBlobSha256(), attachment.getContentType());
+        if (thumbnail == null) {
+            throw new ResourceNotFoundException("Náhled přílohy nelze vytvořit.");
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE);
+        response.setContentType("image/jpeg");
+        response.setContentLengthLong(Files.size(thumbnail));
+        if (!"HEAD".equals(request.getMethod())) {
+            Files.copy(thumbnail, response.getOutputStream());
+        }
+    }
+
+    // ---- Pomocné metody ----
+
+    /** Rozbalí komprimovaný obsah a pošle z něj {@code count} bajtů od {@code start}. */
+    private void writeDecompressed(Attachment attachment, long start, long count, OutputStream out) throws IOException {
+        try (InputStream in = fileStorageService.openContent(attachment)) {
+            in.skipNBytes(start);
+            copy(in, count, out);
+        }
+    }
+
+    /** Zkopíruje nejvýše {@code count} bajtů z proudu do odpovědi. */
+    private static void copy(InputStream in, long count, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long remaining = count;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                break;
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    /** Vrátí true, pokud klient v {@code Accept-Encoding} přijímá gzip (s nenulovou vahou). */
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+            for (String token : header.split(",")) {
+                String[] parts = token.split(";");
+                String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+                if (!coding.equals("gzip") && !coding.equals("x-gzip") && !coding.equals("*")) {
+                    continue;
+                }
+                double q = 1;
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            q = Double.parseDouble(param.substring(2));
+                        } catch (NumberFormatException e) {
+                            q = 0;
+                        }
+                    }
+                }
+                if (q > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Rozsah platí, jen pokud {@code If-Range} chybí nebo odpovídá aktuálnímu ETagu. */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        return ifRange == null || ifRange.trim().equals(etag);
+    }
+
+    /**
+     * Vloženě se zobrazují jen typy, které prohlížeč nespustí jako skript
+     * (ne HTML ani SVG); ostatní se stahují.
+     */
+    private static boolean isInline(String contentType) {
+        String type = contentType.toLowerCase();
+        return (type.startsWith("image/") && !type.startsWith("image/svg"))
+                || type.startsWith("video/")
+                || type.startsWith("audio/")
+                || type.startsWith("application/pdf")
+                || type.startsWith("text/plain");
+    }
+}
@@ -27,11 +27,13 @@ public class AuthController {
      *
      * @param error  parametr přítomný při chybě přihlášení
      * @param logout parametr přítomný po odhlášení
+     * @param busy   parametr přítomný při odmítnutí přihlášení kvůli přetížení
      */
     @GetMapping("/login")
     public String loginPage(
             @RequestParam(value = "error",  required = false) String error,
             @RequestParam(value = "logout", required = false) String logout,
+            @RequestParam(value = "busy",   required = false) String busy,
             Model model) {
 
         // Pokud je uživatel již přihlášen, přesměrujeme na dashboard
@@ -45,6 +47,10 @@ public class AuthController {
             model.addAttribute("errorMessage",
                     "Nesprávné přihlašovací jméno nebo heslo. Zkuste to znovu.");
         }
+        if (busy != null) {
+            model.addAttribute("errorMessage",
+                    "Server je právě přetížený přihlašováním. Zkuste to prosím za chvíli.");
+        }
         if (logout != null) {
             model.addAttribute("logoutMessage", "Byl jste úspěšně odhlášen.");
         }
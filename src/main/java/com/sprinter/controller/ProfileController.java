@@ -1,15 +1,20 @@
 package com.sprinter.controller;
 
+import com.sprinter.domain.enums.ApiTokenScope;
+import com.sprinter.exception.SprinterException;
+import com.sprinter.security.PrincipalRefresher;
 import com.sprinter.security.SecurityUtils;
-import com.sprinter.security.SprinterUserDetails;
+import com.sprinter.service.ApiTokenService;
+import com.sprinter.service.StorageUsageService;
 import com.sprinter.service.UserService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.EnumSet;
+
 /**
  * Controller pro správu uživatelského profilu a preferencí.
  */
@@ -18,14 +23,19 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 @RequiredArgsConstructor
 public class ProfileController {
 
-    private final UserService userService;
+    private final UserService         userService;
+    private final StorageUsageService storageUsageService;
+    private final PrincipalRefresher  principalRefresher;
+    private final ApiTokenService     apiTokenService;
 
     @GetMapping
     public String profilePage(Model model) {
         Long userId = SecurityUtils.getCurrentUserId()
                 .orElseThrow(() -> new com.sprinter.exception.AccessDeniedException());
-        model.addAttribute("user",      userService.findById(userId));
-        model.addAttribute("pageTitle", "Můj profil");
+        model.addAttribute("user",         userService.findById(userId));
+        model.addAttribute("storageUsage", storageUsageService.getUserUsage(userId));
+        model.addAttribute("apiTokens",    apiTokenService.findForCurrentUser());
+        model.addAttribute("pageTitle",    "Můj profil");
         return "profile/index";
     }
 
@@ -52,7 +62,7 @@ public class ProfileController {
     }
 
     /**
-     * Změní UI téma (light/dark) a okamžitě propaguje změnu do SecurityContext,
+     * Změní UI téma (light/dark) a okamžitě nahradí principal v SecurityContext,
      * aby se nové téma projevilo bez nutnosti odhlášení.
      */
     @PostMapping("/theme")
@@ -61,12 +71,36 @@ public class ProfileController {
                               RedirectAttributes flash) {
         SecurityUtils.getCurrentUserId().ifPresent(userId -> {
             userService.updateTheme(userId, theme);
-            // Aktualizace in-memory kopie uživatele v SecurityContext – bez re-login
-            var auth = SecurityContextHolder.getContext().getAuthentication();
-            if (auth != null && auth.getPrincipal() instanceof SprinterUserDetails details) {
-                details.getUser().setUiTheme(theme);
-            }
+            principalRefresher.refreshIfCurrent(userService.findById(userId));
         });
         return "redirect:" + returnTo;
     }
+
+    /**
+     * Vytvoří osobní přístupový token. Samotný token se zobrazí jen jednou
+     * (flash atribut), v DB zůstane pouze jeho otisk.
+     */
+    @PostMapping("/api-tokens")
+    public String createApiToken(@RequestParam String name,
+                                 @RequestParam(defaultValue = "false") boolean write,
+                                 @RequestParam(required = false) Integer validDays,
+                                 RedirectAttributes flash) {
+        try {
+            var scopes = write ? EnumSet.of(ApiTokenScope.WRITE) : EnumSet.noneOf(ApiTokenScope.class);
+            var created = apiTokenService.create(name, scopes, validDays);
+            flash.addFlashAttribute("newApiToken", created.plainText());
+            flash.addFlashAttribute("successMessage",
+                    "Token '" + created.token().getName() + "' byl vytvořen. Zkopírujte si jej – znovu se nezobrazí.");
+        } catch (SprinterException e) {
+            flash.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/profile";
+    }
+
+    @PostMapping("/api-tokens/{id}/revoke")
+    public String revokeApiToken(@PathVariable Long id, RedirectAttributes flash) {
+        apiTokenService.revoke(id);
+        flash.addFlashAttribute("successMessage", "Token byl zrušen.");
+        return "redirect:/profile";
+    }
 }
@@ -7,14 +7,19 @@ import com.sprinter.domain.enums.WorkItemStatus;
 import com.sprinter.dto.ProjectDto;
 import com.sprinter.security.SecurityUtils;
 import com.sprinter.service.*;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,12 +39,14 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ProjectController {
 
-    private final ProjectService  projectService;
-    private final SprintService   sprintService;
-    private final WorkItemService workItemService;
-    private final ReportService   reportService;
-    private final UserService     userService;
-    private final FavoriteService favoriteService;
+    private final ProjectService      projectService;
+    private final SprintService       sprintService;
+    private final WorkItemService     workItemService;
+    private final ReportService       reportService;
+    private final UserService         userService;
+    private final FavoriteService     favoriteService;
+    private final StorageUsageService storageUsageService;
+    private final ProjectExportService projectExportService;
 
     // ---- Seznam projektů ----
 
@@ -62,8 +69,9 @@ public class ProjectController {
 
         addProjectCommonAttributes(model, project);
         model.addAttribute("subprojects",       projectService.findSubprojects(id));
-        model.addAttribute("statusCounts",      reportService.getProjectStatusCounts(id));
-        model.addAttribute("completionPercent", reportService.getProjectCompletionPercent(id));
+        var statusCounts = reportService.getProjectStatusCounts(id);
+        model.addAttribute("statusCounts",      statusCounts);
+        model.addAttribute("completionPercent", reportService.getCompletionPercent(statusCounts));
         model.addAttribute("activeSprint",      sprintService.findActiveSprint(id).orElse(null));
         model.addAttribute("members",           projectService.findMembers(id));
         model.addAttribute("isFavorite",        favoriteService.isFavorite("project", id));
@@ -121,9 +129,9 @@ public class ProjectController {
         projectService.requireAccess(id);
 
         addProjectCommonAttributes(model, project);
-        model.addAttribute("ganttItems", workItemService.findGanttItems(id));
-        model.addAttribute("activeTab",  "gantt");
-        model.addAttribute("pageTitle",  project.getName() + " – Gantt");
+        model.addAttribute("hasGanttItems", workItemService.hasGanttItems(id));
+        model.addAttribute("activeTab",     "gantt");
+        model.addAttribute("pageTitle",     project.getName() + " – Gantt");
         return "project/gantt";
     }
 
@@ -136,8 +144,9 @@ public class ProjectController {
         projectService.requireAccess(id);
 
         addProjectCommonAttributes(model, project);
-        model.addAttribute("statusCounts",      reportService.getProjectStatusCounts(id));
-        model.addAttribute("completionPercent", reportService.getProjectCompletionPercent(id));
+        var statusCounts = reportService.getProjectStatusCounts(id);
+        model.addAttribute("statusCounts",      statusCounts);
+        model.addAttribute("completionPercent", reportService.getCompletionPercent(statusCounts));
         model.addAttribute("sprints",           sprintService.findByProject(id));
         model.addAttribute("activeTab",         "reports");
         model.addAttribute("pageTitle",         project.getName() + " – Reporty");
@@ -172,6 +181,7 @@ public class ProjectController {
         addProjectCommonAttributes(model, project);
         model.addAttribute("projectStatuses", ProjectStatus.values());
         model.addAttribute("projectDto",      toDto(project));
+        model.addAttribute("storageUsage",    storageUsageService.getProjectUsage(id));
         model.addAttribute("activeTab",       "settings");
         model.addAttribute("pageTitle",       project.getName() + " – Nastavení");
         return "project/settings";
@@ -211,7 +221,8 @@ public class ProjectController {
         }
 
         try {
-            var currentUser = SecurityUtils.getCurrentUser()
+            var currentUser = SecurityUtils.getCurrentUserId()
+                    .map(userService::getReference)
                     .orElseThrow(() -> new com.sprinter.exception.AccessDeniedException());
 
             Project project;
@@ -253,7 +264,7 @@ public class ProjectController {
 
         try {
             projectService.updateProject(id, dto.getName(), dto.getDescription(),
-                    dto.getStatus(), dto.getStartDate(), dto.getEndDate());
+                    dto.getStatus(), dto.getStartDate(), dto.getEndDate(), dto.isAutoSchedule());
             flash.addFlashAttribute("successMessage", "Projekt byl úspěšně aktualizován.");
         } catch (Exception e) {
             flash.addFlashAttribute("errorMessage", e.getMessage());
@@ -312,6 +323,25 @@ public class ProjectController {
         return "redirect:/projects/" + id + "/team";
     }
 
+    // ---- Export ----
+
+    /**
+     * Stáhne celý projekt jako ZIP (data v NDJSON a obsah příloh).
+     * Archiv se zapisuje přímo do odpovědi, bez mezikroku v paměti nebo na disku.
+     */
+    @GetMapping("/{id}/export")
+    public void exportProject(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        var project = projectService.findById(id);
+        projectService.requireManageAccess(id);
+
+        String filename = project.getProjectKey() + "-export-" + LocalDate.now() + ".zip";
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        projectExportService.export(id, response.getOutputStream());
+    }
+
     // ---- Archivace ----
 
     @PostMapping("/{id}/archive")
@@ -342,6 +372,7 @@ public class ProjectController {
         dto.setStatus(project.getStatus());
         dto.setStartDate(project.getStartDate());
         dto.setEndDate(project.getEndDate());
+        dto.setAutoSchedule(project.isAutoSchedule());
         return dto;
     }
 }
@@ -151,7 +151,9 @@ public class SprintController {
         try {
             var sprint = sprintService.completeSprint(id, moveToSprintId);
             flash.addFlashAttribute("successMessage",
-                    "Sprint '" + sprint.getName() + "' byl uzavřen.");
+                    "Sprint '" + sprint.getName() + "' byl uzavřen – dokončeno "
+                    + sprint.getCompletedPoints() + " z " + sprint.getCommittedPoints()
+                    + " bodů, přeneseno " + sprint.getCarriedOverCount() + " položek.");
             return "redirect:/projects/" + sprint.getProject().getId() + "/backlog";
         } catch (Exception e) {
             flash.addFlashAttribute("errorMessage", e.getMessage());
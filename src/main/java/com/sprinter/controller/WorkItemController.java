@@ -12,6 +12,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.List;
@@ -31,6 +32,7 @@ public class WorkItemController {
     private final LabelRepository    labelRepository;
     private final DocumentRepository documentRepository;
     private final DocumentService    documentService;
+    private final FileStorageService fileStorageService;
 
     // ---- Formulář nové položky ----
 
@@ -280,6 +282,25 @@ public class WorkItemController {
         return "redirect:/items/" + workItemId + "#comments";
     }
 
+    // ---- Přílohy ----
+
+    @PostMapping("/items/{id}/attachments")
+    public String uploadAttachment(@PathVariable Long id,
+                                   @RequestParam("file") MultipartFile file,
+                                   RedirectAttributes flash) {
+        try {
+            if (file.isEmpty()) {
+                flash.addFlashAttribute("errorMessage", "Vyberte soubor k nahrání.");
+            } else {
+                fileStorageService.uploadAttachment(id, file);
+                flash.addFlashAttribute("successMessage", "Příloha byla nahrána.");
+            }
+        } catch (Exception e) {
+            flash.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/items/" + id;
+    }
+
     // ---- Smazání položky ----
 
     @PostMapping("/items/{id}/delete")
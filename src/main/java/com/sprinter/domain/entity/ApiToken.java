@@ -0,0 +1,92 @@
+package com.sprinter.domain.entity;
+
+import com.sprinter.domain.enums.ApiTokenScope;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Osobní přístupový token pro REST API.
+ *
+ * <p>Ukládá se jen otisk SHA-256 tokenu – samotný token uživatel uvidí
+ * jednou při vytvoření. Token je náhodný (256 bitů), proto stačí rychlý
+ * hash bez soli.</p>
+ */
+@Entity
+@Table(name = "api_tokens",
+       indexes = @Index(name = "idx_api_tokens_user", columnList = "user_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+@ToString(exclude = {"user", "tokenHash"})
+public class ApiToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "api_tokens_seq")
+    @SequenceGenerator(name = "api_tokens_seq", sequenceName = "api_tokens_id_seq", allocationSize = 1)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    /** Popis tokenu zadaný uživatelem (např. název skriptu). */
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    /** Začátek tokenu pro rozpoznání v seznamu. */
+    @Column(name = "token_prefix", nullable = false, length = 12)
+    private String tokenPrefix;
+
+    /** Oprávnění oddělená čárkou – viz {@link #getScopeSet()}. */
+    @Column(nullable = false, length = 100)
+    private String scopes;
+
+    /** Konec platnosti; null = bez omezení. */
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "last_used_at")
+    private LocalDateTime lastUsedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /** Vrátí oprávnění tokenu. */
+    public Set<ApiTokenScope> getScopeSet() {
+        return Arrays.stream(scopes.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(ApiTokenScope::valueOf)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(ApiTokenScope.class)));
+    }
+
+    /** Nastaví oprávnění tokenu. */
+    public void setScopeSet(Collection<ApiTokenScope> scopeSet) {
+        this.scopes = scopeSet.stream().map(Enum::name).sorted().collect(Collectors.joining(","));
+    }
+
+    /** Vrátí true, pokud token k danému okamžiku vypršel. */
+    public boolean isExpired(LocalDateTime now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+
+    /** Vrátí true, pokud token už vypršel. */
+    public boolean isExpired() {
+        return isExpired(LocalDateTime.now());
+    }
+}
@@ -11,12 +11,15 @@ import java.time.LocalDateTime;
  * Příloha pracovní položky.
  *
  * <p>Soubory jsou ukládány na disk do adresáře definovaného v konfiguraci
- * ({@code sprinter.uploads.dir}). V databázi se ukládá pouze metadata.</p>
+ * ({@code sprinter.uploads.dir}). V databázi se ukládá pouze metadata.
+ * Obsah je sdílený {@link StoredBlob} adresovaný otiskem SHA-256; starší
+ * přílohy bez otisku leží v {@code attachments/<workItemId>/<storedFilename>}.</p>
  */
 @Entity
 @Table(name = "attachments",
        indexes = {
-           @Index(name = "idx_attachments_work_item", columnList = "work_item_id")
+           @Index(name = "idx_attachments_work_item", columnList = "work_item_id"),
+           @Index(name = "idx_attachments_blob",      columnList = "blob_sha256")
        })
 @Getter
 @Setter
@@ -27,6 +30,9 @@ import java.time.LocalDateTime;
 @ToString(exclude = {"workItem", "uploadedBy"})
 public class Attachment {
 
+    /** Hodnota {@link #contentEncoding} pro obsah uložený komprimovaný gzipem. */
+    public static final String ENCODING_GZIP = "gzip";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attachments_seq")
     @SequenceGenerator(name = "attachments_seq", sequenceName = "attachments_id_seq", allocationSize = 1)
@@ -50,6 +56,17 @@ public class Attachment {
     @Column(name = "file_size")
     private Long fileSize;
 
+    /** Otisk obsahu – klíč do tabulky {@code blobs} (null = starší příloha mimo úložiště blobů). */
+    @Column(name = "blob_sha256", length = 64)
+    private String blobSha256;
+
+    /**
+     * Kódování uloženého obsahu ({@link #ENCODING_GZIP}), null = uložen tak, jak byl nahrán.
+     * Otisk i velikost se vždy vztahují k původnímu obsahu.
+     */
+    @Column(name = "content_encoding", length = 20)
+    private String contentEncoding;
+
     /** Pracovní položka, ke které příloha patří. */
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "work_item_id", nullable = false)
@@ -64,6 +81,11 @@ public class Attachment {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    /** Vrátí true, pokud je obsah uložen komprimovaný gzipem. */
+    public boolean isGzipped() {
+        return ENCODING_GZIP.equals(contentEncoding);
+    }
+
     /** Vrátí přibližnou lidsky čitelnou velikost souboru. */
     public String getHumanReadableSize() {
         if (fileSize == null) return "?";
@@ -0,0 +1,63 @@
+package com.sprinter.domain.entity;
+
+import com.sprinter.domain.enums.FlowDimension;
+import com.sprinter.domain.enums.FlowMetric;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Průběžně udržovaný histogram doby průtoku (lead/cycle time) pro jednu
+ * kombinaci projekt × metrika × dimenze × hodnota dimenze.
+ *
+ * <p>Histogram je uložen v komprimovaném formátu HdrHistogram (hodnoty v minutách,
+ * přesnost 2 platné číslice). Histogramy jsou slučitelné, takže percentily za více
+ * projektů se spočítají sečtením histogramů bez čtení jednotlivých položek.</p>
+ */
+@Entity
+@Table(name = "flow_time_sketches",
+       uniqueConstraints = @UniqueConstraint(
+               name = "uq_flow_time_sketches",
+               columnNames = {"project_id", "metric", "dimension", "dimension_key"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+@ToString(exclude = {"project", "sketch"})
+public class FlowTimeSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flow_time_sketches_seq")
+    @SequenceGenerator(name = "flow_time_sketches_seq", sequenceName = "flow_time_sketches_id_seq", allocationSize = 1)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "project_id", nullable = false)
+    private Project project;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric", nullable = false, length = 20)
+    private FlowMetric metric;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", nullable = false, length = 20)
+    private FlowDimension dimension;
+
+    /** Hodnota dimenze – název typu/priority, ID řešitele; prázdný řetězec pro PROJECT. */
+    @Column(name = "dimension_key", nullable = false, length = 50)
+    private String dimensionKey;
+
+    /** Počet zaznamenaných položek (pro rychlý přehled bez dekódování). */
+    @Column(name = "item_count", nullable = false)
+    private long itemCount;
+
+    /** Komprimovaný HdrHistogram. */
+    @Column(name = "sketch", nullable = false, length = 65536)
+    private byte[] sketch;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -127,6 +127,14 @@ public class Project {
     @Column(name = "color", length = 20)
     private String color;
 
+    /**
+     * Automatické plánování – změna termínů položky posune závislé položky
+     * podle typu závislosti a lagu.
+     */
+    @Column(name = "auto_schedule", nullable = false)
+    @Builder.Default
+    private boolean autoSchedule = false;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
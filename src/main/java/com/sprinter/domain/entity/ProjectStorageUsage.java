@@ -0,0 +1,33 @@
+package com.sprinter.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Využití úložiště příloh projektu.
+ *
+ * <p>Řádky udržuje databázový trigger nad tabulkou {@code attachments}
+ * (včetně kaskádového mazání); aplikace je jen čte. Velikost je logická –
+ * soubor přiložený dvakrát se počítá dvakrát, i když je blob uložen jednou.</p>
+ */
+@Entity
+@Immutable
+@Table(name = "project_storage_usage")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "projectId")
+@ToString
+public class ProjectStorageUsage {
+
+    @Id
+    @Column(name = "project_id")
+    private Long projectId;
+
+    @Column(name = "attachment_count", nullable = false)
+    private long attachmentCount;
+
+    @Column(name = "total_bytes", nullable = false)
+    private long totalBytes;
+}
@@ -64,6 +64,18 @@ public class Sprint {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
 
+    /** Snímek při uzavření: součet story pointů všech položek sprintu. */
+    @Column(name = "committed_points")
+    private Integer committedPoints;
+
+    /** Snímek při uzavření: součet story pointů dokončených položek. */
+    @Column(name = "completed_points")
+    private Integer completedPoints;
+
+    /** Snímek při uzavření: počet položek přesunutých mimo sprint. */
+    @Column(name = "carried_over_count")
+    private Integer carriedOverCount;
+
     /** Projekt, ke kterému sprint patří. */
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "project_id", nullable = false)
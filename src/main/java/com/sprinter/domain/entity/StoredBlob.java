@@ -0,0 +1,45 @@
+package com.sprinter.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Obsah přílohy uložený na disku pod svým otiskem SHA-256.
+ *
+ * <p>Stejný soubor přiložený k více položkám je uložen jen jednou. Počet odkazů
+ * ({@link #refCount}) udržuje databázový trigger nad tabulkou {@code attachments},
+ * aplikace ho jen čte. Blob bez odkazů smaže úklid ({@code FileStorageService#collectGarbage})
+ * po uplynutí ochranné lhůty od {@link #releasedAt}.</p>
+ */
+@Entity
+@Table(name = "blobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "sha256")
+@ToString
+public class StoredBlob {
+
+    /** Otisk obsahu (64 hexadecimálních znaků, malá písmena). */
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    /** Počet příloh, které na blob odkazují (udržuje trigger). */
+    @Column(name = "ref_count", nullable = false, insertable = false, updatable = false)
+    private int refCount;
+
+    /** Kdy počet odkazů klesl na nulu; null = blob je používán. */
+    @Column(name = "released_at", insertable = false, updatable = false)
+    private LocalDateTime releasedAt;
+
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
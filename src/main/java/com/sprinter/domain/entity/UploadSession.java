@@ -0,0 +1,76 @@
+package com.sprinter.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rozpracované obnovitelné nahrávání přílohy.
+ *
+ * <p>Obsah se zapisuje po částech do {@code uploads/partial/<id>.part};
+ * {@link #receivedBytes} je délka souvislého začátku souboru, od které klient
+ * po výpadku spojení pokračuje. Po dokončení se soubor přesune do úložiště blobů
+ * a relace se smaže; opuštěné relace maže plánovaný úklid.</p>
+ */
+@Entity
+@Table(name = "upload_sessions",
+       indexes = {
+           @Index(name = "idx_upload_sessions_updated", columnList = "updated_at"),
+           @Index(name = "idx_upload_sessions_user",    columnList = "created_by_id")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+@ToString(exclude = {"workItem", "createdBy"})
+public class UploadSession {
+
+    /** Náhodný identifikátor (UUID) – slouží i jako název dočasného souboru. */
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "work_item_id", nullable = false)
+    private WorkItem workItem;
+
+    /** Uživatel, který nahrávání zahájil – jen on do relace smí zapisovat. */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "created_by_id", nullable = false)
+    private User createdBy;
+
+    @Column(name = "original_filename", nullable = false, length = 255)
+    private String originalFilename;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    /** Ohlášená velikost celého souboru v bajtech. */
+    @Column(name = "total_size", nullable = false)
+    private long totalSize;
+
+    /** Počet souvisle zapsaných bajtů od začátku souboru. */
+    @Column(name = "received_bytes", nullable = false)
+    private long receivedBytes;
+
+    /** Otisk SHA-256 ohlášený klientem (nepovinný). */
+    @Column(name = "expected_sha256", length = 64)
+    private String expectedSha256;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /** Čas posledního zápisu – podle něj úklid pozná opuštěnou relaci. */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /** Vrátí true, pokud je nahrán celý soubor. */
+    public boolean isComplete() {
+        return receivedBytes == totalSize;
+    }
+}
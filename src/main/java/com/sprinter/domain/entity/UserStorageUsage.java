@@ -0,0 +1,33 @@
+package com.sprinter.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Využití úložiště příloh uživatele (dle toho, kdo přílohy nahrál).
+ *
+ * <p>Řádky udržuje databázový trigger nad tabulkou {@code attachments}
+ * (včetně kaskádového mazání); aplikace je jen čte. Velikost je logická –
+ * soubor přiložený dvakrát se počítá dvakrát, i když je blob uložen jednou.</p>
+ */
+@Entity
+@Immutable
+@Table(name = "user_storage_usage")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "userId")
+@ToString
+public class UserStorageUsage {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "attachment_count", nullable = false)
+    private long attachmentCount;
+
+    @Column(name = "total_bytes", nullable = false)
+    private long totalBytes;
+}
@@ -37,7 +37,12 @@ import java.util.Set;
            @Index(name = "idx_work_items_status",    columnList = "status"),
            @Index(name = "idx_work_items_type",      columnList = "type"),
            @Index(name = "idx_work_items_parent",    columnList = "parent_id"),
-           @Index(name = "idx_work_items_item_num",  columnList = "project_id, item_number")
+           @Index(name = "idx_work_items_item_num",  columnList = "project_id, item_number"),
+           @Index(name = "idx_work_items_project_start", columnList = "project_id, start_date"),
+           @Index(name = "idx_work_items_project_due",   columnList = "project_id, due_date"),
+           @Index(name = "idx_work_items_project_rank",  columnList = "project_id, backlog_rank"),
+           @Index(name = "idx_work_items_sprint_order",  columnList = "sprint_id, status_ord, priority_ord DESC, item_number"),
+           @Index(name = "idx_work_items_assignee_due_prio",   columnList = "assignee_id, due_date, priority_ord DESC")
        })
 @Getter
 @Setter
@@ -85,12 +90,26 @@ public class WorkItem {
     @Builder.Default
     private WorkItemStatus status = WorkItemStatus.TO_DO;
 
+    /**
+     * Pořadí stavu ({@link WorkItemStatus#ordinal()}) – generovaný sloupec
+     * databáze pro řazení přes index; jen pro čtení, po uložení se neobnovuje.
+     */
+    @Column(name = "status_ord", insertable = false, updatable = false)
+    private Short statusOrd;
+
     /** Priorita. */
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     @Builder.Default
     private Priority priority = Priority.MEDIUM;
 
+    /**
+     * Číselná priorita ({@link Priority#getLevel()}) – generovaný sloupec
+     * databáze pro řazení přes index; jen pro čtení, po uložení se neobnovuje.
+     */
+    @Column(name = "priority_ord", insertable = false, updatable = false)
+    private Short priorityOrd;
+
     /** Odhad pracnosti v story pointech (Fibonacci řada doporučena). */
     @Column(name = "story_points")
     private Integer storyPoints;
@@ -120,6 +139,13 @@ public class WorkItem {
     @Builder.Default
     private Integer progressPct = 0;
 
+    /**
+     * Ruční pořadí v backlogu – lexikografický řetězec, viz
+     * {@link com.sprinter.service.planning.BacklogRank}.
+     */
+    @Column(name = "backlog_rank", length = 64)
+    private String backlogRank;
+
     /** Projekt, ke kterému položka patří. */
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "project_id", nullable = false)
@@ -0,0 +1,60 @@
+package com.sprinter.domain.entity;
+
+import com.sprinter.domain.enums.WorkItemStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Záznam o přechodu pracovní položky mezi stavy workflow.
+ *
+ * <p>Tabulka je append-only a záměrně úzká: slouží jako zdroj pro cumulative
+ * flow diagram a měření doby strávené v jednotlivých sloupcích. ID projektu je
+ * denormalizováno, aby agregace nad projektem nemusely číst {@code work_items}.
+ * Vznik položky se zapisuje jako přechod z {@code null} do výchozího stavu.</p>
+ */
+@Entity
+@Table(name = "work_item_status_transitions",
+       indexes = {
+           @Index(name = "idx_wi_transitions_project_time", columnList = "project_id, transitioned_at"),
+           @Index(name = "idx_wi_transitions_item_time",    columnList = "work_item_id, transitioned_at")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+@ToString(exclude = {"workItem", "project"})
+public class WorkItemStatusTransition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wi_transitions_seq")
+    @SequenceGenerator(name = "wi_transitions_seq", sequenceName = "wi_status_transitions_id_seq", allocationSize = 1)
+    private Long id;
+
+    /** Položka, která změnila stav. */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "work_item_id", nullable = false)
+    private WorkItem workItem;
+
+    /** Projekt položky (denormalizace pro agregace). */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "project_id", nullable = false)
+    private Project project;
+
+    /** Původní stav (null = položka právě vznikla). */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", length = 20)
+    private WorkItemStatus fromStatus;
+
+    /** Nový stav. */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false, length = 20)
+    private WorkItemStatus toStatus;
+
+    /** Okamžik přechodu. */
+    @Column(name = "transitioned_at", nullable = false)
+    private LocalDateTime transitionedAt;
+}
@@ -0,0 +1,26 @@
+package com.sprinter.domain.enums;
+
+/**
+ * Oprávnění osobního přístupového tokenu k REST API.
+ *
+ * <ul>
+ *   <li>{@link #READ}  – čtecí požadavky (GET, HEAD, OPTIONS).</li>
+ *   <li>{@link #WRITE} – ostatní požadavky (vytváření, úpravy, nahrávání).</li>
+ * </ul>
+ *
+ * Token jedná za svého uživatele – přístup k projektům se řídí jeho rolemi.
+ */
+public enum ApiTokenScope {
+    READ("Čtení"),
+    WRITE("Zápis");
+
+    private final String displayName;
+
+    ApiTokenScope(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,20 @@
+package com.sprinter.domain.enums;
+
+/**
+ * Dimenze, podle které se člení statistiky doby průtoku.
+ * {@link #PROJECT} je souhrn za celý projekt (jediný klíč).
+ */
+public enum FlowDimension {
+    PROJECT("Projekt"),
+    TYPE("Typ"),
+    ASSIGNEE("Řešitel"),
+    PRIORITY("Priorita");
+
+    private final String displayName;
+
+    FlowDimension(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() { return displayName; }
+}
@@ -0,0 +1,22 @@
+package com.sprinter.domain.enums;
+
+/**
+ * Měřená doba průtoku pracovní položky.
+ *
+ * <ul>
+ *   <li>{@link #LEAD_TIME}  – od vytvoření položky do jejího dokončení.</li>
+ *   <li>{@link #CYCLE_TIME} – od prvního přechodu do stavu „Probíhá" do dokončení.</li>
+ * </ul>
+ */
+public enum FlowMetric {
+    LEAD_TIME("Lead time"),
+    CYCLE_TIME("Cycle time");
+
+    private final String displayName;
+
+    FlowMetric(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() { return displayName; }
+}
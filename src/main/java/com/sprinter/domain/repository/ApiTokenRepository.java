@@ -0,0 +1,37 @@
+package com.sprinter.domain.repository;
+
+import com.sprinter.domain.entity.ApiToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository pro entitu {@link ApiToken}.
+ */
+@Repository
+public interface ApiTokenRepository extends JpaRepository<ApiToken, Long> {
+
+    /** Vrátí tokeny uživatele od nejnovějšího. */
+    List<ApiToken> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    /** Vrátí počet tokenů uživatele. */
+    long countByUserId(Long userId);
+
+    /** Najde token podle otisku i s uživatelem (pro sestavení principálu). */
+    @Query("SELECT t FROM ApiToken t JOIN FETCH t.user WHERE t.tokenHash = :hash")
+    Optional<ApiToken> findByTokenHashWithUser(@Param("hash") String hash);
+
+    /** Zapíše čas posledního použití; starší čas nepřepíše novější. */
+    @Modifying
+    @Query("""
+           UPDATE ApiToken t SET t.lastUsedAt = :at
+           WHERE t.id = :id AND (t.lastUsedAt IS NULL OR t.lastUsedAt < :at)
+           """)
+    int updateLastUsed(@Param("id") Long id, @Param("at") LocalDateTime at);
+}
@@ -0,0 +1,42 @@
+package com.sprinter.domain.repository;
+
+import com.sprinter.domain.entity.Attachment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Repository pro entitu {@link Attachment}.
+ */
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+
+    /** Vrátí dávku starších příloh (s ID větším než {@code afterId}), které ještě nejsou v úložišti blobů. */
+    @Query("""
+           SELECT a FROM Attachment a
+           WHERE a.blobSha256 IS NULL AND a.id > :afterId
+           ORDER BY a.id
+           """)
+    List<Attachment> findLegacy(@Param("afterId") Long afterId, Pageable pageable);
+
+    /** Vrátí názvy souborů starších příloh položky (v {@code attachments/<workItemId>/}). */
+    @Query("""
+           SELECT a.storedFilename FROM Attachment a
+           WHERE a.workItem.id = :workItemId AND a.blobSha256 IS NULL
+           """)
+    Set<String> findLegacyFilenames(@Param("workItemId") Long workItemId);
+
+    /**
+     * Zamkne tabulku příloh proti zápisu do konce transakce (čtení zůstává povolené).
+     * Vkládání a mazání příloh – a s nimi triggery evidence úložiště – počká.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE attachments IN SHARE MODE", nativeQuery = true)
+    void lockAgainstWrites();
+}
@@ -0,0 +1,78 @@
+package com.sprinter.domain.repository;
+
+import com.sprinter.domain.entity.FlowTimeSketch;
+import com.sprinter.domain.enums.FlowDimension;
+import com.sprinter.domain.enums.FlowMetric;
+import com.sprinter.domain.enums.WorkItemType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository pro entitu {@link FlowTimeSketch}.
+ */
+@Repository
+public interface FlowTimeSketchRepository extends JpaRepository<FlowTimeSketch, Long> {
+
+    List<FlowTimeSketch> findByProjectIdAndMetricAndDimension(Long projectId, FlowMetric metric,
+                                                              FlowDimension dimension);
+
+    List<FlowTimeSketch> findByProjectIdInAndMetricAndDimension(Collection<Long> projectIds, FlowMetric metric,
+                                                                FlowDimension dimension);
+
+    /**
+     * Načte histogram se zámkem pro zápis – souběžná dokončení položek v témže
+     * projektu se tak serializují jen na dotčených řádcích.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+           SELECT s FROM FlowTimeSketch s
+           WHERE s.project.id = :projectId AND s.metric = :metric
+             AND s.dimension = :dimension AND s.dimensionKey = :dimensionKey
+           """)
+    Optional<FlowTimeSketch> findForUpdate(@Param("projectId")    Long          projectId,
+                                           @Param("metric")       FlowMetric    metric,
+                                           @Param("dimension")    FlowDimension dimension,
+                                           @Param("dimensionKey") String        dimensionKey);
+
+    /**
+     * Založí prázdný histogram, pokud ještě neexistuje (bez chyby při souběhu).
+     */
+    @Modifying
+    @Query(value = """
+           INSERT INTO flow_time_sketches (project_id, metric, dimension, dimension_key, item_count, sketch, updated_at)
+           VALUES (:projectId, :metric, :dimension, :dimensionKey, 0, :sketch, CURRENT_TIMESTAMP)
+           ON CONFLICT DO NOTHING
+           """, nativeQuery = true)
+    void insertIfMissing(@Param("projectId")    Long   projectId,
+                         @Param("metric")       String metric,
+                         @Param("dimension")    String dimension,
+                         @Param("dimensionKey") String dimensionKey,
+                         @Param("sketch")       byte[] sketch);
+
+    @Modifying
+    @Query("DELETE FROM FlowTimeSketch s WHERE s.project.id = :projectId")
+    void deleteByProjectId(@Param("projectId") Long projectId);
+
+    /**
+     * ID projektů, které mají dokončené položky měřených typů, ale zatím žádný
+     * histogram (typicky po nasazení migrace V8). Projekty, jejichž přepočet by
+     * žádný histogram nezaložil (jen epiky, položky znovu otevřené), se nevrací –
+     * jinak by se přepočítávaly při každém startu.
+     */
+    @Query("""
+           SELECT DISTINCT t.project.id FROM WorkItemStatusTransition t JOIN t.workItem w
+           WHERE t.toStatus = com.sprinter.domain.enums.WorkItemStatus.DONE
+             AND w.type IN :types AND w.completedAt IS NOT NULL
+             AND NOT EXISTS (SELECT 1 FROM FlowTimeSketch s WHERE s.project = t.project)
+           """)
+    List<Long> findProjectIdsWithoutSketches(@Param("types") Collection<WorkItemType> types);
+}
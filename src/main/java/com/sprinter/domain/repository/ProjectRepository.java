@@ -2,7 +2,10 @@ package com.sprinter.domain.repository;
 
 import com.sprinter.domain.entity.Project;
 import com.sprinter.domain.enums.ProjectStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,6 +19,28 @@ import java.util.Optional;
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
 
+    /** Načte projekt se zámkem řádku – serializuje změny pořadí backlogu projektu. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Project p WHERE p.id = :id")
+    Optional<Project> findForUpdate(@Param("id") Long id);
+
+    /**
+     * Zamkne řádek projektu a vrátí verzi jeho grafu závislostí – serializuje
+     * změny závislostí projektu. Sloupec není mapovaný v entitě, aby ho uložení
+     * projektu nepřepsalo starší hodnotou.
+     */
+    @Query(value = "SELECT dependency_version FROM projects WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Long lockDependencyVersion(@Param("id") Long id);
+
+    /** Vrátí verzi grafu závislostí projektu. */
+    @Query(value = "SELECT dependency_version FROM projects WHERE id = :id", nativeQuery = true)
+    Long findDependencyVersion(@Param("id") Long id);
+
+    /** Zvýší verzi grafu závislostí projektu (zamkne řádek do konce transakce). */
+    @Modifying
+    @Query(value = "UPDATE projects SET dependency_version = dependency_version + 1 WHERE id = :id", nativeQuery = true)
+    void incrementDependencyVersion(@Param("id") Long id);
+
     /** Vyhledá projekt dle klíče (case-insensitive). */
     Optional<Project> findByProjectKeyIgnoreCase(String projectKey);
 
@@ -0,0 +1,35 @@
+package com.sprinter.domain.repository;
+
+import com.sprinter.domain.entity.ProjectStorageUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository pro entitu {@link ProjectStorageUsage}.
+ */
+@Repository
+public interface ProjectStorageUsageRepository extends JpaRepository<ProjectStorageUsage, Long> {
+
+    /**
+     * Přepočítá evidenci z tabulky {@code attachments} a opraví jen řádky, které se liší.
+     *
+     * @return počet opravených projektů
+     */
+    @Modifying
+    @Query(value = """
+           INSERT INTO project_storage_usage AS u (project_id, attachment_count, total_bytes)
+           SELECT p.id, COUNT(a.id), COALESCE(SUM(a.file_size), 0)
+           FROM projects p
+           LEFT JOIN attachments a ON a.project_id = p.id
+           WHERE a.id IS NOT NULL
+              OR EXISTS (SELECT 1 FROM project_storage_usage x WHERE x.project_id = p.id)
+           GROUP BY p.id
+           ON CONFLICT (project_id) DO UPDATE
+               SET attachment_count = EXCLUDED.attachment_count, total_bytes = EXCLUDED.total_bytes
+               WHERE (u.attachment_count, u.total_bytes)
+                     IS DISTINCT FROM (EXCLUDED.attachment_count, EXCLUDED.total_bytes)
+           """, nativeQuery = true)
+    int reconcile();
+}
@@ -3,10 +3,13 @@ package com.sprinter.domain.repository;
 import com.sprinter.domain.entity.Sprint;
 import com.sprinter.domain.enums.SprintStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,4 +47,36 @@ public interface SprintRepository extends JpaRepository<Sprint, Long> {
            GROUP BY s
            """)
     Object[] findSprintWithStats(@Param("sprintId") Long sprintId);
+
+    /**
+     * Atomicky přepne stav sprintu a zároveň uloží snímek jeho obsahu
+     * (přislíbené a dokončené body, počet položek, které sprint opustí).
+     * Změní se jen sprint, který je stále v jednom z očekávaných stavů.
+     *
+     * @param carryAll true = sprint opustí všechny položky (zrušení),
+     *                 false = jen nedokončené (uzavření)
+     * @return počet změněných řádků (0 = sprint mezitím změnil stav)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+           UPDATE sprints s
+           SET status             = :toStatus,
+               completed_at       = CASE WHEN :toStatus = 'COMPLETED' THEN :closedAt ELSE s.completed_at END,
+               updated_at         = :closedAt,
+               committed_points   = snap.committed,
+               completed_points   = snap.completed,
+               carried_over_count = snap.carried
+           FROM (SELECT COALESCE(SUM(wi.story_points), 0) AS committed,
+                        COALESCE(SUM(CASE WHEN wi.status = 'DONE' THEN wi.story_points END), 0) AS completed,
+                        COUNT(CASE WHEN :carryAll OR wi.status NOT IN ('DONE','CANCELLED') THEN 1 END) AS carried
+                 FROM work_items wi
+                 WHERE wi.sprint_id = :sprintId) snap
+           WHERE s.id = :sprintId
+             AND s.status IN (:fromStatuses)
+           """, nativeQuery = true)
+    int closeWithSnapshot(@Param("sprintId") Long sprintId,
+                          @Param("fromStatuses") Collection<String> fromStatuses,
+                          @Param("toStatus") String toStatus,
+                          @Param("carryAll") boolean carryAll,
+                          @Param("closedAt") LocalDateTime closedAt);
 }
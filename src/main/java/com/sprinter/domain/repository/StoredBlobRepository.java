@@ -0,0 +1,84 @@
+package com.sprinter.domain.repository;
+
+import com.sprinter.domain.entity.StoredBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Repository pro entitu {@link StoredBlob}.
+ */
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    /**
+     * Zaregistruje blob před zápisem obsahu do úložiště. U blobu bez odkazů
+     * posune začátek ochranné lhůty na teď, takže ho úklid po dobu lhůty nesmaže,
+     * i když se na něj ještě neodkazuje. Pokud blob právě maže úklid, počká na něj.
+     */
+    @Modifying
+    @Query(value = """
+           INSERT INTO blobs (sha256, size_bytes, ref_count, released_at, created_at)
+           VALUES (:sha256, :size, 0, NOW(), NOW())
+           ON CONFLICT (sha256) DO UPDATE SET released_at = NOW() WHERE blobs.ref_count = 0
+           """, nativeQuery = true)
+    void reserve(@Param("sha256") String sha256, @Param("size") long size);
+
+    /**
+     * Zaregistruje blob, pokud ještě neexistuje, a zamkne jeho řádek do konce
+     * transakce – úklid (SKIP LOCKED) ho pak nemůže smazat, dokud se na něj
+     * nevytvoří odkaz.
+     */
+    @Modifying
+    @Query(value = """
+           INSERT INTO blobs (sha256, size_bytes, ref_count, released_at, created_at)
+           VALUES (:sha256, :size, 0, NOW(), NOW())
+           ON CONFLICT (sha256) DO UPDATE SET size_bytes = EXCLUDED.size_bytes
+           """, nativeQuery = true)
+    void upsertAndLock(@Param("sha256") String sha256, @Param("size") long size);
+
+    /**
+     * Vrátí a zamkne bloby bez odkazů, jejichž ochranná lhůta uplynula.
+     * Řádky zamčené probíhajícím nahráváním se přeskočí.
+     */
+    @Query(value = """
+           SELECT sha256 FROM blobs
+           WHERE ref_count = 0 AND released_at < :releasedBefore
+           ORDER BY released_at
+           LIMIT :limit
+           FOR UPDATE SKIP LOCKED
+           """, nativeQuery = true)
+    List<String> lockUnreferenced(@Param("releasedBefore") LocalDateTime releasedBefore,
+                                  @Param("limit") int limit);
+
+    /**
+     * Zaeviduje soubor blobu, ke kterému chybí řádek, jako blob bez odkazů –
+     * smaže ho pak běžný úklid po ochranné lhůtě. Pokud řádek mezitím vkládá
+     * probíhající nahrávání, počká na něj a nic nezmění.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+           INSERT INTO blobs (sha256, size_bytes, ref_count, released_at, created_at)
+           VALUES (:sha256, :size, 0, NOW(), NOW())
+           ON CONFLICT (sha256) DO NOTHING
+           """, nativeQuery = true)
+    int adoptOrphan(@Param("sha256") String sha256, @Param("size") long size);
+
+    /** Vrátí ty z otisků, které mají řádek v tabulce {@code blobs}. */
+    @Query("SELECT b.sha256 FROM StoredBlob b WHERE b.sha256 IN :sha256s")
+    Set<String> findExisting(@Param("sha256s") Collection<String> sha256s);
+
+    /** Smaže blob, pokud na něj stále nic neodkazuje. */
+    @Modifying
+    @Query(value = "DELETE FROM blobs WHERE sha256 = :sha256 AND ref_count = 0", nativeQuery = true)
+    int deleteUnreferenced(@Param("sha256") String sha256);
+}
@@ -0,0 +1,51 @@
+package com.sprinter.domain.repository;
+
+import com.sprinter.domain.entity.UploadSession;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Repository pro entitu {@link UploadSession}.
+ */
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    /** Vrátí součet bajtů, které rozpracovaná nahrávání ještě zapíšou na disk. */
+    @Query("SELECT COALESCE(SUM(s.totalSize - s.receivedBytes), 0) FROM UploadSession s")
+    long sumOutstandingBytes();
+
+    /** Vrátí počet rozpracovaných nahrávání uživatele. */
+    long countByCreatedById(Long userId);
+
+    /**
+     * Zapíše nový offset relace. Offset se nikdy nesnižuje – pozdě doběhlý
+     * zápis nepřepíše novější stav.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+           UPDATE UploadSession s
+           SET s.receivedBytes = :received, s.updatedAt = :now
+           WHERE s.id = :id AND s.receivedBytes <= :received
+           """)
+    int updateReceived(@Param("id") String id, @Param("received") long received,
+                       @Param("now") LocalDateTime now);
+
+    /** Vrátí ID relací bez zápisu od {@code updatedBefore}. */
+    @Query("SELECT s.id FROM UploadSession s WHERE s.updatedAt < :updatedBefore ORDER BY s.updatedAt")
+    List<String> findStaleIds(@Param("updatedBefore") LocalDateTime updatedBefore, Pageable pageable);
+
+    /** Vrátí ta z ID, ke kterým existuje relace. */
+    @Query("SELECT s.id FROM UploadSession s WHERE s.id IN :ids")
+    Set<String> findExistingIds(@Param("ids") Collection<String> ids);
+}
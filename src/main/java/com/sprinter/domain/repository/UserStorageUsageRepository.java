@@ -0,0 +1,41 @@
+package com.sprinter.domain.repository;
+
+import com.sprinter.domain.entity.UserStorageUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository pro entitu {@link UserStorageUsage}.
+ */
+@Repository
+public interface UserStorageUsageRepository extends JpaRepository<UserStorageUsage, Long> {
+
+    /**
+     * Přepočítá evidenci z tabulky {@code attachments} a opraví jen řádky, které se liší.
+     *
+     * @return počet opravených uživatelů
+     */
+    @Modifying
+    @Query(value = """
+           INSERT INTO user_storage_usage AS u (user_id, attachment_count, total_bytes)
+           SELECT a.uploaded_by_id, COUNT(*), COALESCE(SUM(a.file_size), 0)
+           FROM attachments a
+           GROUP BY a.uploaded_by_id
+           ON CONFLICT (user_id) DO UPDATE
+               SET attachment_count = EXCLUDED.attachment_count, total_bytes = EXCLUDED.total_bytes
+               WHERE (u.attachment_count, u.total_bytes)
+                     IS DISTINCT FROM (EXCLUDED.attachment_count, EXCLUDED.total_bytes)
+           """, nativeQuery = true)
+    int reconcileUploaders();
+
+    /** Vynuluje evidenci uživatelů, kteří už žádné přílohy nemají. */
+    @Modifying
+    @Query(value = """
+           UPDATE user_storage_usage u SET attachment_count = 0, total_bytes = 0
+           WHERE (u.attachment_count <> 0 OR u.total_bytes <> 0)
+             AND NOT EXISTS (SELECT 1 FROM attachments a WHERE a.uploaded_by_id = u.user_id)
+           """, nativeQuery = true)
+    int resetWithoutAttachments();
+}
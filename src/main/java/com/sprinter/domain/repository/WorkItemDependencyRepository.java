@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -35,4 +36,25 @@ public interface WorkItemDependencyRepository extends JpaRepository<WorkItemDepe
            WHERE p.project.id = :projectId
            """)
     List<WorkItemDependency> findByProjectId(@Param("projectId") Long projectId);
+
+    /**
+     * Vrátí hrany grafu závislostí projektu – [ID předchůdce, ID nástupníka, typ, lag].
+     */
+    @Query("""
+           SELECT d.predecessor.id, d.successor.id, d.dependencyType, d.lagDays
+           FROM WorkItemDependency d
+           WHERE d.predecessor.project.id = :projectId
+           """)
+    List<Object[]> findScheduleEdges(@Param("projectId") Long projectId);
+
+    /**
+     * Vrátí hrany, jejichž předchůdce nebo nástupník je mezi danými položkami –
+     * [ID předchůdce, ID nástupníka, typ, lag].
+     */
+    @Query("""
+           SELECT d.predecessor.id, d.successor.id, d.dependencyType, d.lagDays
+           FROM WorkItemDependency d
+           WHERE d.predecessor.id IN :ids OR d.successor.id IN :ids
+           """)
+    List<Object[]> findEdgesTouching(@Param("ids") Collection<Long> ids);
 }
@@ -1,17 +1,20 @@
 package com.sprinter.domain.repository;
 
+import com.sprinter.domain.entity.Sprint;
 import com.sprinter.domain.entity.WorkItem;
 import com.sprinter.domain.enums.WorkItemStatus;
 import com.sprinter.domain.enums.WorkItemType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,10 +47,77 @@ public interface WorkItemRepository extends JpaRepository<WorkItem, Long> {
              AND wi.sprint IS NULL
              AND wi.type IN ('TASK','ISSUE','STORY','EPIC')
              AND wi.parent IS NULL
-           ORDER BY wi.priority DESC, wi.itemNumber ASC
+           ORDER BY wi.backlogRank ASC NULLS LAST, wi.itemNumber ASC
            """)
     List<WorkItem> findBacklogItems(@Param("projectId") Long projectId);
 
+    /** Vrátí nejvyšší pořadí v backlogu projektu (index project_id, backlog_rank). */
+    @Query("SELECT MAX(wi.backlogRank) FROM WorkItem wi WHERE wi.project.id = :projectId")
+    Optional<String> findMaxBacklogRank(@Param("projectId") Long projectId);
+
+    /** Vrátí [ID, ID projektu, pořadí] daných položek. */
+    @Query("SELECT wi.id, wi.project.id, wi.backlogRank FROM WorkItem wi WHERE wi.id IN :ids")
+    List<Object[]> findBacklogRanks(@Param("ids") Collection<Long> ids);
+
+    /** Nastaví pořadí jedné položky. */
+    @Modifying
+    @Query("UPDATE WorkItem wi SET wi.backlogRank = :rank WHERE wi.id = :id")
+    int updateBacklogRank(@Param("id") Long id, @Param("rank") String rank);
+
+    /** Vrátí ID všech položek projektu v aktuálním pořadí (pro přečíslování). */
+    @Query("""
+           SELECT wi.id FROM WorkItem wi
+           WHERE wi.project.id = :projectId
+           ORDER BY wi.backlogRank ASC NULLS LAST, wi.itemNumber ASC
+           """)
+    List<Long> findIdsInRankOrder(@Param("projectId") Long projectId);
+
+    /** Vrátí projekty, které mají položku bez pořadí nebo s příliš dlouhým pořadím. */
+    @Query("""
+           SELECT DISTINCT wi.project.id FROM WorkItem wi
+           WHERE wi.backlogRank IS NULL OR LENGTH(wi.backlogRank) > :maxLength
+           """)
+    List<Long> findProjectIdsToRebalance(@Param("maxLength") int maxLength);
+
+    /**
+     * Skalární řádky nedokončených položek backlogu pro plánování sprintu –
+     * [ID, číslo, název, priorita, story pointy, odhad hodin, ID řešitele],
+     * v pořadí backlogu. Filtr odpovídá {@link #findBacklogItems}.
+     */
+    @Query("""
+           SELECT wi.id, wi.itemNumber, wi.title, wi.priority, wi.storyPoints, wi.estimatedHours, a.id
+           FROM WorkItem wi
+           LEFT JOIN wi.assignee a
+           WHERE wi.project.id = :projectId
+             AND wi.sprint IS NULL
+             AND wi.type IN ('TASK','ISSUE','STORY','EPIC')
+             AND wi.parent IS NULL
+             AND wi.status NOT IN ('DONE','CANCELLED')
+           ORDER BY wi.backlogRank ASC NULLS LAST, wi.itemNumber ASC
+           """)
+    List<Object[]> findBacklogPlanningRows(@Param("projectId") Long projectId);
+
+    /**
+     * Přiřadí vybrané položky backlogu do sprintu jedním příkazem. Položky, které
+     * mezitím backlog opustily nebo nepatří do projektu, se přeskočí.
+     *
+     * @return počet přiřazených položek
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           UPDATE WorkItem wi
+           SET wi.sprint = :sprint, wi.updatedAt = :now
+           WHERE wi.id IN :ids
+             AND wi.project.id = :projectId
+             AND wi.sprint IS NULL
+             AND wi.type IN ('TASK','ISSUE','STORY','EPIC')
+             AND wi.parent IS NULL
+           """)
+    int assignBacklogItems(@Param("projectId") Long projectId,
+                           @Param("ids") Collection<Long> ids,
+                           @Param("sprint") Sprint sprint,
+                           @Param("now") LocalDateTime now);
+
     /**
      * Vrátí položky přiřazené do daného sprintu.
      */
@@ -56,10 +126,37 @@ public interface WorkItemRepository extends JpaRepository<WorkItem, Long> {
            LEFT JOIN FETCH wi.assignee
            LEFT JOIN FETCH wi.labels
            WHERE wi.sprint.id = :sprintId AND wi.parent IS NULL
-           ORDER BY wi.status ASC, wi.priority DESC, wi.itemNumber ASC
+           ORDER BY wi.statusOrd ASC, wi.priorityOrd DESC, wi.itemNumber ASC
            """)
     List<WorkItem> findBySprintId(@Param("sprintId") Long sprintId);
 
+    /**
+     * Přesune nedokončené položky sprintu jedním příkazem do jiného sprintu
+     * (null = do backlogu).
+     *
+     * @return počet přesunutých položek
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           UPDATE WorkItem wi
+           SET wi.sprint = :target, wi.updatedAt = :now
+           WHERE wi.sprint.id = :sprintId
+             AND wi.status NOT IN :terminal
+           """)
+    int moveOpenItems(@Param("sprintId") Long sprintId,
+                      @Param("target") Sprint target,
+                      @Param("terminal") Collection<WorkItemStatus> terminal,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Vrátí všechny položky sprintu jedním příkazem do backlogu.
+     *
+     * @return počet přesunutých položek
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WorkItem wi SET wi.sprint = NULL, wi.updatedAt = :now WHERE wi.sprint.id = :sprintId")
+    int moveAllToBacklog(@Param("sprintId") Long sprintId, @Param("now") LocalDateTime now);
+
     /**
      * Vrátí položky projektu pro Ganttův diagram – ty, které mají datum zahájení nebo termín.
      */
@@ -72,6 +169,60 @@ public interface WorkItemRepository extends JpaRepository<WorkItem, Long> {
            """)
     List<WorkItem> findGanttItems(@Param("projectId") Long projectId);
 
+    /** Vrátí true, pokud má projekt alespoň jednu položku pro Ganttův diagram. */
+    @Query("""
+           SELECT COUNT(wi) > 0 FROM WorkItem wi
+           WHERE wi.project.id = :projectId
+             AND wi.type IN ('TASK','ISSUE','STORY','EPIC')
+             AND (wi.startDate IS NOT NULL OR wi.dueDate IS NOT NULL)
+           """)
+    boolean existsGanttItems(@Param("projectId") Long projectId);
+
+    /**
+     * Okno Ganttova diagramu – skalární řádky položek, jejichž pruh zasahuje do
+     * období {@code [from, to]}, seřazené dle začátku; stránkování po řádcích.
+     * Položka jen se začátkem/termínem má pruh dlouhý 7 dní (jako v gantt.js),
+     * proto {@code fromMinus = from - 7} a {@code toPlus = to + 7}.
+     * Podmínky jsou rozepsané na holé sloupce, aby šly použít indexy
+     * (project_id, start_date) a (project_id, due_date).
+     *
+     * @return řádky [id, item_number, title, start_date, due_date, progress_pct, status, type, parent_id]
+     */
+    @Query(value = """
+           SELECT wi.id, wi.item_number, wi.title, wi.start_date, wi.due_date,
+                  wi.progress_pct, wi.status, wi.type, wi.parent_id
+           FROM work_items wi
+           WHERE wi.project_id = :projectId
+             AND wi.type IN ('TASK','ISSUE','STORY','EPIC')
+             AND (   (wi.start_date <= :to
+                      AND (wi.due_date >= :from OR (wi.due_date IS NULL AND wi.start_date >= :fromMinus)))
+                  OR (wi.start_date IS NULL AND wi.due_date >= :from AND wi.due_date <= :toPlus))
+           ORDER BY COALESCE(wi.start_date, wi.due_date), wi.id
+           LIMIT :limit OFFSET :offset
+           """, nativeQuery = true)
+    List<Object[]> findGanttWindow(@Param("projectId") Long      projectId,
+                                   @Param("from")      LocalDate from,
+                                   @Param("to")        LocalDate to,
+                                   @Param("fromMinus") LocalDate fromMinus,
+                                   @Param("toPlus")    LocalDate toPlus,
+                                   @Param("offset")    int       offset,
+                                   @Param("limit")     int       limit);
+
+    /** Počet řádků okna Ganttova diagramu (stejné podmínky jako {@link #findGanttWindow}). */
+    @Query(value = """
+           SELECT COUNT(*) FROM work_items wi
+           WHERE wi.project_id = :projectId
+             AND wi.type IN ('TASK','ISSUE','STORY','EPIC')
+             AND (   (wi.start_date <= :to
+                      AND (wi.due_date >= :from OR (wi.due_date IS NULL AND wi.start_date >= :fromMinus)))
+                  OR (wi.start_date IS NULL AND wi.due_date >= :from AND wi.due_date <= :toPlus))
+           """, nativeQuery = true)
+    long countGanttWindow(@Param("projectId") Long      projectId,
+                          @Param("from")      LocalDate from,
+                          @Param("to")        LocalDate to,
+                          @Param("fromMinus") LocalDate fromMinus,
+                          @Param("toPlus")    LocalDate toPlus);
+
     /**
      * Stránkovaný seznam položek s filtrováním.
      */
@@ -134,7 +285,7 @@ public interface WorkItemRepository extends JpaRepository<WorkItem, Long> {
            SELECT wi FROM WorkItem wi
            WHERE wi.assignee.id = :userId
              AND wi.status NOT IN ('DONE','CANCELLED')
-           ORDER BY wi.dueDate ASC NULLS LAST, wi.priority DESC
+           ORDER BY wi.dueDate ASC NULLS LAST, wi.priorityOrd DESC
            """)
     List<WorkItem> findAssignedToUser(@Param("userId") Long userId);
 
@@ -170,9 +321,11 @@ public interface WorkItemRepository extends JpaRepository<WorkItem, Long> {
 
     /**
      * Vrátí nedávno upravené nebo vytvořené položky daným uživatelem (sidebar – nedávné).
+     * Projekt se načítá hned – klíč položky se sestavuje i u požadavků bez OSIV.
      */
     @Query("""
            SELECT wi FROM WorkItem wi
+           JOIN FETCH wi.project
            WHERE (wi.assignee.id = :userId OR wi.reporter.id = :userId)
              AND wi.type IN ('TASK','ISSUE','STORY','EPIC')
            ORDER BY COALESCE(wi.updatedAt, wi.createdAt) DESC
@@ -194,4 +347,67 @@ public interface WorkItemRepository extends JpaRepository<WorkItem, Long> {
             @Param("projectIds") List<Long> projectIds,
             @Param("term")       String     term,
             Pageable             pageable);
+
+    /**
+     * Vrátí časy dokončení položek projektu od daného okamžiku (vzorky propustnosti pro předpověď).
+     */
+    @Query("""
+           SELECT wi.completedAt FROM WorkItem wi
+           WHERE wi.project.id = :projectId
+             AND wi.type IN ('TASK','ISSUE','STORY')
+             AND wi.status = 'DONE'
+             AND wi.completedAt >= :since
+           """)
+    List<LocalDateTime> findCompletionTimesSince(
+            @Param("projectId") Long          projectId,
+            @Param("since")     LocalDateTime since);
+
+    /**
+     * Vrátí počet nedokončených položek projektu.
+     */
+    @Query("""
+           SELECT COUNT(wi) FROM WorkItem wi
+           WHERE wi.project.id = :projectId
+             AND wi.type IN ('TASK','ISSUE','STORY')
+             AND wi.status NOT IN ('DONE','CANCELLED')
+           """)
+    long countOpenInProject(@Param("projectId") Long projectId);
+
+    /**
+     * Vrátí počet nedokončených položek ve stromu pod danou položkou (typicky epos),
+     * v libovolné hloubce.
+     */
+    @Query(value = """
+           WITH RECURSIVE tree(id) AS (
+               SELECT id FROM work_items WHERE parent_id = :rootId
+               UNION ALL
+               SELECT wi.id FROM work_items wi JOIN tree ON wi.parent_id = tree.id
+           )
+           SELECT COUNT(*) FROM work_items wi
+           JOIN tree ON tree.id = wi.id
+           WHERE wi.type IN ('TASK','ISSUE','STORY')
+             AND wi.status NOT IN ('DONE','CANCELLED')
+           """, nativeQuery = true)
+    long countOpenDescendants(@Param("rootId") Long rootId);
+
+    /**
+     * Vrátí uzly grafu harmonogramu – [id, datum zahájení, termín] seřazené dle ID.
+     * Skalární projekce bez načítání entit (projekt může mít desítky tisíc položek).
+     */
+    @Query("""
+           SELECT wi.id, wi.startDate, wi.dueDate FROM WorkItem wi
+           WHERE wi.project.id = :projectId
+             AND wi.type IN ('TASK','ISSUE','STORY','EPIC')
+           ORDER BY wi.id
+           """)
+    List<Object[]> findScheduleNodes(@Param("projectId") Long projectId);
+
+    /**
+     * Vrátí data vybraných položek – [id, datum zahájení, termín].
+     */
+    @Query("""
+           SELECT wi.id, wi.startDate, wi.dueDate FROM WorkItem wi
+           WHERE wi.id IN :ids
+           """)
+    List<Object[]> findScheduleDates(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,86 @@
+package com.sprinter.domain.repository;
+
+import com.sprinter.domain.entity.WorkItemStatusTransition;
+import com.sprinter.domain.enums.WorkItemStatus;
+import com.sprinter.domain.enums.WorkItemType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository pro entitu {@link WorkItemStatusTransition}.
+ */
+@Repository
+public interface WorkItemStatusTransitionRepository extends JpaRepository<WorkItemStatusTransition, Long> {
+
+    /**
+     * Denní počty položek v jednotlivých stavech (cumulative flow diagram).
+     *
+     * <p>Agregace probíhá celá v databázi: {@code LEAD()} převede přechody na
+     * intervaly platnosti stavu a ty se spojí s řadou dnů. Položka se v daný den
+     * počítá ve stavu, který měla na jeho konci. Filtr sprintu bere položky,
+     * které jsou do sprintu přiřazeny nyní.</p>
+     *
+     * @return řádky [den (java.sql.Date), stav (String), počet (Number)] seřazené dle dne
+     */
+    @Query(value = """
+           WITH days AS (
+               SELECT CAST(d AS DATE) AS day
+               FROM generate_series(CAST(:fromDate AS DATE), CAST(:toDate AS DATE), INTERVAL '1 day') AS d
+           ),
+           spans AS (
+               SELECT t.to_status,
+                      t.transitioned_at AS valid_from,
+                      LEAD(t.transitioned_at) OVER (PARTITION BY t.work_item_id
+                                                    ORDER BY t.transitioned_at, t.id) AS valid_to
+               FROM work_item_status_transitions t
+               JOIN work_items wi ON wi.id = t.work_item_id
+               WHERE t.project_id = :projectId
+                 AND t.transitioned_at < CAST(:toDate AS DATE) + 1
+                 AND wi.type IN ('TASK','ISSUE','STORY')
+                 AND (CAST(:sprintId AS BIGINT) IS NULL OR wi.sprint_id = :sprintId)
+           )
+           SELECT days.day, spans.to_status, COUNT(*)
+           FROM days
+           JOIN spans ON spans.valid_from < days.day + 1
+                     AND (spans.valid_to IS NULL OR spans.valid_to >= days.day + 1)
+           GROUP BY days.day, spans.to_status
+           ORDER BY days.day
+           """, nativeQuery = true)
+    List<Object[]> cumulativeFlow(@Param("projectId") Long      projectId,
+                                  @Param("sprintId")  Long      sprintId,
+                                  @Param("fromDate")  LocalDate fromDate,
+                                  @Param("toDate")    LocalDate toDate);
+
+    /** Počet přechodů položky do daného stavu. */
+    long countByWorkItemIdAndToStatus(Long workItemId, WorkItemStatus toStatus);
+
+    /** První přechod položky do daného stavu. */
+    Optional<WorkItemStatusTransition> findFirstByWorkItemIdAndToStatusOrderByTransitionedAtAsc(
+            Long workItemId, WorkItemStatus toStatus);
+
+    /**
+     * Souhrn dokončených položek projektu pro přepočet lead/cycle time.
+     *
+     * @return řádky [id, typ, priorita, ID řešitele, vytvořeno, první DONE, první IN_PROGRESS]
+     */
+    @Query("""
+           SELECT w.id, w.type, w.priority, w.assignee.id, w.createdAt,
+                  MIN(CASE WHEN t.toStatus = :done       THEN t.transitionedAt END),
+                  MIN(CASE WHEN t.toStatus = :inProgress THEN t.transitionedAt END)
+           FROM WorkItemStatusTransition t JOIN t.workItem w
+           WHERE t.project.id = :projectId AND w.type IN :types
+           GROUP BY w.id, w.type, w.priority, w.assignee.id, w.createdAt
+           HAVING MIN(CASE WHEN t.toStatus = :done THEN t.transitionedAt END) IS NOT NULL
+           """)
+    List<Object[]> findCompletionSpans(@Param("projectId")  Long                     projectId,
+                                       @Param("types")      Collection<WorkItemType> types,
+                                       @Param("done")       WorkItemStatus           done,
+                                       @Param("inProgress") WorkItemStatus           inProgress);
+}
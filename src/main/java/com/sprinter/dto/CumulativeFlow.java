@@ -0,0 +1,18 @@
+package com.sprinter.dto;
+
+import com.sprinter.domain.enums.WorkItemStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data cumulative flow diagramu – pro každý den počet položek v jednotlivých stavech.
+ *
+ * @param days   dny v požadovaném rozsahu (vzestupně)
+ * @param counts stav → počty položek; index pole odpovídá indexu v {@code days}
+ */
+public record CumulativeFlow(
+        List<LocalDate>             days,
+        Map<WorkItemStatus, long[]> counts
+) {}
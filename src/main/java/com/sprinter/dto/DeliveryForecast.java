@@ -0,0 +1,30 @@
+package com.sprinter.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Výsledek Monte Carlo předpovědi dokončení zbývající práce projektu nebo eposu.
+ *
+ * @param projectId      ID projektu, jehož propustnost byla vzorkována
+ * @param epicId         ID eposu (null = celý projekt)
+ * @param remainingItems počet nedokončených položek
+ * @param weeklySamples  počty dokončených položek v jednotlivých týdnech historie
+ * @param trials         počet simulací
+ * @param percentiles    datum dokončení pro vybrané percentily
+ */
+public record DeliveryForecast(
+        Long              projectId,
+        Long              epicId,
+        int               remainingItems,
+        int[]             weeklySamples,
+        int               trials,
+        List<Percentile>  percentiles
+) {
+
+    /**
+     * S pravděpodobností {@code percent} % bude práce hotová nejpozději {@code date}.
+     * Pokud simulace nedoběhla v horizontu předpovědi, jsou {@code weeks} i {@code date} null.
+     */
+    public record Percentile(int percent, Integer weeks, LocalDate date) {}
+}
@@ -0,0 +1,14 @@
+package com.sprinter.dto;
+
+/**
+ * Percentily doby průtoku (lead/cycle time) pro jednu hodnotu dimenze.
+ * Doby jsou v hodinách.
+ */
+public record FlowTimeStats(
+        String key,          // hodnota dimenze (název typu/priority, ID řešitele, "" pro projekt)
+        String label,        // zobrazovaný název
+        long   count,        // počet dokončených položek
+        double p50Hours,
+        double p85Hours,
+        double p95Hours
+) {}
@@ -0,0 +1,38 @@
+package com.sprinter.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Okno Ganttova diagramu – položky v zadaném období a rozsahu řádků
+ * a závislosti, které se jich týkají. ID jsou číselná (bez prefixu).
+ *
+ * @param projectKey klíč projektu (klíč položky = projectKey + "-" + number)
+ * @param from       první den okna
+ * @param to         poslední den okna
+ * @param rowOffset  index prvního vráceného řádku
+ * @param total      celkový počet řádků v období
+ * @param items      položky okna
+ * @param links      závislosti s alespoň jedním koncem v okně
+ */
+public record GanttWindow(
+        String     projectKey,
+        LocalDate  from,
+        LocalDate  to,
+        int        rowOffset,
+        long       total,
+        List<Row>  items,
+        List<Link> links
+) {
+
+    /**
+     * Řádek okna. {@code slack}/{@code critical} jsou vyplněné jen při požadavku
+     * na harmonogram.
+     */
+    public record Row(long id, long number, String title, LocalDate start, LocalDate end,
+                      int progress, String status, String type, Long parent,
+                      Integer slack, Boolean critical) {}
+
+    /** Závislost {@code from → to} (FS/SS/FF/SF) s lagem ve dnech. */
+    public record Link(long from, long to, String type, int lag) {}
+}
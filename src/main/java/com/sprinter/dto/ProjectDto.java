@@ -35,4 +35,7 @@ public class ProjectDto {
     private LocalDate endDate;
 
     private Long ownerId;
+
+    /** Automatické plánování závislých položek. */
+    private boolean autoSchedule;
 }
@@ -0,0 +1,39 @@
+package com.sprinter.dto;
+
+import com.sprinter.service.planning.CapacityUnit;
+
+import java.util.List;
+
+/**
+ * Návrh rozsahu sprintu z backlogu – seřazený seznam položek, které se vejdou
+ * do kapacity a respektují priority a závislosti.
+ *
+ * @param sprintId       ID plánovaného sprintu
+ * @param unit           jednotka kapacity
+ * @param capacity       celková kapacita
+ * @param planned        kapacita vyčerpaná navrženými položkami
+ * @param items          navržené položky v pořadí výběru
+ * @param assignees      vytížení řešitelů s vlastní kapacitou
+ * @param overCapacity   počet položek, které se nevešly do kapacity
+ * @param blocked        počet položek blokovaných nevybraným předchůdcem
+ * @param unestimated    počet položek bez odhadu v dané jednotce
+ */
+public record SprintPlan(
+        Long                 sprintId,
+        CapacityUnit         unit,
+        double               capacity,
+        double               planned,
+        List<Item>           items,
+        List<AssigneeLoad>   assignees,
+        int                  overCapacity,
+        int                  blocked,
+        int                  unestimated
+) {
+
+    /** Navržená položka; {@code rank} je pořadí výběru od 1. */
+    public record Item(int rank, long id, String key, String title, String priority,
+                       double cost, Long assigneeId) {}
+
+    /** Kapacita a naplánovaná práce jednoho řešitele. */
+    public record AssigneeLoad(long assigneeId, double capacity, double planned) {}
+}
@@ -66,6 +66,24 @@ public class GlobalExceptionHandler {
         return errorView("Chyba validace", ex.getMessage(), 422);
     }
 
+    /**
+     * Zpracuje ostatní výjimky aplikace s vlastním stavovým kódem (409, 503, 507, …).
+     * Výjimky se stavem 500 se hlásí stejně jako neočekávané chyby.
+     */
+    @ExceptionHandler(SprinterException.class)
+    public Object handleSprinter(SprinterException ex, HttpServletRequest request) {
+        if (ex.getStatus().is5xxServerError() && ex.getStatus() != HttpStatus.SERVICE_UNAVAILABLE
+                && ex.getStatus() != HttpStatus.INSUFFICIENT_STORAGE) {
+            return handleGeneral(ex, request);
+        }
+        log.warn("Požadavek odmítnut [{}] {}: {}", request.getRequestURI(), ex.getStatus().value(), ex.getMessage());
+        if (isApiRequest(request)) {
+            return ResponseEntity.status(ex.getStatus())
+                    .body(Map.of("error", ex.getMessage(), "status", ex.getStatus().value()));
+        }
+        return errorView("Požadavek nelze provést", ex.getMessage(), ex.getStatus().value());
+    }
+
     /**
      * Zpracuje ostatní neočekávané výjimky (500 Internal Server Error).
      */
@@ -0,0 +1,49 @@
+package com.sprinter.security;
+
+import com.sprinter.domain.enums.ApiTokenScope;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+
+import java.io.Serial;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Autentizace API požadavku osobním přístupovým tokenem.
+ *
+ * <p>Platí jen pro jeden požadavek – do session se neukládá.</p>
+ */
+public final class ApiTokenAuthentication extends AbstractAuthenticationToken {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final SprinterUserDetails    principal;
+    private final Long                   tokenId;
+    private final EnumSet<ApiTokenScope> scopes;
+
+    public ApiTokenAuthentication(SprinterUserDetails principal, Long tokenId, Set<ApiTokenScope> scopes) {
+        super(principal.getAuthorities());
+        this.principal = principal;
+        this.tokenId   = tokenId;
+        this.scopes    = scopes.isEmpty() ? EnumSet.noneOf(ApiTokenScope.class) : EnumSet.copyOf(scopes);
+        setAuthenticated(true);
+    }
+
+    @Override
+    public SprinterUserDetails getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    public Long getTokenId() {
+        return tokenId;
+    }
+
+    public boolean hasScope(ApiTokenScope scope) {
+        return scopes.contains(scope);
+    }
+}
@@ -0,0 +1,80 @@
+package com.sprinter.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sprinter.domain.enums.ApiTokenScope;
+import com.sprinter.service.ApiTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ověří hlavičku {@code Authorization: Bearer spr_…} u API požadavků.
+ *
+ * <p>Autentizace se nastaví jen pro tento požadavek – session se nevytváří
+ * ani nečte. Požadavek bez hlavičky projde dál beze změny (prohlížeč se
+ * přihlašuje session). Token jen pro čtení smí pouze GET/HEAD/OPTIONS.</p>
+ */
+@Slf4j
+public class ApiTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ApiTokenService apiTokenService;
+    private final ObjectMapper    objectMapper;
+
+    public ApiTokenAuthenticationFilter(ApiTokenService apiTokenService, ObjectMapper objectMapper) {
+        this.apiTokenService = apiTokenService;
+        this.objectMapper    = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        var token = apiTokenService.verify(header.substring(BEARER.length()).trim()).orElse(null);
+        if (token == null) {
+            log.debug("Neplatný API token [{} {}]", request.getMethod(), request.getRequestURI());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            writeError(response, HttpStatus.UNAUTHORIZED, "Neplatný nebo vypršelý API token.");
+            return;
+        }
+        if (!SAFE_METHODS.contains(request.getMethod()) && !token.scopes().contains(ApiTokenScope.WRITE)) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"insufficient_scope\"");
+            writeError(response, HttpStatus.FORBIDDEN, "API token nemá oprávnění k zápisu.");
+            return;
+        }
+
+        var context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new ApiTokenAuthentication(token.principal(), token.tokenId(), token.scopes()));
+        SecurityContextHolder.setContext(context);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), Map.of("error", message, "status", status.value()));
+    }
+}
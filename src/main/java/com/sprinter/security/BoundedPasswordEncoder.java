@@ -0,0 +1,101 @@
+package com.sprinter.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.Serial;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link PasswordEncoder}, který počítá hashe na omezeném počtu vláken.
+ *
+ * <p>BCrypt (síla 12) zabere desítky ms CPU. Při náporu přihlášení by ho bez
+ * omezení počítaly všechny vlákna požadavků najednou a zahltily CPU i pro
+ * ostatní stránky. Tady běží nejvýš {@code threads} výpočtů současně, dalších
+ * nejvýš {@code queueCapacity} čeká; co se do fronty nevejde nebo nedočká do
+ * {@code timeout}, skončí hned {@link Busy} – přihlášení se odmítne
+ * s výzvou zkusit to znovu místo čekání na uvolnění serveru.</p>
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    /** Výpočet hashe odmítnut kvůli přetížení. */
+    public static class Busy extends AuthenticationServiceException {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        public Busy() {
+            super("Server je právě přetížený přihlašováním. Zkuste to prosím za chvíli.");
+        }
+    }
+
+    private final PasswordEncoder    delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration           timeout;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration timeout) {
+        this.delegate = delegate;
+        this.timeout  = timeout;
+        var counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    var thread = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /** Ukončí vlákna – volá Spring při zavírání kontextu. */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new Busy();
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new Busy();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new Busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.sprinter.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.authentication.rememberme.PersistentRememberMeToken;
+import org.springframework.security.web.authentication.rememberme.PersistentTokenRepository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Dekorátor úložiště remember-me tokenů s mezipamětí načtených sérií.
+ *
+ * <p>Prohlížeč po vypršení session obvykle pošle naráz několik požadavků se
+ * stejnou cookie (stránka, skripty, XHR) – ty si token přečtou z mezipaměti
+ * místo z DB. Mezipaměť ale nesmí oslabit výměnu tokenu: jiný uzel (nebo
+ * položka před TTL) může držet už vyměněnou hodnotu. Proto je výměna
+ * ({@link #replaceToken}) podmíněný UPDATE proti hodnotě, kterou požadavek
+ * přečetl, a neshodu s uloženou hodnotou ověřuje {@link CachingRememberMeServices}
+ * znovu přímo v DB ({@link #getStoredToken}).</p>
+ *
+ * <p>Nový token se zapisuje synchronně – musí být v DB dřív, než klient dostane
+ * novou cookie, jinak by ostatní uzly přijaly tu starou.</p>
+ *
+ * <p>Po úspěšné výměně si úložiště po krátkou ochrannou lhůtu pamatuje předchozí
+ * hodnotu tokenu ({@link #isPreviousToken}). Souběžný požadavek se starou cookie,
+ * který dorazí až po výměně, tak není krádež, ale prohraný souběh.</p>
+ */
+@Slf4j
+public class CachingPersistentTokenRepository implements PersistentTokenRepository {
+
+    private final PersistentTokenRepository delegate;
+    private final JdbcTemplate              jdbc;
+    private final Duration                  validity;
+    private final int                       cleanupBatch;
+    private final Cache<String, PersistentRememberMeToken> cache;
+    /** Předchozí hodnoty právě vyměněných tokenů (série → token před výměnou). */
+    private final Cache<String, PersistentRememberMeToken> previous;
+
+    public CachingPersistentTokenRepository(PersistentTokenRepository delegate, DataSource dataSource,
+                                            Duration cacheTtl, Duration gracePeriod,
+                                            Duration validity, int cleanupBatch) {
+        this.delegate     = delegate;
+        this.jdbc         = new JdbcTemplate(dataSource);
+        this.validity     = validity;
+        this.cleanupBatch = cleanupBatch;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .maximumSize(10_000)
+                .build();
+        this.previous = Caffeine.newBuilder()
+                .expireAfterWrite(gracePeriod)
+                .maximumSize(10_000)
+                .build();
+    }
+
+    @Override
+    public void createNewToken(PersistentRememberMeToken token) {
+        delegate.createNewToken(token);
+        cache.put(token.getSeries(), token);
+    }
+
+    @Override
+    public PersistentRememberMeToken getTokenForSeries(String seriesId) {
+        return cache.get(seriesId, delegate::getTokenForSeries);
+    }
+
+    /** Načte token přímo z DB (mimo mezipaměť) a mezipaměť jím obnoví. */
+    public PersistentRememberMeToken getStoredToken(String seriesId) {
+        var token = delegate.getTokenForSeries(seriesId);
+        if (token != null) {
+            cache.put(seriesId, token);
+        } else {
+            cache.invalidate(seriesId);
+        }
+        return token;
+    }
+
+    @Override
+    public void updateToken(String series, String tokenValue, Date lastUsed) {
+        delegate.updateToken(series, tokenValue, lastUsed);
+        cache.invalidate(series);
+    }
+
+    /**
+     * Vymění hodnotu tokenu, jen pokud v DB stále je hodnota {@code expected}.
+     *
+     * @return false, pokud token mezitím vyměnil jiný požadavek
+     */
+    public boolean replaceToken(PersistentRememberMeToken expected, PersistentRememberMeToken replacement) {
+        int updated = jdbc.update("UPDATE persistent_logins SET token = ?, last_used = ? WHERE series = ? AND token = ?",
+                                  replacement.getTokenValue(), new Timestamp(replacement.getDate().getTime()),
+                                  expected.getSeries(), expected.getTokenValue());
+        if (updated == 0) {
+            cache.invalidate(expected.getSeries());
+            return false;
+        }
+        cache.put(replacement.getSeries(), replacement);
+        previous.put(expected.getSeries(), expected);
+        return true;
+    }
+
+    /**
+     * Zda je {@code tokenValue} hodnota, kterou série měla před výměnou provedenou
+     * v posledních několika sekundách (ochranná lhůta).
+     */
+    public boolean isPreviousToken(String series, String tokenValue) {
+        var token = previous.getIfPresent(series);
+        return token != null && token.getTokenValue().equals(tokenValue);
+    }
+
+    @Override
+    public void removeUserTokens(String username) {
+        delegate.removeUserTokens(username);
+        cache.asMap().values().removeIf(token -> token.getUsername().equals(username));
+        previous.asMap().values().removeIf(token -> token.getUsername().equals(username));
+    }
+
+    /**
+     * Maže série, které vypršely ({@code last_used} starší než platnost cookie),
+     * po dávkách. Neplatnou sérii by Spring Security odmítl i tak – jde jen o úklid.
+     */
+    @Scheduled(initialDelayString = "PT5M", fixedDelayString = "${sprinter.security.remember-me-cleanup-interval:PT6H}")
+    public void removeExpiredTokens() {
+        var cutoff = Timestamp.from(Instant.now().minus(validity));
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbc.update("""
+                    DELETE FROM persistent_logins WHERE series IN (
+                        SELECT series FROM persistent_logins WHERE last_used < ? LIMIT ?)""",
+                    cutoff, cleanupBatch);
+            total += deleted;
+        } while (deleted >= cleanupBatch);
+        if (total > 0) {
+            log.info("Smazáno {} vypršelých remember-me sérií", total);
+        }
+    }
+}
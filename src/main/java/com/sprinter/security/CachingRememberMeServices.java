@@ -0,0 +1,100 @@
+package com.sprinter.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.rememberme.CookieTheftException;
+import org.springframework.security.web.authentication.rememberme.InvalidCookieException;
+import org.springframework.security.web.authentication.rememberme.PersistentRememberMeToken;
+import org.springframework.security.web.authentication.rememberme.PersistentTokenBasedRememberMeServices;
+import org.springframework.security.web.authentication.rememberme.RememberMeAuthenticationException;
+
+import java.util.Date;
+
+/**
+ * Remember-me s tokeny z {@link CachingPersistentTokenRepository}.
+ *
+ * <p>Oproti {@link PersistentTokenBasedRememberMeServices} rozlišuje dva případy,
+ * které by standardní implementace s mezipamětí zaměnila:</p>
+ * <ul>
+ *   <li>Neshoda předložené a uložené hodnoty se ověří znovu přímo v DB –
+ *       mezipaměť může držet hodnotu vyměněnou na jiném uzlu. Za krádež
+ *       (smazání všech sérií uživatele) se považuje jen hodnota, která se
+ *       neshoduje s DB ani s předchozí hodnotou právě vyměněného tokenu.</li>
+ *   <li>Prohraná výměna – souběžný požadavek se stejnou cookie token vyměnil
+ *       dřív (během výměny, nebo před chvílí v ochranné lhůtě). Selže jen tento
+ *       auto-login; tokeny zůstanou a cookie se nemaže, prohlížeč dostane novou
+ *       hodnotu v odpovědi na vítězný požadavek.</li>
+ * </ul>
+ */
+@Slf4j
+public class CachingRememberMeServices extends PersistentTokenBasedRememberMeServices {
+
+    private static final String ROTATED_ATTRIBUTE = CachingRememberMeServices.class.getName() + ".ROTATED";
+
+    private final CachingPersistentTokenRepository tokenRepository;
+
+    public CachingRememberMeServices(String key, UserDetailsService userDetailsService,
+                                     CachingPersistentTokenRepository tokenRepository) {
+        super(key, userDetailsService, tokenRepository);
+        this.tokenRepository = tokenRepository;
+    }
+
+    @Override
+    protected UserDetails processAutoLoginCookie(String[] cookieTokens, HttpServletRequest request,
+                                                 HttpServletResponse response) {
+        if (cookieTokens.length != 2) {
+            throw new InvalidCookieException("Cookie token did not contain 2 tokens");
+        }
+        String series    = cookieTokens[0];
+        String presented = cookieTokens[1];
+
+        var token = tokenRepository.getTokenForSeries(series);
+        if (token != null && !presented.equals(token.getTokenValue())) {
+            token = tokenRepository.getStoredToken(series);
+        }
+        if (token == null) {
+            throw new RememberMeAuthenticationException("No persistent token found for series id: " + series);
+        }
+        if (!presented.equals(token.getTokenValue()) && tokenRepository.isPreviousToken(series, presented)) {
+            throw rotatedConcurrently(series, request);
+        }
+        if (!presented.equals(token.getTokenValue())) {
+            tokenRepository.removeUserTokens(token.getUsername());
+            throw new CookieTheftException(messages.getMessage("PersistentTokenBasedRememberMeServices.cookieStolen",
+                    "Invalid remember-me token (Series/token) mismatch. Implies previous cookie theft attack."));
+        }
+        if (token.getDate().getTime() + getTokenValiditySeconds() * 1000L < System.currentTimeMillis()) {
+            throw new RememberMeAuthenticationException("Remember-me login has expired");
+        }
+
+        var rotated = new PersistentRememberMeToken(token.getUsername(), series, generateTokenData(), new Date());
+        try {
+            if (!tokenRepository.replaceToken(token, rotated)) {
+                throw rotatedConcurrently(series, request);
+            }
+        } catch (DataAccessException e) {
+            log.error("Výměna remember-me tokenu selhala", e);
+            throw new RememberMeAuthenticationException("Autologin failed due to data access problem");
+        }
+        setCookie(new String[] {series, rotated.getTokenValue()}, getTokenValiditySeconds(), request, response);
+        return getUserDetailsService().loadUserByUsername(token.getUsername());
+    }
+
+    private static RememberMeAuthenticationException rotatedConcurrently(String series, HttpServletRequest request) {
+        log.debug("Remember-me token série {} vyměnil souběžný požadavek – auto-login přeskočen", series);
+        request.setAttribute(ROTATED_ATTRIBUTE, Boolean.TRUE);
+        return new RememberMeAuthenticationException("Remember-me token was rotated by a concurrent request");
+    }
+
+    /** Po prohrané výměně cookie nemazat – přepsala by novou hodnotu z vítězného požadavku. */
+    @Override
+    protected void cancelCookie(HttpServletRequest request, HttpServletResponse response) {
+        if (request.getAttribute(ROTATED_ATTRIBUTE) == null) {
+            super.cancelCookie(request, response);
+        }
+    }
+}
@@ -38,6 +38,6 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException("Účet je deaktivován: " + usernameOrEmail);
         }
 
-        return new SprinterUserDetails(user);
+        return SprinterUserDetails.from(user);
     }
 }
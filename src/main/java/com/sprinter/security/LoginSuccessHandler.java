@@ -1,6 +1,6 @@
 package com.sprinter.security;
 
-import com.sprinter.service.UserService;
+import com.sprinter.service.LoginRecorder;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -13,13 +13,14 @@ import java.io.IOException;
 
 /**
  * Zachycuje úspěšné přihlášení a aktualizuje časová razítka přihlášení uživatele.
- * Ukládá čas předchozího přihlášení (pro activity feed na dashboardu).
+ * Ukládá čas předchozího přihlášení (pro activity feed na dashboardu) – zápis
+ * do DB probíhá dávkově mimo požadavek, viz {@link LoginRecorder}.
  */
 @Component
 @RequiredArgsConstructor
 public class LoginSuccessHandler extends SavedRequestAwareAuthenticationSuccessHandler {
 
-    private final UserService userService;
+    private final LoginRecorder loginRecorder;
 
     @Override
     public void onAuthenticationSuccess(HttpServletRequest request,
@@ -28,7 +29,7 @@ public class LoginSuccessHandler extends SavedRequestAwareAuthenticationSuccessH
             throws IOException, ServletException {
 
         if (authentication.getPrincipal() instanceof SprinterUserDetails ud) {
-            userService.recordLogin(ud.getUserId());
+            loginRecorder.recordLogin(ud.getUserId());
         }
 
         setDefaultTargetUrl("/dashboard");
@@ -0,0 +1,58 @@
+package com.sprinter.security;
+
+import com.sprinter.domain.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.RememberMeAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Nahradí snímek přihlášeného uživatele v session po změně jeho profilu
+ * (téma, jméno, role), aby se změna projevila bez odhlášení.
+ *
+ * <p>{@link SprinterUserDetails} je neměnný – vytvoří se nová autentizace
+ * stejného typu (přihlášení formulářem / remember-me) a kontext se explicitně
+ * uloží do session.</p>
+ */
+@Component
+public class PrincipalRefresher {
+
+    private final SecurityContextRepository contextRepository = new HttpSessionSecurityContextRepository();
+
+    @Value("${sprinter.security.remember-me-key:sprinter-remember-me}")
+    private String rememberMeKey;
+
+    /**
+     * Obnoví principal, pokud je {@code user} právě přihlášený uživatel; jinak nic nedělá.
+     */
+    public void refreshIfCurrent(User user) {
+        var current = SecurityContextHolder.getContext().getAuthentication();
+        if (current == null || current instanceof ApiTokenAuthentication
+                || !(current.getPrincipal() instanceof SprinterUserDetails old)
+                || !old.getUserId().equals(user.getId())) {
+            return;
+        }
+
+        var details = SprinterUserDetails.from(user);
+        details.eraseCredentials();
+        AbstractAuthenticationToken refreshed = current instanceof RememberMeAuthenticationToken
+                ? new RememberMeAuthenticationToken(rememberMeKey, details, details.getAuthorities())
+                : UsernamePasswordAuthenticationToken.authenticated(details, null, details.getAuthorities());
+        refreshed.setDetails(current.getDetails());
+
+        var context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(refreshed);
+        SecurityContextHolder.setContext(context);
+
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attrs
+                && attrs.getResponse() != null) {
+            contextRepository.saveContext(context, attrs.getRequest(), attrs.getResponse());
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.sprinter.security;
 
-import com.sprinter.domain.entity.User;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -26,15 +25,6 @@ public final class SecurityUtils {
         return Optional.empty();
     }
 
-    /**
-     * Vrátí doménového uživatele aktuálně přihlášeného.
-     *
-     * @return Optional s uživatelem
-     */
-    public static Optional<User> getCurrentUser() {
-        return getCurrentUserDetails().map(SprinterUserDetails::getUser);
-    }
-
     /**
      * Vrátí ID aktuálně přihlášeného uživatele.
      *
@@ -48,6 +38,6 @@ public final class SecurityUtils {
      * Vrátí true, pokud je aktuálně přihlášený uživatel správce systému.
      */
     public static boolean isCurrentUserAdmin() {
-        return getCurrentUser().map(User::isAdmin).orElse(false);
+        return getCurrentUserDetails().map(SprinterUserDetails::isAdmin).orElse(false);
     }
 }
@@ -1,61 +1,114 @@
 package com.sprinter.security;
 
 import com.sprinter.domain.entity.User;
+import com.sprinter.domain.enums.SystemRole;
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.io.Serial;
 import java.util.Collection;
 import java.util.List;
 
 /**
  * Implementace {@link UserDetails} pro Spring Security.
  *
- * <p>Obaluje doménovou entitu {@link User} a poskytuje Spring Security
- * potřebné informace pro autentizaci a autorizaci.</p>
+ * <p>Neměnný snímek údajů o uživateli v okamžiku přihlášení (ID, jméno, role,
+ * téma). Žije v HTTP session, proto nedrží JPA entitu {@link User} – ta by
+ * v session zůstala odpojená, i s kolekcemi a hashem hesla. Služby, které
+ * potřebují entitu (autor komentáře, reportér…), si ji získají podle
+ * {@link #getUserId()} přes {@code UserService#getReference}. Po změně profilu
+ * se snímek nahradí novým – viz {@link PrincipalRefresher}.</p>
  */
-public class SprinterUserDetails implements UserDetails {
-
-    private final User user;
-
-    public SprinterUserDetails(User user) {
-        this.user = user;
+public final class SprinterUserDetails implements UserDetails, CredentialsContainer {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Long       userId;
+    private final String     username;
+    private final SystemRole systemRole;
+    private final String     uiTheme;
+    private final String     firstName;
+    private final String     lastName;
+    private final boolean    active;
+
+    /** Hash hesla – potřebný jen při ověření, poté se maže a do session se neserializuje. */
+    private transient String password;
+
+    private SprinterUserDetails(User user) {
+        this.userId     = user.getId();
+        this.username   = user.getUsername();
+        this.systemRole = user.getSystemRole();
+        this.uiTheme    = user.getUiTheme();
+        this.firstName  = user.getFirstName();
+        this.lastName   = user.getLastName();
+        this.active     = user.isActive();
+        this.password   = user.getPasswordHash();
     }
 
-    /** Vrátí zabalený doménový objekt uživatele. */
-    public User getUser() {
-        return user;
+    /** Vytvoří snímek z entity uživatele. */
+    public static SprinterUserDetails from(User user) {
+        return new SprinterUserDetails(user);
     }
 
     /** Vrátí ID uživatele. */
     public Long getUserId() {
-        return user.getId();
+        return userId;
+    }
+
+    /** Vrátí křestní jméno uživatele. */
+    public String getFirstName() {
+        return firstName;
     }
 
     /** Vrátí celé jméno uživatele. */
     public String getFullName() {
-        return user.getFullName();
+        return firstName + " " + lastName;
+    }
+
+    /** Vrátí iniciály uživatele (pro avatar). */
+    public String getInitials() {
+        String fi = firstName != null && !firstName.isEmpty() ? String.valueOf(firstName.charAt(0)) : "";
+        String li = lastName  != null && !lastName.isEmpty()  ? String.valueOf(lastName.charAt(0))  : "";
+        return (fi + li).toUpperCase();
     }
 
     /** Vrátí preferované UI téma uživatele. */
     public String getUiTheme() {
-        return user.getUiTheme();
+        return uiTheme;
+    }
+
+    /** Vrátí systémovou roli uživatele. */
+    public SystemRole getSystemRole() {
+        return systemRole;
+    }
+
+    /** Vrátí true, pokud je uživatel správce systému. */
+    public boolean isAdmin() {
+        return SystemRole.ADMIN == systemRole;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         // Systémová role jako Spring Security autorita (prefix ROLE_)
-        return List.of(new SimpleGrantedAuthority("ROLE_" + user.getSystemRole().name()));
+        return List.of(new SimpleGrantedAuthority("ROLE_" + systemRole.name()));
     }
 
     @Override
     public String getPassword() {
-        return user.getPasswordHash();
+        return password;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
     }
 
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
     }
 
     @Override
@@ -75,6 +128,20 @@ public class SprinterUserDetails implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return user.isActive();
+        return active;
+    }
+
+    /*
+     * Rovnost podle uživatelského jména – kvůli SessionRegistry a porovnání
+     * principálů v Spring Security (stejně jako org.springframework.security.core.userdetails.User).
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SprinterUserDetails other && username.equals(other.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return username.hashCode();
     }
 }
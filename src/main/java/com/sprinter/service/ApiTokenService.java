@@ -0,0 +1,247 @@
+package com.sprinter.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sprinter.domain.entity.ApiToken;
+import com.sprinter.domain.enums.ApiTokenScope;
+import com.sprinter.domain.repository.ApiTokenRepository;
+import com.sprinter.domain.repository.UserRepository;
+import com.sprinter.exception.AccessDeniedException;
+import com.sprinter.exception.ResourceNotFoundException;
+import com.sprinter.exception.ValidationException;
+import com.sprinter.security.SecurityUtils;
+import com.sprinter.security.SprinterUserDetails;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Správa a ověřování osobních přístupových tokenů pro REST API.
+ *
+ * <p>Ověření tokenu ({@link #verify}) běží při každém API požadavku, proto
+ * výsledek drží v paměti ({@code sprinter.api.token-cache-ttl}) – při zásahu
+ * mezipaměti se nesahá do DB vůbec, ani kvůli času posledního použití (ten se
+ * zapisuje dávkově). Zrušení tokenu na tomto uzlu platí hned, na ostatních
+ * uzlech a po deaktivaci uživatele nejpozději po uplynutí TTL.</p>
+ *
+ * <p>Do mezipaměti ověřených tokenů se ukládají jen úspěšná ověření – klíč
+ * (otisk předloženého tokenu) volí klient, takže neúspěšné pokusy nesmí
+ * vytlačit platné tokeny. Odmítnuté otisky drží zvlášť malá mezipaměť
+ * s krátkým TTL ({@code sprinter.api.rejected-cache-ttl}).</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class ApiTokenService {
+
+    /** Předpona tokenů – usnadní jejich rozpoznání (např. skenery úniků tajemství). */
+    public static final String TOKEN_PREFIX = "spr_";
+
+    private static final int TOKEN_BYTES = 32;
+
+    /** Ověřený token – principal je snímek uživatele z okamžiku načtení. */
+    public record VerifiedToken(Long tokenId, SprinterUserDetails principal,
+                                Set<ApiTokenScope> scopes, LocalDateTime expiresAt) {
+
+        public boolean isExpired(LocalDateTime now) {
+            return expiresAt != null && !expiresAt.isAfter(now);
+        }
+    }
+
+    /** Nově vytvořený token – {@code plainText} se zobrazí jen jednou. */
+    public record CreatedToken(ApiToken token, String plainText) {}
+
+    private final ApiTokenRepository apiTokenRepository;
+    private final UserRepository     userRepository;
+
+    @Value("${sprinter.api.token-cache-ttl:PT5M}")
+    private Duration cacheTtl;
+
+    @Value("${sprinter.api.rejected-cache-ttl:PT10S}")
+    private Duration rejectedCacheTtl;
+
+    @Value("${sprinter.api.max-tokens-per-user:20}")
+    private int maxTokensPerUser;
+
+    private final SecureRandom random = new SecureRandom();
+
+    /** Otisk tokenu → úspěšně ověřený token. */
+    private Cache<String, VerifiedToken> verified;
+
+    /** Otisky neznámých tokenů, aby chybný skript nezatěžoval DB. */
+    private Cache<String, Boolean> rejected;
+
+    /** Čas posledního použití čekající na zápis – klíč je ID tokenu. */
+    private final Map<Long, LocalDateTime> pendingLastUsed = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        verified = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .maximumSize(10_000)
+                .build();
+        rejected = Caffeine.newBuilder()
+                .expireAfterWrite(rejectedCacheTtl)
+                .maximumSize(1_000)
+                .build();
+    }
+
+    // ---- Správa ----
+
+    /** Vrátí tokeny přihlášeného uživatele. */
+    @Transactional(readOnly = true)
+    public List<ApiToken> findForCurrentUser() {
+        return apiTokenRepository.findByUserIdOrderByCreatedAtDesc(currentUserId());
+    }
+
+    /**
+     * Vytvoří token pro přihlášeného uživatele.
+     *
+     * @param validDays platnost ve dnech; null = bez omezení
+     * @throws ValidationException při chybějícím názvu nebo překročení počtu tokenů
+     */
+    public CreatedToken create(String name, Set<ApiTokenScope> scopes, Integer validDays) {
+        Long userId = currentUserId();
+        if (name == null || name.isBlank()) {
+            throw new ValidationException("Název tokenu je povinný.");
+        }
+        if (name.trim().length() > 100) {
+            throw new ValidationException("Název tokenu může mít nejvýše 100 znaků.");
+        }
+        if (validDays != null && validDays <= 0) {
+            throw new ValidationException("Platnost tokenu musí být kladná.");
+        }
+        if (apiTokenRepository.countByUserId(userId) >= maxTokensPerUser) {
+            throw new ValidationException("Můžete mít nejvýše " + maxTokensPerUser + " tokenů. Nepoužívané zrušte.");
+        }
+
+        var scopeSet = EnumSet.of(ApiTokenScope.READ);
+        if (scopes != null) {
+            scopeSet.addAll(scopes);
+        }
+
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String plainText = TOKEN_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        var token = ApiToken.builder()
+                .user(userRepository.getReferenceById(userId))
+                .name(name.trim())
+                .tokenHash(hash(plainText))
+                .tokenPrefix(plainText.substring(0, 12))
+                .expiresAt(validDays != null ? LocalDateTime.now().plusDays(validDays) : null)
+                .build();
+        token.setScopeSet(scopeSet);
+        token = apiTokenRepository.save(token);
+
+        log.info("Vytvořen API token ID={} '{}' uživatele ID={} ({})", token.getId(), token.getName(), userId, token.getScopes());
+        return new CreatedToken(token, plainText);
+    }
+
+    /**
+     * Zruší token přihlášeného uživatele.
+     *
+     * @throws AccessDeniedException pokud token patří jinému uživateli
+     */
+    public void revoke(Long tokenId) {
+        var token = apiTokenRepository.findById(tokenId)
+                .orElseThrow(() -> new ResourceNotFoundException("API token", tokenId));
+        if (!token.getUser().getId().equals(currentUserId())) {
+            throw new AccessDeniedException("Token patří jinému uživateli.");
+        }
+        apiTokenRepository.delete(token);
+        verified.asMap().values().removeIf(v -> v.tokenId().equals(tokenId));
+        pendingLastUsed.remove(tokenId);
+        log.info("Zrušen API token ID={} '{}'", tokenId, token.getName());
+    }
+
+    // ---- Ověření ----
+
+    /**
+     * Ověří token z hlavičky Authorization. Při zásahu mezipaměti bez přístupu do DB.
+     *
+     * @return ověřený token, nebo prázdný Optional pro neznámý, vypršelý
+     *         token či token deaktivovaného uživatele
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<VerifiedToken> verify(String plainText) {
+        if (plainText == null || !plainText.startsWith(TOKEN_PREFIX)) {
+            return Optional.empty();
+        }
+        String tokenHash = hash(plainText);
+        if (rejected.getIfPresent(tokenHash) != null) {
+            return Optional.empty();
+        }
+        var now = LocalDateTime.now();
+        var token = verified.get(tokenHash, this::load);
+        if (token == null) {
+            rejected.put(tokenHash, Boolean.TRUE);
+            return Optional.empty();
+        }
+        if (token.isExpired(now)) {
+            return Optional.empty();
+        }
+        pendingLastUsed.put(token.tokenId(), now);
+        return Optional.of(token);
+    }
+
+    /** Načte token z DB; null (do mezipaměti se neuloží) pro neznámý token či neaktivního uživatele. */
+    private VerifiedToken load(String tokenHash) {
+        return apiTokenRepository.findByTokenHashWithUser(tokenHash)
+                .filter(token -> token.getUser().isActive())
+                .map(token -> {
+                    var principal = SprinterUserDetails.from(token.getUser());
+                    principal.eraseCredentials();
+                    return new VerifiedToken(token.getId(), principal, token.getScopeSet(), token.getExpiresAt());
+                })
+                .orElse(null);
+    }
+
+    /** Zapíše časy posledního použití tokenů nashromážděné od minulého běhu. */
+    @Scheduled(initialDelayString = "PT1M", fixedDelayString = "${sprinter.api.last-used-flush-interval:PT1M}")
+    public void flushLastUsed() {
+        for (Long tokenId : pendingLastUsed.keySet()) {
+            LocalDateTime at = pendingLastUsed.remove(tokenId);
+            if (at != null) {
+                apiTokenRepository.updateLastUsed(tokenId, at);
+            }
+        }
+    }
+
+    // ---- Pomocné metody ----
+
+    static String hash(String plainText) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(plainText.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Long currentUserId() {
+        return SecurityUtils.getCurrentUserId()
+                .orElseThrow(() -> new AccessDeniedException("Není přihlášen žádný uživatel."));
+    }
+}
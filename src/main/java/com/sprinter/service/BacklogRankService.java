@@ -0,0 +1,149 @@
+package com.sprinter.service;
+
+import com.sprinter.domain.repository.ProjectRepository;
+import com.sprinter.domain.repository.WorkItemRepository;
+import com.sprinter.exception.ResourceNotFoundException;
+import com.sprinter.exception.ValidationException;
+import com.sprinter.service.planning.BacklogRank;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service pro ruční pořadí backlogu.
+ *
+ * <p>Přesun položky zapíše jen její vlastní řádek – nové pořadí leží
+ * lexikograficky mezi sousedy ({@link BacklogRank#between}). Když mezi sousedy
+ * není místo nebo by pořadí bylo příliš dlouhé, projekt se přečísluje hned;
+ * jinak přečíslování projektů s dlouhými pořadími běží na pozadí.
+ * Změny pořadí v jednom projektu serializuje zámek řádku projektu.</p>
+ */
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class BacklogRankService {
+
+    private final WorkItemRepository workItemRepository;
+    private final ProjectRepository  projectRepository;
+    private final ProjectService     projectService;
+    private final JdbcTemplate       jdbcTemplate;
+
+    /**
+     * Přesune položku mezi dvě sousední položky.
+     *
+     * @param workItemId ID přesouvané položky
+     * @param previousId ID položky, za kterou se má zařadit (null = na začátek)
+     * @param nextId     ID položky, před kterou se má zařadit (null = na konec)
+     * @return nové pořadí položky
+     */
+    public String move(Long workItemId, Long previousId, Long nextId) {
+        if (workItemId.equals(previousId) || workItemId.equals(nextId)) {
+            throw new ValidationException("Položku nelze zařadit vedle sebe samé.");
+        }
+        Long projectId = loadRanks(workItemId, previousId, nextId).projectId();
+        projectService.requireContentEditAccess(projectId);
+        projectRepository.findForUpdate(projectId);
+
+        // Pořadí sousedů čteme až pod zámkem projektu
+        var ranks = loadRanks(workItemId, previousId, nextId);
+        String rank;
+        try {
+            rank = rankBetween(ranks);
+        } catch (IllegalArgumentException e) {
+            rebalance(projectId);
+            try {
+                rank = rankBetween(loadRanks(workItemId, previousId, nextId));
+            } catch (IllegalArgumentException again) {
+                throw new ValidationException("Sousední položky nejsou v pořadí za sebou – obnovte stránku.");
+            }
+        }
+        workItemRepository.updateBacklogRank(workItemId, rank);
+        return rank;
+    }
+
+    /**
+     * Přečísluje pořadí všech položek projektu rovnoměrně se zachováním
+     * stávajícího pořadí (jedním UPDATE).
+     *
+     * @return počet přečíslovaných položek
+     */
+    public int rebalance(Long projectId) {
+        projectRepository.findForUpdate(projectId);
+        List<Long> ids   = workItemRepository.findIdsInRankOrder(projectId);
+        String[]   ranks = BacklogRank.spread(ids.size());
+        jdbcTemplate.update("""
+                UPDATE work_items wi
+                SET backlog_rank = v.rank
+                FROM unnest(?, ?) AS v(id, rank)
+                WHERE wi.id = v.id
+                """, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray(Long[]::new)));
+            ps.setArray(2, ps.getConnection().createArrayOf("text", ranks));
+        });
+        return ids.size();
+    }
+
+    /**
+     * Na pozadí přečísluje projekty, jejichž pořadí se opakovaným vkládáním
+     * na stejné místo prodloužila (nebo kde některá položka pořadí nemá).
+     */
+    @Scheduled(initialDelayString = "PT1M", fixedDelayString = "${sprinter.backlog.rebalance-interval:PT1H}")
+    public void rebalanceLongRanks() {
+        for (Long projectId : workItemRepository.findProjectIdsToRebalance(BacklogRank.REBALANCE_LENGTH)) {
+            int items = rebalance(projectId);
+            log.info("Přečíslováno pořadí backlogu projektu {} ({} položek)", projectId, items);
+        }
+    }
+
+    // ---- Pomocné metody ----
+
+    private static String rankBetween(NeighbourRanks ranks) {
+        if (ranks.unranked()) {
+            throw new IllegalArgumentException("Sousední položka nemá pořadí.");
+        }
+        String rank = BacklogRank.between(ranks.previous(), ranks.next());
+        if (rank.length() > BacklogRank.MAX_LENGTH) {
+            throw new IllegalArgumentException("Pořadí je příliš dlouhé.");
+        }
+        return rank;
+    }
+
+    /** Načte pořadí položky a jejích sousedů a ověří, že patří do stejného projektu. */
+    private NeighbourRanks loadRanks(Long workItemId, Long previousId, Long nextId) {
+        var ids = new ArrayList<Long>(3);
+        ids.add(workItemId);
+        if (previousId != null) ids.add(previousId);
+        if (nextId != null)     ids.add(nextId);
+
+        Map<Long, Object[]> rows = new HashMap<>();
+        for (Object[] row : workItemRepository.findBacklogRanks(ids)) {
+            rows.put((Long) row[0], row);
+        }
+        for (Long id : ids) {
+            if (!rows.containsKey(id)) {
+                throw new ResourceNotFoundException("WorkItem", id);
+            }
+        }
+        Long projectId = (Long) rows.get(workItemId)[1];
+        for (Object[] row : rows.values()) {
+            if (!projectId.equals(row[1])) {
+                throw new ValidationException("Položky nepatří do stejného projektu.");
+            }
+        }
+        String previous = previousId != null ? (String) rows.get(previousId)[2] : null;
+        String next     = nextId     != null ? (String) rows.get(nextId)[2]     : null;
+        boolean unranked = (previousId != null && previous == null) || (nextId != null && next == null);
+        return new NeighbourRanks(projectId, previous, next, unranked);
+    }
+
+    private record NeighbourRanks(Long projectId, String previous, String next, boolean unranked) {}
+}
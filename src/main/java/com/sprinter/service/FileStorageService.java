@@ -2,32 +2,82 @@ package com.sprinter.service;
 
 import com.sprinter.domain.entity.Attachment;
 import com.sprinter.domain.entity.WorkItem;
+import com.sprinter.domain.repository.AttachmentRepository;
+import com.sprinter.domain.repository.StoredBlobRepository;
+import com.sprinter.domain.repository.UserRepository;
 import com.sprinter.domain.repository.WorkItemRepository;
 import com.sprinter.exception.ResourceNotFoundException;
 import com.sprinter.exception.SprinterException;
 import com.sprinter.exception.ValidationException;
 import com.sprinter.security.SecurityUtils;
+import com.sprinter.service.event.AttachmentStoredEvent;
+import com.sprinter.service.storage.BlobStore;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Servisní třída pro ukládání a správu souborových příloh.
  *
- * <p>Soubory jsou ukládány na disk v adresářové struktuře
- * {@code uploads/attachments/<workItemId>/}. V databázi se ukládá pouze metadata.</p>
+ * <p>Obsah příloh je uložen jen jednou pod svým otiskem SHA-256
+ * (klíč {@code blobs/ab/cd/<sha256>} v {@link BlobStore} – adresář
+ * {@code sprinter.uploads.dir}, nebo S3); v databázi jsou metadata přílohy
+ * a řádek {@code blobs} s počtem odkazů, který udržuje trigger. Nahrávaný soubor
+ * se při zápisu do dočasného souboru rovnou hashuje – pokud už stejný obsah
+ * existuje, dočasný soubor se jen smaže a do úložiště se nic nezapisuje.</p>
+ *
+ * <p>Textový obsah (logy, CSV, JSON…) se při ukládání komprimuje gzipem
+ * ({@code <sha256>.gz}), pokud to ušetří aspoň {@code sprinter.uploads.compression.min-saving}.
+ * Kódování se zaznamená na přílohu; otisk i velikost zůstávají původní.</p>
+ *
+ * <p>Dočasné soubory, rozpracovaná nahrávání a starší přílohy zůstávají
+ * v místním adresáři {@code sprinter.uploads.dir} i při vzdáleném úložišti.</p>
+ *
+ * <p>Bloby bez odkazů maže plánovaný úklid až po ochranné lhůtě. Nahrávání
+ * před zápisem do úložiště blob krátkou transakcí zaregistruje a lhůtu mu obnoví,
+ * samotný přenos (u S3 i vícedílný) pak běží bez zámku a bez transakce. Zámek
+ * řádku se vezme až v transakci, která vytváří přílohu, a drží se do commitu –
+ * úklid zamčené řádky přeskakuje, takže nemůže smazat obsah, na který právě
+ * vzniká odkaz. Dvě souběžná nahrání stejného obsahu ho mohou zapsat obě;
+ * zápis je idempotentní.</p>
  */
 @Service
 @RequiredArgsConstructor
@@ -35,22 +85,59 @@ import java.util.UUID;
 @Transactional
 public class FileStorageService {
 
+    private static final int BUFFER_SIZE  = 64 * 1024;
+    private static final int GC_BATCH     = 500;
+    private static final int LEGACY_BATCH = 200;
+
     @Value("${sprinter.uploads.dir}")
     private String uploadsDir;
 
     @Value("${sprinter.uploads.max-file-size-mb:25}")
     private long maxFileSizeMb;
 
-    private final WorkItemRepository workItemRepository;
-    private final ProjectService     projectService;
+    /** Jak dlouho blob bez odkazů přežije, než ho úklid smaže. */
+    @Value("${sprinter.uploads.gc-grace:PT24H}")
+    private Duration gcGrace;
+
+    @Value("${sprinter.uploads.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    /** Komprimované typy; položka končící {@code /*} pokryje celý hlavní typ. */
+    @Value("${sprinter.uploads.compression.types:text/*,application/json,application/xml}")
+    private List<String> compressibleTypes;
+
+    /** Menší soubory se nekomprimují – úspora by nevyvážila režii. */
+    @Value("${sprinter.uploads.compression.min-size-bytes:4096}")
+    private long compressionMinSize;
+
+    /** Minimální úspora (podíl původní velikosti), jinak se uloží nekomprimovaný obsah. */
+    @Value("${sprinter.uploads.compression.min-saving:0.1}")
+    private double compressionMinSaving;
+
+    @Value("${sprinter.uploads.compression.level:6}")
+    private int compressionLevel;
 
-    private Path rootPath;
+    private final WorkItemRepository        workItemRepository;
+    private final AttachmentRepository      attachmentRepository;
+    private final StoredBlobRepository      blobRepository;
+    private final UserRepository            userRepository;
+    private final ProjectService            projectService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlobStore                 blobStore;
+    private final PlatformTransactionManager transactionManager;
+
+    private Path                rootPath;
+    private Path                tmpPath;
+    private TransactionTemplate tx;
 
     @PostConstruct
     public void init() {
         rootPath = Paths.get(uploadsDir).toAbsolutePath().normalize();
+        tmpPath  = rootPath.resolve("tmp");
+        tx       = new TransactionTemplate(transactionManager);
         try {
-            Files.createDirectories(rootPath);
+            Files.createDirectories(tmpPath);
+            Files.createDirectories(rootPath.resolve("partial"));
             log.info("Adresář pro nahrávání souborů: {}", rootPath);
         } catch (IOException e) {
             throw new SprinterException("Nelze vytvořit adresář pro nahrávání: " + rootPath, e);
@@ -60,10 +147,14 @@ public class FileStorageService {
     /**
      * Nahraje přílohu k pracovní položce.
      *
+     * <p>Běží mimo transakci – zápis do úložiště nedrží spojení s databází;
+     * příloha se vytvoří až v krátké transakci na konci.</p>
+     *
      * @param workItemId ID pracovní položky
      * @param file       nahrávaný soubor
      * @return metadata přílohy (uložené v DB)
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Attachment uploadAttachment(Long workItemId, MultipartFile file) {
         var workItem = workItemRepository.findById(workItemId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pracovní položka", workItemId));
@@ -71,57 +162,454 @@ public class FileStorageService {
         projectService.requireContentEditAccess(workItem.getProject().getId());
 
         // Validace velikosti souboru
-        if (file.getSize() > maxFileSizeMb * 1024 * 1024) {
+        if (file.getSize() > maxFileBytes()) {
             throw new ValidationException(
                     "Soubor je příliš velký. Maximum je " + maxFileSizeMb + " MB.");
         }
 
-        String originalName  = file.getOriginalFilename() != null
+        String originalName = file.getOriginalFilename() != null
                 ? file.getOriginalFilename() : "unknown";
-        String extension     = getExtension(originalName);
-        String storedName    = UUID.randomUUID() + (extension.isEmpty() ? "" : "." + extension);
 
-        // Adresář pro přílohy dané položky
-        Path targetDir  = rootPath.resolve("attachments").resolve(workItemId.toString());
-        Path targetPath = targetDir.resolve(storedName);
+        StagedContent staged;
+        try (InputStream in = file.getInputStream()) {
+            staged = stage(in, maxFileBytes());
+        } catch (IOException e) {
+            throw new SprinterException("Chyba při ukládání souboru: " + originalName, e);
+        }
+        String encoding = storeBlob(staged, file.getContentType());
+
+        return tx.execute(status -> {
+            lockBlob(staged.sha256(), staged.size(), encoding);
+            var current = workItemRepository.findById(workItemId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Pracovní položka", workItemId));
+            return attach(current, originalName, file.getContentType(), staged.sha256(), staged.size(), encoding);
+        });
+    }
+
+    /**
+     * Najde přílohu a ověří, že má aktuální uživatel přístup k jejímu projektu.
+     *
+     * @throws ResourceNotFoundException pokud příloha neexistuje
+     * @throws com.sprinter.exception.AccessDeniedException pokud uživatel nemá přístup
+     */
+    @Transactional(readOnly = true)
+    public Attachment findAccessible(Long attachmentId) {
+        var attachment = attachmentRepository.findById(attachmentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Příloha", attachmentId));
+        projectService.requireAccess(attachment.getWorkItem().getProject().getId());
+        return attachment;
+    }
+
+    /** Klíč blobu v úložišti ({@code blobs/ab/cd/<sha256>}). */
+    public static String blobKey(String sha256) {
+        return "blobs/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+
+    /** Klíč komprimovaného blobu ({@code blobs/ab/cd/<sha256>.gz}). */
+    public static String compressedBlobKey(String sha256) {
+        return blobKey(sha256) + ".gz";
+    }
+
+    /** Klíč uloženého obsahu přílohy v úložišti blobů (komprimovaný nebo původní). */
+    public static String storageKey(Attachment attachment) {
+        return attachment.isGzipped()
+                ? compressedBlobKey(attachment.getBlobSha256())
+                : blobKey(attachment.getBlobSha256());
+    }
+
+    /** Klíč náhledu blobu ({@code blobs/ab/cd/<sha256>.thumb.jpg}) – maže se spolu s blobem. */
+    public static String thumbnailKey(String sha256) {
+        return blobKey(sha256) + ".thumb.jpg";
+    }
+
+    // ---- Čtení obsahu ----
+
+    /**
+     * Vrátí místní soubor s uloženým obsahem přílohy (komprimovaný zůstává komprimovaný),
+     * nebo prázdnou hodnotu, pokud ho vzdálené úložiště lze číst jen proudem.
+     */
+    public Optional<Path> localFile(Attachment attachment) throws IOException {
+        if (attachment.getBlobSha256() == null) {
+            Path legacy = getLegacyPath(attachment);
+            return Files.isRegularFile(legacy) ? Optional.of(legacy) : Optional.empty();
+        }
+        return blobStore.localFile(storageKey(attachment));
+    }
+
+    /**
+     * Vrátí true, pokud soubor z {@link #localFile} zůstane na místě i po návratu
+     * z controlleru – lze ho tedy předat serveru k odeslání přes sendfile.
+     */
+    public boolean isStableLocalFile(Attachment attachment) {
+        return attachment.getBlobSha256() == null || blobStore.isLocal();
+    }
+
+    /** Vrátí velikost uloženého obsahu přílohy (u komprimovaného velikost po kompresi). */
+    public long storedSize(Attachment attachment) throws IOException {
+        return attachment.getBlobSha256() == null
+                ? Files.size(getLegacyPath(attachment))
+                : blobStore.size(storageKey(attachment));
+    }
 
+    /** Otevře rozsah {@code start}–{@code end} (včetně) uloženého obsahu přílohy. */
+    public InputStream openStoredRange(Attachment attachment, long start, long end) throws IOException {
+        if (attachment.getBlobSha256() != null) {
+            return blobStore.openRange(storageKey(attachment), start, end);
+        }
+        InputStream in = Files.newInputStream(getLegacyPath(attachment));
+        in.skipNBytes(start);
+        return in;
+    }
+
+    /**
+     * Otevře obsah přílohy v původní podobě – komprimovaný obsah se rozbaluje průběžně.
+     */
+    public InputStream openContent(Attachment attachment) throws IOException {
+        return attachment.getBlobSha256() != null
+                ? openBlob(attachment.getBlobSha256(), attachment.isGzipped())
+                : Files.newInputStream(getLegacyPath(attachment));
+    }
+
+    /** Otevře starší přílohu mimo úložiště blobů ({@code attachments/<workItemId>/<storedFilename>}). */
+    public InputStream openLegacy(Long workItemId, String storedFilename) throws IOException {
+        return Files.newInputStream(getLegacyPath(workItemId, storedFilename));
+    }
+
+    /**
+     * Otevře obsah blobu v původní podobě.
+     *
+     * @param gzipped blob je uložen komprimovaný ({@link Attachment#isGzipped()})
+     */
+    public InputStream openBlob(String sha256, boolean gzipped) throws IOException {
+        if (!gzipped) {
+            return blobStore.open(blobKey(sha256));
+        }
+        InputStream in = blobStore.open(compressedBlobKey(sha256));
         try {
-            Files.createDirectories(targetDir);
-            Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+            return new GZIPInputStream(in, BUFFER_SIZE);
         } catch (IOException e) {
-            throw new SprinterException("Chyba při ukládání souboru: " + originalName, e);
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Vrátí cestu k souboru rozpracovaného obnovitelného nahrávání
+     * ({@code partial/<uploadId>.part}). Leží na stejném svazku jako dočasné soubory
+     * i místní úložiště, takže na něj lze po dokončení vytvořit pevný odkaz
+     * ({@link #linkTempFile}) a ten do úložiště přesunout atomicky.
+     */
+    Path getPartialPath(String uploadId) {
+        return rootPath.resolve("partial").resolve(uploadId + ".part");
+    }
+
+    /** Vrátí kořenový adresář úložiště ({@code sprinter.uploads.dir}). */
+    Path getRootPath() {
+        return rootPath;
+    }
+
+    /** Vrátí volné místo na svazku úložiště v bajtech. */
+    long usableSpace() throws IOException {
+        return Files.getFileStore(rootPath).getUsableSpace();
+    }
+
+    // ---- Úklid ----
+
+    /**
+     * Smaže bloby, na které už žádná příloha neodkazuje déle než ochranná lhůta.
+     * Soubor se maže ještě pod zámkem řádku – když transakce selže, zůstane řádek
+     * bez souboru a další nahrání stejného obsahu soubor znovu zapíše.
+     *
+     * @return počet smazaných blobů
+     */
+    @Scheduled(initialDelayString = "PT5M", fixedDelayString = "${sprinter.uploads.gc-interval:PT1H}")
+    public int collectGarbage() {
+        int deleted = 0;
+        for (String sha256 : blobRepository.lockUnreferenced(LocalDateTime.now().minus(gcGrace), GC_BATCH)) {
+            try {
+                blobStore.delete(thumbnailKey(sha256));
+                blobStore.delete(compressedBlobKey(sha256));
+                blobStore.delete(blobKey(sha256));
+            } catch (IOException e) {
+                log.warn("Nelze smazat blob {}: {}", sha256, e.getMessage());
+                continue;
+            }
+            deleted += blobRepository.deleteUnreferenced(sha256);
+        }
+        if (deleted > 0) {
+            log.info("Úklid úložiště příloh: smazáno {} nepoužívaných blobů", deleted);
+        }
+        return deleted;
+    }
+
+    /**
+     * Po startu převede starší přílohy ({@code attachments/<workItemId>/<uuid>})
+     * do úložiště blobů. Původní soubory se smažou až po commitu.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyAttachments() {
+        List<Path> legacyFiles = new ArrayList<>();
+        long lastId = 0;
+        List<Attachment> batch;
+        do {
+            batch = attachmentRepository.findLegacy(lastId, PageRequest.of(0, LEGACY_BATCH));
+            for (Attachment attachment : batch) {
+                lastId = attachment.getId();
+                Path legacy = getLegacyPath(attachment);
+                if (!Files.isRegularFile(legacy)) {
+                    log.warn("Příloha ID={} nemá soubor {}", attachment.getId(), legacy);
+                    continue;
+                }
+                try (InputStream in = Files.newInputStream(legacy)) {
+                    StagedContent staged = stage(in, Long.MAX_VALUE);
+                    String encoding = storeBlob(staged, attachment.getContentType());
+                    lockBlob(staged.sha256(), staged.size(), encoding);
+                    attachment.setContentEncoding(encoding);
+                    attachment.setBlobSha256(staged.sha256());
+                    legacyFiles.add(legacy);
+                } catch (IOException e) {
+                    log.warn("Přílohu ID={} nelze převést: {}", attachment.getId(), e.getMessage());
+                }
+            }
+        } while (batch.size() == LEGACY_BATCH);
+
+        if (legacyFiles.isEmpty()) {
+            return;
+        }
+        log.info("Do úložiště blobů převedeno {} starších příloh", legacyFiles.size());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Path legacy : legacyFiles) {
+                    try {
+                        Files.deleteIfExists(legacy);
+                    } catch (IOException e) {
+                        log.warn("Nelze smazat převedený soubor {}: {}", legacy, e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    // ---- Pomocné metody ----
+
+    /** Obsah zapsaný do dočasného souboru spolu s otiskem a velikostí. */
+    record StagedContent(Path tempFile, String sha256, long size) {}
+
+    /**
+     * Zapíše proud do dočasného souboru a zároveň spočítá jeho SHA-256.
+     *
+     * @throws ValidationException pokud proud přesáhne {@code maxBytes}
+     */
+    StagedContent stage(InputStream in, long maxBytes) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = createTempFile("upload-");
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            byte[]     buffer = new byte[BUFFER_SIZE];
+            ByteBuffer wrap   = ByteBuffer.wrap(buffer);
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new ValidationException("Soubor je příliš velký. Maximum je " + maxFileSizeMb + " MB.");
+                }
+                digest.update(buffer, 0, read);
+                wrap.clear().limit(read);
+                while (wrap.hasRemaining()) {
+                    channel.write(wrap);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return new StagedContent(temp, HexFormat.of().formatHex(digest.digest()), size);
+    }
+
+    /**
+     * Přesune do úložiště dočasný soubor – jen pokud tam stejný obsah ještě není.
+     * Komprimovatelný obsah se před zápisem zkomprimuje.
+     *
+     * <p>Blob se nejdřív zaregistruje vlastní krátkou transakcí (obnoví se mu
+     * ochranná lhůta), samotný zápis pak běží bez zámku. Volá se mimo transakci
+     * a po ní musí v transakci vytvářející přílohu následovat {@link #lockBlob}.
+     * Při volání uvnitř transakce (převod starších příloh) se registrace připojí
+     * k ní a řádek zůstane zamčený až do jejího konce.</p>
+     *
+     * @return kódování uloženého obsahu ({@link Attachment#ENCODING_GZIP} nebo null)
+     */
+    String storeBlob(StagedContent staged, String contentType) {
+        String raw      = blobKey(staged.sha256());
+        String gzip     = compressedBlobKey(staged.sha256());
+        Path compressed = null;
+        try {
+            tx.executeWithoutResult(status -> blobRepository.reserve(staged.sha256(), staged.size()));
+
+            boolean rawExists = blobStore.exists(raw);
+            if (rawExists || blobStore.exists(gzip)) {
+                Files.deleteIfExists(staged.tempFile());
+                log.debug("Obsah {} už je uložen – zápis přeskočen", staged.sha256());
+                return rawExists ? null : Attachment.ENCODING_GZIP;
+            }
+            if (isCompressible(contentType, staged.size())) {
+                compressed = compress(staged.tempFile(), staged.size());
+            }
+            if (compressed == null) {
+                blobStore.store(raw, staged.tempFile());
+                return null;
+            }
+            blobStore.store(gzip, compressed);
+            Files.deleteIfExists(staged.tempFile());
+            return Attachment.ENCODING_GZIP;
+        } catch (IOException e) {
+            if (compressed != null) {
+                try {
+                    Files.deleteIfExists(compressed);
+                } catch (IOException ignored) {
+                    // zbytek smaže úklid dočasných souborů
+                }
+            }
+            throw new SprinterException("Chyba při ukládání souboru do úložiště.", e);
+        }
+    }
+
+    /**
+     * Zamkne řádek blobu do konce aktuální transakce a ověří, že obsah uložený
+     * {@link #storeBlob} v úložišti stále je. Volá se v transakci, která na blob
+     * vytváří odkaz.
+     *
+     * @param contentEncoding kódování vrácené z {@link #storeBlob}
+     * @throws SprinterException pokud obsah mezitím smazal úklid (přenos trval déle než ochranná lhůta)
+     */
+    void lockBlob(String sha256, long size, String contentEncoding) {
+        blobRepository.upsertAndLock(sha256, size);
+        String key = Attachment.ENCODING_GZIP.equals(contentEncoding) ? compressedBlobKey(sha256) : blobKey(sha256);
+        try {
+            if (!blobStore.exists(key)) {
+                throw new SprinterException("Obsah souboru mezitím zmizel z úložiště. Nahrajte soubor znovu.",
+                        HttpStatus.CONFLICT);
+            }
+        } catch (IOException e) {
+            throw new SprinterException("Chyba při ověřování souboru v úložišti.", e);
         }
+    }
 
+    /** Vytvoří záznam přílohy odkazující na blob. */
+    Attachment attach(WorkItem workItem, String originalName, String contentType,
+                      String sha256, long size, String contentEncoding) {
         var attachment = new Attachment();
         attachment.setWorkItem(workItem);
         attachment.setOriginalFilename(originalName);
-        attachment.setStoredFilename(storedName);
-        attachment.setContentType(file.getContentType());
-        attachment.setFileSize(file.getSize());
-        attachment.setUploadedBy(SecurityUtils.getCurrentUser()
+        attachment.setStoredFilename(sha256);
+        attachment.setBlobSha256(sha256);
+        attachment.setContentType(contentType);
+        attachment.setFileSize(size);
+        attachment.setContentEncoding(contentEncoding);
+        attachment.setUploadedBy(SecurityUtils.getCurrentUserId().map(userRepository::getReferenceById)
                 .orElseThrow(() -> new SprinterException("Není přihlášen žádný uživatel.", HttpStatus.UNAUTHORIZED)));
 
+        attachmentRepository.save(attachment);
         workItem.getAttachments().add(attachment);
-        workItemRepository.save(workItem);
+        eventPublisher.publishEvent(new AttachmentStoredEvent(sha256, contentType));
 
-        log.info("Nahrána příloha '{}' k položce ID={}", originalName, workItemId);
+        log.info("Nahrána příloha '{}' k položce ID={} ({} B, {})",
+                 originalName, workItem.getId(), size, sha256);
         return attachment;
     }
 
+    /** Cesta ke starší příloze ({@code attachments/<workItemId>/<storedFilename>}). */
+    private Path getLegacyPath(Attachment attachment) {
+        return getLegacyPath(attachment.getWorkItem().getId(), attachment.getStoredFilename());
+    }
+
+    private Path getLegacyPath(Long workItemId, String storedFilename) {
+        return rootPath.resolve("attachments").resolve(String.valueOf(workItemId)).resolve(storedFilename).normalize();
+    }
+
+    /** Vytvoří prázdný dočasný soubor na stejném svazku jako úložiště. */
+    Path createTempFile(String prefix) throws IOException {
+        return Files.createTempFile(tmpPath, prefix, ".part");
+    }
+
     /**
-     * Vrátí cestu k souboru na disku.
+     * Vytvoří mezi dočasnými soubory pevný odkaz na soubor (nebo jeho kopii,
+     * pokud svazek odkazy nepodporuje). Původní soubor zůstane na místě –
+     * odkaz lze předat {@link #storeBlob}, který si ho přivlastní.
      */
-    public Path getAttachmentPath(Long workItemId, String storedFilename) {
-        return rootPath.resolve("attachments")
-                       .resolve(workItemId.toString())
-                       .resolve(storedFilename)
-                       .normalize();
+    Path linkTempFile(Path source) throws IOException {
+        Path temp = createTempFile("link-");
+        Files.delete(temp);
+        try {
+            return Files.createLink(temp, source);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            return temp;
+        }
     }
 
-    // ---- Pomocné metody ----
+    /** Vrátí true, pokud má smysl obsah daného typu a velikosti komprimovat. */
+    private boolean isCompressible(String contentType, long size) {
+        return compressionEnabled && size >= compressionMinSize && isCompressibleType(contentType);
+    }
 
-    private String getExtension(String filename) {
-        int dot = filename.lastIndexOf('.');
-        return dot >= 0 ? filename.substring(dot + 1).toLowerCase() : "";
+    /** Vrátí true, pokud je typ obsahu mezi komprimovatelnými ({@code sprinter.uploads.compression.types}). */
+    public boolean isCompressibleType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        int semicolon = type.indexOf(';');
+        if (semicolon >= 0) {
+            type = type.substring(0, semicolon);
+        }
+        type = type.trim();
+        for (String pattern : compressibleTypes) {
+            String p = pattern.trim().toLowerCase(Locale.ROOT);
+            if (p.endsWith("/*") ? type.startsWith(p.substring(0, p.length() - 1)) : type.equals(p)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Zkomprimuje soubor gzipem do dočasného souboru.
+     *
+     * @return komprimovaný soubor, nebo null, pokud úspora nedosáhla {@code min-saving}
+     */
+    private Path compress(Path source, long size) throws IOException {
+        long started = System.nanoTime();
+        Path temp = createTempFile("gzip-");
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), BUFFER_SIZE) {
+                 { def.setLevel(compressionLevel); }
+             }) {
+            in.transferTo(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        long compressedSize = Files.size(temp);
+        if (compressedSize > size * (1 - compressionMinSaving)) {
+            Files.deleteIfExists(temp);
+            log.debug("Komprese nestojí za to ({} B -> {} B), obsah se uloží nekomprimovaný", size, compressedSize);
+            return null;
+        }
+        log.debug("Obsah zkomprimován {} B -> {} B za {} ms", size, compressedSize,
+                  Duration.ofNanos(System.nanoTime() - started).toMillis());
+        return temp;
+    }
+
+    private long maxFileBytes() {
+        return maxFileSizeMb * 1024 * 1024;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,299 @@
+package com.sprinter.service;
+
+import com.sprinter.domain.entity.FlowTimeSketch;
+import com.sprinter.domain.entity.Project;
+import com.sprinter.domain.entity.User;
+import com.sprinter.domain.entity.WorkItem;
+import com.sprinter.domain.enums.*;
+import com.sprinter.domain.repository.FlowTimeSketchRepository;
+import com.sprinter.domain.repository.ProjectRepository;
+import com.sprinter.domain.repository.UserRepository;
+import com.sprinter.domain.repository.WorkItemStatusTransitionRepository;
+import com.sprinter.dto.FlowTimeStats;
+import com.sprinter.exception.SprinterException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.DataFormatException;
+
+/**
+ * Service pro statistiky doby průtoku – lead time (vytvoření → dokončení)
+ * a cycle time (první „Probíhá" → dokončení) s percentily p50/p85/p95.
+ *
+ * <p>Pro každou kombinaci projekt × metrika × dimenze × hodnota se udržuje
+ * HdrHistogram, do kterého se položka zapíše v okamžiku prvního dokončení.
+ * Dotazy na percentily tak nečtou jednotlivé položky a histogramy více projektů
+ * se pro souhrnné statistiky jednoduše sečtou.</p>
+ *
+ * <p>Znovuotevřená a opět dokončená položka se započítá jen jednou (při prvním
+ * dokončení). Histogramy lze kdykoli přepočítat z historie přechodů stavů.</p>
+ */
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class FlowMetricsService {
+
+    /** Nejvyšší sledovaná doba (10 let v minutách); delší doby se ořežou. */
+    private static final long MAX_MINUTES = 10L * 366 * 24 * 60;
+
+    /** Počet platných číslic histogramu (relativní chyba ~1 %). */
+    private static final int PRECISION_DIGITS = 2;
+
+    /** Typy položek, u kterých má doba průtoku smysl. */
+    private static final Set<WorkItemType> MEASURED_TYPES =
+            EnumSet.of(WorkItemType.TASK, WorkItemType.ISSUE, WorkItemType.STORY);
+
+    private final FlowTimeSketchRepository           sketchRepository;
+    private final WorkItemStatusTransitionRepository transitionRepository;
+    private final ProjectRepository                  projectRepository;
+    private final UserRepository                     userRepository;
+    private final ProjectService                     projectService;
+
+    // ---- Zápis ----
+
+    /**
+     * Zapíše dokončenou položku do histogramů jejího projektu.
+     * Volá se ze {@link WorkItemService#changeStatus} po zaznamenání přechodu do DONE.
+     */
+    public void recordCompletion(WorkItem workItem) {
+        if (!MEASURED_TYPES.contains(workItem.getType()) || workItem.getCompletedAt() == null) {
+            return;
+        }
+        if (transitionRepository.countByWorkItemIdAndToStatus(workItem.getId(), WorkItemStatus.DONE) > 1) {
+            return;
+        }
+
+        LocalDateTime started = transitionRepository
+                .findFirstByWorkItemIdAndToStatusOrderByTransitionedAtAsc(workItem.getId(), WorkItemStatus.IN_PROGRESS)
+                .map(t -> t.getTransitionedAt())
+                .orElse(null);
+        Long assigneeId = workItem.getAssignee() != null ? workItem.getAssignee().getId() : null;
+        Long projectId  = workItem.getProject().getId();
+
+        // Pevné pořadí metrik a dimenzí = pevné pořadí zamykání řádků (bez deadlocků)
+        for (FlowMetric metric : FlowMetric.values()) {
+            Long minutes = durationMinutes(metric, workItem.getCreatedAt(), started, workItem.getCompletedAt());
+            if (minutes == null) continue;
+            for (FlowDimension dimension : FlowDimension.values()) {
+                String key = dimensionKey(dimension, workItem.getType(), workItem.getPriority(), assigneeId);
+                if (key != null) {
+                    addToSketch(projectId, metric, dimension, key, minutes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Přepočítá histogramy projektu z historie přechodů stavů.
+     *
+     * @return počet započítaných položek
+     */
+    public int rebuildProject(Long projectId) {
+        projectService.requireManageAccess(projectId);
+        return rebuild(projectId);
+    }
+
+    /**
+     * Po startu dopočítá histogramy projektům, které je ještě nemají
+     * (dokončené položky z doby před zavedením statistik).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildMissingSketches() {
+        for (Long projectId : sketchRepository.findProjectIdsWithoutSketches(MEASURED_TYPES)) {
+            int items = rebuild(projectId);
+            log.info("Přepočítány histogramy doby průtoku projektu {} ({} položek)", projectId, items);
+        }
+    }
+
+    // ---- Čtení ----
+
+    /**
+     * Vrátí percentily doby průtoku projektu v členění dle dimenze.
+     */
+    @Transactional(readOnly = true)
+    public List<FlowTimeStats> getProjectStats(Long projectId, FlowMetric metric, FlowDimension dimension) {
+        projectService.requireAccess(projectId);
+        return toStats(dimension, sketchRepository.findByProjectIdAndMetricAndDimension(projectId, metric, dimension));
+    }
+
+    /**
+     * Vrátí percentily doby průtoku sloučené přes všechny projekty (včetně podprojektů)
+     * dostupné aktuálnímu uživateli.
+     */
+    @Transactional(readOnly = true)
+    public List<FlowTimeStats> getMergedStats(FlowMetric metric, FlowDimension dimension) {
+        var projectIds = new HashSet<Long>();
+        for (Project project : projectService.findProjectsForCurrentUser()) {
+            projectIds.add(project.getId());
+            projectService.findSubprojects(project.getId()).forEach(sub -> projectIds.add(sub.getId()));
+        }
+        if (projectIds.isEmpty()) {
+            return List.of();
+        }
+        return toStats(dimension, sketchRepository.findByProjectIdInAndMetricAndDimension(projectIds, metric, dimension));
+    }
+
+    // ---- Pomocné metody ----
+
+    private int rebuild(Long projectId) {
+        sketchRepository.deleteByProjectId(projectId);
+
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        List<Object[]> rows = transitionRepository.findCompletionSpans(
+                projectId, MEASURED_TYPES, WorkItemStatus.DONE, WorkItemStatus.IN_PROGRESS);
+        for (Object[] row : rows) {
+            var           type       = (WorkItemType) row[1];
+            var           priority   = (Priority) row[2];
+            var           assigneeId = (Long) row[3];
+            var           created    = (LocalDateTime) row[4];
+            var           done       = (LocalDateTime) row[5];
+            LocalDateTime started    = row[6] != null && !((LocalDateTime) row[6]).isAfter(done)
+                                       ? (LocalDateTime) row[6] : null;
+
+            for (FlowMetric metric : FlowMetric.values()) {
+                Long minutes = durationMinutes(metric, created, started, done);
+                if (minutes == null) continue;
+                for (FlowDimension dimension : FlowDimension.values()) {
+                    String key = dimensionKey(dimension, type, priority, assigneeId);
+                    if (key != null) {
+                        histograms.computeIfAbsent(metric + "|" + dimension + "|" + key, k -> newHistogram())
+                                  .recordValue(minutes);
+                    }
+                }
+            }
+        }
+
+        Project project = projectRepository.getReferenceById(projectId);
+        LocalDateTime now = LocalDateTime.now();
+        var sketches = new ArrayList<FlowTimeSketch>(histograms.size());
+        histograms.forEach((id, histogram) -> {
+            String[] parts = id.split("\\|", 3);
+            sketches.add(FlowTimeSketch.builder()
+                    .project(project)
+                    .metric(FlowMetric.valueOf(parts[0]))
+                    .dimension(FlowDimension.valueOf(parts[1]))
+                    .dimensionKey(parts[2])
+                    .itemCount(histogram.getTotalCount())
+                    .sketch(encode(histogram))
+                    .updatedAt(now)
+                    .build());
+        });
+        sketchRepository.saveAll(sketches);
+        return rows.size();
+    }
+
+    private void addToSketch(Long projectId, FlowMetric metric, FlowDimension dimension,
+                             String key, long minutes) {
+        var sketch = sketchRepository.findForUpdate(projectId, metric, dimension, key)
+                .orElseGet(() -> {
+                    sketchRepository.insertIfMissing(projectId, metric.name(), dimension.name(), key,
+                            encode(newHistogram()));
+                    return sketchRepository.findForUpdate(projectId, metric, dimension, key)
+                            .orElseThrow(() -> new SprinterException("Histogram doby průtoku nelze založit."));
+                });
+
+        Histogram histogram = decode(sketch.getSketch());
+        histogram.recordValue(minutes);
+        sketch.setSketch(encode(histogram));
+        sketch.setItemCount(histogram.getTotalCount());
+        sketch.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private List<FlowTimeStats> toStats(FlowDimension dimension, List<FlowTimeSketch> sketches) {
+        Map<String, Histogram> merged = new HashMap<>();
+        for (FlowTimeSketch sketch : sketches) {
+            Histogram histogram = decode(sketch.getSketch());
+            merged.merge(sketch.getDimensionKey(), histogram, (a, b) -> { a.add(b); return a; });
+        }
+
+        Function<String, String> labels = labelResolver(dimension, merged.keySet());
+        return merged.entrySet().stream()
+                .map(e -> new FlowTimeStats(
+                        e.getKey(),
+                        labels.apply(e.getKey()),
+                        e.getValue().getTotalCount(),
+                        percentileHours(e.getValue(), 50.0),
+                        percentileHours(e.getValue(), 85.0),
+                        percentileHours(e.getValue(), 95.0)))
+                .sorted(sortOrder(dimension))
+                .toList();
+    }
+
+    private Function<String, String> labelResolver(FlowDimension dimension, Set<String> keys) {
+        return switch (dimension) {
+            case PROJECT  -> key -> "Celkem";
+            case TYPE     -> key -> WorkItemType.valueOf(key).getDisplayName();
+            case PRIORITY -> key -> Priority.valueOf(key).getDisplayName();
+            case ASSIGNEE -> {
+                Map<String, String> names = userRepository
+                        .findAllById(keys.stream().map(Long::valueOf).toList()).stream()
+                        .collect(Collectors.toMap(u -> u.getId().toString(), User::getFullName));
+                yield key -> names.getOrDefault(key, "#" + key);
+            }
+        };
+    }
+
+    private static Comparator<FlowTimeStats> sortOrder(FlowDimension dimension) {
+        return switch (dimension) {
+            case TYPE     -> Comparator.comparing(s -> WorkItemType.valueOf(s.key()));
+            case PRIORITY -> Comparator.comparing((FlowTimeStats s) -> Priority.valueOf(s.key())).reversed();
+            default       -> Comparator.comparing(FlowTimeStats::label);
+        };
+    }
+
+    /** Klíč hodnoty dimenze; null = položka se do dimenze nezapočítává (např. bez řešitele). */
+    private static String dimensionKey(FlowDimension dimension, WorkItemType type,
+                                       Priority priority, Long assigneeId) {
+        return switch (dimension) {
+            case PROJECT  -> "";
+            case TYPE     -> type.name();
+            case PRIORITY -> priority != null ? priority.name() : null;
+            case ASSIGNEE -> assigneeId != null ? assigneeId.toString() : null;
+        };
+    }
+
+    /** Doba průtoku v minutách; null = metriku nelze určit (položka nikdy neprošla „Probíhá"). */
+    private static Long durationMinutes(FlowMetric metric, LocalDateTime created,
+                                        LocalDateTime started, LocalDateTime done) {
+        LocalDateTime from = metric == FlowMetric.LEAD_TIME ? created : started;
+        if (from == null || done == null) {
+            return null;
+        }
+        long minutes = Duration.between(from, done).toMinutes();
+        return Math.max(0, Math.min(minutes, MAX_MINUTES));
+    }
+
+    private static double percentileHours(Histogram histogram, double percentile) {
+        return Math.round(histogram.getValueAtPercentile(percentile) / 6.0) / 10.0;
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(MAX_MINUTES, PRECISION_DIGITS);
+    }
+
+    private static byte[] encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Arrays.copyOf(buffer.array(), length);
+    }
+
+    private static Histogram decode(byte[] bytes) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes), MAX_MINUTES);
+        } catch (DataFormatException e) {
+            throw new SprinterException("Histogram doby průtoku je poškozený.", e);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.sprinter.service;
+
+import com.sprinter.config.CacheConfig;
+import com.sprinter.domain.enums.WorkItemType;
+import com.sprinter.domain.repository.WorkItemRepository;
+import com.sprinter.dto.DeliveryForecast;
+import com.sprinter.exception.ValidationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Service pro pravděpodobnostní předpověď dokončení (Monte Carlo).
+ *
+ * <p>Každá simulace opakovaně losuje týdenní propustnost z historie projektu,
+ * dokud nevyčerpá zbývající práci; výsledkem je rozdělení počtu týdnů do dokončení.
+ * Simulace běží paralelně na společném ForkJoin poolu – každý blok má vlastní
+ * {@link SplittableRandom} odvozený z jednoho semínka, takže výsledek je pro stejné
+ * vstupy deterministický. Vnitřní smyčka pracuje jen s poli {@code int}.</p>
+ *
+ * <p>Výsledek se cachuje podle všech vstupů (zbývající práce, vzorky propustnosti,
+ * datum, počet simulací) – jakmile se některý změní, klíč je jiný a simulace
+ * proběhne znovu.</p>
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ForecastService {
+
+    /** Horizont simulace – déle trvající běhy se počítají jako „nedokončeno". */
+    private static final int MAX_WEEKS = 520;
+
+    /** Vykazované percentily. */
+    private static final int[] PERCENTILES = {50, 70, 85, 95};
+
+    private final WorkItemRepository workItemRepository;
+    private final ProjectService     projectService;
+    private final WorkItemService    workItemService;
+    private final CacheManager       cacheManager;
+
+    @Value("${sprinter.forecast.default-trials:20000}")
+    private int defaultTrials;
+
+    @Value("${sprinter.forecast.max-trials:200000}")
+    private int maxTrials;
+
+    @Value("${sprinter.forecast.history-weeks:12}")
+    private int historyWeeks;
+
+    /**
+     * Předpoví dokončení zbývající práce projektu, případně jen eposu.
+     * Propustnost se vždy vzorkuje z celého projektu (tým je společný).
+     *
+     * @param projectId ID projektu
+     * @param epicId    ID eposu v projektu (null = celý projekt)
+     * @param trials    počet simulací (null = výchozí)
+     */
+    public DeliveryForecast forecast(Long projectId, Long epicId, Integer trials) {
+        projectService.requireAccess(projectId);
+
+        int runs = trials != null ? trials : defaultTrials;
+        if (runs < 100 || runs > maxTrials) {
+            throw new ValidationException("Počet simulací musí být mezi 100 a " + maxTrials + ".");
+        }
+
+        int remaining;
+        if (epicId != null) {
+            var epic = workItemService.findById(epicId);
+            if (!epic.getProject().getId().equals(projectId) || epic.getType() != WorkItemType.EPIC) {
+                throw new ValidationException("Položka " + epic.getItemKey() + " není epos tohoto projektu.");
+            }
+            remaining = (int) workItemRepository.countOpenDescendants(epicId);
+        } else {
+            remaining = (int) workItemRepository.countOpenInProject(projectId);
+        }
+
+        LocalDate today   = LocalDate.now();
+        int[]     samples = weeklyThroughput(projectId, today);
+        if (remaining > 0 && Arrays.stream(samples).allMatch(s -> s == 0)) {
+            throw new ValidationException("Za posledních " + samples.length
+                    + " týdnů nebyla dokončena žádná položka – předpověď nelze spočítat.");
+        }
+
+        var key   = new ForecastKey(projectId, epicId, remaining, Arrays.toString(samples), today, runs);
+        var cache = cacheManager.getCache(CacheConfig.DELIVERY_FORECASTS);
+        if (cache == null) {
+            return compute(key, samples);
+        }
+        return cache.get(key, () -> compute(key, samples));
+    }
+
+    // ---- Pomocné metody ----
+
+    /**
+     * Počty dokončených položek v posledních týdnech (klouzavá 7denní okna končící dnes).
+     * Týdny před založením projektu se nevzorkují.
+     */
+    private int[] weeklyThroughput(Long projectId, LocalDate today) {
+        var  project = projectService.findById(projectId);
+        long age     = project.getCreatedAt() != null
+                       ? ChronoUnit.DAYS.between(project.getCreatedAt().toLocalDate(), today) / 7 + 1
+                       : historyWeeks;
+        int  weeks   = (int) Math.max(1, Math.min(historyWeeks, age));
+
+        LocalDateTime since  = today.plusDays(1).minusWeeks(weeks).atStartOfDay();
+        int[]         counts = new int[weeks];
+        for (LocalDateTime completedAt : workItemRepository.findCompletionTimesSince(projectId, since)) {
+            long week = ChronoUnit.DAYS.between(completedAt.toLocalDate(), today) / 7;
+            if (week >= 0 && week < weeks) {
+                counts[(int) week]++;
+            }
+        }
+        return counts;
+    }
+
+    private DeliveryForecast compute(ForecastKey key, int[] samples) {
+        long  start     = System.nanoTime();
+        int[] histogram = key.remaining() > 0
+                ? simulate(samples, key.remaining(), key.trials(), key.hashCode())
+                : zeroWeeks(key.trials());
+
+        var percentiles = new ArrayList<DeliveryForecast.Percentile>(PERCENTILES.length);
+        for (int percent : PERCENTILES) {
+            long    target = (long) Math.ceil(key.trials() * percent / 100.0);
+            long    seen   = 0;
+            Integer weeks  = null;
+            for (int w = 0; w <= MAX_WEEKS; w++) {
+                seen += histogram[w];
+                if (seen >= target) {
+                    weeks = w;
+                    break;
+                }
+            }
+            percentiles.add(new DeliveryForecast.Percentile(
+                    percent, weeks, weeks != null ? key.today().plusWeeks(weeks) : null));
+        }
+
+        log.debug("Předpověď projektu {} (epos {}): {} simulací za {} ms",
+                key.projectId(), key.epicId(), key.trials(), (System.nanoTime() - start) / 1_000_000);
+        return new DeliveryForecast(key.projectId(), key.epicId(), key.remaining(),
+                samples, key.trials(), List.copyOf(percentiles));
+    }
+
+    /**
+     * Spustí simulace a vrátí histogram počtu týdnů do dokončení.
+     * Index {@code MAX_WEEKS + 1} počítá běhy, které nedoběhly v horizontu.
+     */
+    static int[] simulate(int[] samples, int remaining, int trials, long seed) {
+        int chunks = Math.max(1, Math.min(trials / 1000, ForkJoinPool.getCommonPoolParallelism() * 4));
+
+        // Generátory se odvozují sekvenčně, aby výsledek nezávisel na plánování vláken
+        var root = new SplittableRandom(seed);
+        var rngs = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            rngs[c] = root.split();
+        }
+
+        int[][] partial = new int[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[]            histogram = new int[MAX_WEEKS + 2];
+            SplittableRandom rng       = rngs[c];
+            int              from      = (int) ((long) trials * c / chunks);
+            int              to        = (int) ((long) trials * (c + 1) / chunks);
+            for (int t = from; t < to; t++) {
+                int left  = remaining;
+                int weeks = 0;
+                while (left > 0 && weeks <= MAX_WEEKS) {
+                    left -= samples[rng.nextInt(samples.length)];
+                    weeks++;
+                }
+                histogram[left > 0 ? MAX_WEEKS + 1 : weeks]++;
+            }
+            partial[c] = histogram;
+        });
+
+        int[] merged = new int[MAX_WEEKS + 2];
+        for (int[] histogram : partial) {
+            for (int w = 0; w < merged.length; w++) {
+                merged[w] += histogram[w];
+            }
+        }
+        return merged;
+    }
+
+    private static int[] zeroWeeks(int trials) {
+        int[] histogram = new int[MAX_WEEKS + 2];
+        histogram[0] = trials;
+        return histogram;
+    }
+
+    /** Klíč cache – obsahuje všechny vstupy simulace. */
+    private record ForecastKey(Long projectId, Long epicId, int remaining,
+                               String samples, LocalDate today, int trials) {}
+}
@@ -0,0 +1,72 @@
+package com.sprinter.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zaznamenává přihlášení mimo přihlašovací požadavek.
+ *
+ * <p>Přihlášení se jen zapíše do fronty (ID uživatele → čas); zápis do DB
+ * probíhá dávkově každých {@code sprinter.security.login-flush-interval}
+ * jedním batch UPDATE. Více přihlášení téhož uživatele mezi zápisy se slije
+ * do jednoho – {@code previous_last_login_at} pak dostane čas přihlášení
+ * před celou dávkou, což pro přehled aktivit stačí.</p>
+ */
+@Service
+@Slf4j
+public class LoginRecorder {
+
+    private final JdbcTemplate jdbc;
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public LoginRecorder(DataSource dataSource) {
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    /** Zařadí přihlášení uživatele k zápisu. Neblokuje. */
+    public void recordLogin(Long userId) {
+        pending.merge(userId, LocalDateTime.now(), (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    /** Zapíše nashromážděná přihlášení jedním batch UPDATE. */
+    @Scheduled(initialDelayString = "PT10S", fixedDelayString = "${sprinter.security.login-flush-interval:PT5S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        var batch = new ArrayList<Object[]>(pending.size());
+        for (Long userId : pending.keySet()) {
+            LocalDateTime at = pending.remove(userId);
+            if (at != null) {
+                batch.add(new Object[] { Timestamp.valueOf(at), userId });
+            }
+        }
+        try {
+            jdbc.batchUpdate("""
+                    UPDATE users SET previous_last_login_at = last_login_at, last_login_at = ?
+                    WHERE id = ?""", batch);
+            log.debug("Zapsáno {} přihlášení", batch.size());
+        } catch (RuntimeException e) {
+            // Vrátit do fronty – novější přihlášení téhož uživatele mají přednost
+            for (Object[] row : batch) {
+                pending.merge((Long) row[1], ((Timestamp) row[0]).toLocalDateTime(), (a, b) -> a.isAfter(b) ? a : b);
+            }
+            log.warn("Zápis přihlášení selhal, zkusí se znovu: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
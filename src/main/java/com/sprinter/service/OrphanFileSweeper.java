@@ -0,0 +1,358 @@
+package com.sprinter.service;
+
+import com.sprinter.domain.repository.AttachmentRepository;
+import com.sprinter.domain.repository.StoredBlobRepository;
+import com.sprinter.domain.repository.UploadSessionRepository;
+import com.sprinter.service.storage.BlobStore;
+import com.sprinter.service.storage.StoredObject;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Úklid souborů v úložišti příloh, ke kterým v databázi nic neodkazuje.
+ *
+ * <p>Kaskádové mazání položek a projektů odstraní řádky, ale soubory na disku
+ * zůstanou. Úklid proto prochází objekty v {@link BlobStore} a strom
+ * {@code sprinter.uploads.dir} a porovnává je s databází: bloby a náhledy
+ * s tabulkou {@code blobs}, starší přílohy
+ * s {@code attachments}, rozpracovaná nahrávání s {@code upload_sessions}
+ * a dočasné soubory jen podle stáří. Blob bez řádku se nemaže přímo – zaeviduje
+ * se jako nepoužívaný a smaže ho {@link FileStorageService#collectGarbage()},
+ * jehož zamykání ho chrání před souběžným nahráním stejného obsahu.</p>
+ *
+ * <p>Adresáře i výpis úložiště se čtou proudem ({@link DirectoryStream}), do paměti se nikdy
+ * nenačte víc než jedna dávka názvů. Každá dávka je jeden dotaz do databáze
+ * a po ní úklid krátce počká, aby nezatěžoval disk ani databázi. Smaže se jen
+ * soubor starší než ochranná lhůta – soubor vzniklý v právě probíhající
+ * transakci tak nikdy není považován za sirotka. Nakonec se přepočítá
+ * evidence využití úložiště.</p>
+ *
+ * <p>Při více uzlech nad stejným úložištěm běží úklid jen na jednom z nich
+ * – po dobu průchodu drží advisory zámek PostgreSQL na vlastním spojení;
+ * uzel, který zámek nezíská, průchod přeskočí.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrphanFileSweeper {
+
+    private static final String  THUMBNAIL_SUFFIX  = ".thumb.jpg";
+    private static final String  COMPRESSED_SUFFIX = ".gz";
+    private static final String  PARTIAL_SUFFIX    = ".part";
+    private static final Pattern SHA256            = Pattern.compile("[0-9a-f]{64}");
+
+    /** Klíč advisory zámku úklidu (libovolná konstanta jedinečná v aplikaci). */
+    private static final long SWEEP_LOCK_KEY = 0x5350_524E_5357_4550L;
+
+    @Value("${sprinter.uploads.gc-grace:PT24H}")
+    private Duration grace;
+
+    @Value("${sprinter.uploads.sweep-batch:500}")
+    private int batchSize;
+
+    /** Pauza po každé dávce – omezuje zátěž disku a databáze. */
+    @Value("${sprinter.uploads.sweep-pause:PT0.1S}")
+    private Duration pause;
+
+    private final FileStorageService      fileStorageService;
+    private final StoredBlobRepository    blobRepository;
+    private final AttachmentRepository    attachmentRepository;
+    private final UploadSessionRepository sessionRepository;
+    private final StorageUsageService     storageUsageService;
+    private final BlobStore               blobStore;
+    private final DataSource              dataSource;
+
+    /**
+     * Projde úložiště a smaže osiřelé soubory starší než ochranná lhůta.
+     * Běží mimo transakci – každý dotaz je krátký a samostatný; navíc se po celou
+     * dobu drží jedno spojení s advisory zámkem.
+     *
+     * @return počet smazaných souborů
+     */
+    @Scheduled(initialDelayString = "PT15M", fixedDelayString = "${sprinter.uploads.sweep-interval:PT6H}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int sweep() {
+        try (Connection lock = dataSource.getConnection()) {
+            if (!advisoryLock(lock, "SELECT pg_try_advisory_lock(?)")) {
+                log.info("Úklid úložiště právě běží na jiném uzlu – přeskočen");
+                return 0;
+            }
+            try {
+                return sweepLocked();
+            } finally {
+                if (!advisoryLock(lock, "SELECT pg_advisory_unlock(?)")) {
+                    log.warn("Zámek úklidu úložiště při uvolnění nebyl držen");
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Chyba advisory zámku úklidu úložiště: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private int sweepLocked() {
+        Instant cutoff = Instant.now().minus(grace);
+        Path root = fileStorageService.getRootPath();
+        var stats = new Stats();
+        try {
+            sweepBlobs(cutoff, stats);
+            sweepLegacy(root.resolve("attachments"), cutoff, stats);
+            sweepBatched(root.resolve("partial"), cutoff, stats,
+                         name -> name.endsWith(PARTIAL_SUFFIX)
+                                 ? name.substring(0, name.length() - PARTIAL_SUFFIX.length()) : null,
+                         sessionRepository::findExistingIds, this::delete);
+            sweepBatched(root.resolve("tmp"), cutoff, stats, name -> name, ids -> Set.of(), this::delete);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Úklid úložiště přerušen");
+        }
+        storageUsageService.reconcile();
+
+        log.info("Úklid úložiště: prohledáno {} souborů, smazáno {} osiřelých ({} B), {} blobů předáno k úklidu",
+                 stats.scanned, stats.deleted, stats.deletedBytes, stats.adopted);
+        return stats.deleted;
+    }
+
+    // ---- Jednotlivé části stromu ----
+
+    /**
+     * {@code blobs/ab/cd/<sha256>}, {@code <sha256>.gz} a {@code <sha256>.thumb.jpg} –
+     * sirotek nemá řádek v {@code blobs}.
+     */
+    private void sweepBlobs(Instant cutoff, Stats stats) throws InterruptedException {
+        Map<String, List<StoredObject>> batch = new HashMap<>();
+        try (Stream<StoredObject> objects = blobStore.list("blobs/")) {
+            for (Iterator<StoredObject> it = objects.iterator(); it.hasNext(); ) {
+                StoredObject object = it.next();
+                stats.scanned++;
+                if (object.lastModified().isAfter(cutoff)) {
+                    continue;
+                }
+                String name = object.key().substring(object.key().lastIndexOf('/') + 1);
+                batch.computeIfAbsent(blobKey(name), k -> new ArrayList<>(1)).add(object);
+                if (batch.size() >= batchSize) {
+                    handleMissing(batch, blobRepository::findExisting, this::adoptOrDelete, stats);
+                    throttle();
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Úložiště blobů nelze projít: {}", e.getMessage());
+        }
+        if (!batch.isEmpty()) {
+            handleMissing(batch, blobRepository::findExisting, this::adoptOrDelete, stats);
+            throttle();
+        }
+    }
+
+    /** {@code attachments/<workItemId>/<soubor>} – starší přílohy mimo úložiště blobů. */
+    private void sweepLegacy(Path legacyRoot, Instant cutoff, Stats stats) throws InterruptedException {
+        for (Path dir : subdirectories(legacyRoot)) {
+            Long workItemId = parseId(dir.getFileName().toString());
+            Set<String> known = workItemId != null ? attachmentRepository.findLegacyFilenames(workItemId) : Set.of();
+            sweepBatched(dir, cutoff, stats, name -> name, names -> known, this::delete);
+            deleteIfEmpty(dir);
+            throttle();
+        }
+    }
+
+    /**
+     * Projde soubory adresáře po dávkách. Pro každou dávku starých souborů zjistí
+     * jedním dotazem, které klíče v databázi existují; se zbylými naloží {@code orphan}.
+     *
+     * @param keyOf    klíč souboru pro dotaz (null = soubor nepatří do úložiště, přeskočí se)
+     * @param existing vrátí existující klíče z dávky
+     * @param orphan   naloží se souborem, jehož klíč v databázi není
+     */
+    private void sweepBatched(Path dir, Instant cutoff, Stats stats, Function<String, String> keyOf,
+                              Function<Collection<String>, Set<String>> existing,
+                              OrphanHandler<Path> orphan) throws InterruptedException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        Map<String, List<Path>> batch = new HashMap<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path file : entries) {
+                stats.scanned++;
+                BasicFileAttributes attrs = readAttributes(file);
+                if (attrs == null || !attrs.isRegularFile() || attrs.lastModifiedTime().toInstant().isAfter(cutoff)) {
+                    continue;
+                }
+                String key = keyOf.apply(file.getFileName().toString());
+                if (key == null) {
+                    continue;
+                }
+                batch.computeIfAbsent(key, k -> new ArrayList<>(1)).add(file);
+                if (batch.size() >= batchSize) {
+                    handleMissing(batch, existing, orphan, stats);
+                    throttle();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Adresář {} nelze projít: {}", dir, e.getMessage());
+        }
+        if (!batch.isEmpty()) {
+            handleMissing(batch, existing, orphan, stats);
+            throttle();
+        }
+    }
+
+    private <T> void handleMissing(Map<String, List<T>> batch, Function<Collection<String>, Set<String>> existing,
+                                   OrphanHandler<T> orphan, Stats stats) {
+        Set<String> known = existing.apply(batch.keySet());
+        for (var entry : batch.entrySet()) {
+            if (known.contains(entry.getKey())) {
+                continue;
+            }
+            for (T file : entry.getValue()) {
+                orphan.handle(entry.getKey(), file, stats);
+            }
+        }
+        batch.clear();
+    }
+
+    private void delete(String key, Path file, Stats stats) {
+        try {
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) {
+                stats.deleted++;
+                stats.deletedBytes += size;
+                log.debug("Smazán osiřelý soubor {}", file);
+            }
+        } catch (IOException e) {
+            log.warn("Nelze smazat osiřelý soubor {}: {}", file, e.getMessage());
+        }
+    }
+
+    /** Náhled bez blobu se smaže (lze ho vytvořit znovu), blob bez řádku se zaeviduje k úklidu. */
+    private void adoptOrDelete(String key, StoredObject object, Stats stats) {
+        if (object.key().endsWith(THUMBNAIL_SUFFIX) || !SHA256.matcher(key).matches()) {
+            try {
+                blobStore.delete(object.key());
+                stats.deleted++;
+                stats.deletedBytes += object.size();
+                log.debug("Smazán osiřelý objekt {}", object.key());
+            } catch (IOException e) {
+                log.warn("Nelze smazat osiřelý objekt {}: {}", object.key(), e.getMessage());
+            }
+            return;
+        }
+        stats.adopted += blobRepository.adoptOrphan(key, object.size());
+    }
+
+    // ---- Pomocné metody ----
+
+    /** Naloží s osiřelým souborem nebo objektem. */
+    @FunctionalInterface
+    private interface OrphanHandler<T> {
+        void handle(String key, T file, Stats stats);
+    }
+
+    /** Počítadla jednoho průchodu. */
+    private static final class Stats {
+        long scanned;
+        int  deleted;
+        long deletedBytes;
+        int  adopted;
+    }
+
+    /** Vrátí podadresáře (jen jednu úroveň; adresáře úložiště mají nejvýše stovky položek). */
+    private static List<Path> subdirectories(Path dir) {
+        List<Path> result = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return result;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            entries.forEach(result::add);
+        } catch (IOException e) {
+            log.warn("Adresář {} nelze projít: {}", dir, e.getMessage());
+        }
+        return result;
+    }
+
+    /** Otisk blobu z názvu souboru (bez přípony náhledu či komprese). */
+    private static String blobKey(String name) {
+        if (name.endsWith(THUMBNAIL_SUFFIX)) {
+            return name.substring(0, name.length() - THUMBNAIL_SUFFIX.length());
+        }
+        if (name.endsWith(COMPRESSED_SUFFIX)) {
+            return name.substring(0, name.length() - COMPRESSED_SUFFIX.length());
+        }
+        return name;
+    }
+
+    /** Provede volání advisory zámku s klíčem úklidu a vrátí jeho výsledek. */
+    private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, SWEEP_LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;   // soubor mezitím zmizel
+        }
+    }
+
+    private static void deleteIfEmpty(Path dir) {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            if (entries.iterator().hasNext()) {
+                return;
+            }
+        } catch (IOException e) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            log.debug("Prázdný adresář {} nelze smazat: {}", dir, e.getMessage());
+        }
+    }
+
+    private static Long parseId(String name) {
+        try {
+            return Long.valueOf(name);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void throttle() throws InterruptedException {
+        if (!pause.isZero()) {
+            Thread.sleep(pause.toMillis());
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.sprinter.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sprinter.domain.entity.Attachment;
+import com.sprinter.exception.SprinterException;
+import com.sprinter.service.event.AttachmentStoredEvent;
+import com.sprinter.service.storage.BlobStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Náhledy příloh – zmenšeniny obrázků a první strany PDF.
+ *
+ * <p>Náhled se ukládá jako JPEG vedle blobu ({@link FileStorageService#thumbnailKey})
+ * a protože blob je adresovaný obsahem, stačí ho vytvořit jednou pro všechny přílohy
+ * se stejným obsahem. Po nahrání přílohy se náhled vygeneruje na pozadí (po commitu);
+ * když chybí (plná fronta, restart, starší příloha), vytvoří se při prvním požadavku.
+ * Souběžné požadavky na stejný blob sdílejí jedno generování.</p>
+ *
+ * <p>Generování běží na omezeném poolu vláken s omezenou frontou – nikdy nezabere
+ * víc než {@code sprinter.previews.threads} jader. Obrázky se dekódují s podvzorkováním,
+ * takže ani velká fotografie se nenačte do paměti v plném rozlišení. PDF se vykresluje
+ * externím {@code pdftoppm} (poppler), pokud je nastaven.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PreviewService {
+
+    private static final Set<String> IMAGE_TYPES = Set.of(
+            "image/png", "image/jpeg", "image/gif", "image/bmp", "image/tiff");
+
+    /** Obrázky nad tento počet pixelů se nezpracovávají (ochrana před „dekompresními bombami"). */
+    private static final long MAX_SOURCE_PIXELS = 100_000_000L;
+
+    @Value("${sprinter.previews.size:320}")
+    private int size;
+
+    @Value("${sprinter.previews.threads:2}")
+    private int threads;
+
+    @Value("${sprinter.previews.queue-capacity:200}")
+    private int queueCapacity;
+
+    /** Cesta k {@code pdftoppm}; prázdná = náhledy PDF vypnuté. */
+    @Value("${sprinter.previews.pdftoppm:}")
+    private String pdftoppm;
+
+    @Value("${sprinter.previews.render-timeout:PT30S}")
+    private Duration renderTimeout;
+
+    /** Jak dlouho požadavek na chybějící náhled čeká na jeho vygenerování. */
+    @Value("${sprinter.previews.wait:PT10S}")
+    private Duration waitTimeout;
+
+    private final FileStorageService fileStorageService;
+    private final BlobStore          blobStore;
+
+    /** Rozpracovaná generování (single-flight) – klíčem je otisk blobu. */
+    private final ConcurrentMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    /** Bloby, jejichž náhled nejde vytvořit – aby se poškozený soubor nedekódoval stále dokola. */
+    private final Cache<String, Boolean> failures = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        var counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    var thread = new Thread(r, "preview-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Vrátí true, pokud lze pro přílohu vytvořit náhled (podle typu obsahu).
+     * Volá se i ze šablon ({@code @previewService.supports(att)}).
+     */
+    public boolean supports(Attachment attachment) {
+        return attachment.getBlobSha256() != null && supports(attachment.getContentType());
+    }
+
+    /**
+     * Vrátí náhled blobu – hotový ze souboru, nebo po dokončení (sdíleného) generování.
+     * Future skončí s {@code null}, pokud náhled vytvořit nelze, a s
+     * {@link RejectedExecutionException}, pokud je fronta generování plná.
+     */
+    public CompletableFuture<Path> thumbnail(String sha256, String contentType) {
+        String target = FileStorageService.thumbnailKey(sha256);
+        try {
+            Optional<Path> existing = blobStore.localFile(target);
+            if (existing.isPresent()) {
+                return CompletableFuture.completedFuture(existing.get());
+            }
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (!supports(contentType) || failures.getIfPresent(sha256) != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        var created  = new CompletableFuture<Path>();
+        var existing = inFlight.putIfAbsent(sha256, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    created.complete(render(sha256, contentType, target));
+                } catch (Throwable t) {
+                    created.completeExceptionally(t);
+                } finally {
+                    inFlight.remove(sha256, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(sha256, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    /**
+     * Vrátí náhled, případně počká na jeho vygenerování (nejvýše {@code sprinter.previews.wait}).
+     *
+     * @return cesta k náhledu, nebo null, pokud ho pro obsah vytvořit nelze
+     * @throws SprinterException (503) pokud je fronta plná nebo generování nestihlo doběhnout
+     */
+    public Path awaitThumbnail(String sha256, String contentType) {
+        try {
+            return thumbnail(sha256, contentType).get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new SprinterException("Náhled se ještě připravuje.", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new SprinterException("Server je přetížen, náhled zkuste později.", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            log.warn("Náhled blobu {} selhal: {}", sha256, e.getCause().toString());
+            failures.put(sha256, Boolean.TRUE);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SprinterException("Čekání na náhled bylo přerušeno.", e);
+        }
+    }
+
+    /**
+     * Po commitu nové přílohy naplánuje vytvoření náhledu. Při plné frontě
+     * se nic neděje – náhled vznikne při prvním zobrazení.
+     */
+    @TransactionalEventListener
+    public void onAttachmentStored(AttachmentStoredEvent event) {
+        if (supports(event.contentType())) {
+            thumbnail(event.sha256(), event.contentType());
+        }
+    }
+
+    // ---- Generování ----
+
+    private boolean supports(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        int semicolon = type.indexOf(';');
+        if (semicolon >= 0) {
+            type = type.substring(0, semicolon).trim();
+        }
+        return IMAGE_TYPES.contains(type) || ("application/pdf".equals(type) && !pdftoppm.isBlank());
+    }
+
+    /** Vygeneruje náhled do dočasného souboru a uloží ho do úložiště. */
+    private Path render(String sha256, String contentType, String target) throws IOException, InterruptedException {
+        Optional<Path> existing = blobStore.localFile(target);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        // Zdroj musí být místní soubor; příliš velký objekt ze vzdáleného úložiště se nestahuje
+        Optional<Path> source = blobStore.localFile(FileStorageService.blobKey(sha256));
+        if (source.isEmpty()) {
+            failures.put(sha256, Boolean.TRUE);
+            log.debug("Blob {} není pro náhled k dispozici jako místní soubor", sha256);
+            return null;
+        }
+        long started = System.nanoTime();
+        BufferedImage image = contentType.toLowerCase(Locale.ROOT).startsWith("application/pdf")
+                ? renderPdfPage(source.get())
+                : readSubsampled(source.get());
+        if (image == null) {
+            failures.put(sha256, Boolean.TRUE);
+            log.debug("Náhled blobu {} nelze vytvořit", sha256);
+            return null;
+        }
+        Path temp = fileStorageService.createTempFile("thumb-");
+        try {
+            writeJpeg(scaleToFit(image, size), temp);
+            blobStore.store(target, temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.debug("Náhled blobu {} vytvořen za {} ms", sha256,
+                  TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return blobStore.localFile(target).orElse(null);
+    }
+
+    /**
+     * Načte obrázek s podvzorkováním – dekóduje se jen každý n-tý pixel, aby výsledek
+     * měl zhruba dvojnásobek cílové velikosti (pro kvalitní zmenšení).
+     */
+    private BufferedImage readSubsampled(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            var readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width  = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    log.info("Obrázek {}×{} je pro náhled příliš velký", width, height);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (size * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.info("Obrázek {} nelze dekódovat: {}", source.getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /** Vykreslí první stranu PDF přes {@code pdftoppm} do PNG a načte ho. */
+    private BufferedImage renderPdfPage(Path source) throws IOException, InterruptedException {
+        Path outPrefix = fileStorageService.createTempFile("pdf-");
+        Path png = outPrefix.resolveSibling(outPrefix.getFileName() + ".png");
+        List<String> command = new ArrayList<>(List.of(pdftoppm, "-png", "-singlefile", "-f", "1", "-l", "1",
+                "-scale-to", Integer.toString(size * 2), source.toString(), outPrefix.toString()));
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            if (!process.waitFor(renderTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                log.info("Vykreslení PDF {} překročilo časový limit", source.getFileName());
+                return null;
+            }
+            if (process.exitValue() != 0 || !Files.exists(png)) {
+                log.info("pdftoppm skončil s kódem {} pro {}", process.exitValue(), source.getFileName());
+                return null;
+            }
+            return ImageIO.read(png.toFile());
+        } finally {
+            Files.deleteIfExists(outPrefix);
+            Files.deleteIfExists(png);
+        }
+    }
+
+    /** Zmenší obrázek do čtverce {@code max}×{@code max} (poměr stran zachován) na bílém pozadí. */
+    private static BufferedImage scaleToFit(BufferedImage image, int max) {
+        double scale  = Math.min(1.0, (double) max / Math.max(image.getWidth(), image.getHeight()));
+        int    width  = Math.max(1, (int) Math.round(image.getWidth()  * scale));
+        int    height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        var result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = result.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING,     RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return result;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.8f);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.sprinter.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sprinter.security.SecurityUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Export celého projektu do ZIP archivu.
+ *
+ * <p>Archiv obsahuje {@code project.json}, pro každou tabulku soubor NDJSON
+ * (jeden řádek = jeden záznam, sloupce pod databázovými názvy), obsah příloh
+ * ({@code blobs/<sha256>} – každý obsah jen jednou, starší přílohy
+ * {@code files/<attachmentId>}) a nakonec {@code manifest.json} s počty záznamů.
+ * Podprojekty se neexportují – každý má vlastní export.</p>
+ *
+ * <p>Archiv se zapisuje přímo do výstupu odpovědi a paměť ani dočasný disk
+ * nezávisí na velikosti projektu: záznamy se čtou kurzorem po dávkách
+ * {@code sprinter.export.fetch-size} (JDBC, bez entit v persistence contextu),
+ * každý řádek se hned zapíše a přílohy se kopírují proudem z úložiště.
+ * Celý export běží v jedné transakci REPEATABLE READ, takže odpovídá jednomu
+ * okamžiku i při souběžných změnách.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectExportService {
+
+    /** Verze formátu archivu – zvýšit při nekompatibilní změně. */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String WORK_ITEMS_OF_PROJECT = "SELECT id FROM work_items WHERE project_id = ?";
+
+    /** Exportované tabulky – název souboru a dotaz; všechny parametry dotazu jsou ID projektu. */
+    private static final Map<String, String> SECTIONS = new LinkedHashMap<>();
+
+    static {
+        SECTIONS.put("sprints.ndjson", """
+                SELECT id, name, goal, status, start_date, end_date, completed_at,
+                       committed_points, completed_points, carried_over_count, created_at, updated_at
+                FROM sprints WHERE project_id = ? ORDER BY id""");
+        SECTIONS.put("work-items.ndjson", """
+                SELECT id, item_number, type, title, description, status, priority, story_points,
+                       start_date, due_date, completed_at, estimated_hours, logged_hours, progress_pct,
+                       backlog_rank, sprint_id, parent_id, assignee_id, reporter_id, created_at, updated_at
+                FROM work_items WHERE project_id = ? ORDER BY id""");
+        SECTIONS.put("labels.ndjson", """
+                SELECT id, name, color, project_id FROM labels
+                WHERE project_id = ?
+                   OR id IN (SELECT label_id FROM work_item_labels WHERE work_item_id IN (%s))
+                ORDER BY id""".formatted(WORK_ITEMS_OF_PROJECT));
+        SECTIONS.put("work-item-labels.ndjson", """
+                SELECT work_item_id, label_id FROM work_item_labels
+                WHERE work_item_id IN (%s) ORDER BY work_item_id, label_id""".formatted(WORK_ITEMS_OF_PROJECT));
+        SECTIONS.put("dependencies.ndjson", """
+                SELECT id, predecessor_id, successor_id, dependency_type, lag_days, created_at
+                FROM work_item_dependencies WHERE successor_id IN (%s) ORDER BY id""".formatted(WORK_ITEMS_OF_PROJECT));
+        SECTIONS.put("comments.ndjson", """
+                SELECT id, work_item_id, author_id, content, is_edited, created_at, updated_at
+                FROM comments WHERE work_item_id IN (%s) ORDER BY id""".formatted(WORK_ITEMS_OF_PROJECT));
+        SECTIONS.put("document-folders.ndjson", """
+                SELECT id, name, parent_id, created_by, created_at
+                FROM document_folders WHERE project_id = ? ORDER BY id""");
+        SECTIONS.put("documents.ndjson", """
+                SELECT id, title, content, folder_id, author_id, created_at, updated_at
+                FROM documents WHERE project_id = ? ORDER BY id""");
+        SECTIONS.put("document-comments.ndjson", """
+                SELECT id, document_id, author_id, content, created_at, updated_at
+                FROM document_comments WHERE document_id IN (SELECT id FROM documents WHERE project_id = ?)
+                ORDER BY id""");
+        SECTIONS.put("document-work-items.ndjson", """
+                SELECT document_id, work_item_id FROM document_work_item_links
+                WHERE document_id IN (SELECT id FROM documents WHERE project_id = ?)
+                ORDER BY document_id, work_item_id""");
+        SECTIONS.put("members.ndjson", """
+                SELECT user_id, project_role, joined_at
+                FROM project_members WHERE project_id = ? ORDER BY user_id""");
+        SECTIONS.put("users.ndjson", """
+                SELECT id, username, first_name, last_name FROM users
+                WHERE id IN (SELECT user_id FROM project_members WHERE project_id = ?)
+                   OR id IN (SELECT reporter_id FROM work_items WHERE project_id = ?)
+                   OR id IN (SELECT assignee_id FROM work_items WHERE project_id = ?)
+                   OR id IN (SELECT author_id FROM comments WHERE work_item_id IN (%s))
+                   OR id IN (SELECT author_id FROM documents WHERE project_id = ?)
+                   OR id IN (SELECT uploaded_by_id FROM attachments WHERE work_item_id IN (%s))
+                ORDER BY id""".formatted(WORK_ITEMS_OF_PROJECT, WORK_ITEMS_OF_PROJECT));
+        SECTIONS.put("attachments.ndjson", """
+                SELECT id, work_item_id, original_filename, content_type, file_size, blob_sha256,
+                       uploaded_by_id, created_at,
+                       CASE WHEN blob_sha256 IS NULL THEN 'files/' || CAST(id AS VARCHAR(20))
+                            ELSE 'blobs/' || blob_sha256 END AS path
+                FROM attachments WHERE work_item_id IN (%s) ORDER BY id""".formatted(WORK_ITEMS_OF_PROJECT));
+    }
+
+    private static final String PROJECT_SQL = """
+            SELECT id, name, project_key, description, status, start_date, end_date, parent_id,
+                   owner_id, color, auto_schedule, created_at, updated_at
+            FROM projects WHERE id = ?""";
+
+    /** Obsah příloh – každý blob jednou, seřazeno pro stabilní pořadí v archivu. */
+    private static final String BLOBS_SQL = """
+            SELECT blob_sha256, MAX(content_type) AS content_type, MAX(content_encoding) AS content_encoding
+            FROM attachments WHERE blob_sha256 IS NOT NULL AND work_item_id IN (%s)
+            GROUP BY blob_sha256 ORDER BY blob_sha256""".formatted(WORK_ITEMS_OF_PROJECT);
+
+    /** Starší přílohy mimo úložiště blobů (po převodu při startu zbývají jen výjimečně). */
+    private static final String LEGACY_SQL = """
+            SELECT id, work_item_id, stored_filename
+            FROM attachments WHERE blob_sha256 IS NULL AND work_item_id IN (%s)
+            ORDER BY id""".formatted(WORK_ITEMS_OF_PROJECT);
+
+    @Value("${sprinter.export.fetch-size:500}")
+    private int fetchSize;
+
+    private final DataSource         dataSource;
+    private final ObjectMapper       objectMapper;
+    private final ProjectService     projectService;
+    private final FileStorageService fileStorageService;
+
+    /** Vlastní JdbcTemplate kvůli velikosti dávky – sdílí připojení transakce JPA. */
+    private JdbcTemplate jdbc;
+
+    @PostConstruct
+    public void init() {
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Zapíše export projektu jako ZIP do výstupu. Výstup se nezavírá.
+     *
+     * @throws com.sprinter.exception.AccessDeniedException pokud uživatel nemůže projekt spravovat
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void export(Long projectId, OutputStream out) throws IOException {
+        projectService.requireManageAccess(projectId);
+        long started = System.nanoTime();
+
+        var zip = new ZipOutputStream(new BufferedOutputStream(new NonClosingOutputStream(out), 64 * 1024));
+        JsonGenerator json = objectMapper.getFactory().createGenerator(new NonClosingOutputStream(zip));
+        json.setRootValueSeparator(null);
+        Map<String, Object> counts = new LinkedHashMap<>();
+        try {
+            zip.putNextEntry(new ZipEntry("project.json"));
+            writeRows(PROJECT_SQL, projectId, json);
+            json.flush();
+            zip.closeEntry();
+
+            for (var section : SECTIONS.entrySet()) {
+                zip.putNextEntry(new ZipEntry(section.getKey()));
+                counts.put(section.getKey(), writeRows(section.getValue(), projectId, json));
+                json.flush();
+                zip.closeEntry();
+            }
+
+            int[] blobs = writeBlobs(projectId, zip);
+            counts.put("blobs", blobs[0]);
+            counts.put("missingFiles", blobs[1]);
+
+            zip.putNextEntry(new ZipEntry("manifest.json"));
+            var manifest = new LinkedHashMap<String, Object>();
+            manifest.put("formatVersion", FORMAT_VERSION);
+            manifest.put("projectId",     projectId);
+            manifest.put("exportedAt",    LocalDateTime.now().toString());
+            manifest.put("exportedBy",    SecurityUtils.getCurrentUserDetails().map(u -> u.getUsername()).orElse(null));
+            manifest.put("entries",       counts);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new NonClosingOutputStream(zip), manifest);
+            zip.closeEntry();
+            zip.finish();
+            zip.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Export projektu ID={}: {} ({} ms)", projectId, counts,
+                 (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // ---- Zápis ----
+
+    /** Zapíše výsledek dotazu jako NDJSON (jeden objekt na řádek) a vrátí počet řádků. */
+    private long writeRows(String sql, Long projectId, JsonGenerator json) {
+        long[] count = {0};
+        jdbc.query(sql, ps -> bindProjectId(ps, sql, projectId), rs -> {
+            try {
+                writeRow(rs, json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Zapíše obsah příloh. Komprimovatelný obsah se v archivu deflatuje,
+     * ostatní (obrázky, archivy) se ukládá bez komprese – zbytečně by zatěžoval CPU.
+     *
+     * @return počet zapsaných souborů a počet chybějících
+     */
+    private int[] writeBlobs(Long projectId, ZipOutputStream zip) {
+        int[] result = {0, 0};
+        jdbc.query(BLOBS_SQL, ps -> bindProjectId(ps, BLOBS_SQL, projectId), rs -> {
+            String sha256      = rs.getString("blob_sha256");
+            String contentType = rs.getString("content_type");
+            boolean gzipped    = rs.getString("content_encoding") != null;
+            try (InputStream in = fileStorageService.openBlob(sha256, gzipped)) {
+                zip.setLevel(fileStorageService.isCompressibleType(contentType)
+                        ? Deflater.DEFAULT_COMPRESSION : Deflater.NO_COMPRESSION);
+                zip.putNextEntry(new ZipEntry("blobs/" + sha256));
+                in.transferTo(zip);
+                zip.closeEntry();
+                result[0]++;
+            } catch (java.nio.file.NoSuchFileException e) {
+                log.warn("Export projektu ID={}: chybí obsah blobu {}", projectId, sha256);
+                result[1]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+
+        jdbc.query(LEGACY_SQL, ps -> bindProjectId(ps, LEGACY_SQL, projectId), rs -> {
+            long id = rs.getLong("id");
+            try (InputStream in = fileStorageService.openLegacy(rs.getLong("work_item_id"),
+                                                                rs.getString("stored_filename"))) {
+                zip.putNextEntry(new ZipEntry("files/" + id));
+                in.transferTo(zip);
+                zip.closeEntry();
+                result[0]++;
+            } catch (java.nio.file.NoSuchFileException e) {
+                log.warn("Export projektu ID={}: chybí soubor přílohy ID={}", projectId, id);
+                result[1]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return result;
+    }
+
+    /** Zapíše aktuální řádek jako JSON objekt; názvy polí jsou názvy sloupců malými písmeny. */
+    private static void writeRow(ResultSet rs, JsonGenerator json) throws SQLException, IOException {
+        ResultSetMetaData meta = rs.getMetaData();
+        json.writeStartObject();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            json.writeFieldName(meta.getColumnLabel(i).toLowerCase(Locale.ROOT));
+            writeValue(json, rs.getObject(i));
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeValue(JsonGenerator json, Object value) throws SQLException, IOException {
+        switch (value) {
+            case null                -> json.writeNull();
+            case String s            -> json.writeString(s);
+            case Boolean b           -> json.writeBoolean(b);
+            case Integer i           -> json.writeNumber(i);
+            case Long l              -> json.writeNumber(l);
+            case Short s             -> json.writeNumber(s);
+            case Double d            -> json.writeNumber(d);
+            case Float f             -> json.writeNumber(f);
+            case BigDecimal d        -> json.writeNumber(d);
+            case Timestamp t         -> json.writeString(t.toLocalDateTime().toString());
+            case java.sql.Date d     -> json.writeString(d.toLocalDate().toString());
+            case Clob clob           -> {
+                try (Reader reader = clob.getCharacterStream()) {
+                    json.writeString(reader, -1);
+                }
+            }
+            default                  -> json.writeString(value.toString());
+        }
+    }
+
+    /** Dosadí ID projektu do všech parametrů dotazu. */
+    private static void bindProjectId(java.sql.PreparedStatement ps, String sql, Long projectId) throws SQLException {
+        int parameters = (int) sql.chars().filter(c -> c == '?').count();
+        for (int i = 1; i <= parameters; i++) {
+            ps.setLong(i, projectId);
+        }
+    }
+
+    /** Obal, který nezavře podkladový proud – ZIP ani odpověď nesmí zavřít generátor JSON. */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -234,7 +234,7 @@ public class ProjectService {
      */
     public Project updateProject(Long id, String name, String description,
                                   ProjectStatus status, java.time.LocalDate startDate,
-                                  java.time.LocalDate endDate) {
+                                  java.time.LocalDate endDate, boolean autoSchedule) {
         requireManageAccess(id);
 
         var project = findById(id);
@@ -243,6 +243,7 @@ public class ProjectService {
         project.setStatus(status);
         project.setStartDate(startDate);
         project.setEndDate(endDate);
+        project.setAutoSchedule(autoSchedule);
 
         return projectRepository.save(project);
     }
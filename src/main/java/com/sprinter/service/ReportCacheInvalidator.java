@@ -0,0 +1,39 @@
+package com.sprinter.service;
+
+import com.sprinter.config.CacheConfig;
+import com.sprinter.service.event.WorkItemsChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Zneplatňuje cache reportů při změnách pracovních položek.
+ *
+ * <p>Záznamy se odstraňují až po commitu (případně hned, pokud událost vznikla
+ * mimo transakci), aby souběžný požadavek nemohl cache znovu naplnit
+ * ještě necommitovanými daty.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReportCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWorkItemsChanged(WorkItemsChangedEvent event) {
+        var statusCounts = cacheManager.getCache(CacheConfig.PROJECT_STATUS_COUNTS);
+        if (statusCounts != null && event.projectId() != null) {
+            statusCounts.evict(event.projectId());
+        }
+
+        var sprintPoints = cacheManager.getCache(CacheConfig.SPRINT_POINTS);
+        if (sprintPoints != null) {
+            event.sprintIds().forEach(sprintPoints::evict);
+        }
+
+        log.debug("Zneplatněna cache reportů: projekt={}, sprinty={}", event.projectId(), event.sprintIds());
+    }
+}
@@ -1,12 +1,24 @@
 package com.sprinter.service;
 
+import com.sprinter.config.CacheConfig;
 import com.sprinter.domain.enums.WorkItemStatus;
+import com.sprinter.domain.repository.SprintRepository;
 import com.sprinter.domain.repository.WorkItemRepository;
+import com.sprinter.domain.repository.WorkItemStatusTransitionRepository;
+import com.sprinter.dto.CumulativeFlow;
+import com.sprinter.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -18,70 +30,63 @@ import java.util.Map;
  *   <li>Burn-down chart sprintu</li>
  *   <li>Velocity chart (story points za sprinty)</li>
  *   <li>Statistiky přiřazení (kdo řeší co)</li>
+ *   <li>Cumulative flow diagram (z historie přechodů stavů)</li>
  * </ul>
+ *
+ * <p>Agregace dle stavu se cachují (viz {@link CacheConfig}) a zneplatňují se
+ * událostmi z {@link ReportCacheInvalidator}. Kontrola přístupu se provádí vždy,
+ * i když je výsledek v cache.</p>
  */
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ReportService {
 
-    private final WorkItemRepository workItemRepository;
-    private final ProjectService     projectService;
-    private final SprintService      sprintService;
+    /** Maximální rozsah cumulative flow diagramu (ochrana před neúměrně velkým výsledkem). */
+    private static final long MAX_CFD_DAYS = 3 * 366;
+
+    private final WorkItemRepository                 workItemRepository;
+    private final WorkItemStatusTransitionRepository transitionRepository;
+    private final SprintRepository                   sprintRepository;
+    private final ProjectService                     projectService;
+    private final SprintService                      sprintService;
+    private final CacheManager                       cacheManager;
 
     /**
      * Vrátí počty pracovních položek dle stavu pro daný projekt.
      *
      * @param projectId ID projektu
-     * @return mapa stav → počet
+     * @return neměnná mapa stav → počet (všechny stavy, seřazené dle workflow)
      */
     public Map<WorkItemStatus, Long> getProjectStatusCounts(Long projectId) {
         projectService.requireAccess(projectId);
-
-        var rows = workItemRepository.countByStatus(projectId);
-        Map<WorkItemStatus, Long> result = new HashMap<>();
-
-        // Inicializace všemi stavy na 0
-        for (WorkItemStatus s : WorkItemStatus.values()) {
-            result.put(s, 0L);
-        }
-
-        for (Object[] row : rows) {
-            WorkItemStatus status = (WorkItemStatus) row[0];
-            Long           count  = (Long) row[1];
-            result.put(status, count);
-        }
-
-        return result;
+        return cache(CacheConfig.PROJECT_STATUS_COUNTS).get(projectId,
+                () -> toStatusMap(workItemRepository.countByStatus(projectId)));
     }
 
     /**
      * Vrátí souhrn story pointů dle stavu pro sprint (základ burn-down chartu).
      *
      * @param sprintId ID sprintu
-     * @return mapa stav → story points
+     * @return neměnná mapa stav → story points
      */
     public Map<WorkItemStatus, Long> getSprintPointsByStatus(Long sprintId) {
-        var rows = workItemRepository.sumStoryPointsByStatusInSprint(sprintId);
-        Map<WorkItemStatus, Long> result = new HashMap<>();
-
-        for (WorkItemStatus s : WorkItemStatus.values()) {
-            result.put(s, 0L);
-        }
-        for (Object[] row : rows) {
-            WorkItemStatus status = (WorkItemStatus) row[0];
-            Long           points = ((Number) row[1]).longValue();
-            result.put(status, points);
-        }
-
-        return result;
+        return cache(CacheConfig.SPRINT_POINTS).get(sprintId,
+                () -> toStatusMap(workItemRepository.sumStoryPointsByStatusInSprint(sprintId)));
     }
 
     /**
      * Vrátí procento dokončenosti projektu na základě počtu dokončených položek.
      */
     public int getProjectCompletionPercent(Long projectId) {
-        var counts = getProjectStatusCounts(projectId);
+        return getCompletionPercent(getProjectStatusCounts(projectId));
+    }
+
+    /**
+     * Spočítá procento dokončenosti z již načtených počtů dle stavu
+     * (bez dalšího dotazu do databáze).
+     */
+    public int getCompletionPercent(Map<WorkItemStatus, Long> counts) {
         long total = counts.values().stream().mapToLong(Long::longValue).sum();
         if (total == 0) return 0;
 
@@ -92,4 +97,67 @@ public class ReportService {
 
         return (int) (done * 100L / total);
     }
+
+    /**
+     * Vrátí data cumulative flow diagramu projektu (volitelně jen položek sprintu).
+     *
+     * @param projectId ID projektu
+     * @param sprintId  ID sprintu (null = celý projekt)
+     * @param from      první den (včetně)
+     * @param to        poslední den (včetně)
+     */
+    public CumulativeFlow getCumulativeFlow(Long projectId, Long sprintId, LocalDate from, LocalDate to) {
+        projectService.requireAccess(projectId);
+
+        if (to.isBefore(from)) {
+            throw new ValidationException("Konec období nemůže být před jeho začátkem.");
+        }
+        long dayCount = ChronoUnit.DAYS.between(from, to) + 1;
+        if (dayCount > MAX_CFD_DAYS) {
+            throw new ValidationException("Období je příliš dlouhé (maximum je " + MAX_CFD_DAYS + " dní).");
+        }
+        if (sprintId != null) {
+            var sprint = sprintRepository.findById(sprintId)
+                    .orElseThrow(() -> new ValidationException("Sprint s ID " + sprintId + " neexistuje."));
+            if (!sprint.getProject().getId().equals(projectId)) {
+                throw new ValidationException("Sprint nepatří do tohoto projektu.");
+            }
+        }
+
+        var days = new ArrayList<LocalDate>((int) dayCount);
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            days.add(d);
+        }
+
+        Map<WorkItemStatus, long[]> counts = new EnumMap<>(WorkItemStatus.class);
+        for (WorkItemStatus s : WorkItemStatus.values()) {
+            counts.put(s, new long[days.size()]);
+        }
+
+        for (Object[] row : transitionRepository.cumulativeFlow(projectId, sprintId, from, to)) {
+            LocalDate day    = row[0] instanceof java.sql.Date d ? d.toLocalDate() : (LocalDate) row[0];
+            var       status = WorkItemStatus.valueOf((String) row[1]);
+            counts.get(status)[(int) ChronoUnit.DAYS.between(from, day)] = ((Number) row[2]).longValue();
+        }
+
+        return new CumulativeFlow(days, counts);
+    }
+
+    // ---- Pomocné metody ----
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+
+    /** Převede řádky (stav, číslo) na mapu obsahující všechny stavy (chybějící = 0). */
+    private static Map<WorkItemStatus, Long> toStatusMap(List<Object[]> rows) {
+        Map<WorkItemStatus, Long> result = new EnumMap<>(WorkItemStatus.class);
+        for (WorkItemStatus s : WorkItemStatus.values()) {
+            result.put(s, 0L);
+        }
+        for (Object[] row : rows) {
+            result.put((WorkItemStatus) row[0], ((Number) row[1]).longValue());
+        }
+        return Collections.unmodifiableMap(result);
+    }
 }
@@ -0,0 +1,433 @@
+package com.sprinter.service;
+
+import com.sprinter.domain.entity.Attachment;
+import com.sprinter.domain.entity.UploadSession;
+import com.sprinter.domain.repository.UploadSessionRepository;
+import com.sprinter.domain.repository.UserRepository;
+import com.sprinter.domain.repository.WorkItemRepository;
+import com.sprinter.exception.ResourceNotFoundException;
+import com.sprinter.exception.SprinterException;
+import com.sprinter.exception.ValidationException;
+import com.sprinter.security.SecurityUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Obnovitelné nahrávání příloh po částech.
+ *
+ * <p>Protokol má tři kroky: zahájení (ohlášení názvu a velikosti), zápis částí
+ * na daný offset a dokončení. Části se čtou přímo z těla požadavku (bez multipart
+ * a bez mezisouboru) a zapisují se pozičním zápisem {@link FileChannel} do
+ * {@code partial/<id>.part}. Po výpadku spojení se klient zeptá na offset
+ * a pokračuje – zapsaný začátek souboru zůstává platný.</p>
+ *
+ * <p>Části musí navazovat, takže otisk SHA-256 se počítá průběžně a dokončení
+ * už soubor znovu nečte. Stav otisku je jen v paměti; po restartu se obnoví
+ * jedním přečtením dosud zapsané části. Souběžné zápisy jsou omezeny semaforem
+ * a nová relace se přijme, jen pokud se na disk vejde spolu se všemi
+ * rozpracovanými.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class ResumableUploadService {
+
+    private static final int  BUFFER_SIZE  = 64 * 1024;
+    private static final int  EXPIRE_BATCH = 100;
+    private static final long MB           = 1024 * 1024;
+
+    @Value("${sprinter.uploads.resumable.max-file-size-mb:2048}")
+    private long maxFileSizeMb;
+
+    /** Kolik částí se smí zapisovat současně (drží vlákno požadavku). */
+    @Value("${sprinter.uploads.resumable.max-concurrent-chunks:8}")
+    private int maxConcurrentChunks;
+
+    @Value("${sprinter.uploads.resumable.max-sessions-per-user:10}")
+    private int maxSessionsPerUser;
+
+    /** Kolik místa na disku musí zůstat volné po započtení všech rozpracovaných nahrávání. */
+    @Value("${sprinter.uploads.resumable.min-free-space-mb:1024}")
+    private long minFreeSpaceMb;
+
+    /** Po jaké době bez zápisu se relace považuje za opuštěnou. */
+    @Value("${sprinter.uploads.resumable.expire-after:PT24H}")
+    private Duration expireAfter;
+
+    private final UploadSessionRepository sessionRepository;
+    private final WorkItemRepository      workItemRepository;
+    private final UserRepository          userRepository;
+    private final FileStorageService      fileStorageService;
+    private final ProjectService          projectService;
+    private final PlatformTransactionManager transactionManager;
+
+    /** Průběžný stav otisku jednotlivých relací (jen na tomto uzlu). */
+    private final ConcurrentMap<String, TransferState> states = new ConcurrentHashMap<>();
+
+    private Semaphore           chunkPermits;
+    private TransactionTemplate tx;
+
+    @PostConstruct
+    public void init() {
+        chunkPermits = new Semaphore(maxConcurrentChunks);
+        tx           = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Zahájí nahrávání přílohy k pracovní položce.
+     *
+     * @param workItemId     ID pracovní položky
+     * @param filename       název souboru
+     * @param contentType    MIME typ (nepovinný)
+     * @param size           velikost celého souboru v bajtech
+     * @param expectedSha256 otisk SHA-256 (nepovinný) – při dokončení se ověří
+     * @return nová relace
+     */
+    public UploadSession initiate(Long workItemId, String filename, String contentType,
+                                  long size, String expectedSha256) {
+        var workItem = workItemRepository.findById(workItemId)
+                .orElseThrow(() -> new ResourceNotFoundException("Pracovní položka", workItemId));
+        projectService.requireContentEditAccess(workItem.getProject().getId());
+        Long userId = currentUserId();
+
+        if (filename == null || filename.isBlank()) {
+            throw new ValidationException("Zadejte název souboru.");
+        }
+        if (size < 0 || size > maxFileSizeMb * MB) {
+            throw new ValidationException("Soubor je příliš velký. Maximum je " + maxFileSizeMb + " MB.");
+        }
+        String sha256 = null;
+        if (expectedSha256 != null && !expectedSha256.isBlank()) {
+            sha256 = expectedSha256.trim().toLowerCase(Locale.ROOT);
+            if (!sha256.matches("[0-9a-f]{64}")) {
+                throw new ValidationException("Otisk SHA-256 musí mít 64 hexadecimálních znaků.");
+            }
+        }
+        if (sessionRepository.countByCreatedById(userId) >= maxSessionsPerUser) {
+            throw new SprinterException("Máte příliš mnoho rozpracovaných nahrávání. Dokončete nebo zrušte některé z nich.",
+                    HttpStatus.TOO_MANY_REQUESTS);
+        }
+        requireDiskSpace(size);
+
+        var session = UploadSession.builder()
+                .id(UUID.randomUUID().toString())
+                .workItem(workItem)
+                .createdBy(userRepository.getReferenceById(userId))
+                .originalFilename(filename.length() > 255 ? filename.substring(0, 255) : filename)
+                .contentType(contentType != null && contentType.length() <= 100 ? contentType : null)
+                .totalSize(size)
+                .receivedBytes(0)
+                .expectedSha256(sha256)
+                .updatedAt(LocalDateTime.now())
+                .build();
+        try {
+            Files.createFile(fileStorageService.getPartialPath(session.getId()));
+        } catch (IOException e) {
+            throw new SprinterException("Nelze založit soubor pro nahrávání.", e);
+        }
+        session = sessionRepository.save(session);
+        log.info("Zahájeno nahrávání '{}' ({} B) k položce ID={}, relace {}",
+                 session.getOriginalFilename(), size, workItemId, session.getId());
+        return session;
+    }
+
+    /**
+     * Vrátí relaci přihlášeného uživatele (pro zjištění offsetu při navázání).
+     */
+    @Transactional(readOnly = true)
+    public UploadSession getSession(String uploadId) {
+        return findOwnSession(uploadId);
+    }
+
+    /**
+     * Zapíše další část souboru. Část musí začínat přesně na aktuálním offsetu relace.
+     * Běží mimo transakci – spojení s databází se drží jen na krátký zápis offsetu.
+     * Při přerušení přenosu se uloží offset toho, co se stihlo zapsat.
+     *
+     * @param uploadId ID relace
+     * @param offset   offset, na který klient zapisuje
+     * @param body     tělo požadavku
+     * @return nový offset
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long appendChunk(String uploadId, long offset, InputStream body) {
+        var session = findOwnSession(uploadId);
+        if (!chunkPermits.tryAcquire()) {
+            throw new SprinterException("Server právě zpracovává příliš mnoho přenosů. Zkuste to za chvíli.",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        try {
+            TransferState state = lockState(session);
+            try {
+                if (offset != state.offset) {
+                    throw new SprinterException("Část nenavazuje – očekávaný offset je " + state.offset + ".",
+                            HttpStatus.CONFLICT);
+                }
+                long        limit   = session.getTotalSize();
+                IOException failure = null;
+                try (FileChannel channel = FileChannel.open(fileStorageService.getPartialPath(uploadId),
+                                                            StandardOpenOption.WRITE)) {
+                    byte[]     buffer = new byte[BUFFER_SIZE];
+                    ByteBuffer wrap   = ByteBuffer.wrap(buffer);
+                    int read;
+                    while ((read = body.read(buffer)) != -1) {
+                        if (state.offset + read > limit) {
+                            throw new ValidationException("Část přesahuje ohlášenou velikost souboru ("
+                                    + limit + " B).");
+                        }
+                        wrap.clear().limit(read);
+                        long position = state.offset;
+                        while (wrap.hasRemaining()) {
+                            position += channel.write(wrap, position);
+                        }
+                        state.digest.update(buffer, 0, read);
+                        state.offset += read;
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                } finally {
+                    sessionRepository.updateReceived(uploadId, state.offset, LocalDateTime.now());
+                }
+                if (failure != null) {
+                    log.info("Přenos části relace {} přerušen na offsetu {}: {}",
+                             uploadId, state.offset, failure.getMessage());
+                    throw new SprinterException("Přenos byl přerušen na offsetu " + state.offset + ".", failure);
+                }
+                return state.offset;
+            } finally {
+                state.lock.unlock();
+            }
+        } finally {
+            chunkPermits.release();
+        }
+    }
+
+    /**
+     * Dokončí nahrávání – ověří otisk, přesune soubor do úložiště blobů
+     * a vytvoří přílohu. Přesun (u S3 nahrání) běží mimo transakci, příloha
+     * se vytvoří a relace smaže až v krátké transakci na konci.
+     *
+     * <p>Do úložiště se předává pevný odkaz na rozpracovaný soubor; ten sám se
+     * smaže až po commitu. Když vytvoření přílohy selže, relace i soubor zůstanou
+     * a dokončení lze zopakovat (obsah už v úložišti je, znovu se nezapisuje).
+     * Do souboru se po dokončení už nezapisuje – je celý, takže sdílení obsahu
+     * s uloženým blobem nevadí.</p>
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Attachment complete(String uploadId) {
+        var session = findOwnSession(uploadId);
+        Long workItemId = session.getWorkItem().getId();
+        var workItem = workItemRepository.findById(workItemId)
+                .orElseThrow(() -> new ResourceNotFoundException("Pracovní položka", workItemId));
+        projectService.requireContentEditAccess(workItem.getProject().getId());
+
+        TransferState state = lockState(session);
+        try {
+            if (state.offset != session.getTotalSize()) {
+                throw new ValidationException("Soubor není celý – nahráno " + state.offset
+                        + " z " + session.getTotalSize() + " B.");
+            }
+            String sha256 = HexFormat.of().formatHex(((MessageDigest) state.digest.clone()).digest());
+            if (session.getExpectedSha256() != null && !session.getExpectedSha256().equals(sha256)) {
+                throw new ValidationException("Otisk nahraného souboru nesouhlasí s ohlášeným – nahrávání zrušte a opakujte.");
+            }
+            Path partial = fileStorageService.getPartialPath(uploadId);
+            Path staged;
+            try {
+                staged = fileStorageService.linkTempFile(partial);
+            } catch (IOException e) {
+                throw new SprinterException("Rozpracovaný soubor nahrávání nelze předat do úložiště.", e);
+            }
+            String encoding = fileStorageService.storeBlob(
+                    new FileStorageService.StagedContent(staged, sha256, session.getTotalSize()),
+                    session.getContentType());
+            var attachment = tx.execute(status -> {
+                fileStorageService.lockBlob(sha256, session.getTotalSize(), encoding);
+                var current = workItemRepository.findById(workItemId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Pracovní položka", workItemId));
+                var created = fileStorageService.attach(current, session.getOriginalFilename(),
+                        session.getContentType(), sha256, session.getTotalSize(), encoding);
+                sessionRepository.deleteById(uploadId);
+                return created;
+            });
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException e) {
+                log.warn("Nelze smazat rozpracovaný soubor dokončené relace {}: {}", uploadId, e.getMessage());
+            }
+            return attachment;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            states.remove(uploadId);
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Zruší rozpracované nahrávání a smaže zapsaná data.
+     */
+    public void abort(String uploadId) {
+        var session = findOwnSession(uploadId);
+        TransferState state = lockState(session);
+        try {
+            discard(session);
+        } finally {
+            states.remove(uploadId);
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Smaže relace, do kterých se déle než {@code expire-after} nezapisovalo.
+     * Relace, do které se právě zapisuje, se přeskočí.
+     *
+     * @return počet smazaných relací
+     */
+    @Scheduled(initialDelayString = "PT10M", fixedDelayString = "${sprinter.uploads.gc-interval:PT1H}")
+    public int expireStaleSessions() {
+        int expired = 0;
+        var staleIds = sessionRepository.findStaleIds(LocalDateTime.now().minus(expireAfter),
+                                                      PageRequest.of(0, EXPIRE_BATCH));
+        for (String id : staleIds) {
+            TransferState state = states.computeIfAbsent(id, k -> new TransferState());
+            if (!state.lock.tryLock()) {
+                continue;
+            }
+            try {
+                sessionRepository.findById(id).ifPresent(this::discard);
+                expired++;
+            } finally {
+                states.remove(id);
+                state.lock.unlock();
+            }
+        }
+        if (expired > 0) {
+            log.info("Úklid nahrávání: smazáno {} opuštěných relací", expired);
+        }
+        return expired;
+    }
+
+    // ---- Pomocné metody ----
+
+    /** Průběžný otisk souvislého začátku souboru; {@code digest} pokrývá bajty {@code [0, offset)}. */
+    private static final class TransferState {
+        final ReentrantLock lock = new ReentrantLock();
+        MessageDigest digest;
+        long          offset;
+    }
+
+    /**
+     * Zamkne stav relace (jeden zápis naráz) a případně ho obnoví z disku.
+     * Za offset se bere menší z offsetu v DB a skutečné délky souboru; co je za ním, se zahodí.
+     */
+    private TransferState lockState(UploadSession session) {
+        TransferState state = states.computeIfAbsent(session.getId(), k -> new TransferState());
+        if (!state.lock.tryLock()) {
+            throw new SprinterException("Do tohoto nahrávání se právě zapisuje.", HttpStatus.CONFLICT);
+        }
+        if (state.digest != null) {
+            return state;
+        }
+        Path partial = fileStorageService.getPartialPath(session.getId());
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long offset = Math.min(session.getReceivedBytes(), channel.size());
+            channel.truncate(offset);
+            MessageDigest digest = sha256();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long position = 0;
+            while (position < offset) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read < 0) break;
+                buffer.flip();
+                digest.update(buffer);
+                position += read;
+            }
+            state.digest = digest;
+            state.offset = offset;
+            log.debug("Obnoven stav nahrávání {} na offsetu {}", session.getId(), offset);
+            return state;
+        } catch (IOException | RuntimeException e) {
+            state.lock.unlock();
+            if (e instanceof IOException io) {
+                throw new SprinterException("Rozpracovaný soubor nahrávání nelze načíst – nahrávání zrušte a opakujte.", io);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    private UploadSession findOwnSession(String uploadId) {
+        Long userId = currentUserId();
+        return sessionRepository.findById(uploadId)
+                .filter(s -> s.getCreatedBy().getId().equals(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Nahrávání nenalezeno: " + uploadId));
+    }
+
+    private void discard(UploadSession session) {
+        try {
+            Files.deleteIfExists(fileStorageService.getPartialPath(session.getId()));
+        } catch (IOException e) {
+            log.warn("Nelze smazat rozpracovaný soubor relace {}: {}", session.getId(), e.getMessage());
+        }
+        sessionRepository.delete(session);
+    }
+
+    /** Ověří, že se soubor vejde na disk spolu se všemi rozpracovanými nahráváními. */
+    private void requireDiskSpace(long size) {
+        long usable;
+        try {
+            usable = fileStorageService.usableSpace();
+        } catch (IOException e) {
+            throw new SprinterException("Nelze zjistit volné místo v úložišti.", e);
+        }
+        long needed = size + sessionRepository.sumOutstandingBytes() + minFreeSpaceMb * MB;
+        if (usable < needed) {
+            log.warn("Nahrávání odmítnuto – volné místo {} B, potřeba {} B", usable, needed);
+            throw new SprinterException("V úložišti není dost volného místa.", HttpStatus.INSUFFICIENT_STORAGE);
+        }
+    }
+
+    private static Long currentUserId() {
+        return SecurityUtils.getCurrentUserId()
+                .orElseThrow(() -> new SprinterException("Není přihlášen žádný uživatel.", HttpStatus.UNAUTHORIZED));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
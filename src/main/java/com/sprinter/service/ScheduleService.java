@@ -0,0 +1,421 @@
+package com.sprinter.service;
+
+import com.sprinter.config.CacheConfig;
+import com.sprinter.domain.enums.DependencyType;
+import com.sprinter.domain.repository.ProjectRepository;
+import com.sprinter.domain.repository.WorkItemDependencyRepository;
+import com.sprinter.domain.repository.WorkItemRepository;
+import com.sprinter.dto.GanttWindow;
+import com.sprinter.exception.ValidationException;
+import com.sprinter.service.schedule.MovedItem;
+import com.sprinter.service.schedule.ProjectSchedule;
+import com.sprinter.service.schedule.ScheduleEngine;
+import com.sprinter.service.schedule.ScheduleGraph;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service pro výpočet harmonogramu projektu – nejdřívější/nejpozdější začátek,
+ * rezerva a kritická cesta podle závislostí mezi položkami.
+ *
+ * <p>Graf se načte dvěma skalárními dotazy (uzly a hrany) do polí primitiv
+ * a spočítá se v paměti ({@link ScheduleEngine}); entity se nenačítají.</p>
+ *
+ * <p>Samotný graf závislostí (bez dat položek) se cachuje pro každý projekt
+ * (kontrola cyklů, automatické plánování, plánování sprintu) spolu s verzí
+ * grafu ze sloupce {@code projects.dependency_version}. Každá změna závislostí
+ * verzi zvýší; graf z cache se použije, jen když jeho verze odpovídá aktuální,
+ * takže zastaralý graf se pozná i na ostatních uzlech clusteru.</p>
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ScheduleService {
+
+    /** Výchozí trvání položky bez úplných dat (stejně jako v Ganttově diagramu). */
+    static final int DEFAULT_DURATION_DAYS = 7;
+
+    /** Maximální počet ID v jedné IN klauzuli. */
+    private static final int ID_CHUNK = 5000;
+
+    /** Limity okna Ganttova diagramu. */
+    private static final int  MAX_WINDOW_ROWS = 1000;
+    private static final long MAX_WINDOW_DAYS = 5 * 366;
+
+    private final WorkItemRepository           workItemRepository;
+    private final ProjectRepository            projectRepository;
+    private final WorkItemDependencyRepository dependencyRepository;
+    private final ProjectService               projectService;
+    private final CacheManager                 cacheManager;
+    private final JdbcTemplate                 jdbcTemplate;
+
+    /**
+     * Spočítá harmonogram projektu.
+     *
+     * <p>Položka nezačne dříve než ve svém plánovaném datu zahájení (je-li zadáno);
+     * trvání je dáno rozdílem zahájení a termínu, jinak {@value #DEFAULT_DURATION_DAYS} dní.</p>
+     */
+    public ProjectSchedule computeSchedule(Long projectId) {
+        projectService.requireAccess(projectId);
+        long started = System.nanoTime();
+
+        List<Object[]> nodes    = workItemRepository.findScheduleNodes(projectId);
+        int            n        = nodes.size();
+        long[]         ids      = new long[n];
+        LocalDate[]    start    = new LocalDate[n];
+        int[]          duration = new int[n];
+        LocalDate      origin   = null;
+        for (int i = 0; i < n; i++) {
+            Object[]  row = nodes.get(i);
+            LocalDate s   = (LocalDate) row[1];
+            LocalDate due = (LocalDate) row[2];
+            ids[i]      = (Long) row[0];
+            duration[i] = duration(s, due);
+            if (s == null && due != null) {
+                s = LocalDate.ofEpochDay(effectiveStart(null, due));
+            }
+            start[i] = s;
+            if (s != null && (origin == null || s.isBefore(origin))) {
+                origin = s;
+            }
+        }
+        if (origin == null) {
+            origin = LocalDate.now();
+        }
+
+        int[] earliest = new int[n];
+        for (int i = 0; i < n; i++) {
+            earliest[i] = start[i] != null ? (int) ChronoUnit.DAYS.between(origin, start[i]) : 0;
+        }
+
+        var graph  = loadEdges(projectId, (from, to, types, lags) -> ScheduleGraph.build(ids, from, to, types, lags));
+        var result = ScheduleEngine.compute(graph, earliest, duration);
+        if (result.cyclic()) {
+            log.warn("Graf závislostí projektu {} obsahuje cyklus – část položek nelze naplánovat", projectId);
+        }
+        log.debug("Harmonogram projektu {}: {} uzlů, {} hran za {} ms", projectId,
+                graph.nodeCount(), graph.edgeCount(), (System.nanoTime() - started) / 1_000_000);
+        return new ProjectSchedule(origin, result);
+    }
+
+    /**
+     * Vrátí okno Ganttova diagramu – jen položky zasahující do období
+     * {@code [from, to]} v rozsahu řádků {@code offset .. offset+limit-1}
+     * a závislosti, které se jich týkají.
+     *
+     * @param withSchedule doplnit rezervu a příznak kritické cesty (počítá se
+     *                     harmonogram celého projektu – v paměti, ale nad všemi uzly)
+     */
+    public GanttWindow ganttWindow(Long projectId, LocalDate from, LocalDate to,
+                                   int offset, int limit, boolean withSchedule) {
+        projectService.requireAccess(projectId);
+        if (to.isBefore(from)) {
+            throw new ValidationException("Konec období nemůže být před jeho začátkem.");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_WINDOW_DAYS) {
+            throw new ValidationException("Období je příliš dlouhé (maximum je " + MAX_WINDOW_DAYS + " dní).");
+        }
+        if (offset < 0 || limit < 1 || limit > MAX_WINDOW_ROWS) {
+            throw new ValidationException("Rozsah řádků musí být 1 až " + MAX_WINDOW_ROWS + " od nezáporného začátku.");
+        }
+
+        var project   = projectService.findById(projectId);
+        var fromMinus = from.minusDays(DEFAULT_DURATION_DAYS);
+        var toPlus    = to.plusDays(DEFAULT_DURATION_DAYS);
+        long total    = workItemRepository.countGanttWindow(projectId, from, to, fromMinus, toPlus);
+        List<Object[]> rows = workItemRepository.findGanttWindow(projectId, from, to, fromMinus, toPlus, offset, limit);
+
+        ProjectSchedule schedule = withSchedule && !rows.isEmpty() ? computeSchedule(projectId) : null;
+
+        var items = new ArrayList<GanttWindow.Row>(rows.size());
+        var ids   = new ArrayList<Long>(rows.size());
+        for (Object[] row : rows) {
+            long    id       = ((Number) row[0]).longValue();
+            String  status   = (String) row[6];
+            Integer progress = row[5] != null ? ((Number) row[5]).intValue() : ("DONE".equals(status) ? 100 : 0);
+            Integer slack    = null;
+            Boolean critical = null;
+            if (schedule != null) {
+                int node = schedule.indexOf(id);
+                if (node >= 0 && schedule.result().scheduled(node)) {
+                    slack    = schedule.result().slack(node);
+                    critical = schedule.result().critical(node);
+                }
+            }
+            ids.add(id);
+            items.add(new GanttWindow.Row(id, ((Number) row[1]).longValue(), (String) row[2],
+                    toLocalDate(row[3]), toLocalDate(row[4]), progress, status, (String) row[7],
+                    row[8] != null ? ((Number) row[8]).longValue() : null, slack, critical));
+        }
+
+        var links = new ArrayList<GanttWindow.Link>();
+        if (!ids.isEmpty()) {
+            for (Object[] edge : dependencyRepository.findEdgesTouching(ids)) {
+                links.add(new GanttWindow.Link((Long) edge[0], (Long) edge[1],
+                        ScheduleGraph.abbreviation(ScheduleGraph.code((DependencyType) edge[2])),
+                        edge[3] != null ? (Integer) edge[3] : 0));
+            }
+        }
+
+        return new GanttWindow(project.getProjectKey(), from, to, offset, total, items, links);
+    }
+
+    /**
+     * Vrátí graf závislostí projektu (z cache, případně ho načte jedním dotazem).
+     * Hrany patří projektu svého předchůdce.
+     */
+    public ScheduleGraph dependencyGraph(Long projectId) {
+        return dependencyGraph(projectId, projectRepository.findDependencyVersion(projectId));
+    }
+
+    /**
+     * Zamkne řádek projektu do konce transakce a vrátí verzi jeho grafu závislostí.
+     * Změny závislostí projektu se tak serializují; s vrácenou verzí pak pracují
+     * {@link #findCycle} a {@link #dependencyAdded}.
+     */
+    @Transactional
+    public long lockDependencies(Long projectId) {
+        return projectRepository.lockDependencyVersion(projectId);
+    }
+
+    /**
+     * Zjistí, zda by nová závislost {@code predecessor → successor} uzavřela cyklus.
+     * Hledá v grafu z cache – verze {@code version} pochází z {@link #lockDependencies},
+     * takže graf stejné verze obsahuje všechny potvrzené hrany projektu a žádná
+     * souběžná změna nemůže proběhnout, dokud volající drží zámek. Projde jen uzly
+     * dosažitelné z nástupníka.
+     *
+     * @return ID položek cyklu ve tvaru [předchůdce, nástupník, …, předchůdce],
+     *         nebo null, pokud cyklus nevznikne
+     */
+    public long[] findCycle(Long projectId, long version, Long predecessorId, Long successorId) {
+        long[] path = dependencyGraph(projectId, version).findPath(successorId, predecessorId);
+        if (path == null) {
+            return null;
+        }
+        long[] cycle = new long[path.length + 1];
+        cycle[0] = predecessorId;
+        System.arraycopy(path, 0, cycle, 1, path.length);
+        return cycle;
+    }
+
+    /**
+     * Zaeviduje novou závislost v grafu projektu jejího předchůdce: zvýší verzi grafu
+     * a po commitu uloží do cache graf doplněný o novou hranu, takže další kontrola
+     * cyklů graf z DB nenačítá. Volající drží zámek projektu a {@code version}
+     * je verze z {@link #lockDependencies}.
+     */
+    @Transactional
+    public void dependencyAdded(Long projectId, long version, Long predecessorId, Long successorId,
+                                DependencyType type, int lagDays) {
+        projectRepository.incrementDependencyVersion(projectId);
+
+        var cache  = cacheManager.getCache(CacheConfig.DEPENDENCY_GRAPHS);
+        var cached = cache != null ? cache.get(projectId, CachedGraph.class) : null;
+        if (cached == null || cached.version() != version) {
+            return;
+        }
+        var graph = cached.graph().withEdge(predecessorId, successorId, ScheduleGraph.code(type), lagDays);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(projectId, new CachedGraph(version + 1, graph));
+            }
+        });
+    }
+
+    /**
+     * Zaeviduje jinou změnu grafu závislostí projektu (odebrání závislosti, smazání
+     * položky) – zvýší verzi, graf se při dalším použití načte znovu.
+     */
+    @Transactional
+    public void dependenciesChanged(Long projectId) {
+        projectRepository.incrementDependencyVersion(projectId);
+        log.debug("Změna grafu závislostí projektu {}", projectId);
+    }
+
+    /**
+     * Automatické plánování: po změně termínů položky přepočítá položky na ní
+     * (tranzitivně) závislé. Závislá položka začne co nejdříve, jak jí všechny
+     * předchůdci dovolí; trvání se zachová.
+     *
+     * <p>Zpracuje se jen podgraf dosažitelný ze změněné položky (v topologickém
+     * pořadí), termíny se načtou jen pro něj a přímé předchůdce jeho uzlů a
+     * změny se zapíšou jedním UPDATE. Položky bez termínů se neposouvají.
+     * Oprávnění ověřuje volající.</p>
+     *
+     * @return posunuté položky (bez změněné položky samotné)
+     */
+    @Transactional
+    public List<MovedItem> propagate(Long projectId, Long workItemId, LocalDate startDate, LocalDate dueDate) {
+        var graph  = dependencyGraph(projectId);
+        int source = graph.indexOf(workItemId);
+        if (source < 0) {
+            return List.of();
+        }
+        int[] order = graph.downstreamOrder(source);
+        if (order.length == 0) {
+            return List.of();
+        }
+
+        // Termíny jen pro podgraf a přímé předchůdce jeho uzlů
+        int        n      = graph.nodeCount();
+        boolean[]  needed = new boolean[n];
+        List<Long> ids    = new ArrayList<>();
+        for (int v : order) {
+            if (!needed[v]) { needed[v] = true; ids.add(graph.idOf(v)); }
+            for (int i = 0, deg = graph.inDegree(v); i < deg; i++) {
+                int u = graph.edgeSource(graph.inEdgeAt(v, i));
+                if (!needed[u] && u != source) { needed[u] = true; ids.add(graph.idOf(u)); }
+            }
+        }
+        LocalDate[] start = new LocalDate[n];
+        LocalDate[] due   = new LocalDate[n];
+        for (int from = 0; from < ids.size(); from += ID_CHUNK) {
+            for (Object[] row : workItemRepository.findScheduleDates(ids.subList(from, Math.min(ids.size(), from + ID_CHUNK)))) {
+                int node = graph.indexOf((Long) row[0]);
+                start[node] = (LocalDate) row[1];
+                due[node]   = (LocalDate) row[2];
+            }
+        }
+        start[source] = startDate;
+        due[source]   = dueDate;
+
+        var moved = new ArrayList<MovedItem>();
+        for (int v : order) {
+            if (start[v] == null && due[v] == null) continue;
+            long s = effectiveStart(start[v], due[v]);
+            int  d = duration(start[v], due[v]);
+
+            long bound = Long.MIN_VALUE;
+            for (int i = 0, deg = graph.inDegree(v); i < deg; i++) {
+                int slot = graph.inEdgeAt(v, i);
+                int u    = graph.edgeSource(slot);
+                if (start[u] == null && due[u] == null) continue;
+                long su  = effectiveStart(start[u], due[u]);
+                long fu  = su + duration(start[u], due[u]);
+                int  lag = graph.edgeLag(slot);
+                long b = switch (graph.edgeType(slot)) {
+                    case ScheduleGraph.SS -> su + lag;
+                    case ScheduleGraph.FF -> fu + lag - d;
+                    case ScheduleGraph.SF -> su + lag - d;
+                    default               -> fu + lag;
+                };
+                bound = Math.max(bound, b);
+            }
+            if (bound == Long.MIN_VALUE || bound == s) continue;
+
+            long delta = bound - s;
+            start[v] = start[v] != null ? start[v].plusDays(delta) : null;
+            due[v]   = due[v]   != null ? due[v].plusDays(delta)   : null;
+            moved.add(new MovedItem(graph.idOf(v), start[v], due[v]));
+        }
+
+        if (!moved.isEmpty()) {
+            updateDates(moved);
+            log.debug("Automatické plánování projektu {}: změna položky {} posunula {} položek",
+                    projectId, workItemId, moved.size());
+        }
+        return moved;
+    }
+
+    // ---- Pomocné metody ----
+
+    /** Zapíše nové termíny všech posunutých položek jedním příkazem (PostgreSQL unnest). */
+    private void updateDates(List<MovedItem> moved) {
+        Long[] ids    = new Long[moved.size()];
+        Date[] starts = new Date[moved.size()];
+        Date[] dues   = new Date[moved.size()];
+        for (int i = 0; i < moved.size(); i++) {
+            MovedItem m = moved.get(i);
+            ids[i]    = m.id();
+            starts[i] = m.startDate() != null ? Date.valueOf(m.startDate()) : null;
+            dues[i]   = m.dueDate()   != null ? Date.valueOf(m.dueDate())   : null;
+        }
+        jdbcTemplate.update("""
+                UPDATE work_items wi
+                SET start_date = v.start_date, due_date = v.due_date, updated_at = NOW()
+                FROM unnest(?, ?, ?) AS v(id, start_date, due_date)
+                WHERE wi.id = v.id
+                """, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids));
+            ps.setArray(2, ps.getConnection().createArrayOf("date", starts));
+            ps.setArray(3, ps.getConnection().createArrayOf("date", dues));
+        });
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date d ? d.toLocalDate() : (LocalDate) value;
+    }
+
+    /** Začátek položky v dnech epochy (bez data zahájení se odvodí z termínu). */
+    private static long effectiveStart(LocalDate start, LocalDate due) {
+        return start != null ? start.toEpochDay() : due.toEpochDay() - (DEFAULT_DURATION_DAYS - 1);
+    }
+
+    /** Trvání položky ve dnech (bez obou dat výchozí délka). */
+    private static int duration(LocalDate start, LocalDate due) {
+        return start != null && due != null
+               ? (int) Math.max(1, ChronoUnit.DAYS.between(start, due) + 1)
+               : DEFAULT_DURATION_DAYS;
+    }
+
+    /**
+     * Vrátí graf dané verze z cache; jiná verze v cache znamená změnu od jeho
+     * načtení, graf se pak načte z DB a v cache nahradí.
+     */
+    private ScheduleGraph dependencyGraph(Long projectId, long version) {
+        var cache = cacheManager.getCache(CacheConfig.DEPENDENCY_GRAPHS);
+        if (cache != null) {
+            var cached = cache.get(projectId, CachedGraph.class);
+            if (cached != null && cached.version() == version) {
+                return cached.graph();
+            }
+        }
+        // Verze se čte před hranami – načtený graf je vždy aspoň tak nový jako jeho verze
+        var graph = loadEdges(projectId, ScheduleGraph::fromEdges);
+        if (cache != null) {
+            cache.put(projectId, new CachedGraph(version, graph));
+        }
+        return graph;
+    }
+
+    /** Načte hrany projektu do polí a předá je továrně grafu. */
+    private ScheduleGraph loadEdges(Long projectId, GraphFactory factory) {
+        List<Object[]> edges = dependencyRepository.findScheduleEdges(projectId);
+        int    m     = edges.size();
+        long[] from  = new long[m];
+        long[] to    = new long[m];
+        byte[] types = new byte[m];
+        int[]  lags  = new int[m];
+        for (int e = 0; e < m; e++) {
+            Object[] row = edges.get(e);
+            from[e]  = (Long) row[0];
+            to[e]    = (Long) row[1];
+            types[e] = ScheduleGraph.code((DependencyType) row[2]);
+            lags[e]  = row[3] != null ? (Integer) row[3] : 0;
+        }
+        return factory.create(from, to, types, lags);
+    }
+
+    /** Graf závislostí v cache s verzí, ze které byl načten. */
+    private record CachedGraph(long version, ScheduleGraph graph) {}
+
+    @FunctionalInterface
+    private interface GraphFactory {
+        ScheduleGraph create(long[] from, long[] to, byte[] types, int[] lags);
+    }
+}
@@ -0,0 +1,140 @@
+package com.sprinter.service;
+
+import com.sprinter.domain.enums.Priority;
+import com.sprinter.domain.repository.WorkItemRepository;
+import com.sprinter.dto.SprintPlan;
+import com.sprinter.exception.ValidationException;
+import com.sprinter.service.event.WorkItemsChangedEvent;
+import com.sprinter.service.planning.CapacityUnit;
+import com.sprinter.service.planning.SprintPlanner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service pro automatické plánování rozsahu sprintu z backlogu.
+ *
+ * <p>Backlog se načte jako skalární řádky do polí, graf závislostí se vezme
+ * z cache {@link ScheduleService#dependencyGraph} a výběr provede
+ * {@link SprintPlanner}. Návrh se neukládá – přijetí je samostatný krok,
+ * který přiřadí vybrané položky jedním UPDATE.</p>
+ */
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class SprintPlanningService {
+
+    private final WorkItemRepository        workItemRepository;
+    private final SprintService             sprintService;
+    private final ScheduleService           scheduleService;
+    private final ProjectService            projectService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Navrhne rozsah sprintu z backlogu jeho projektu.
+     *
+     * @param sprintId         ID plánovaného sprintu (nesmí být uzavřený)
+     * @param unit             jednotka kapacity
+     * @param capacity         celková kapacita sprintu
+     * @param assigneeCapacity kapacity řešitelů (ID uživatele → kapacita); řešitelé
+     *                         bez záznamu jsou omezeni jen celkovou kapacitou
+     */
+    @Transactional(readOnly = true)
+    public SprintPlan propose(Long sprintId, CapacityUnit unit, double capacity,
+                              Map<Long, Double> assigneeCapacity) {
+        var sprint = sprintService.findById(sprintId);
+        Long projectId = sprint.getProject().getId();
+        projectService.requireManageAccess(projectId);
+
+        if (sprint.isTerminal()) {
+            throw new ValidationException("Uzavřený sprint nelze plánovat.");
+        }
+        if (unit == null || !(capacity >= 0)) {
+            throw new ValidationException("Zadejte jednotku a nezápornou kapacitu sprintu.");
+        }
+        Map<Long, Double> limits = assigneeCapacity != null ? assigneeCapacity : Map.of();
+        long[]   assigneeIds   = new long[limits.size()];
+        double[] assigneeLimit = new double[limits.size()];
+        Map<Long, Integer> assigneeIndex = new HashMap<>();
+        for (var entry : limits.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null || !(entry.getValue() >= 0)) {
+                throw new ValidationException("Kapacita řešitele musí být nezáporné číslo.");
+            }
+            int a = assigneeIndex.size();
+            assigneeIndex.put(entry.getKey(), a);
+            assigneeIds[a]   = entry.getKey();
+            assigneeLimit[a] = entry.getValue();
+        }
+
+        List<Object[]> rows = workItemRepository.findBacklogPlanningRows(projectId);
+        int      n        = rows.size();
+        long[]   ids      = new long[n];
+        int[]    priority = new int[n];
+        double[] cost     = new double[n];
+        int[]    assignee = new int[n];
+        for (int i = 0; i < n; i++) {
+            Object[] row = rows.get(i);
+            ids[i]      = (Long) row[0];
+            priority[i] = ((Priority) row[3]).getLevel();
+            Number estimate = unit == CapacityUnit.STORY_POINTS ? (Number) row[4] : (Number) row[5];
+            cost[i]     = estimate != null ? estimate.doubleValue() : Double.NaN;
+            assignee[i] = row[6] != null ? assigneeIndex.getOrDefault((Long) row[6], -1) : -1;
+        }
+
+        var result = SprintPlanner.plan(ids, priority, cost, assignee, capacity, assigneeLimit,
+                scheduleService.dependencyGraph(projectId));
+
+        String projectKey = sprint.getProject().getProjectKey();
+        var items = new ArrayList<SprintPlan.Item>(result.selected().length);
+        int rank = 0;
+        for (int i : result.selected()) {
+            Object[] row = rows.get(i);
+            items.add(new SprintPlan.Item(++rank, ids[i], projectKey + "-" + row[1], (String) row[2],
+                    ((Priority) row[3]).name(), cost[i], (Long) row[6]));
+        }
+        var loads = new ArrayList<SprintPlan.AssigneeLoad>(assigneeIds.length);
+        for (int a = 0; a < assigneeIds.length; a++) {
+            loads.add(new SprintPlan.AssigneeLoad(assigneeIds[a], assigneeLimit[a], result.assigneeUsed()[a]));
+        }
+
+        log.debug("Návrh sprintu {}: {} z {} položek backlogu, {} / {} {}", sprintId,
+                  items.size(), n, result.used(), capacity, unit);
+        return new SprintPlan(sprintId, unit, capacity, result.used(), items, loads,
+                result.count(SprintPlanner.OVER_CAPACITY), result.count(SprintPlanner.BLOCKED),
+                result.count(SprintPlanner.UNESTIMATED));
+    }
+
+    /**
+     * Přijme návrh – přiřadí vybrané položky backlogu do sprintu jedním UPDATE.
+     *
+     * @return počet přiřazených položek
+     */
+    public int accept(Long sprintId, List<Long> itemIds) {
+        var sprint = sprintService.findById(sprintId);
+        Long projectId = sprint.getProject().getId();
+        projectService.requireManageAccess(projectId);
+
+        if (sprint.isTerminal()) {
+            throw new ValidationException("Do uzavřeného sprintu nelze přidávat položky.");
+        }
+        if (itemIds == null || itemIds.isEmpty()) {
+            return 0;
+        }
+
+        var ids = itemIds.stream().distinct().toList();
+        int assigned = workItemRepository.assignBacklogItems(projectId, ids, sprint, LocalDateTime.now());
+        eventPublisher.publishEvent(WorkItemsChangedEvent.of(projectId, sprintId));
+        log.info("Do sprintu '{}' přiřazeno {} položek z návrhu ({} požadováno)",
+                 sprint.getName(), assigned, ids.size());
+        return assigned;
+    }
+}
@@ -1,20 +1,22 @@
 package com.sprinter.service;
 
 import com.sprinter.domain.entity.Sprint;
-import com.sprinter.domain.entity.WorkItem;
 import com.sprinter.domain.enums.SprintStatus;
 import com.sprinter.domain.enums.WorkItemStatus;
 import com.sprinter.domain.repository.SprintRepository;
 import com.sprinter.domain.repository.WorkItemRepository;
 import com.sprinter.exception.ResourceNotFoundException;
 import com.sprinter.exception.ValidationException;
+import com.sprinter.service.event.WorkItemsChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,9 +36,18 @@ import java.util.Optional;
 @Transactional
 public class SprintService {
 
-    private final SprintRepository   sprintRepository;
-    private final WorkItemRepository workItemRepository;
-    private final ProjectService     projectService;
+    private final SprintRepository          sprintRepository;
+    private final WorkItemRepository        workItemRepository;
+    private final ProjectService            projectService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Stavy položek, které se při uzavření sprintu nepřesouvají. */
+    private static final List<WorkItemStatus> TERMINAL_STATUSES =
+            Arrays.stream(WorkItemStatus.values()).filter(WorkItemStatus::isTerminal).toList();
+
+    /** Stavy sprintu, ze kterých jej lze zrušit. */
+    private static final List<String> OPEN_STATUSES =
+            Arrays.stream(SprintStatus.values()).filter(s -> !s.isTerminal()).map(Enum::name).toList();
 
     // ---- Čtení ----
 
@@ -135,7 +146,9 @@ public class SprintService {
      * Uzavře sprint (přechod z ACTIVE → COMPLETED).
      *
      * <p>Nevyřešené položky lze přesunout do backlogu nebo do jiného sprintu.
-     * Dokončené položky zůstanou uzavřeny.</p>
+     * Dokončené položky zůstanou uzavřeny. Změna stavu se snímkem
+     * (přislíbené/dokončené body, počet přenesených položek) i přesun položek
+     * proběhnou hromadnými příkazy – bez načítání položek sprintu.</p>
      *
      * @param id                  ID uzavíraného sprintu
      * @param moveIncompleteToId  ID sprintu, do kterého přesunout nedokončené položky
@@ -143,56 +156,56 @@ public class SprintService {
      */
     public Sprint completeSprint(Long id, Long moveIncompleteToId) {
         var sprint = findById(id);
-        projectService.requireManageAccess(sprint.getProject().getId());
+        Long projectId = sprint.getProject().getId();
+        projectService.requireManageAccess(projectId);
 
         if (!sprint.isActive()) {
             throw new ValidationException("Ukončit lze pouze aktivní sprint.");
         }
 
-        // Přesun nedokončených položek
-        List<WorkItem> incomplete = sprint.getWorkItems().stream()
-                .filter(wi -> !wi.getStatus().isTerminal())
-                .toList();
-
         Sprint targetSprint = null;
         if (moveIncompleteToId != null) {
             targetSprint = findById(moveIncompleteToId);
+            if (targetSprint.getId().equals(id) || targetSprint.isTerminal()
+                    || !targetSprint.getProject().getId().equals(projectId)) {
+                throw new ValidationException("Nedokončené položky lze přesunout jen do jiného otevřeného sprintu projektu.");
+            }
         }
 
-        for (WorkItem wi : incomplete) {
-            wi.setSprint(targetSprint);
-            workItemRepository.save(wi);
+        var now = LocalDateTime.now();
+        if (sprintRepository.closeWithSnapshot(id, List.of(SprintStatus.ACTIVE.name()),
+                SprintStatus.COMPLETED.name(), false, now) == 0) {
+            throw new ValidationException("Sprint mezitím změnil stav – obnovte stránku.");
         }
+        int moved = workItemRepository.moveOpenItems(id, targetSprint, TERMINAL_STATUSES, now);
 
-        sprint.setStatus(SprintStatus.COMPLETED);
-        sprint.setCompletedAt(LocalDateTime.now());
-
-        sprint = sprintRepository.save(sprint);
-        log.info("Uzavřen sprint '{}', přesunuto {} nedokončených položek",
-                  sprint.getName(), incomplete.size());
+        eventPublisher.publishEvent(WorkItemsChangedEvent.of(projectId, id, moveIncompleteToId));
+        sprint = findById(id);
+        log.info("Uzavřen sprint '{}': dokončeno {} z {} bodů, přesunuto {} nedokončených položek",
+                  sprint.getName(), sprint.getCompletedPoints(), sprint.getCommittedPoints(), moved);
         return sprint;
     }
 
     /**
-     * Zruší sprint.
+     * Zruší sprint. Všechny jeho položky se jedním příkazem vrátí do backlogu.
      */
     public void cancelSprint(Long id) {
         var sprint = findById(id);
-        projectService.requireManageAccess(sprint.getProject().getId());
+        Long projectId = sprint.getProject().getId();
+        projectService.requireManageAccess(projectId);
 
         if (sprint.isTerminal()) {
             throw new ValidationException("Sprint je již uzavřen.");
         }
 
-        // Všechny položky přesuneme do backlogu
-        sprint.getWorkItems().forEach(wi -> {
-            wi.setSprint(null);
-            workItemRepository.save(wi);
-        });
+        if (sprintRepository.closeWithSnapshot(id, OPEN_STATUSES, SprintStatus.CANCELLED.name(),
+                true, LocalDateTime.now()) == 0) {
+            throw new ValidationException("Sprint je již uzavřen.");
+        }
+        int moved = workItemRepository.moveAllToBacklog(id, LocalDateTime.now());
 
-        sprint.setStatus(SprintStatus.CANCELLED);
-        sprintRepository.save(sprint);
-        log.info("Zrušen sprint '{}'", sprint.getName());
+        eventPublisher.publishEvent(WorkItemsChangedEvent.of(projectId, id));
+        log.info("Zrušen sprint '{}', do backlogu vráceno {} položek", sprint.getName(), moved);
     }
 
     /**
@@ -211,8 +224,11 @@ public class SprintService {
                     + "' nelze přiřadit ke sprintu.");
         }
 
+        Long oldSprintId = workItem.getSprint() != null ? workItem.getSprint().getId() : null;
         workItem.setSprint(sprint);
         workItemRepository.save(workItem);
+        eventPublisher.publishEvent(WorkItemsChangedEvent.of(
+                workItem.getProject().getId(), sprintId, oldSprintId));
     }
 
     /**
@@ -221,7 +237,9 @@ public class SprintService {
     public void removeWorkItemFromSprint(Long workItemId) {
         var workItem = workItemRepository.findById(workItemId)
                 .orElseThrow(() -> new ResourceNotFoundException("WorkItem", workItemId));
+        Long oldSprintId = workItem.getSprint() != null ? workItem.getSprint().getId() : null;
         workItem.setSprint(null);
         workItemRepository.save(workItem);
+        eventPublisher.publishEvent(WorkItemsChangedEvent.of(workItem.getProject().getId(), oldSprintId));
     }
 }
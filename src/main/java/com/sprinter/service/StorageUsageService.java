@@ -0,0 +1,65 @@
+package com.sprinter.service;
+
+import com.sprinter.domain.entity.ProjectStorageUsage;
+import com.sprinter.domain.entity.UserStorageUsage;
+import com.sprinter.domain.repository.AttachmentRepository;
+import com.sprinter.domain.repository.ProjectStorageUsageRepository;
+import com.sprinter.domain.repository.UserStorageUsageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service pro evidenci využití úložiště příloh.
+ *
+ * <p>Evidenci po projektech a uživatelích udržuje trigger při vložení a smazání
+ * přílohy, takže čtení je jeden řádek podle klíče. {@link #reconcile()} ji
+ * přepočítá z tabulky příloh a opraví případné odchylky.</p>
+ */
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class StorageUsageService {
+
+    private final AttachmentRepository          attachmentRepository;
+    private final ProjectStorageUsageRepository projectUsageRepository;
+    private final UserStorageUsageRepository    userUsageRepository;
+
+    /** Vrátí využití úložiště projektu (projekt bez příloh má nulové využití). */
+    @Transactional(readOnly = true)
+    public ProjectStorageUsage getProjectUsage(Long projectId) {
+        return projectUsageRepository.findById(projectId)
+                .orElseGet(() -> new ProjectStorageUsage(projectId, 0, 0));
+    }
+
+    /** Vrátí využití úložiště přílohami, které uživatel nahrál. */
+    @Transactional(readOnly = true)
+    public UserStorageUsage getUserUsage(Long userId) {
+        return userUsageRepository.findById(userId)
+                .orElseGet(() -> new UserStorageUsage(userId, 0, 0));
+    }
+
+    /**
+     * Přepočítá evidenci z tabulky příloh.
+     *
+     * <p>Přepočet přepisuje evidenci součty z příloh, proto běží pod zámkem
+     * {@code SHARE} nad tabulkou příloh: souběžné vložení nebo smazání přílohy
+     * by jinak mohlo přírůstek svého triggeru zapsat mezi výpočtem součtu
+     * a přepsáním řádku a ten by se ztratil. Po dobu přepočtu (jeden agregační
+     * dotaz) tak nahrávání a mazání příloh čeká.</p>
+     *
+     * @return počet opravených řádků (projekty + uživatelé)
+     */
+    public int reconcile() {
+        attachmentRepository.lockAgainstWrites();
+        int fixed = projectUsageRepository.reconcile()
+                  + userUsageRepository.reconcileUploaders()
+                  + userUsageRepository.resetWithoutAttachments();
+        if (fixed > 0) {
+            log.warn("Evidence úložiště se lišila od příloh – opraveno {} řádků", fixed);
+        }
+        return fixed;
+    }
+}
@@ -45,6 +45,15 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Uživatel", id));
     }
 
+    /**
+     * Vrátí referenci na uživatele bez načtení z DB – pro nastavení vazeb
+     * (autor, reportér) podle ID z přihlášeného principálu.
+     */
+    @Transactional(readOnly = true)
+    public User getReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+
     /**
      * Vrátí uživatele dle přihlašovacího jména nebo e-mailu.
      *
@@ -81,18 +90,6 @@ public class UserService {
         return userRepository.findUsersNotInProject(projectId);
     }
 
-    /**
-     * Zaznamenává přihlášení: uloží aktuální lastLoginAt jako previousLastLoginAt,
-     * pak nastaví lastLoginAt na aktuální čas.
-     */
-    public void recordLogin(Long userId) {
-        userRepository.findById(userId).ifPresent(user -> {
-            user.setPreviousLastLoginAt(user.getLastLoginAt());
-            user.setLastLoginAt(LocalDateTime.now());
-            userRepository.save(user);
-        });
-    }
-
     // ---- Vytváření ----
 
     /**
@@ -7,8 +7,12 @@ import com.sprinter.exception.AccessDeniedException;
 import com.sprinter.exception.ResourceNotFoundException;
 import com.sprinter.exception.ValidationException;
 import com.sprinter.security.SecurityUtils;
+import com.sprinter.service.event.WorkItemsChangedEvent;
+import com.sprinter.service.planning.BacklogRank;
+import com.sprinter.service.schedule.MovedItem;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -16,8 +20,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Servisní třída pro správu pracovních položek (WorkItem).
@@ -32,14 +40,18 @@ import java.util.Set;
 @Transactional
 public class WorkItemService {
 
-    private final WorkItemRepository           workItemRepository;
-    private final ProjectRepository            projectRepository;
-    private final CommentRepository            commentRepository;
-    private final LabelRepository              labelRepository;
-    private final WorkItemDependencyRepository dependencyRepository;
-    private final SprintRepository             sprintRepository;
-    private final ProjectService               projectService;
-    private final UserService                  userService;
+    private final WorkItemRepository                 workItemRepository;
+    private final ProjectRepository                  projectRepository;
+    private final CommentRepository                  commentRepository;
+    private final LabelRepository                    labelRepository;
+    private final WorkItemDependencyRepository       dependencyRepository;
+    private final SprintRepository                   sprintRepository;
+    private final WorkItemStatusTransitionRepository transitionRepository;
+    private final ProjectService                     projectService;
+    private final FlowMetricsService                 flowMetricsService;
+    private final ScheduleService                    scheduleService;
+    private final UserService                        userService;
+    private final ApplicationEventPublisher          eventPublisher;
 
     // ---- Čtení ----
 
@@ -73,6 +85,12 @@ public class WorkItemService {
         return workItemRepository.findGanttItems(projectId);
     }
 
+    @Transactional(readOnly = true)
+    public boolean hasGanttItems(Long projectId) {
+        projectService.requireAccess(projectId);
+        return workItemRepository.existsGanttItems(projectId);
+    }
+
     @Transactional(readOnly = true)
     public Page<WorkItem> findWithFilters(Long projectId, WorkItemType type,
                                           WorkItemStatus status, String search, Pageable pageable) {
@@ -148,6 +166,7 @@ public class WorkItemService {
                 .dueDate(dueDate)
                 .storyPoints(storyPoints)
                 .progressPct(progressPct != null ? progressPct : 0)
+                .backlogRank(BacklogRank.after(workItemRepository.findMaxBacklogRank(projectId).orElse(null)))
                 .build();
 
         // Přiřazení štítků
@@ -157,6 +176,8 @@ public class WorkItemService {
         }
 
         workItem = workItemRepository.save(workItem);
+        recordTransition(workItem, null, workItem.getStatus());
+        eventPublisher.publishEvent(WorkItemsChangedEvent.of(projectId, sprintId));
         log.info("Vytvořena položka {} ({})", workItem.getItemKey(), workItem.getType().getDisplayName());
         return workItem;
     }
@@ -170,6 +191,9 @@ public class WorkItemService {
                                    Long sprintId, Integer progressPct, Set<Long> labelIds) {
         var workItem = findById(id);
         projectService.requireContentEditAccess(workItem.getProject().getId());
+        Long oldSprintId = sprintIdOf(workItem);
+        boolean datesChanged = !Objects.equals(workItem.getStartDate(), startDate)
+                            || !Objects.equals(workItem.getDueDate(), dueDate);
 
         workItem.setTitle(title.trim());
         workItem.setDescription(description);
@@ -190,7 +214,32 @@ public class WorkItemService {
             workItem.getLabels().addAll(labelRepository.findAllById(labelIds));
         }
 
-        return workItemRepository.save(workItem);
+        workItem = workItemRepository.save(workItem);
+        // Story pointy i sprint se mohly změnit – ovlivňuje burn-down obou sprintů
+        publishChange(workItem, oldSprintId);
+        if (datesChanged) {
+            autoSchedule(workItem);
+        }
+        return workItem;
+    }
+
+    /**
+     * Změní termíny položky (přetažení v Ganttově diagramu).
+     * V projektu s automatickým plánováním posune i položky na ní závislé.
+     *
+     * @return položky posunuté automatickým plánováním
+     */
+    public List<MovedItem> changeDates(Long id, LocalDate startDate, LocalDate dueDate) {
+        var workItem = findById(id);
+        projectService.requireContentEditAccess(workItem.getProject().getId());
+        if (startDate != null && dueDate != null && dueDate.isBefore(startDate)) {
+            throw new ValidationException("Termín nemůže být před datem zahájení.");
+        }
+
+        workItem.setStartDate(startDate);
+        workItem.setDueDate(dueDate);
+        workItem = workItemRepository.save(workItem);
+        return autoSchedule(workItem);
     }
 
     /**
@@ -199,10 +248,13 @@ public class WorkItemService {
     public WorkItem changeSprint(Long id, Long sprintId) {
         var workItem = findById(id);
         projectService.requireContentEditAccess(workItem.getProject().getId());
+        Long oldSprintId = sprintIdOf(workItem);
         workItem.setSprint(sprintId != null
                 ? sprintRepository.findById(sprintId).orElse(null)
                 : null);
-        return workItemRepository.save(workItem);
+        workItem = workItemRepository.save(workItem);
+        publishChange(workItem, oldSprintId);
+        return workItem;
     }
 
     /**
@@ -216,6 +268,9 @@ public class WorkItemService {
         projectService.requireContentEditAccess(projectId);
 
         WorkItemStatus oldStatus = workItem.getStatus();
+        if (oldStatus == newStatus) {
+            return workItem;
+        }
         workItem.setStatus(newStatus);
 
         // Automaticky nastavíme datum dokončení
@@ -226,6 +281,11 @@ public class WorkItemService {
         }
 
         workItem = workItemRepository.save(workItem);
+        recordTransition(workItem, oldStatus, newStatus);
+        if (newStatus == WorkItemStatus.DONE) {
+            flowMetricsService.recordCompletion(workItem);
+        }
+        publishChange(workItem, null);
         log.debug("Položka {} změnila stav {} → {}", workItem.getItemKey(), oldStatus, newStatus);
         return workItem;
     }
@@ -260,6 +320,8 @@ public class WorkItemService {
         var workItem = findById(id);
         projectService.requireManageAccess(workItem.getProject().getId());
         workItemRepository.delete(workItem);
+        publishChange(workItem, null);
+        scheduleService.dependenciesChanged(workItem.getProject().getId());
         log.info("Smazána položka ID={}", id);
     }
 
@@ -319,27 +381,58 @@ public class WorkItemService {
 
     /**
      * Přidá závislost mezi dvěma pracovními položkami.
+     * Odmítne závislost, která by uzavřela cyklus (i přes více položek) –
+     * chybová zpráva obsahuje celou cestu cyklu.
+     *
+     * <p>Kontrola běží nad grafem z cache pod zámkem řádku projektu, takže dvě
+     * souběžně přidávané závislosti A→B a B→A nemohou projít obě. Verze grafu
+     * přečtená pod zámkem zaručí, že graf z cache obsahuje všechny potvrzené hrany.</p>
      */
-    public WorkItemDependency addDependency(Long predecessorId, Long successorId, DependencyType type) {
+    public WorkItemDependency addDependency(Long predecessorId, Long successorId,
+                                            DependencyType type, Integer lagDays) {
+        if (predecessorId == null) {
+            throw new ValidationException("Není zadán předchůdce závislosti.");
+        }
         if (predecessorId.equals(successorId)) {
             throw new ValidationException("Položka nemůže záviset sama na sobě.");
         }
-        if (dependencyRepository.existsBetween(predecessorId, successorId)) {
-            throw new ValidationException("Závislost mezi těmito položkami již existuje.");
-        }
 
         var predecessor = findById(predecessorId);
         var successor   = findById(successorId);
+        Long projectId  = successor.getProject().getId();
+        Long ownerId    = predecessor.getProject().getId();   // hrana patří grafu projektu předchůdce
+
+        projectService.requireContentEditAccess(projectId);
 
-        projectService.requireContentEditAccess(successor.getProject().getId());
+        // Zámky projektů vždy v pořadí ID, aby souběžné změny napříč projekty neuvázly
+        long ownerVersion = ownerId < projectId ? scheduleService.lockDependencies(ownerId) : 0;
+        long version      = scheduleService.lockDependencies(projectId);
+        if (ownerId > projectId) {
+            ownerVersion = scheduleService.lockDependencies(ownerId);
+        } else if (ownerId.equals(projectId)) {
+            ownerVersion = version;
+        }
+
+        if (dependencyRepository.existsBetween(predecessorId, successorId)) {
+            throw new ValidationException("Závislost mezi těmito položkami již existuje.");
+        }
+        // Cyklus vznikne, pokud z nástupníka už vede cesta zpět k předchůdci
+        long[] cycle = scheduleService.findCycle(projectId, version, predecessorId, successorId);
+        if (cycle != null) {
+            throw new ValidationException("Závislost by vytvořila cyklus: " + describePath(cycle));
+        }
 
         var dep = WorkItemDependency.builder()
                 .predecessor(predecessor)
                 .successor(successor)
-                .dependencyType(type)
+                .dependencyType(type != null ? type : DependencyType.FINISH_TO_START)
+                .lagDays(lagDays != null ? lagDays : 0)
                 .build();
 
-        return dependencyRepository.save(dep);
+        dep = dependencyRepository.save(dep);
+        scheduleService.dependencyAdded(ownerId, ownerVersion, predecessorId, successorId,
+                dep.getDependencyType(), dep.getLagDays());
+        return dep;
     }
 
     /**
@@ -350,12 +443,55 @@ public class WorkItemService {
                 .orElseThrow(() -> new ResourceNotFoundException("Závislost", dependencyId));
         projectService.requireContentEditAccess(dep.getSuccessor().getProject().getId());
         dependencyRepository.delete(dep);
+        scheduleService.dependenciesChanged(dep.getPredecessor().getProject().getId());
     }
 
     // ---- Pomocné metody ----
 
+    /** Zapíše přechod stavu do historie (zdroj pro cumulative flow diagram). */
+    private void recordTransition(WorkItem workItem, WorkItemStatus from, WorkItemStatus to) {
+        transitionRepository.save(WorkItemStatusTransition.builder()
+                .workItem(workItem)
+                .project(workItem.getProject())
+                .fromStatus(from)
+                .toStatus(to)
+                .transitionedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /** Oznámí změnu položky (zneplatnění cache reportů projektu a dotčených sprintů). */
+    private void publishChange(WorkItem workItem, Long previousSprintId) {
+        eventPublisher.publishEvent(WorkItemsChangedEvent.of(
+                workItem.getProject().getId(), sprintIdOf(workItem), previousSprintId));
+    }
+
+    /** Posune závislé položky, má-li projekt zapnuté automatické plánování. */
+    private List<MovedItem> autoSchedule(WorkItem workItem) {
+        var project = workItem.getProject();
+        if (!project.isAutoSchedule()) {
+            return List.of();
+        }
+        return scheduleService.propagate(project.getId(), workItem.getId(),
+                workItem.getStartDate(), workItem.getDueDate());
+    }
+
+    /** Převede cestu z ID položek na čitelný řetězec klíčů (PROJ-1 → PROJ-2 → …). */
+    private String describePath(long[] ids) {
+        Map<Long, String> keys = workItemRepository
+                .findAllById(Arrays.stream(ids).boxed().collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(WorkItem::getId, WorkItem::getItemKey));
+        return Arrays.stream(ids)
+                .mapToObj(id -> keys.getOrDefault(id, "#" + id))
+                .collect(Collectors.joining(" → "));
+    }
+
+    private static Long sprintIdOf(WorkItem workItem) {
+        return workItem.getSprint() != null ? workItem.getSprint().getId() : null;
+    }
+
     private User getCurrentUser() {
-        return SecurityUtils.getCurrentUser()
+        return SecurityUtils.getCurrentUserId()
+                .map(userService::getReference)
                 .orElseThrow(() -> new AccessDeniedException("Není přihlášen žádný uživatel."));
     }
 }
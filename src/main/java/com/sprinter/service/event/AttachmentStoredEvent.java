@@ -0,0 +1,10 @@
+package com.sprinter.service.event;
+
+/**
+ * Událost publikovaná po vytvoření přílohy. Posluchači ji zpracují až po commitu,
+ * kdy je blob v úložišti a odkazuje na něj příloha.
+ *
+ * @param sha256      otisk obsahu (klíč blobu)
+ * @param contentType MIME typ přílohy (může být null)
+ */
+public record AttachmentStoredEvent(String sha256, String contentType) {}
@@ -0,0 +1,28 @@
+package com.sprinter.service.event;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Událost publikovaná po změně pracovních položek, která ovlivňuje agregované
+ * reporty (vytvoření, změna stavu, přesun mezi sprinty, smazání).
+ *
+ * <p>Posluchači ji zpracují až po commitu transakce, takže nikdy nevidí
+ * rozpracovaný stav.</p>
+ *
+ * @param projectId ID projektu, jehož položky se změnily
+ * @param sprintIds ID dotčených sprintů (bez null hodnot; může být prázdné)
+ */
+public record WorkItemsChangedEvent(Long projectId, Set<Long> sprintIds) {
+
+    /**
+     * Vytvoří událost pro projekt a libovolný počet sprintů (null hodnoty se ignorují).
+     */
+    public static WorkItemsChangedEvent of(Long projectId, Long... sprintIds) {
+        return new WorkItemsChangedEvent(projectId, Arrays.stream(sprintIds)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet()));
+    }
+}
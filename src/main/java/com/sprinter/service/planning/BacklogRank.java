@@ -0,0 +1,114 @@
+package com.sprinter.service.planning;
+
+/**
+ * Lexikografické pořadí položek backlogu (frakční indexování).
+ *
+ * <p>Pořadí je řetězec číslic {@code 0-9a-z} porovnávaný bajtově (sloupec má
+ * kolaci {@code "C"}). Mezi libovolné dva různé řetězce lze vložit další, takže
+ * přesun položky mění jen její vlastní řádek. Opakované vkládání na stejné místo
+ * řetězce prodlužuje; jakmile překročí {@link #REBALANCE_LENGTH}, projekt se
+ * přečísluje ({@link #spread}).</p>
+ */
+public final class BacklogRank {
+
+    /** Délka rovnoměrně rozložených pořadí. */
+    public static final int WIDTH = 12;
+
+    /** Maximální délka pořadí (sloupec {@code backlog_rank}). */
+    public static final int MAX_LENGTH = 64;
+
+    /** Délka, od které se projekt na pozadí přečísluje. */
+    public static final int REBALANCE_LENGTH = 24;
+
+    private static final int  RADIX = 36;
+    private static final long SPACE = pow(RADIX, WIDTH);
+
+    /** Krok při přidání na konec – vejde se 36^8 položek za sebou bez přečíslování. */
+    private static final long APPEND_STEP = pow(RADIX, 4);
+
+    private BacklogRank() {}
+
+    /**
+     * Vrátí pořadí ostře mezi {@code before} a {@code after}.
+     *
+     * @param before předchozí pořadí (null = začátek)
+     * @param after  následující pořadí (null = konec)
+     * @throws IllegalArgumentException pokud mezi pořadími není místo
+     *         (nejsou vzestupně, nebo {@code after} je {@code before} doplněné nulami)
+     */
+    public static String between(String before, String after) {
+        String  low   = before != null ? before : "";
+        boolean upper = after != null;
+        var     rank  = new StringBuilder();
+        for (int i = 0; ; i++) {
+            if (upper && i >= after.length()) {
+                throw new IllegalArgumentException("Mezi pořadími '" + before + "' a '" + after + "' není místo.");
+            }
+            int lo = i < low.length() ? digit(low.charAt(i)) : 0;
+            int hi = upper ? digit(after.charAt(i)) : RADIX;
+            if (hi < lo) {
+                throw new IllegalArgumentException("Pořadí '" + before + "' a '" + after + "' nejsou vzestupně.");
+            }
+            if (hi - lo > 1) {
+                rank.append(Character.forDigit((lo + hi) >>> 1, RADIX));
+                return rank.toString();
+            }
+            rank.append(Character.forDigit(lo, RADIX));
+            if (hi - lo == 1) {
+                upper = false;   // prefix je už menší než horní mez
+            }
+        }
+    }
+
+    /**
+     * Vrátí pořadí pro přidání za {@code last} (null = prázdný projekt).
+     * Krátká pořadí se posouvají pevným krokem, takže se při přidávání na konec neprodlužují.
+     */
+    public static String after(String last) {
+        if (last == null) {
+            return format(APPEND_STEP);
+        }
+        if (last.length() <= WIDTH) {
+            long next = Long.parseLong(padRight(last), RADIX) + APPEND_STEP;
+            if (next < SPACE) {
+                return format(next);
+            }
+        }
+        return between(last, null);
+    }
+
+    /** Vrátí {@code count} rovnoměrně rozložených pořadí délky {@link #WIDTH}. */
+    public static String[] spread(int count) {
+        long gap   = SPACE / (count + 1L);
+        var  ranks = new String[count];
+        for (int i = 0; i < count; i++) {
+            ranks[i] = format((i + 1) * gap);
+        }
+        return ranks;
+    }
+
+    private static int digit(char c) {
+        int d = Character.digit(c, RADIX);
+        if (d < 0 || Character.isUpperCase(c)) {
+            throw new IllegalArgumentException("Neplatný znak pořadí: '" + c + "'");
+        }
+        return d;
+    }
+
+    private static String format(long value) {
+        String s = Long.toString(value, RADIX);
+        return "0".repeat(WIDTH - s.length()) + s;
+    }
+
+    private static String padRight(String rank) {
+        return rank + "0".repeat(WIDTH - rank.length());
+    }
+
+    private static long pow(int base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+}
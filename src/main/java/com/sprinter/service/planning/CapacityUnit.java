@@ -0,0 +1,11 @@
+package com.sprinter.service.planning;
+
+/**
+ * Jednotka kapacity sprintu pro automatické plánování.
+ */
+public enum CapacityUnit {
+    /** Story pointy ({@code story_points}). */
+    STORY_POINTS,
+    /** Odhad v hodinách ({@code estimated_hours}). */
+    HOURS
+}
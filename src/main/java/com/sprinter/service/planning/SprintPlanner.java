@@ -0,0 +1,217 @@
+package com.sprinter.service.planning;
+
+import com.sprinter.service.schedule.ScheduleGraph;
+
+import java.util.Arrays;
+
+/**
+ * Hladový plánovač rozsahu sprintu nad poli primitiv.
+ *
+ * <p>Kandidáti (položky backlogu) se vybírají Kahnovým algoritmem s prioritní
+ * frontou: položka je k dispozici, až když jsou vybraní všichni její předchůdci
+ * z množiny kandidátů, a z dostupných se bere ta s nejvyšší efektivní prioritou.
+ * Efektivní priorita je maximum z vlastní priority a priorit všech (tranzitivních)
+ * nástupníků – méně důležitý předchůdce tak „zdědí" prioritu položky, kterou blokuje.
+ * Shoda se rozhoduje vlastní prioritou a nakonec pořadím na vstupu.</p>
+ *
+ * <p>Položka, která se nevejde do celkové kapacity nebo kapacity řešitele, se přeskočí
+ * a její nástupníci zůstanou blokovaní. Předchůdci mimo kandidáty (ve sprintu,
+ * dokončení, …) se považují za splněné. Složitost je O((n + m) log n) pro n kandidátů
+ * a m hran mezi nimi; za běhu se nevytvářejí žádné objekty kromě polí.</p>
+ */
+public final class SprintPlanner {
+
+    /** Výsledek pro jednotlivé kandidáty v {@link Result#outcome()}. */
+    public static final byte SELECTED      = 1;
+    public static final byte OVER_CAPACITY = 2;
+    public static final byte BLOCKED       = 3;
+    public static final byte UNESTIMATED   = 4;
+
+    private SprintPlanner() {}
+
+    /**
+     * Navrhne rozsah sprintu.
+     *
+     * @param ids              ID kandidátů; pořadí rozhoduje při shodě priorit
+     * @param priority         úroveň priority (vyšší = důležitější)
+     * @param cost             náročnost v jednotce kapacity; {@code NaN} = bez odhadu
+     * @param assignee         index řešitele do {@code assigneeCapacity}, nebo -1 (jen celková kapacita)
+     * @param capacity         celková kapacita sprintu
+     * @param assigneeCapacity kapacity jednotlivých řešitelů
+     * @param graph            graf závislostí projektu
+     */
+    public static Result plan(long[] ids, int[] priority, double[] cost, int[] assignee,
+                              double capacity, double[] assigneeCapacity, ScheduleGraph graph) {
+        int n = ids.length;
+
+        // 1) Hrany mezi kandidáty (lokální CSR)
+        int[] localOf = new int[graph.nodeCount()];
+        Arrays.fill(localOf, -1);
+        int[] graphNode = new int[n];
+        for (int i = 0; i < n; i++) {
+            graphNode[i] = graph.indexOf(ids[i]);
+            if (graphNode[i] >= 0) {
+                localOf[graphNode[i]] = i;
+            }
+        }
+        int[] outStart = new int[n + 1];
+        int[] indegree = new int[n];
+        for (int i = 0; i < n; i++) {
+            int g = graphNode[i];
+            if (g < 0) continue;
+            for (int k = 0, deg = graph.outDegree(g); k < deg; k++) {
+                int v = localOf[graph.edgeTarget(graph.outEdgeAt(g, k))];
+                if (v >= 0 && v != i) {
+                    outStart[i + 1]++;
+                    indegree[v]++;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            outStart[i + 1] += outStart[i];
+        }
+        int[] target = new int[outStart[n]];
+        int[] fill   = Arrays.copyOf(outStart, n);
+        for (int i = 0; i < n; i++) {
+            int g = graphNode[i];
+            if (g < 0) continue;
+            for (int k = 0, deg = graph.outDegree(g); k < deg; k++) {
+                int v = localOf[graph.edgeTarget(graph.outEdgeAt(g, k))];
+                if (v >= 0 && v != i) {
+                    target[fill[i]++] = v;
+                }
+            }
+        }
+
+        // 2) Efektivní priorita – zpětný průchod topologickým pořadím
+        int[] effective = Arrays.copyOf(priority, n);
+        int[] degree    = Arrays.copyOf(indegree, n);
+        int[] order     = new int[n];
+        int   head      = 0;
+        int   tail      = 0;
+        for (int i = 0; i < n; i++) {
+            if (degree[i] == 0) order[tail++] = i;
+        }
+        while (head < tail) {
+            int u = order[head++];
+            for (int e = outStart[u]; e < outStart[u + 1]; e++) {
+                if (--degree[target[e]] == 0) order[tail++] = target[e];
+            }
+        }
+        for (int k = tail - 1; k >= 0; k--) {
+            int u = order[k];
+            for (int e = outStart[u]; e < outStart[u + 1]; e++) {
+                effective[u] = Math.max(effective[u], effective[target[e]]);
+            }
+        }
+
+        // 3) Kahn s prioritní frontou a kontrolou kapacit
+        byte[]   outcome      = new byte[n];
+        int[]    selected     = new int[n];
+        int      count        = 0;
+        double   used         = 0;
+        double[] assigneeUsed = new double[assigneeCapacity.length];
+        var      heap         = new Heap(n, effective, priority);
+        degree = Arrays.copyOf(indegree, n);
+        for (int i = 0; i < n; i++) {
+            if (degree[i] == 0) heap.push(i);
+        }
+        while (!heap.isEmpty()) {
+            int    u = heap.pop();
+            double c = cost[u];
+            int    a = assignee[u];
+            if (Double.isNaN(c)) {
+                outcome[u] = UNESTIMATED;
+                continue;
+            }
+            if (used + c > capacity || (a >= 0 && assigneeUsed[a] + c > assigneeCapacity[a])) {
+                outcome[u] = OVER_CAPACITY;
+                continue;
+            }
+            outcome[u] = SELECTED;
+            selected[count++] = u;
+            used += c;
+            if (a >= 0) assigneeUsed[a] += c;
+            for (int e = outStart[u]; e < outStart[u + 1]; e++) {
+                if (--degree[target[e]] == 0) heap.push(target[e]);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (outcome[i] == 0) outcome[i] = BLOCKED;
+        }
+
+        return new Result(Arrays.copyOf(selected, count), outcome, used, assigneeUsed);
+    }
+
+    /**
+     * Výsledek plánování.
+     *
+     * @param selected     indexy vybraných kandidátů v pořadí výběru
+     * @param outcome      výsledek pro každého kandidáta ({@link #SELECTED}, …)
+     * @param used         vyčerpaná celková kapacita
+     * @param assigneeUsed vyčerpaná kapacita jednotlivých řešitelů
+     */
+    public record Result(int[] selected, byte[] outcome, double used, double[] assigneeUsed) {
+
+        /** Počet kandidátů s daným výsledkem. */
+        public int count(byte value) {
+            int c = 0;
+            for (byte b : outcome) {
+                if (b == value) c++;
+            }
+            return c;
+        }
+    }
+
+    /**
+     * Binární halda indexů: vyšší efektivní priorita, pak vyšší vlastní priorita,
+     * pak nižší index.
+     */
+    private static final class Heap {
+        private final int[] items;
+        private final int[] effective;
+        private final int[] priority;
+        private int size;
+
+        Heap(int capacity, int[] effective, int[] priority) {
+            this.items     = new int[capacity];
+            this.effective = effective;
+            this.priority  = priority;
+        }
+
+        boolean isEmpty() { return size == 0; }
+
+        void push(int value) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(value, items[parent])) break;
+                items[i] = items[parent];
+                i = parent;
+            }
+            items[i] = value;
+        }
+
+        int pop() {
+            int top  = items[0];
+            int last = items[--size];
+            int i    = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && before(items[child + 1], items[child])) child++;
+                if (!before(items[child], last)) break;
+                items[i] = items[child];
+                i = child;
+            }
+            items[i] = last;
+            return top;
+        }
+
+        private boolean before(int a, int b) {
+            if (effective[a] != effective[b]) return effective[a] > effective[b];
+            if (priority[a]  != priority[b])  return priority[a]  > priority[b];
+            return a < b;
+        }
+    }
+}
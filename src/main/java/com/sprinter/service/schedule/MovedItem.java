@@ -0,0 +1,8 @@
+package com.sprinter.service.schedule;
+
+import java.time.LocalDate;
+
+/**
+ * Položka posunutá automatickým plánováním – nové termíny.
+ */
+public record MovedItem(long id, LocalDate startDate, LocalDate dueDate) {}
@@ -0,0 +1,24 @@
+package com.sprinter.service.schedule;
+
+import java.time.LocalDate;
+
+/**
+ * Harmonogram projektu převedený na kalendářní data.
+ * Den 0 odpovídá {@link #origin()}.
+ */
+public record ProjectSchedule(LocalDate origin, ScheduleResult result) {
+
+    /** Index uzlu dle ID položky, nebo záporné číslo. */
+    public int indexOf(long workItemId) {
+        return result.graph().indexOf(workItemId);
+    }
+
+    public LocalDate earlyStart(int node)  { return origin.plusDays(result.earlyStart(node)); }
+    public LocalDate lateStart(int node)   { return origin.plusDays(result.lateStart(node)); }
+
+    /** Poslední den (včetně) při nejdřívějším plánu. */
+    public LocalDate earlyFinish(int node) { return origin.plusDays(result.earlyFinish(node) - 1L); }
+
+    /** Poslední den (včetně) při nejpozdějším plánu. */
+    public LocalDate lateFinish(int node)  { return origin.plusDays(result.lateFinish(node) - 1L); }
+}
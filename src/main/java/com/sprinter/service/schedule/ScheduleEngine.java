@@ -0,0 +1,127 @@
+package com.sprinter.service.schedule;
+
+import java.util.Arrays;
+
+/**
+ * Výpočet harmonogramu metodou kritické cesty (CPM) nad {@link ScheduleGraph}.
+ *
+ * <p>Časy jsou celé dny od počátku projektu, konec je exkluzivní
+ * ({@code EF = ES + trvání}). Omezení hran s lagem {@code L}:</p>
+ * <ul>
+ *   <li>FS: {@code ES(s) ≥ EF(p) + L}</li>
+ *   <li>SS: {@code ES(s) ≥ ES(p) + L}</li>
+ *   <li>FF: {@code EF(s) ≥ EF(p) + L}</li>
+ *   <li>SF: {@code EF(s) ≥ ES(p) + L}</li>
+ * </ul>
+ *
+ * <p>Dopředný průchod jde v topologickém pořadí (Kahnův algoritmus), zpětný
+ * v opačném. Uzly v cyklu se do pořadí nedostanou – jejich časy zůstanou na
+ * plánovaných hodnotách a {@link ScheduleResult#scheduled(int)} vrátí false.</p>
+ */
+public final class ScheduleEngine {
+
+    private ScheduleEngine() {}
+
+    /**
+     * Spočítá harmonogram.
+     *
+     * @param graph    graf závislostí
+     * @param earliest nejdřívější možný začátek uzlů (plánovaný začátek, jinak 0)
+     * @param duration trvání uzlů ve dnech (≥ 1)
+     */
+    public static ScheduleResult compute(ScheduleGraph graph, int[] earliest, int[] duration) {
+        int n = graph.nodeCount();
+
+        int[] order = topologicalOrder(graph);
+        int   count = order.length;
+
+        // ---- Dopředný průchod ----
+        int[] es = earliest.clone();
+        for (int i = 0; i < count; i++) {
+            int u   = order[i];
+            int esU = es[u];
+            int efU = esU + duration[u];
+            for (int e = graph.outStart[u], end = graph.outStart[u + 1]; e < end; e++) {
+                int v   = graph.edgeTarget[e];
+                int lag = graph.edgeLag[e];
+                int bound = switch (graph.edgeType[e]) {
+                    case ScheduleGraph.SS -> esU + lag;
+                    case ScheduleGraph.FF -> efU + lag - duration[v];
+                    case ScheduleGraph.SF -> esU + lag - duration[v];
+                    default               -> efU + lag;
+                };
+                if (bound > es[v]) {
+                    es[v] = bound;
+                }
+            }
+        }
+
+        int finish = 0;
+        for (int u = 0; u < n; u++) {
+            finish = Math.max(finish, es[u] + duration[u]);
+        }
+
+        // ---- Zpětný průchod ----
+        int[] lf = new int[n];
+        Arrays.fill(lf, finish);
+        for (int i = count - 1; i >= 0; i--) {
+            int u     = order[i];
+            int limit = lf[u];
+            for (int e = graph.outStart[u], end = graph.outStart[u + 1]; e < end; e++) {
+                int v   = graph.edgeTarget[e];
+                int lag = graph.edgeLag[e];
+                int lfV = lf[v];
+                int lsV = lfV - duration[v];
+                int bound = switch (graph.edgeType[e]) {
+                    case ScheduleGraph.SS -> lsV - lag + duration[u];
+                    case ScheduleGraph.FF -> lfV - lag;
+                    case ScheduleGraph.SF -> lfV - lag + duration[u];
+                    default               -> lsV - lag;
+                };
+                if (bound < limit) {
+                    limit = bound;
+                }
+            }
+            lf[u] = limit;
+        }
+
+        boolean[] scheduled = new boolean[n];
+        for (int i = 0; i < count; i++) {
+            scheduled[order[i]] = true;
+        }
+        for (int u = 0; u < n; u++) {
+            if (!scheduled[u]) {
+                lf[u] = es[u] + duration[u];
+            }
+        }
+
+        return new ScheduleResult(graph, duration, es, lf, scheduled, finish, count < n);
+    }
+
+    /**
+     * Kahnův algoritmus; vrátí pořadí jen těch uzlů, které neleží v cyklu
+     * (ani za ním).
+     */
+    static int[] topologicalOrder(ScheduleGraph graph) {
+        int   n        = graph.nodeCount();
+        int[] inDegree = graph.inDegree.clone();
+        int[] queue    = new int[n];
+        int   head     = 0;
+        int   tail     = 0;
+        for (int u = 0; u < n; u++) {
+            if (inDegree[u] == 0) {
+                queue[tail++] = u;
+            }
+        }
+        while (head < tail) {
+            int u = queue[head++];
+            for (int e = graph.outStart[u], end = graph.outStart[u + 1]; e < end; e++) {
+                int v = graph.edgeTarget[e];
+                if (--inDegree[v] == 0) {
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return tail == n ? queue : Arrays.copyOf(queue, tail);
+    }
+}
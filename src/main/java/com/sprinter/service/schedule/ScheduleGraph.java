@@ -0,0 +1,362 @@
+package com.sprinter.service.schedule;
+
+import com.sprinter.domain.enums.DependencyType;
+
+import java.util.Arrays;
+
+/**
+ * Neměnný graf závislostí projektu v kompaktní podobě (CSR – compressed sparse row).
+ *
+ * <p>Uzly jsou indexy {@code 0..n-1} do vzestupně seřazeného pole ID položek,
+ * hrany jsou uložené v polích primitiv seskupených podle předchůdce
+ * ({@code outStart[u] .. outStart[u+1]-1}); druhý index {@code inStart/inEdge}
+ * odkazuje na tytéž hrany seskupené podle nástupníka. Graf s desítkami tisíc uzlů a hran
+ * tak zabírá jen několik souvislých polí a průchody nevytvářejí žádné objekty.</p>
+ *
+ * <p>Hrany, jejichž konec neleží v projektu (závislosti napříč projekty), se vynechají.</p>
+ */
+public final class ScheduleGraph {
+
+    /** Kódy typů závislostí v poli {@link #edgeType}. {@code BLOCKS} se chová jako FS. */
+    public static final byte FS = 0;
+    public static final byte SS = 1;
+    public static final byte FF = 2;
+    public static final byte SF = 3;
+
+    final long[] ids;
+    final int[]  outStart;
+    final int[]  edgeSource;
+    final int[]  edgeTarget;
+    final byte[] edgeType;
+    final int[]  edgeLag;
+    final int[]  inDegree;
+    final int[]  inStart;
+    final int[]  inEdge;
+
+    private ScheduleGraph(long[] ids, int[] outStart, int[] edgeSource, int[] edgeTarget, byte[] edgeType,
+                          int[] edgeLag, int[] inDegree, int[] inStart, int[] inEdge) {
+        this.ids        = ids;
+        this.outStart   = outStart;
+        this.edgeSource = edgeSource;
+        this.edgeTarget = edgeTarget;
+        this.edgeType   = edgeType;
+        this.edgeLag    = edgeLag;
+        this.inDegree   = inDegree;
+        this.inStart    = inStart;
+        this.inEdge     = inEdge;
+    }
+
+    /**
+     * Sestaví graf z polí uzlů a hran.
+     *
+     * @param ids   ID položek seřazená vzestupně
+     * @param from  ID předchůdců hran
+     * @param to    ID nástupníků hran
+     * @param types kódy typů ({@link #FS}, {@link #SS}, {@link #FF}, {@link #SF})
+     * @param lags  lag v dnech
+     */
+    public static ScheduleGraph build(long[] ids, long[] from, long[] to, byte[] types, int[] lags) {
+        int   n   = ids.length;
+        int   m   = from.length;
+        int[] src = new int[m];
+        int[] dst = new int[m];
+
+        // Počet odchozích hran na uzel
+        int[] outStart = new int[n + 1];
+        int   kept     = 0;
+        for (int e = 0; e < m; e++) {
+            int u = Arrays.binarySearch(ids, from[e]);
+            int v = Arrays.binarySearch(ids, to[e]);
+            if (u < 0 || v < 0 || u == v) {
+                src[e] = -1;
+                continue;
+            }
+            src[e] = u;
+            dst[e] = v;
+            outStart[u + 1]++;
+            kept++;
+        }
+        for (int u = 0; u < n; u++) {
+            outStart[u + 1] += outStart[u];
+        }
+
+        // Rozmístění hran do CSR (counting sort dle předchůdce)
+        int[]  cursor     = Arrays.copyOf(outStart, n);
+        int[]  edgeSource = new int[kept];
+        int[]  edgeTarget = new int[kept];
+        byte[] edgeType   = new byte[kept];
+        int[]  edgeLag    = new int[kept];
+        int[]  inDegree   = new int[n];
+        for (int e = 0; e < m; e++) {
+            if (src[e] < 0) continue;
+            int slot = cursor[src[e]]++;
+            edgeSource[slot] = src[e];
+            edgeTarget[slot] = dst[e];
+            edgeType[slot]   = types[e];
+            edgeLag[slot]    = lags[e];
+            inDegree[dst[e]]++;
+        }
+
+        // Index příchozích hran (odkazy na sloty odchozích hran)
+        int[] inStart = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            inStart[v + 1] = inStart[v] + inDegree[v];
+        }
+        int[] inCursor = Arrays.copyOf(inStart, n);
+        int[] inEdge   = new int[kept];
+        for (int slot = 0; slot < kept; slot++) {
+            inEdge[inCursor[edgeTarget[slot]]++] = slot;
+        }
+
+        return new ScheduleGraph(ids, outStart, edgeSource, edgeTarget, edgeType, edgeLag, inDegree, inStart, inEdge);
+    }
+
+    /**
+     * Sestaví graf jen z hran – uzly jsou všechny položky, které se nějaké
+     * závislosti účastní.
+     */
+    public static ScheduleGraph fromEdges(long[] from, long[] to, byte[] types, int[] lags) {
+        long[] all = new long[from.length + to.length];
+        System.arraycopy(from, 0, all, 0, from.length);
+        System.arraycopy(to, 0, all, from.length, to.length);
+        long[] ids = Arrays.stream(all).sorted().distinct().toArray();
+        return build(ids, from, to, types, lags);
+    }
+
+    /** Převede typ závislosti na kód hrany. */
+    public static byte code(DependencyType type) {
+        return switch (type) {
+            case START_TO_START   -> SS;
+            case FINISH_TO_FINISH -> FF;
+            case START_TO_FINISH  -> SF;
+            case FINISH_TO_START, BLOCKS -> FS;
+        };
+    }
+
+    /** Převede kód hrany na zkratku typu (FS/SS/FF/SF). */
+    public static String abbreviation(byte code) {
+        return switch (code) {
+            case SS -> "SS";
+            case FF -> "FF";
+            case SF -> "SF";
+            default -> "FS";
+        };
+    }
+
+    public int nodeCount() { return ids.length; }
+
+    public int edgeCount() { return edgeTarget.length; }
+
+    /** ID položky uzlu. */
+    public long idOf(int node) { return ids[node]; }
+
+    /** Index uzlu dle ID položky, nebo záporné číslo, pokud v grafu není. */
+    public int indexOf(long id) { return Arrays.binarySearch(ids, id); }
+
+    /**
+     * Vrátí nový graf doplněný o jednu hranu; původní graf se nemění.
+     * Uzly se určí z hran jako u {@link #fromEdges} – uzly bez hran se nepřenesou.
+     */
+    public ScheduleGraph withEdge(long fromId, long toId, byte type, int lag) {
+        int    m     = edgeCount();
+        long[] from  = new long[m + 1];
+        long[] to    = new long[m + 1];
+        byte[] types = Arrays.copyOf(edgeType, m + 1);
+        int[]  lags  = Arrays.copyOf(edgeLag, m + 1);
+        for (int e = 0; e < m; e++) {
+            from[e] = ids[edgeSource[e]];
+            to[e]   = ids[edgeTarget[e]];
+        }
+        from[m]  = fromId;
+        to[m]    = toId;
+        types[m] = type;
+        lags[m]  = lag;
+        return fromEdges(from, to, types, lags);
+    }
+
+    /**
+     * Najde cestu po hranách z uzlu {@code fromId} do {@code toId} (BFS).
+     * Projde jen uzly dosažitelné z {@code fromId} a jen pro ně alokuje paměť –
+     * rodiče navštívených uzlů drží malá hašovací mapa, ne pole přes celý graf.
+     *
+     * @return ID položek na cestě včetně obou konců, nebo null, pokud cesta neexistuje
+     */
+    public long[] findPath(long fromId, long toId) {
+        int source = indexOf(fromId);
+        int target = indexOf(toId);
+        if (source < 0 || target < 0) {
+            return null;
+        }
+
+        var   parent = new NodeMap();
+        int[] queue  = new int[16];
+        int   head   = 0;
+        int   tail   = 0;
+        parent.putIfAbsent(source, source);
+        queue[tail++] = source;
+        while (head < tail) {
+            int u = queue[head++];
+            if (u == target) {
+                int length = 1;
+                for (int x = u; x != source; x = parent.get(x)) length++;
+                long[] path = new long[length];
+                for (int x = u, i = length - 1; i >= 0; x = parent.get(x), i--) {
+                    path[i] = ids[x];
+                }
+                return path;
+            }
+            for (int e = outStart[u], end = outStart[u + 1]; e < end; e++) {
+                int v = edgeTarget[e];
+                if (parent.putIfAbsent(v, u)) {
+                    if (tail == queue.length) {
+                        queue = Arrays.copyOf(queue, tail * 2);
+                    }
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Vrátí uzly dosažitelné z daného uzlu (bez něj) v topologickém pořadí
+     * podgrafu – každý uzel je až za všemi svými předchůdci z podgrafu.
+     * Projde jen dosažitelnou část grafu.
+     */
+    public int[] downstreamOrder(int source) {
+        // 1) BFS – označení dosažitelných uzlů
+        int[]     queue     = new int[ids.length];
+        boolean[] reachable = new boolean[ids.length];
+        int       head      = 0;
+        int       tail      = 0;
+        queue[tail++] = source;
+        reachable[source] = true;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int e = outStart[u], end = outStart[u + 1]; e < end; e++) {
+                int v = edgeTarget[e];
+                if (!reachable[v]) {
+                    reachable[v] = true;
+                    queue[tail++] = v;
+                }
+            }
+        }
+
+        // 2) Kahn omezený na podgraf; vstupní stupeň počítá jen hrany z podgrafu
+        int   count  = tail;
+        int[] degree = new int[ids.length];
+        for (int i = 0; i < count; i++) {
+            int u = queue[i];
+            for (int e = outStart[u], end = outStart[u + 1]; e < end; e++) {
+                degree[edgeTarget[e]]++;
+            }
+        }
+        int[] order = new int[count];
+        int   size  = 0;
+        head = 0;
+        tail = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int u = queue[head++];
+            if (u != source) {
+                order[size++] = u;
+            }
+            for (int e = outStart[u], end = outStart[u + 1]; e < end; e++) {
+                int v = edgeTarget[e];
+                if (--degree[v] == 0) {
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return Arrays.copyOf(order, size);
+    }
+
+    /** Počet odchozích hran uzlu; hrany jsou {@code outEdgeAt(node, 0..n-1)}. */
+    public int outDegree(int node) { return outStart[node + 1] - outStart[node]; }
+
+    /** Slot i-té odchozí hrany uzlu. */
+    public int outEdgeAt(int node, int i) { return outStart[node] + i; }
+
+    /** Počet příchozích hran uzlu; hrany jsou {@code inEdgeAt(node, 0..n-1)}. */
+    public int inDegree(int node) { return inStart[node + 1] - inStart[node]; }
+
+    /** Slot i-té příchozí hrany uzlu. */
+    public int inEdgeAt(int node, int i) { return inEdge[inStart[node] + i]; }
+
+    public int  edgeSource(int slot) { return edgeSource[slot]; }
+    public int  edgeTarget(int slot) { return edgeTarget[slot]; }
+    public byte edgeType(int slot)   { return edgeType[slot]; }
+    public int  edgeLag(int slot)    { return edgeLag[slot]; }
+
+    /** Projde všechny hrany grafu. */
+    public void forEachEdge(EdgeVisitor visitor) {
+        for (int u = 0; u < ids.length; u++) {
+            for (int e = outStart[u], end = outStart[u + 1]; e < end; e++) {
+                visitor.visit(u, edgeTarget[e], edgeType[e], edgeLag[e]);
+            }
+        }
+    }
+
+    /** Callback pro {@link #forEachEdge}; uzly jsou indexy, ne ID. */
+    @FunctionalInterface
+    public interface EdgeVisitor {
+        void visit(int from, int to, byte type, int lag);
+    }
+
+    /** Mapa uzel → rodič s otevřeným adresováním; velikost odpovídá počtu navštívených uzlů. */
+    private static final class NodeMap {
+        private int[] keys   = filled(16);
+        private int[] values = new int[16];
+        private int   size;
+
+        /** Vloží dvojici, pokud klíč ještě v mapě není; vrátí true, pokud vložil. */
+        boolean putIfAbsent(int key, int value) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+            }
+            int i = slot(keys, key);
+            if (keys[i] == key) {
+                return false;
+            }
+            keys[i]   = key;
+            values[i] = value;
+            size++;
+            return true;
+        }
+
+        int get(int key) {
+            return values[slot(keys, key)];
+        }
+
+        private void grow() {
+            int[] oldKeys   = keys;
+            int[] oldValues = values;
+            keys   = filled(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] >= 0) {
+                    int j = slot(keys, oldKeys[i]);
+                    keys[j]   = oldKeys[i];
+                    values[j] = oldValues[i];
+                }
+            }
+        }
+
+        /** Slot klíče, nebo první volný slot jeho řetězce (klíče jsou nezáporné, volno = -1). */
+        private static int slot(int[] keys, int key) {
+            int mask = keys.length - 1;
+            int h    = key * 0x9E3779B9;
+            int i    = (h ^ (h >>> 16)) & mask;
+            while (keys[i] >= 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        private static int[] filled(int length) {
+            int[] keys = new int[length];
+            Arrays.fill(keys, -1);
+            return keys;
+        }
+    }
+}
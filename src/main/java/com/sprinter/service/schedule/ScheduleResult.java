@@ -0,0 +1,48 @@
+package com.sprinter.service.schedule;
+
+/**
+ * Výsledek výpočtu {@link ScheduleEngine} – časy uzlů ve dnech od počátku projektu.
+ */
+public final class ScheduleResult {
+
+    private final ScheduleGraph graph;
+    private final int[]         duration;
+    private final int[]         earlyStart;
+    private final int[]         lateFinish;
+    private final boolean[]     scheduled;
+    private final int           finish;
+    private final boolean       cyclic;
+
+    ScheduleResult(ScheduleGraph graph, int[] duration, int[] earlyStart, int[] lateFinish,
+                   boolean[] scheduled, int finish, boolean cyclic) {
+        this.graph      = graph;
+        this.duration   = duration;
+        this.earlyStart = earlyStart;
+        this.lateFinish = lateFinish;
+        this.scheduled  = scheduled;
+        this.finish     = finish;
+        this.cyclic     = cyclic;
+    }
+
+    public ScheduleGraph graph() { return graph; }
+
+    public int earlyStart(int node)  { return earlyStart[node]; }
+    public int earlyFinish(int node) { return earlyStart[node] + duration[node]; }
+    public int lateStart(int node)   { return lateFinish[node] - duration[node]; }
+    public int lateFinish(int node)  { return lateFinish[node]; }
+
+    /** Celková rezerva (total float) ve dnech. */
+    public int slack(int node) { return lateFinish[node] - earlyStart[node] - duration[node]; }
+
+    /** True, pokud uzel leží na kritické cestě (nulová nebo záporná rezerva). */
+    public boolean critical(int node) { return scheduled[node] && slack(node) <= 0; }
+
+    /** False pro uzly v cyklu závislostí, které nešlo naplánovat. */
+    public boolean scheduled(int node) { return scheduled[node]; }
+
+    /** Konec projektu (exkluzivní) ve dnech od počátku. */
+    public int finish() { return finish; }
+
+    /** True, pokud graf obsahuje cyklus. */
+    public boolean cyclic() { return cyclic; }
+}
@@ -0,0 +1,173 @@
+package com.sprinter.service.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * Místní disková mezipaměť objektů ze vzdáleného úložiště (read-through).
+ *
+ * <p>Soubory leží v {@code <dir>/<klíč>}, index a vyřazování (LRU podle velikosti)
+ * obstarává Caffeine; vyřazený soubor se smaže. Souběžná načtení stejného klíče
+ * sdílejí jedno stažení. Po restartu se index obnoví z adresáře. Objekty se
+ * nemění, takže obsah v mezipaměti nikdy nezastará – stačí ho zahodit při smazání.</p>
+ */
+@Slf4j
+final class BlobCache {
+
+    /** Stáhne objekt do zadaného souboru. */
+    @FunctionalInterface
+    interface Loader {
+        void load(Path target) throws IOException;
+    }
+
+    private final Path dir;
+    private final long maxObjectBytes;
+    private final Cache<String, Path> index;
+    private final ConcurrentMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    BlobCache(Path dir, long maxBytes, long maxObjectBytes) throws IOException {
+        this.dir = dir;
+        this.maxObjectBytes = maxObjectBytes;
+        // Váha v KiB – weigher vrací int
+        this.index = Caffeine.newBuilder()
+                .maximumWeight(Math.max(1, maxBytes / 1024))
+                .<String, Path>weigher((key, file) -> (int) Math.min(Integer.MAX_VALUE, Math.max(1, sizeOf(file) / 1024)))
+                .<String, Path>removalListener((key, file, cause) -> {
+                    if (file != null && cause != RemovalCause.REPLACED) {
+                        deleteQuietly(file);
+                    }
+                })
+                .build();
+        Files.createDirectories(dir);
+        reindex();
+    }
+
+    /** Vrátí true, pokud se objekt této velikosti do mezipaměti ukládá. */
+    boolean accepts(long size) {
+        return size <= maxObjectBytes;
+    }
+
+    /** Vrátí soubor z mezipaměti, pokud tam objekt je. */
+    Optional<Path> getIfPresent(String key) {
+        Path file = index.getIfPresent(key);
+        if (file != null && !Files.exists(file)) {
+            index.invalidate(key);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(file);
+    }
+
+    /**
+     * Vrátí soubor z mezipaměti, případně ho nejdřív stáhne. Souběžné požadavky
+     * na stejný klíč čekají na jedno stažení.
+     */
+    Path get(String key, Loader loader) throws IOException {
+        Optional<Path> cached = getIfPresent(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        var created  = new CompletableFuture<Path>();
+        var existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            Path temp = Files.createTempFile(dir, "download-", ".tmp");
+            try {
+                loader.load(temp);
+                Path file = moveIn(key, temp);
+                created.complete(file);
+                return file;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /** Převezme právě nahraný soubor (write-through); příliš velký soubor smaže. */
+    void put(String key, Path source) throws IOException {
+        if (!accepts(Files.size(source))) {
+            Files.deleteIfExists(source);
+            return;
+        }
+        moveIn(key, source);
+    }
+
+    void invalidate(String key) {
+        index.invalidate(key);
+    }
+
+    private Path moveIn(String key, Path source) throws IOException {
+        Path target = dir.resolve(key).normalize();
+        if (!target.startsWith(dir)) {
+            throw new IllegalArgumentException("Neplatný klíč objektu: " + key);
+        }
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        index.put(key, target);
+        return target;
+    }
+
+    /** Obnoví index ze souborů v adresáři; nedokončená stažení smaže. */
+    private void reindex() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    deleteQuietly(file);
+                } else {
+                    index.put(dir.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"), file);
+                }
+            });
+        }
+        log.info("Mezipaměť úložiště {}: {} souborů", dir, index.estimatedSize());
+    }
+
+    private static Path join(CompletableFuture<Path> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new UncheckedIOException(new IOException(e.getCause()));
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Soubor mezipaměti {} nelze smazat: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.sprinter.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Úložiště obsahu příloh (blobů, jejich komprimovaných variant a náhledů).
+ *
+ * <p>Objekty jsou adresované klíčem ve tvaru relativní cesty
+ * ({@code blobs/ab/cd/<sha256>}); obsah pod klíčem se nikdy nepřepisuje jiným
+ * obsahem, takže implementace nemusí řešit souběžné zápisy. Implementaci vybírá
+ * {@code sprinter.storage.type}: {@link FileSystemBlobStore} (výchozí, jeden uzel)
+ * nebo {@link S3BlobStore} (sdílené úložiště pro více uzlů aplikace).</p>
+ *
+ * <p>Chybějící objekt hlásí metody čtení výjimkou {@link NoSuchFileException}.</p>
+ */
+public interface BlobStore {
+
+    /**
+     * Uloží obsah souboru pod klíčem. Zdrojový soubor úložiště převezme –
+     * přesune ho, nebo ho po nahrání smaže.
+     */
+    void store(String key, Path source) throws IOException;
+
+    /** Otevře celý obsah objektu. */
+    InputStream open(String key) throws IOException;
+
+    /** Otevře rozsah bajtů {@code start}–{@code end} (včetně) objektu. */
+    InputStream openRange(String key, long start, long end) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    /** Vrátí velikost objektu v bajtech. */
+    long size(String key) throws IOException;
+
+    /** Smaže objekt; chybějící objekt není chyba. */
+    void delete(String key) throws IOException;
+
+    /**
+     * Vrátí místní soubor s obsahem objektu – pro zápis bez kopírování a pro nástroje,
+     * které potřebují soubor (dekodéry obrázků, pdftoppm). Vzdálené úložiště vrací
+     * soubor z mezipaměti, nebo prázdnou hodnotu, pokud je objekt pro mezipaměť příliš velký.
+     */
+    Optional<Path> localFile(String key) throws IOException;
+
+    /**
+     * Vrátí true, pokud soubory z {@link #localFile} zůstávají na místě – lze je
+     * předat serveru k odeslání (sendfile) až po návratu z controlleru.
+     */
+    boolean isLocal();
+
+    /**
+     * Vypíše objekty, jejichž klíč začíná prefixem. Proud se načítá postupně
+     * a je třeba ho zavřít.
+     */
+    Stream<StoredObject> list(String prefix) throws IOException;
+}
@@ -0,0 +1,122 @@
+package com.sprinter.service.storage;
+
+import com.sprinter.exception.SprinterException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Úložiště objektů v adresáři {@code sprinter.uploads.dir} – klíč je relativní cesta.
+ * Výchozí implementace pro provoz na jednom uzlu (nebo se sdíleným svazkem).
+ */
+@Component
+@ConditionalOnProperty(name = "sprinter.storage.type", havingValue = "filesystem", matchIfMissing = true)
+@Slf4j
+public class FileSystemBlobStore implements BlobStore {
+
+    @Value("${sprinter.uploads.dir}")
+    private String uploadsDir;
+
+    private Path rootPath;
+
+    @PostConstruct
+    public void init() {
+        rootPath = Paths.get(uploadsDir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(rootPath.resolve("blobs"));
+        } catch (IOException e) {
+            throw new SprinterException("Nelze vytvořit adresář úložiště: " + rootPath, e);
+        }
+    }
+
+    @Override
+    public void store(String key, Path source) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public InputStream openRange(String key, long start, long end) throws IOException {
+        return RangeInputStream.open(resolve(key), start, end - start + 1);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        return Files.size(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) {
+        Path file = resolve(key);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
+    @Override
+    public Stream<StoredObject> list(String prefix) throws IOException {
+        Path dir = resolve(prefix);
+        if (!Files.isDirectory(dir)) {
+            return Stream.empty();
+        }
+        return Files.walk(dir)
+                .map(this::toStoredObject)
+                .flatMap(Optional::stream);
+    }
+
+    private Optional<StoredObject> toStoredObject(Path file) {
+        try {
+            var attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) {
+                return Optional.empty();
+            }
+            String key = rootPath.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+            return Optional.of(new StoredObject(key, attrs.size(), attrs.lastModifiedTime().toInstant()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();   // soubor mezitím zmizel
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path resolve(String key) {
+        Path path = rootPath.resolve(key).normalize();
+        if (!path.startsWith(rootPath)) {
+            throw new IllegalArgumentException("Neplatný klíč objektu: " + key);
+        }
+        return path;
+    }
+}
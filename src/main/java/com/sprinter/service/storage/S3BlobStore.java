@@ -0,0 +1,461 @@
+package com.sprinter.service.storage;
+
+import com.sprinter.exception.SprinterException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Úložiště objektů v S3 nebo kompatibilní službě (MinIO, Ceph RGW, Garage…).
+ *
+ * <p>Mluví přímo s S3 REST API přes {@link HttpClient} (adresování cestou
+ * {@code <endpoint>/<bucket>/<klíč>}, podpis {@link S3RequestSigner}), takže
+ * nepotřebuje SDK. Soubory větší než {@code part-size-mb} se nahrávají
+ * vícedílně – části se čtou přímo ze souboru a posílá se jich souběžně
+ * nejvýše {@code upload-concurrency}.</p>
+ *
+ * <p>Čtení jde přes místní diskovou mezipaměť ({@link BlobCache}): objekt do
+ * {@code cache-max-object-mb} se při prvním čtení stáhne celý a další čtení
+ * (i rozsahy a sendfile-like přenos z controlleru) už jdou z disku. Nahraný
+ * soubor se do mezipaměti rovnou přesune. Větší objekty se čtou proudem
+ * s hlavičkou {@code Range}.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "sprinter.storage.type", havingValue = "s3")
+@Slf4j
+public class S3BlobStore implements BlobStore {
+
+    /** Nejmenší povolená velikost části vícedílného nahrávání v S3. */
+    private static final long MIN_PART_BYTES = 5L * 1024 * 1024;
+
+    @Value("${sprinter.storage.s3.endpoint}")
+    private String endpoint;
+
+    @Value("${sprinter.storage.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${sprinter.storage.s3.bucket}")
+    private String bucket;
+
+    /** Předpona klíčů v bucketu (např. {@code sprinter/}); prázdná = kořen bucketu. */
+    @Value("${sprinter.storage.s3.prefix:}")
+    private String keyPrefix;
+
+    @Value("${sprinter.storage.s3.access-key}")
+    private String accessKey;
+
+    @Value("${sprinter.storage.s3.secret-key}")
+    private String secretKey;
+
+    @Value("${sprinter.storage.s3.part-size-mb:16}")
+    private long partSizeMb;
+
+    @Value("${sprinter.storage.s3.upload-concurrency:4}")
+    private int uploadConcurrency;
+
+    @Value("${sprinter.storage.s3.request-timeout:PT5M}")
+    private Duration requestTimeout;
+
+    @Value("${sprinter.storage.s3.cache-dir:${sprinter.uploads.dir}/cache}")
+    private String cacheDir;
+
+    @Value("${sprinter.storage.s3.cache-max-size-mb:2048}")
+    private long cacheMaxSizeMb;
+
+    @Value("${sprinter.storage.s3.cache-max-object-mb:256}")
+    private long cacheMaxObjectMb;
+
+    private HttpClient      http;
+    private S3RequestSigner signer;
+    private BlobCache       cache;
+    private String          baseUrl;
+    private long            partSize;
+
+    @PostConstruct
+    public void init() {
+        baseUrl  = endpoint.replaceAll("/+$", "");
+        partSize = Math.max(MIN_PART_BYTES, partSizeMb * 1024 * 1024);
+        signer   = new S3RequestSigner(accessKey, secretKey, region);
+        http     = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        try {
+            cache = new BlobCache(Paths.get(cacheDir).toAbsolutePath().normalize(),
+                                  cacheMaxSizeMb * 1024 * 1024, cacheMaxObjectMb * 1024 * 1024);
+        } catch (IOException e) {
+            throw new SprinterException("Nelze vytvořit mezipaměť úložiště: " + cacheDir, e);
+        }
+        log.info("Úložiště příloh: S3 {}/{} (předpona '{}')", baseUrl, bucket, keyPrefix);
+    }
+
+    // ---- Zápis ----
+
+    @Override
+    public void store(String key, Path source) throws IOException {
+        long size = Files.size(source);
+        if (size <= partSize) {
+            var response = send(request("PUT", key, null)
+                    .PUT(HttpRequest.BodyPublishers.ofFile(source)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            check(response, key);
+        } else {
+            uploadMultipart(key, source, size);
+        }
+        cache.put(key, source);
+    }
+
+    /** Vícedílné nahrávání; při chybě se nahrávání na straně S3 zruší. */
+    private void uploadMultipart(String key, Path source, long size) throws IOException {
+        var created = send(request("POST", key, "uploads")
+                .POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+        check(created, key);
+        String uploadId = text(parseXml(created.body()).getDocumentElement(), "UploadId");
+        String uploadQuery = "uploadId=" + S3RequestSigner.encode(uploadId, false);
+        try {
+            List<CompletableFuture<String>> parts = new ArrayList<>();
+            var permits = new Semaphore(uploadConcurrency);
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                acquire(permits);
+                if (parts.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                    permits.release();
+                    break;
+                }
+                long start  = offset;
+                long length = Math.min(partSize, size - offset);
+                var body = HttpRequest.BodyPublishers.fromPublisher(
+                        HttpRequest.BodyPublishers.ofInputStream(() -> openSlice(source, start, length)), length);
+                var request = request("PUT", key, "partNumber=" + partNumber + "&" + uploadQuery)
+                        .PUT(body).build();
+                parts.add(http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                        .whenComplete((r, e) -> permits.release())
+                        .thenApply(response -> {
+                            try {
+                                check(response, key);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            return response.headers().firstValue("ETag")
+                                    .orElseThrow(() -> new UncheckedIOException(
+                                            new IOException("S3 nevrátilo ETag části " + key)));
+                        }));
+            }
+
+            var xml = new StringBuilder("<CompleteMultipartUpload>");
+            for (int i = 0; i < parts.size(); i++) {
+                xml.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                   .append(escapeXml(join(parts.get(i)))).append("</ETag></Part>");
+            }
+            xml.append("</CompleteMultipartUpload>");
+            var completed = send(request("POST", key, uploadQuery)
+                    .header("Content-Type", "application/xml")
+                    .POST(HttpRequest.BodyPublishers.ofString(xml.toString())).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            check(completed, key);
+            // S3 může chybu dokončení vrátit i se stavem 200
+            if (completed.body().contains("<Error>")) {
+                throw new IOException("S3 odmítlo dokončit nahrávání " + key + ": " + errorCode(completed.body()));
+            }
+            log.debug("Objekt {} nahrán po {} částech ({} B)", key, parts.size(), size);
+        } catch (IOException | RuntimeException e) {
+            try {
+                send(request("DELETE", key, uploadQuery).DELETE().build(), HttpResponse.BodyHandlers.discarding());
+            } catch (IOException abortError) {
+                log.warn("Vícedílné nahrávání {} nelze zrušit: {}", key, abortError.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        cache.invalidate(key);
+        var response = send(request("DELETE", key, null).DELETE().build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 404) {
+            check(response, key);
+        }
+    }
+
+    // ---- Čtení ----
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        Optional<Path> local = localFile(key);
+        if (local.isPresent()) {
+            return Files.newInputStream(local.get());
+        }
+        var response = send(request("GET", key, null).GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+        checkStream(response, key);
+        return response.body();
+    }
+
+    @Override
+    public InputStream openRange(String key, long start, long end) throws IOException {
+        Optional<Path> cached = cache.getIfPresent(key);
+        if (cached.isPresent()) {
+            return RangeInputStream.open(cached.get(), start, end - start + 1);
+        }
+        var response = send(request("GET", key, null)
+                .header("Range", "bytes=" + start + "-" + end)
+                .GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+        checkStream(response, key);
+        InputStream body = response.body();
+        if (response.statusCode() == 200) {
+            body.skipNBytes(start);   // služba rozsah ignorovala – poslala celý objekt
+        }
+        return body;
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        return cache.getIfPresent(key).isPresent() || head(key) >= 0;
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        Optional<Path> cached = cache.getIfPresent(key);
+        if (cached.isPresent()) {
+            return Files.size(cached.get());
+        }
+        long size = head(key);
+        if (size < 0) {
+            throw new NoSuchFileException(key);
+        }
+        return size;
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) throws IOException {
+        Optional<Path> cached = cache.getIfPresent(key);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long size = head(key);
+        if (size < 0 || !cache.accepts(size)) {
+            return Optional.empty();
+        }
+        return Optional.of(cache.get(key, target -> download(key, target)));
+    }
+
+    @Override
+    public boolean isLocal() {
+        return false;
+    }
+
+    @Override
+    public Stream<StoredObject> list(String prefix) {
+        var pages = new Iterator<StoredObject>() {
+            private final Deque<StoredObject> page = new ArrayDeque<>();
+            private String  continuationToken;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                while (page.isEmpty() && !done) {
+                    try {
+                        fetchPage();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return !page.isEmpty();
+            }
+
+            @Override
+            public StoredObject next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.poll();
+            }
+
+            private void fetchPage() throws IOException {
+                String query = "list-type=2&prefix=" + S3RequestSigner.encode(keyPrefix + prefix, false)
+                        + (continuationToken != null
+                           ? "&continuation-token=" + S3RequestSigner.encode(continuationToken, false) : "");
+                var response = send(request("GET", null, query).GET().build(), HttpResponse.BodyHandlers.ofString());
+                check(response, prefix);
+                Element root = parseXml(response.body()).getDocumentElement();
+                NodeList contents = root.getElementsByTagName("Contents");
+                for (int i = 0; i < contents.getLength(); i++) {
+                    Element item = (Element) contents.item(i);
+                    String key = text(item, "Key");
+                    page.add(new StoredObject(key.substring(keyPrefix.length()),
+                                              Long.parseLong(text(item, "Size")),
+                                              Instant.parse(text(item, "LastModified"))));
+                }
+                continuationToken = "true".equals(text(root, "IsTruncated")) ? text(root, "NextContinuationToken") : null;
+                done = continuationToken == null;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // ---- Pomocné metody ----
+
+    /** Velikost objektu z HEAD, nebo -1, pokud objekt neexistuje. */
+    private long head(String key) throws IOException {
+        var response = send(request("HEAD", key, null)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 404) {
+            return -1;
+        }
+        check(response, key);
+        return response.headers().firstValueAsLong("Content-Length").orElse(0);
+    }
+
+    private void download(String key, Path target) throws IOException {
+        var response = send(request("GET", key, null).GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+        checkStream(response, key);
+        try (InputStream in = response.body()) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Sestaví podepsaný požadavek na objekt ({@code key}), nebo na bucket ({@code key == null}). */
+    private HttpRequest.Builder request(String method, String key, String query) {
+        String path = "/" + S3RequestSigner.encode(bucket, false)
+                + (key != null ? "/" + S3RequestSigner.encode(keyPrefix + key, true) : "");
+        URI uri = URI.create(baseUrl + path + (query != null ? "?" + query : ""));
+        return signer.sign(HttpRequest.newBuilder(uri).timeout(requestTimeout), method, uri, Instant.now());
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return http.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Požadavek na S3 přerušen: " + request.uri());
+        }
+    }
+
+    private static void check(HttpResponse<String> response, String key) throws IOException {
+        int status = response.statusCode();
+        if (status == 404) {
+            throw new NoSuchFileException(key);
+        }
+        if (status / 100 != 2) {
+            throw new IOException("S3 " + response.request().method() + " " + key + ": HTTP " + status
+                    + " " + errorCode(response.body()));
+        }
+    }
+
+    private static void checkStream(HttpResponse<InputStream> response, String key) throws IOException {
+        if (response.statusCode() / 100 == 2) {
+            return;
+        }
+        String body;
+        try (InputStream in = response.body()) {
+            body = new String(in.readNBytes(4096), StandardCharsets.UTF_8);
+        }
+        if (response.statusCode() == 404) {
+            throw new NoSuchFileException(key);
+        }
+        throw new IOException("S3 GET " + key + ": HTTP " + response.statusCode() + " " + errorCode(body));
+    }
+
+    private static InputStream openSlice(Path source, long start, long length) {
+        try {
+            return RangeInputStream.open(source, start, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void acquire(Semaphore permits) throws InterruptedIOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Nahrávání do S3 přerušeno");
+        }
+    }
+
+    private static String join(CompletableFuture<String> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    /** Kód chyby z XML odpovědi S3 ({@code <Code>}), jinak začátek těla. */
+    private static String errorCode(String body) {
+        if (body == null || body.isBlank()) {
+            return "";
+        }
+        int start = body.indexOf("<Code>");
+        int end   = body.indexOf("</Code>");
+        return start >= 0 && end > start ? body.substring(start + 6, end) : body.substring(0, Math.min(200, body.length()));
+    }
+
+    private static Document parseXml(String xml) throws IOException {
+        try {
+            var factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IOException("Neplatná odpověď S3: " + e.getMessage(), e);
+        }
+    }
+
+    /** Text prvního potomka s daným názvem (i vnořeného), nebo null. */
+    private static String text(Element parent, String tag) {
+        NodeList nodes = parent.getElementsByTagName(tag);
+        return nodes.getLength() > 0 ? nodes.item(0).getTextContent() : null;
+    }
+
+    private static String escapeXml(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
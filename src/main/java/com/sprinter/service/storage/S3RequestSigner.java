@@ -0,0 +1,153 @@
+package com.sprinter.service.storage;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Podpis požadavků na S3 API (AWS Signature Version 4).
+ *
+ * <p>Požadavky úložiště podepisují jen hlavičky {@code host}, {@code x-amz-content-sha256}
+ * a {@code x-amz-date}; tělo se nepodepisuje ({@code UNSIGNED-PAYLOAD}), aby ho
+ * nebylo nutné před odesláním číst dvakrát. URI musí být už zakódované
+ * ({@link #encode}) – jeho cesta a dotaz se použijí beze změny.</p>
+ */
+final class S3RequestSigner {
+
+    static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String SERVICE   = "s3";
+
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter DATE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd")
+            .withZone(ZoneOffset.UTC);
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+
+    S3RequestSigner(String accessKey, String secretKey, String region) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region    = region;
+    }
+
+    /** Doplní do požadavku podpisové hlavičky. */
+    HttpRequest.Builder sign(HttpRequest.Builder request, String method, URI uri, Instant now) {
+        return request
+                .header("x-amz-date", AMZ_DATE.format(now))
+                .header("x-amz-content-sha256", UNSIGNED_PAYLOAD)
+                .header("Authorization", authorization(method, uri, Map.of(), UNSIGNED_PAYLOAD, now));
+    }
+
+    /**
+     * Hodnota hlavičky Authorization. Podepisují se hlavičky {@code host},
+     * {@code x-amz-content-sha256}, {@code x-amz-date} a {@code extraHeaders}
+     * (požadavek je musí obsahovat se stejnými hodnotami).
+     *
+     * @param payloadHash SHA-256 těla (hex), nebo {@link #UNSIGNED_PAYLOAD}
+     */
+    String authorization(String method, URI uri, Map<String, String> extraHeaders, String payloadHash, Instant now) {
+        String amzDate   = AMZ_DATE.format(now);
+        String dateStamp = DATE_STAMP.format(now);
+        String scope     = dateStamp + "/" + region + "/" + SERVICE + "/aws4_request";
+
+        var headers = new TreeMap<String, String>();
+        extraHeaders.forEach((name, value) -> headers.put(name.toLowerCase(Locale.ROOT), value.trim()));
+        headers.put("host", host(uri));
+        headers.put("x-amz-content-sha256", payloadHash);
+        headers.put("x-amz-date", amzDate);
+        String signedHeaders = String.join(";", headers.keySet());
+
+        var canonicalRequest = new StringBuilder()
+                .append(method).append('\n')
+                .append(uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath()).append('\n')
+                .append(canonicalQuery(uri.getRawQuery())).append('\n');
+        headers.forEach((name, value) -> canonicalRequest.append(name).append(':').append(value).append('\n'));
+        canonicalRequest.append('\n').append(signedHeaders).append('\n').append(payloadHash);
+
+        String stringToSign = ALGORITHM + "\n" + amzDate + "\n" + scope + "\n"
+                + HexFormat.of().formatHex(sha256(canonicalRequest.toString()));
+
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), dateStamp);
+        key = hmac(key, region);
+        key = hmac(key, SERVICE);
+        key = hmac(key, "aws4_request");
+        String signature = HexFormat.of().formatHex(hmac(key, stringToSign));
+
+        return ALGORITHM + " Credential=" + accessKey + "/" + scope
+                + ",SignedHeaders=" + signedHeaders + ",Signature=" + signature;
+    }
+
+    /**
+     * Zakóduje hodnotu podle RFC 3986 (jak vyžaduje SigV4).
+     *
+     * @param keepSlash ponechat {@code /} (cesta klíče) – v parametrech dotazu se kóduje
+     */
+    static String encode(String value, boolean keepSlash) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (keepSlash && c == '/')) {
+                sb.append(c);
+            } else {
+                sb.append('%').append(String.format("%02X", b & 0xff));
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Hodnota hlavičky Host tak, jak ji pošle {@link java.net.http.HttpClient} (výchozí port bez čísla). */
+    private static String host(URI uri) {
+        int port = uri.getPort();
+        boolean defaultPort = port == -1
+                || ("https".equals(uri.getScheme()) && port == 443)
+                || ("http".equals(uri.getScheme()) && port == 80);
+        return defaultPort ? uri.getHost() : uri.getHost() + ":" + port;
+    }
+
+    /** Parametry dotazu seřazené podle názvu; parametr bez hodnoty má prázdnou hodnotu. */
+    private static String canonicalQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return "";
+        }
+        return Arrays.stream(rawQuery.split("&"))
+                .map(param -> param.contains("=") ? param : param + "=")
+                .sorted()
+                .collect(Collectors.joining("&"));
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String value) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
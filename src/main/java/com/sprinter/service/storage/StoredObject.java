@@ -0,0 +1,8 @@
+package com.sprinter.service.storage;
+
+import java.time.Instant;
+
+/**
+ * Objekt v úložišti – klíč, velikost a čas poslední změny.
+ */
+public record StoredObject(String key, long size, Instant lastModified) {}
@@ -0,0 +1,49 @@
+package com.sprinter.web.session;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Úklid vypršelých sdílených session ({@code sprinter.session.store=jdbc}).
+ *
+ * <p>Session v DB obsluhuje Spring Session JDBC – repository, filtr i cookie
+ * (podle {@code server.servlet.session.*}) vytváří Spring Boot, tabulky
+ * {@code spring_session*} zakládá Flyway. Vestavěný úklid Spring Session maže
+ * vypršelé session jedním příkazem, proto je vypnutý
+ * ({@code spring.session.jdbc.cleanup-cron: "-"}) a session se mažou tady,
+ * po dávkách {@code sprinter.session.cleanup-batch}.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "sprinter.session.store", havingValue = "jdbc")
+@RequiredArgsConstructor
+@Slf4j
+public class JdbcSessionCleaner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${sprinter.session.cleanup-batch:500}")
+    private int cleanupBatch;
+
+    /** Maže vypršelé session po dávkách, dokud nějaké zbývají. */
+    @Scheduled(initialDelayString = "PT1M", fixedDelayString = "${sprinter.session.cleanup-interval:PT5M}")
+    public void cleanupExpired() {
+        long now   = System.currentTimeMillis();
+        int  total = 0;
+        int  deleted;
+        do {
+            deleted = jdbcTemplate.update("""
+                    DELETE FROM spring_session WHERE primary_id IN (
+                        SELECT primary_id FROM spring_session WHERE expiry_time < ? LIMIT ?)
+                    """, now, cleanupBatch);
+            total += deleted;
+        } while (deleted >= cleanupBatch);
+        if (total > 0) {
+            log.debug("Smazáno {} vypršelých session", total);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- =============================================================================
+-- SPRINTER – Indexy pro okenní načítání Ganttova diagramu
+-- Flyway migrace V10
+-- =============================================================================
+
+CREATE INDEX idx_work_items_project_start ON work_items(project_id, start_date);
+CREATE INDEX idx_work_items_project_due   ON work_items(project_id, due_date);
@@ -0,0 +1,8 @@
+-- =============================================================================
+-- SPRINTER – Snímek sprintu při jeho uzavření nebo zrušení
+-- Flyway migrace V11
+-- =============================================================================
+
+ALTER TABLE sprints ADD COLUMN committed_points  INTEGER;
+ALTER TABLE sprints ADD COLUMN completed_points  INTEGER;
+ALTER TABLE sprints ADD COLUMN carried_over_count INTEGER;
@@ -0,0 +1,28 @@
+-- =============================================================================
+-- SPRINTER – Ruční pořadí backlogu (lexikografické pořadí)
+-- Flyway migrace V12
+-- =============================================================================
+
+-- Bajtové porovnání (kolace "C") – pořadí nesmí záviset na locale databáze
+ALTER TABLE work_items ADD COLUMN backlog_rank VARCHAR(64) COLLATE "C";
+
+-- Výchozí pořadí odpovídá dosavadnímu řazení backlogu (priorita, číslo položky);
+-- řetězce pevné délky 12 s rozestupem, aby bylo kam vkládat
+UPDATE work_items wi
+SET backlog_rank = o.rank
+FROM (SELECT id,
+             lpad((ROW_NUMBER() OVER (
+                       PARTITION BY project_id
+                       ORDER BY CASE priority
+                                    WHEN 'CRITICAL' THEN 6
+                                    WHEN 'HIGHEST'  THEN 5
+                                    WHEN 'HIGH'     THEN 4
+                                    WHEN 'MEDIUM'   THEN 3
+                                    WHEN 'LOW'      THEN 2
+                                    ELSE 1
+                                END DESC,
+                                item_number ASC) * 1000000)::text, 12, '0') AS rank
+      FROM work_items) o
+WHERE wi.id = o.id;
+
+CREATE INDEX idx_work_items_project_rank ON work_items (project_id, backlog_rank);
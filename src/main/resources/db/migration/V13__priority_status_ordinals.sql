@@ -0,0 +1,37 @@
+-- =============================================================================
+-- SPRINTER – Číselné pořadí priority a stavu pro řazení přes index
+-- Flyway migrace V13
+-- =============================================================================
+-- Sloupce priority/status jsou textové (EnumType.STRING), takže se řadí
+-- abecedně a řazení nemůže obsloužit index. Generované sloupce nesou
+-- Priority.level a WorkItemStatus.ordinal() – při změně výčtů je třeba
+-- upravit i tyto výrazy.
+
+ALTER TABLE work_items
+    ADD COLUMN priority_ord SMALLINT GENERATED ALWAYS AS (
+        CASE priority
+            WHEN 'LOWEST'   THEN 1
+            WHEN 'LOW'      THEN 2
+            WHEN 'MEDIUM'   THEN 3
+            WHEN 'HIGH'     THEN 4
+            WHEN 'HIGHEST'  THEN 5
+            WHEN 'CRITICAL' THEN 6
+        END) STORED;
+
+ALTER TABLE work_items
+    ADD COLUMN status_ord SMALLINT GENERATED ALWAYS AS (
+        CASE status
+            WHEN 'TO_DO'       THEN 0
+            WHEN 'IN_PROGRESS' THEN 1
+            WHEN 'IN_REVIEW'   THEN 2
+            WHEN 'DONE'        THEN 3
+            WHEN 'CANCELLED'   THEN 4
+        END) STORED;
+
+-- Položky sprintu (board, detail sprintu): stav, priorita, číslo
+CREATE INDEX idx_work_items_sprint_order
+    ON work_items (sprint_id, status_ord, priority_ord DESC, item_number);
+
+-- Moje položky: termín, priorita
+CREATE INDEX idx_work_items_assignee_due_prio
+    ON work_items (assignee_id, due_date, priority_ord DESC);
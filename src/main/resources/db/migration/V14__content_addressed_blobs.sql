@@ -0,0 +1,42 @@
+-- =============================================================================
+-- SPRINTER – Obsahově adresované úložiště příloh (deduplikace dle SHA-256)
+-- Flyway migrace V14
+-- =============================================================================
+
+CREATE TABLE blobs (
+    sha256      VARCHAR(64) NOT NULL PRIMARY KEY,
+    size_bytes  BIGINT    NOT NULL,
+    ref_count   INTEGER   NOT NULL DEFAULT 0,
+    -- Kdy počet odkazů klesl na nulu (null = blob je používán); GC maže až po ochranné lhůtě
+    released_at TIMESTAMP,
+    created_at  TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_blobs_released ON blobs (released_at) WHERE ref_count = 0;
+
+-- Starší přílohy (bez blob_sha256) zůstávají v attachments/<workItemId>/<storedFilename>
+ALTER TABLE attachments ADD COLUMN blob_sha256 VARCHAR(64) REFERENCES blobs(sha256);
+CREATE INDEX idx_attachments_blob ON attachments (blob_sha256);
+
+-- Počet odkazů udržuje trigger – pokryje i kaskádové mazání položek a projektů,
+-- které jde mimo JPA
+CREATE FUNCTION attachments_blob_ref() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.blob_sha256 IS NOT NULL THEN
+        UPDATE blobs
+        SET ref_count = ref_count + 1, released_at = NULL
+        WHERE sha256 = NEW.blob_sha256;
+    END IF;
+    IF TG_OP IN ('DELETE', 'UPDATE') AND OLD.blob_sha256 IS NOT NULL THEN
+        UPDATE blobs
+        SET ref_count   = ref_count - 1,
+            released_at = CASE WHEN ref_count = 1 THEN NOW() ELSE released_at END
+        WHERE sha256 = OLD.blob_sha256;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_attachments_blob_ref
+    AFTER INSERT OR DELETE OR UPDATE OF blob_sha256 ON attachments
+    FOR EACH ROW EXECUTE FUNCTION attachments_blob_ref();
@@ -0,0 +1,23 @@
+-- =============================================================================
+-- SPRINTER – Obnovitelné nahrávání příloh po částech
+-- Flyway migrace V15
+-- =============================================================================
+
+-- Rozpracované nahrávání; obsah leží v uploads/partial/<id>.part
+CREATE TABLE upload_sessions (
+    id                VARCHAR(36)  NOT NULL PRIMARY KEY,
+    work_item_id      BIGINT       NOT NULL REFERENCES work_items(id) ON DELETE CASCADE,
+    created_by_id     BIGINT       NOT NULL REFERENCES users(id)      ON DELETE CASCADE,
+    original_filename VARCHAR(255) NOT NULL,
+    content_type      VARCHAR(100),
+    total_size        BIGINT       NOT NULL,
+    -- Souvislý počet zapsaných bajtů od začátku souboru (offset pro navázání)
+    received_bytes    BIGINT       NOT NULL DEFAULT 0,
+    -- Otisk ohlášený klientem; po dokončení se s ním porovná spočítaný otisk
+    expected_sha256   VARCHAR(64),
+    created_at        TIMESTAMP    NOT NULL DEFAULT NOW(),
+    updated_at        TIMESTAMP    NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_upload_sessions_updated ON upload_sessions (updated_at);
+CREATE INDEX idx_upload_sessions_user    ON upload_sessions (created_by_id);
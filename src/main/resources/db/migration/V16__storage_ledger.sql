@@ -0,0 +1,69 @@
+-- =============================================================================
+-- SPRINTER – Evidence využití úložiště příloh (po projektech a uživatelích)
+-- Flyway migrace V16
+-- =============================================================================
+
+-- Projekt přílohy – při kaskádovém mazání položky už řádek work_items neexistuje,
+-- trigger proto potřebuje projekt přímo v řádku přílohy. Plní ho trigger, JPA ho nemapuje.
+ALTER TABLE attachments ADD COLUMN project_id BIGINT;
+UPDATE attachments a SET project_id = w.project_id FROM work_items w WHERE w.id = a.work_item_id;
+ALTER TABLE attachments ALTER COLUMN project_id SET NOT NULL;
+
+-- Logická velikost příloh (bez ohledu na deduplikaci blobů)
+CREATE TABLE project_storage_usage (
+    project_id       BIGINT NOT NULL PRIMARY KEY REFERENCES projects(id) ON DELETE CASCADE,
+    attachment_count BIGINT NOT NULL DEFAULT 0,
+    total_bytes      BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE user_storage_usage (
+    user_id          BIGINT NOT NULL PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    attachment_count BIGINT NOT NULL DEFAULT 0,
+    total_bytes      BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO project_storage_usage (project_id, attachment_count, total_bytes)
+SELECT project_id, COUNT(*), COALESCE(SUM(file_size), 0) FROM attachments GROUP BY project_id;
+
+INSERT INTO user_storage_usage (user_id, attachment_count, total_bytes)
+SELECT uploaded_by_id, COUNT(*), COALESCE(SUM(file_size), 0) FROM attachments GROUP BY uploaded_by_id;
+
+CREATE FUNCTION attachments_set_project() RETURNS trigger AS $$
+BEGIN
+    NEW.project_id := (SELECT project_id FROM work_items WHERE id = NEW.work_item_id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_attachments_set_project
+    BEFORE INSERT OR UPDATE OF work_item_id ON attachments
+    FOR EACH ROW EXECUTE FUNCTION attachments_set_project();
+
+-- Evidence se udržuje triggerem – pokryje i kaskádové mazání položek a projektů mimo JPA
+CREATE FUNCTION attachments_storage_usage() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        UPDATE project_storage_usage
+        SET attachment_count = attachment_count - 1, total_bytes = total_bytes - COALESCE(OLD.file_size, 0)
+        WHERE project_id = OLD.project_id;
+        UPDATE user_storage_usage
+        SET attachment_count = attachment_count - 1, total_bytes = total_bytes - COALESCE(OLD.file_size, 0)
+        WHERE user_id = OLD.uploaded_by_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO project_storage_usage AS u (project_id, attachment_count, total_bytes)
+        VALUES (NEW.project_id, 1, COALESCE(NEW.file_size, 0))
+        ON CONFLICT (project_id) DO UPDATE
+            SET attachment_count = u.attachment_count + 1, total_bytes = u.total_bytes + EXCLUDED.total_bytes;
+        INSERT INTO user_storage_usage AS u (user_id, attachment_count, total_bytes)
+        VALUES (NEW.uploaded_by_id, 1, COALESCE(NEW.file_size, 0))
+        ON CONFLICT (user_id) DO UPDATE
+            SET attachment_count = u.attachment_count + 1, total_bytes = u.total_bytes + EXCLUDED.total_bytes;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_attachments_storage_usage
+    AFTER INSERT OR DELETE OR UPDATE OF project_id, uploaded_by_id, file_size ON attachments
+    FOR EACH ROW EXECUTE FUNCTION attachments_storage_usage();
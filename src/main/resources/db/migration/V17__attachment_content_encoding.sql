@@ -0,0 +1,9 @@
+-- =============================================================================
+-- SPRINTER – Komprese textových příloh v úložišti
+-- Flyway migrace V17
+-- =============================================================================
+
+-- Kódování uloženého obsahu (null = nekomprimovaný). Komprimovaný blob leží
+-- vedle nekomprimovaného jako blobs/ab/cd/<sha256>.gz; otisk i file_size
+-- se vždy vztahují k původnímu obsahu.
+ALTER TABLE attachments ADD COLUMN content_encoding VARCHAR(20);
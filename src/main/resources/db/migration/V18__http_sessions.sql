@@ -0,0 +1,29 @@
+-- =============================================================================
+-- SPRINTER – Sdílené HTTP session (sprinter.session.store=jdbc)
+-- Flyway migrace V18
+-- =============================================================================
+
+-- Časy jsou v milisekundách od epochy (jako HttpSession API), expirace se
+-- přepočítává při zápisu, aby úklid vystačil s indexem na expires_at.
+CREATE TABLE http_sessions (
+    primary_id           VARCHAR(36) NOT NULL PRIMARY KEY,
+    -- Veřejné ID z cookie; mění se po přihlášení (ochrana proti session fixation)
+    session_id           VARCHAR(36) NOT NULL,
+    created_at           BIGINT      NOT NULL,
+    last_accessed_at     BIGINT      NOT NULL,
+    max_inactive_seconds INTEGER     NOT NULL,
+    expires_at           BIGINT      NOT NULL,
+
+    CONSTRAINT uq_http_sessions_session_id UNIQUE (session_id)
+);
+
+CREATE INDEX idx_http_sessions_expires ON http_sessions (expires_at);
+
+-- Atributy po jednom – zapisují se jen změněné
+CREATE TABLE http_session_attributes (
+    session_primary_id VARCHAR(36)  NOT NULL REFERENCES http_sessions(primary_id) ON DELETE CASCADE,
+    attribute_name     VARCHAR(200) NOT NULL,
+    attribute_bytes    BYTEA        NOT NULL,
+
+    PRIMARY KEY (session_primary_id, attribute_name)
+);
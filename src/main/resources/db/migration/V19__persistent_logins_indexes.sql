@@ -0,0 +1,10 @@
+-- =============================================================================
+-- SPRINTER – Indexy pro remember-me tokeny
+-- Flyway migrace V19
+-- =============================================================================
+
+-- Zrušení všech tokenů uživatele (odhlášení, detekce krádeže cookie)
+CREATE INDEX idx_persistent_logins_username  ON persistent_logins (username);
+
+-- Úklid vypršelých sérií
+CREATE INDEX idx_persistent_logins_last_used ON persistent_logins (last_used);
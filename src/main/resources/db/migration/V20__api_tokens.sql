@@ -0,0 +1,25 @@
+-- =============================================================================
+-- SPRINTER – Osobní přístupové tokeny pro REST API
+-- Flyway migrace V20
+-- =============================================================================
+
+CREATE SEQUENCE api_tokens_id_seq START 1 INCREMENT 1;
+
+CREATE TABLE api_tokens (
+    id           BIGINT       NOT NULL DEFAULT nextval('api_tokens_id_seq') PRIMARY KEY,
+    user_id      BIGINT       NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    name         VARCHAR(100) NOT NULL,
+    -- SHA-256 (hex) celého tokenu; samotný token se neukládá
+    token_hash   VARCHAR(64)  NOT NULL,
+    -- Začátek tokenu, aby ho uživatel v seznamu poznal
+    token_prefix VARCHAR(12)  NOT NULL,
+    -- Oprávnění oddělená čárkou (READ, WRITE)
+    scopes       VARCHAR(100) NOT NULL,
+    expires_at   TIMESTAMP,
+    last_used_at TIMESTAMP,
+    created_at   TIMESTAMP    NOT NULL DEFAULT NOW(),
+
+    CONSTRAINT uq_api_tokens_hash UNIQUE (token_hash)
+);
+
+CREATE INDEX idx_api_tokens_user ON api_tokens (user_id);
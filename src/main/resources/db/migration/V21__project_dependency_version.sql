@@ -0,0 +1,9 @@
+-- =============================================================================
+-- SPRINTER – Verze grafu závislostí projektu
+-- Flyway migrace V21
+-- =============================================================================
+
+-- Zvyšuje se s každou změnou závislostí projektu (pod zámkem řádku projektu).
+-- Graf závislostí v cache nese verzi, ze které byl načten – neshoda znamená,
+-- že se graf změnil (i na jiném uzlu), a načte se znovu.
+ALTER TABLE projects ADD COLUMN dependency_version BIGINT NOT NULL DEFAULT 0;
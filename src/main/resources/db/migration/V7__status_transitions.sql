@@ -0,0 +1,31 @@
+-- =============================================================================
+-- SPRINTER – Historie přechodů stavů pracovních položek (cumulative flow)
+-- Flyway migrace V7
+-- =============================================================================
+
+CREATE SEQUENCE wi_status_transitions_id_seq START 1 INCREMENT 1;
+
+CREATE TABLE work_item_status_transitions (
+    id              BIGINT      NOT NULL DEFAULT nextval('wi_status_transitions_id_seq') PRIMARY KEY,
+    work_item_id    BIGINT      NOT NULL REFERENCES work_items(id) ON DELETE CASCADE,
+    project_id      BIGINT      NOT NULL REFERENCES projects(id)   ON DELETE CASCADE,
+    from_status     VARCHAR(20),
+    to_status       VARCHAR(20) NOT NULL,
+    transitioned_at TIMESTAMP   NOT NULL
+);
+
+CREATE INDEX idx_wi_transitions_project_time ON work_item_status_transitions(project_id, transitioned_at);
+CREATE INDEX idx_wi_transitions_item_time    ON work_item_status_transitions(work_item_id, transitioned_at);
+
+-- ---- Zpětné doplnění pro existující položky ----
+-- Vznik položky (null → TO_DO) v čase vytvoření
+INSERT INTO work_item_status_transitions (work_item_id, project_id, from_status, to_status, transitioned_at)
+SELECT id, project_id, NULL, 'TO_DO', created_at
+FROM work_items;
+
+-- Aktuální stav (pokud není výchozí) – přesný okamžik neznáme, použijeme nejlepší odhad
+INSERT INTO work_item_status_transitions (work_item_id, project_id, from_status, to_status, transitioned_at)
+SELECT id, project_id, 'TO_DO', status,
+       GREATEST(created_at, COALESCE(completed_at, updated_at, created_at))
+FROM work_items
+WHERE status <> 'TO_DO';
@@ -0,0 +1,21 @@
+-- =============================================================================
+-- SPRINTER – Histogramy lead/cycle time pro percentilové statistiky
+-- Flyway migrace V8
+-- =============================================================================
+
+CREATE SEQUENCE flow_time_sketches_id_seq START 1 INCREMENT 1;
+
+CREATE TABLE flow_time_sketches (
+    id            BIGINT      NOT NULL DEFAULT nextval('flow_time_sketches_id_seq') PRIMARY KEY,
+    project_id    BIGINT      NOT NULL REFERENCES projects(id) ON DELETE CASCADE,
+    metric        VARCHAR(20) NOT NULL,
+    dimension     VARCHAR(20) NOT NULL,
+    dimension_key VARCHAR(50) NOT NULL,
+    item_count    BIGINT      NOT NULL DEFAULT 0,
+    sketch        BYTEA       NOT NULL,
+    updated_at    TIMESTAMP   NOT NULL DEFAULT NOW(),
+    CONSTRAINT uq_flow_time_sketches UNIQUE (project_id, metric, dimension, dimension_key)
+);
+
+-- Histogramy pro již dokončené položky dopočítá aplikace po startu
+-- (FlowMetricsService.rebuildMissingSketches) z tabulky work_item_status_transitions.
@@ -0,0 +1,6 @@
+-- =============================================================================
+-- SPRINTER – Automatické plánování závislých položek
+-- Flyway migrace V9
+-- =============================================================================
+
+ALTER TABLE projects ADD COLUMN auto_schedule BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,93 @@
+/**
+ * SPRINTER – Nahrávání příloh JavaScript
+ * ============================================================
+ * Obnovitelné nahrávání po částech (/api/v1/work-items/{id}/uploads).
+ * Soubor se posílá po částech CHUNK_SIZE; při výpadku spojení se klient
+ * zeptá serveru na offset (HEAD) a pokračuje od něj. Bez podpory
+ * fetch/Blob.slice zůstává formulář klasickým multipart odesláním.
+ * ============================================================
+ */
+
+'use strict';
+
+const CHUNK_SIZE  = 8 * 1024 * 1024;
+const MAX_RETRIES = 5;
+
+document.addEventListener('DOMContentLoaded', () => {
+    const form = document.querySelector('form[data-resumable-upload]');
+    if (!form || !window.fetch || !Blob.prototype.slice) return;
+
+    const ctxPath = document.querySelector('meta[name="context-path"]')?.content?.replace(/\/$/, '') || '';
+
+    form.addEventListener('submit', async (e) => {
+        const file = form.querySelector('input[type=file]').files[0];
+        if (!file) return;
+        e.preventDefault();
+
+        const button = form.querySelector('button[type=submit]');
+        button.disabled = true;
+        try {
+            await uploadResumable(ctxPath, form.dataset.workItemId, file, (sent) => {
+                button.title = `${Math.floor(sent * 100 / Math.max(file.size, 1))} %`;
+            });
+            window.location.reload();
+        } catch (err) {
+            showToast('Nahrání přílohy selhalo: ' + err.message, 'error');
+            button.disabled = false;
+            button.title = 'Nahrát přílohu';
+        }
+    });
+});
+
+/**
+ * Nahraje soubor po částech. Při chybě sítě nebo 5xx zjistí offset a pokračuje.
+ * @param {function(number)} onProgress - počet potvrzených bajtů
+ */
+async function uploadResumable(ctxPath, workItemId, file, onProgress) {
+    const init = await uploadRequest(`${ctxPath}/api/v1/work-items/${workItemId}/uploads`, {
+        method:  'POST',
+        headers: { 'Content-Type': 'application/json', 'Accept': 'application/json' },
+        body:    JSON.stringify({ filename: file.name, contentType: file.type || null, size: file.size })
+    });
+    const uploadUrl = `${ctxPath}/api/v1/uploads/${(await init.json()).uploadId}`;
+
+    let offset  = 0;
+    let retries = 0;
+    while (offset < file.size) {
+        try {
+            const resp = await uploadRequest(uploadUrl, {
+                method:  'PATCH',
+                headers: { 'Content-Type': 'application/offset+octet-stream', 'Upload-Offset': String(offset) },
+                body:    file.slice(offset, Math.min(offset + CHUNK_SIZE, file.size))
+            });
+            offset  = Number(resp.headers.get('Upload-Offset'));
+            retries = 0;
+            onProgress(offset);
+        } catch (err) {
+            if (!err.retryable || ++retries > MAX_RETRIES) throw err;
+            await new Promise(resolve => setTimeout(resolve, 1000 * 2 ** retries));
+            const head = await uploadRequest(uploadUrl, { method: 'HEAD' });
+            offset = Number(head.headers.get('Upload-Offset'));
+        }
+    }
+
+    await uploadRequest(`${uploadUrl}/complete`, { method: 'POST', headers: { 'Accept': 'application/json' } });
+}
+
+/** fetch, který při chybě vyhodí Error s příznakem retryable (síť, 409, 5xx). */
+async function uploadRequest(url, options) {
+    let resp;
+    try {
+        resp = await fetch(url, options);
+    } catch (networkError) {
+        networkError.retryable = true;
+        throw networkError;
+    }
+    if (!resp.ok) {
+        const data = await resp.json().catch(() => ({}));
+        const err  = new Error(data.error || `HTTP ${resp.status}`);
+        err.retryable = resp.status === 409 || resp.status >= 500;
+        throw err;
+    }
+    return resp;
+}
@@ -0,0 +1,47 @@
+/**
+ * SPRINTER – Backlog JavaScript
+ * ============================================================
+ * Ruční řazení backlogu přetažením (Sortable.js). Každý přesun
+ * odešle jen ID sousedních položek; server přepočítá pořadí
+ * jediné přesunuté položky (PATCH /api/v1/work-items/{id}/rank).
+ * ============================================================
+ */
+
+'use strict';
+
+document.addEventListener('DOMContentLoaded', () => {
+    const list = document.getElementById('backlogItems');
+    if (!list || list.getAttribute('data-sortable') !== 'true') return;
+
+    const ctxPath = document.querySelector('meta[name="context-path"]')?.content?.replace(/\/$/, '') || '';
+
+    Sortable.create(list, {
+        animation:        150,
+        handle:           '.backlog-drag-handle',
+        draggable:        '.backlog-row',
+        ghostClass:       'kanban-card-ghost',
+        delay:            100,
+        delayOnTouchOnly: true,
+
+        async onEnd(evt) {
+            if (evt.oldIndex === evt.newIndex) return;
+
+            const row      = evt.item;
+            const previous = row.previousElementSibling?.closest('.backlog-row');
+            const next     = row.nextElementSibling?.closest('.backlog-row');
+            try {
+                const resp = await sprinterPatch(`${ctxPath}/api/v1/work-items/${row.dataset.itemId}/rank`, {
+                    previousId: previous ? Number(previous.dataset.itemId) : null,
+                    nextId:     next     ? Number(next.dataset.itemId)     : null
+                });
+                if (!resp.ok) {
+                    const data = await resp.json().catch(() => ({}));
+                    throw new Error(data.error || `HTTP ${resp.status}`);
+                }
+            } catch (err) {
+                showToast(`Pořadí se nepodařilo uložit: ${err.message}`, 'error');
+                setTimeout(() => window.location.reload(), 1500);
+            }
+        }
+    });
+});
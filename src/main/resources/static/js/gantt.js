@@ -2,12 +2,27 @@
  * SPRINTER – Gantt diagram JavaScript
  * ============================================================
  * Inicializuje frappe-gantt pro zobrazení Ganttova diagramu.
- * Data jsou načítána z REST API /api/v1/projects/{id}/gantt-items.
+ * Data se načítají po oknech (období + rozsah řádků) z REST API
+ * /api/v1/projects/{id}/gantt-window, takže i víceleté plány
+ * přenášejí jen to, co je právě vidět.
  * ============================================================
  */
 
 'use strict';
 
+/** Délka zobrazeného období ve dnech dle pohledu. */
+const GANTT_SPAN_DAYS = { Day: 42, Week: 126, Month: 365 };
+/** Počet řádků v jednom okně. */
+const GANTT_ROW_LIMIT = 200;
+
+const ganttWindow = {
+    from:      null,
+    to:        null,
+    viewMode:  'Week',
+    rowOffset: 0,
+    total:     0
+};
+
 document.addEventListener('DOMContentLoaded', () => {
     const container = document.getElementById('ganttChart');
     if (!container) return;
@@ -15,57 +30,118 @@ document.addEventListener('DOMContentLoaded', () => {
     const projectId = container.getAttribute('data-project-id');
     if (!projectId) return;
 
+    resetGanttWindow(new Date());
     initGanttChart(container, projectId);
 
     // Přepínání pohledu
-    document.getElementById('viewDay')  ?.addEventListener('click', () => setViewMode('Day'));
-    document.getElementById('viewWeek') ?.addEventListener('click', () => setViewMode('Week'));
-    document.getElementById('viewMonth')?.addEventListener('click', () => setViewMode('Month'));
+    document.getElementById('viewDay')  ?.addEventListener('click', () => setViewMode(container, projectId, 'Day'));
+    document.getElementById('viewWeek') ?.addEventListener('click', () => setViewMode(container, projectId, 'Week'));
+    document.getElementById('viewMonth')?.addEventListener('click', () => setViewMode(container, projectId, 'Month'));
+
+    // Posun období a stránkování řádků
+    document.getElementById('ganttPrev') ?.addEventListener('click', () => shiftGanttWindow(container, projectId, -1));
+    document.getElementById('ganttNext') ?.addEventListener('click', () => shiftGanttWindow(container, projectId, 1));
+    document.getElementById('ganttToday')?.addEventListener('click', () => {
+        resetGanttWindow(new Date());
+        initGanttChart(container, projectId);
+    });
+    document.getElementById('ganttRowsPrev')?.addEventListener('click', () => pageGanttRows(container, projectId, -1));
+    document.getElementById('ganttRowsNext')?.addEventListener('click', () => pageGanttRows(container, projectId, 1));
 });
 
 let ganttInstance = null;
 
 /**
- * Načte data a inicializuje Ganttův diagram.
+ * Nastaví okno tak, aby zhruba čtvrtina období ležela před daným dnem.
+ */
+function resetGanttWindow(anchor) {
+    const span = GANTT_SPAN_DAYS[ganttWindow.viewMode];
+    ganttWindow.from      = addDays(toIsoDate(anchor), -Math.round(span / 4));
+    ganttWindow.to        = addDays(ganttWindow.from, span);
+    ganttWindow.rowOffset = 0;
+}
+
+/**
+ * Posune okno o celé období dopředu (1) nebo dozadu (-1).
+ */
+function shiftGanttWindow(container, projectId, direction) {
+    const span = GANTT_SPAN_DAYS[ganttWindow.viewMode];
+    ganttWindow.from      = addDays(ganttWindow.from, direction * span);
+    ganttWindow.to        = addDays(ganttWindow.to,   direction * span);
+    ganttWindow.rowOffset = 0;
+    initGanttChart(container, projectId);
+}
+
+/**
+ * Přejde na předchozí (-1) nebo další (1) stránku řádků.
+ */
+function pageGanttRows(container, projectId, direction) {
+    const next = ganttWindow.rowOffset + direction * GANTT_ROW_LIMIT;
+    if (next < 0 || next >= ganttWindow.total) return;
+    ganttWindow.rowOffset = next;
+    initGanttChart(container, projectId);
+}
+
+/**
+ * Načte aktuální okno a inicializuje Ganttův diagram.
  */
 async function initGanttChart(container, projectId) {
+    const ctxPath = document.querySelector('meta[name="context-path"]')?.content?.replace(/\/$/, '') || '';
     try {
         container.innerHTML = '<div class="skeleton" style="height:400px;border-radius:8px;"></div>';
 
-        const ctxPath = document.querySelector('meta[name="context-path"]')?.content?.replace(/\/$/, '') || '';
-        const resp = await fetch(`${ctxPath}/api/v1/projects/${projectId}/gantt-items`);
+        const params = new URLSearchParams({
+            from:      ganttWindow.from,
+            to:        ganttWindow.to,
+            rowOffset: ganttWindow.rowOffset,
+            rowLimit:  GANTT_ROW_LIMIT
+        });
+        const resp = await fetch(`${ctxPath}/api/v1/projects/${projectId}/gantt-window?${params}`);
 
         if (!resp.ok) {
             throw new Error(`Server vrátil chybu ${resp.status}: ${resp.statusText}`);
         }
 
-        const items = await resp.json();
+        const win   = await resp.json();
+        const items = win.items || [];
+        ganttWindow.total = win.total;
+        updateGanttPaging(win);
 
-        if (!items || items.length === 0) {
+        if (items.length === 0) {
+            ganttInstance = null;
             container.innerHTML = `
                 <div class="text-center py-5 text-muted">
                     <i class="bi bi-bar-chart-steps fs-2 d-block mb-2"></i>
-                    Žádné položky s daty pro Ganttův diagram
+                    V tomto období nejsou žádné položky s daty
                 </div>`;
             return;
         }
 
-        const today = new Date().toISOString().split('T')[0];
+        // Předchůdci každé položky (jen ti, kteří jsou v okně)
+        const known = new Set(items.map(item => item.id));
+        const preds = new Map();
+        (win.links || []).forEach(link => {
+            if (!known.has(link.from) || !known.has(link.to)) return;
+            if (!preds.has(link.to)) preds.set(link.to, []);
+            preds.get(link.to).push(link);
+        });
 
         // Transformace dat do formátu frappe-gantt
         const tasks = items.map(item => {
             // Pokud chybí start, odvodíme ho 7 dní před koncem; pokud chybí konec, 7 dní po začátku
-            const startStr = item.startDate || (item.endDate ? addDays(item.endDate, -7) : today);
-            const endStr   = item.endDate   || addDays(startStr, 7);
+            const startStr = item.start || addDays(item.end, -7);
+            const endStr   = item.end   || addDays(startStr, 7);
+            const deps     = preds.get(item.id) || [];
 
             return {
-                id:           String(item.id),
-                name:         item.text,
+                id:           `wi-${item.id}`,
+                name:         `[${win.projectKey}-${item.number}] ${item.title}`,
                 start:        startStr,
                 end:          endStr,
                 progress:     item.progress || 0,
-                dependencies: '',
-                custom_class: getGanttBarClass(item.type, item.status)
+                dependencies: deps.map(dep => `wi-${dep.from}`).join(','),
+                custom_class: getGanttBarClass(item.type, item.status, item.critical),
+                schedule:     { ...item, dependencies: deps }
             };
         });
 
@@ -82,14 +158,18 @@ async function initGanttChart(container, projectId) {
             bar_corner_radius: 4,
             arrow_curve:      5,
             padding:          18,
-            view_mode:        'Week',
+            view_mode:        ganttWindow.viewMode,
             date_format:      'YYYY-MM-DD',
             popup_trigger:    'click',
+            custom_popup_html: (task) => schedulePopupHtml(task),
 
             on_click: (task) => {
                 const itemId = task.id.replace('wi-', '');
-                const cp = document.querySelector('meta[name="context-path"]')?.content?.replace(/\/$/, '') || '';
-                window.location.href = `${cp}/items/${itemId}`;
+                window.location.href = `${ctxPath}/items/${itemId}`;
+            },
+
+            on_date_change: (task, start, end) => {
+                saveTaskDates(container, projectId, ctxPath, task, start, end);
             },
 
             on_view_change: (mode) => {
@@ -102,21 +182,73 @@ async function initGanttChart(container, projectId) {
         container.innerHTML = `
             <div class="alert alert-danger m-3">
                 <strong>Chyba při načítání dat pro Ganttův diagram.</strong>
-                <div class="small text-muted mt-1">${err.message}</div>
+                <div class="small text-muted mt-1">${escapeHtml(err.message)}</div>
             </div>`;
     }
 }
 
 /**
- * Přepíná pohled (Den / Týden / Měsíc).
+ * Aktualizuje popisek a tlačítka stránkování řádků.
+ */
+function updateGanttPaging(win) {
+    const shown = win.items ? win.items.length : 0;
+    const range = document.getElementById('ganttRange');
+    if (range) {
+        range.textContent = shown > 0
+            ? `${win.from} – ${win.to} · řádky ${win.rowOffset + 1}–${win.rowOffset + shown} z ${win.total}`
+            : `${win.from} – ${win.to}`;
+    }
+    const prev = document.getElementById('ganttRowsPrev');
+    const next = document.getElementById('ganttRowsNext');
+    if (prev) prev.disabled = win.rowOffset <= 0;
+    if (next) next.disabled = win.rowOffset + shown >= win.total;
+}
+
+/**
+ * Uloží nové termíny přetažené položky. Pokud automatické plánování posunulo
+ * závislé položky (nebo uložení selhalo), diagram se znovu načte.
  */
-function setViewMode(mode) {
-    if (ganttInstance) {
-        ganttInstance.change_view_mode(mode);
-        updateViewButtons(mode);
+async function saveTaskDates(container, projectId, ctxPath, task, start, end) {
+    const itemId = task.id.replace('wi-', '');
+    try {
+        const resp = await sprinterPatch(`${ctxPath}/api/v1/work-items/${itemId}/dates`, {
+            startDate: toIsoDate(start),
+            dueDate:   toIsoDate(end)
+        });
+        const data = await resp.json();
+        if (!resp.ok) {
+            throw new Error(data.error || `HTTP ${resp.status}`);
+        }
+        if (data.moved && data.moved.length > 0) {
+            showToast(`Automatické plánování posunulo ${data.moved.length} závislých položek.`, 'info');
+            initGanttChart(container, projectId);
+        }
+    } catch (err) {
+        showToast(`Termín se nepodařilo uložit: ${err.message}`, 'error');
+        initGanttChart(container, projectId);
     }
 }
 
+/**
+ * Převede Date na YYYY-MM-DD v místním čase (toISOString by posunul den dle časové zóny).
+ */
+function toIsoDate(date) {
+    const pad = (n) => String(n).padStart(2, '0');
+    return `${date.getFullYear()}-${pad(date.getMonth() + 1)}-${pad(date.getDate())}`;
+}
+
+/**
+ * Přepíná pohled (Den / Týden / Měsíc) – okno se přepočte na délku odpovídající pohledu.
+ */
+function setViewMode(container, projectId, mode) {
+    if (mode === ganttWindow.viewMode) return;
+    const middle = addDays(ganttWindow.from, Math.round(GANTT_SPAN_DAYS[ganttWindow.viewMode] / 4));
+    ganttWindow.viewMode = mode;
+    resetGanttWindow(new Date(middle));
+    updateViewButtons(mode);
+    initGanttChart(container, projectId);
+}
+
 /**
  * Aktualizuje vizuál přepínacích tlačítek pohledu.
  */
@@ -133,8 +265,9 @@ function updateViewButtons(activeMode) {
 /**
  * Vrátí CSS třídu pro pruh Ganttova diagramu dle typu a stavu položky.
  */
-function getGanttBarClass(type, status) {
+function getGanttBarClass(type, status, critical) {
     if (status === 'DONE' || status === 'CANCELLED') return 'gantt-bar-done';
+    if (critical) return 'gantt-bar-critical';
     const classes = {
         TASK:  'gantt-bar-task',
         ISSUE: 'gantt-bar-issue',
@@ -152,3 +285,23 @@ function addDays(dateStr, days) {
     date.setDate(date.getDate() + days);
     return date.toISOString().split('T')[0];
 }
+
+/**
+ * HTML popupu s údaji harmonogramu (nejdřívější/nejpozdější termíny, rezerva).
+ */
+function schedulePopupHtml(task) {
+    const s = task.schedule || {};
+    const esc = (v) => String(v ?? '').replace(/[&<>"]/g, c => ({ '&': '&amp;', '<': '&lt;', '>': '&gt;', '"': '&quot;' }[c]));
+    const deps = (s.dependencies || [])
+        .map(d => `${esc(d.type)}${d.lag ? (d.lag > 0 ? '+' : '') + d.lag + 'd' : ''}`)
+        .join(', ');
+    const plan = s.slack != null
+        ? `<div>Rezerva: ${esc(s.slack)} d${s.critical ? ' <strong class="text-danger">(kritická cesta)</strong>' : ''}</div>`
+        : '<div class="text-muted">Položku nelze naplánovat (cyklus závislostí)</div>';
+    return `
+        <div class="details-container p-2 small">
+            <h6 class="mb-1">${esc(task.name)}</h6>
+            ${plan}
+            ${deps ? `<div>Závislosti: ${deps}</div>` : ''}
+        </div>`;
+}
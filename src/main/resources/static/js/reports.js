@@ -10,6 +10,7 @@
 
 document.addEventListener('DOMContentLoaded', () => {
     initStatusChart();
+    initCfdChart();
 });
 
 /**
@@ -78,3 +79,62 @@ async function initStatusChart() {
             </div>`;
     }
 }
+
+/**
+ * Inicializuje cumulative flow diagram (skládaný plošný graf stavů po dnech).
+ */
+async function initCfdChart() {
+    const canvas = document.getElementById('cfdChart');
+    if (!canvas) return;
+
+    const projectId = canvas.getAttribute('data-project-id');
+    if (!projectId) return;
+
+    try {
+        const resp = await fetch(`/sprinter/api/v1/reports/projects/${projectId}/cfd`);
+        const data = await resp.json();
+
+        const isDark = document.body.getAttribute('data-bs-theme') === 'dark';
+        const textColor = isDark ? '#e6edf3' : '#172b4d';
+        const gridColor = isDark ? 'rgba(255,255,255,0.08)' : 'rgba(0,0,0,0.06)';
+
+        new Chart(canvas, {
+            type: 'line',
+            data: {
+                labels:   data.labels,
+                datasets: data.datasets.map(ds => ({
+                    label:           ds.label,
+                    data:            ds.data,
+                    backgroundColor: ds.backgroundColor,
+                    borderColor:     ds.backgroundColor,
+                    fill:            true,
+                    pointRadius:     0,
+                    tension:         0.2
+                }))
+            },
+            options: {
+                responsive:          true,
+                maintainAspectRatio: false,
+                interaction:         { mode: 'index', intersect: false },
+                scales: {
+                    x: { ticks: { color: textColor }, grid: { color: gridColor } },
+                    y: { stacked: true, beginAtZero: true,
+                         ticks: { color: textColor, precision: 0 }, grid: { color: gridColor } }
+                },
+                plugins: {
+                    legend: {
+                        position: 'bottom',
+                        labels:   { color: textColor, usePointStyle: true }
+                    }
+                }
+            }
+        });
+
+    } catch (err) {
+        console.error('Chyba při načítání kumulativního toku:', err);
+        canvas.parentElement.innerHTML = `
+            <div class="text-center text-muted py-4">
+                <i class="bi bi-exclamation-circle me-2"></i>Chyba při načítání grafu
+            </div>`;
+    }
+}
@@ -0,0 +1,127 @@
+package com.sprinter.service.planning;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Frakční pořadí backlogu: vkládání mezi hranice, chybné vstupy, prodlužování
+ * pořadí při opakovaném vkládání na stejné místo a přidávání na konec.
+ * Řetězce se porovnávají {@link String#compareTo}, což pro {@code 0-9a-z}
+ * odpovídá kolaci {@code "C"} v databázi.
+ */
+class BacklogRankTest {
+
+    @Test
+    void betweenOpenBoundsPicksMiddleDigit() {
+        assertThat(BacklogRank.between(null, null)).isEqualTo("i");
+        assertThat(BacklogRank.between("i", null)).isEqualTo("r");
+        assertThat(BacklogRank.between(null, "i")).isEqualTo("9");
+    }
+
+    @Test
+    void betweenAdjacentRanksExtendsPrefix() {
+        assertThat(BacklogRank.between("a", "b")).isEqualTo("ai");
+        assertThat(BacklogRank.between(null, "1")).isEqualTo("0i");
+        assertThat(BacklogRank.between("a", "a1")).isEqualTo("a0i");
+        assertThat(BacklogRank.between("az", "b")).isEqualTo("azi");
+        assertThat(BacklogRank.between("z", null)).isEqualTo("zi");
+    }
+
+    @Test
+    void betweenRanksOfDifferentLength() {
+        assertThat(BacklogRank.between("a", "ab")).isEqualTo("a5");
+        assertThat(BacklogRank.between("a5", "b")).isEqualTo("ak");
+        assertThat(BacklogRank.between("000000010000", "000000020000")).isEqualTo("00000001i");
+    }
+
+    @Test
+    void betweenRejectsRanksWithoutRoom() {
+        assertThatThrownBy(() -> BacklogRank.between("a", "a"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BacklogRank.between("a", "a00"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("není místo");
+        assertThatThrownBy(() -> BacklogRank.between(null, "0"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BacklogRank.between("b", "a"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("nejsou vzestupně");
+    }
+
+    @Test
+    void betweenRejectsInvalidCharacters() {
+        assertThatThrownBy(() -> BacklogRank.between("A", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Neplatný znak");
+        assertThatThrownBy(() -> BacklogRank.between(null, "-a"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void repeatedInsertAtSamePlaceGrowsSlowly() {
+        // Vkládání pořád hned za "a" – každé nové pořadí je menší než předchozí
+        String upper = "b";
+        int    inserts = 0;
+        while (upper.length() < BacklogRank.REBALANCE_LENGTH) {
+            String rank = BacklogRank.between("a", upper);
+            assertThat(rank).isGreaterThan("a").isLessThan(upper);
+            upper = rank;
+            inserts++;
+        }
+        // log2(36) ≈ 5,17 vložení na znak
+        assertThat(inserts).isGreaterThanOrEqualTo(5 * (BacklogRank.REBALANCE_LENGTH - 2));
+    }
+
+    @Test
+    void betweenLongRanks() {
+        String zeros = "0".repeat(50);
+        assertThat(BacklogRank.between(zeros + "1", zeros + "2")).isEqualTo(zeros + "1i");
+        assertThat(BacklogRank.between("z".repeat(40), null)).isEqualTo("z".repeat(40) + "i");
+
+        // Jakmile je prefix menší než horní mez, zbytek dlouhé dolní meze se neopisuje
+        String longest = "a".repeat(BacklogRank.MAX_LENGTH);
+        assertThat(BacklogRank.between(longest, "b")).isEqualTo("an");
+    }
+
+    @Test
+    void randomInsertsKeepStrictOrder() {
+        var random = new Random(36);
+        List<String> ranks = new ArrayList<>(List.of(BacklogRank.spread(3)));
+        for (int i = 0; i < 2_000; i++) {
+            int    at     = random.nextInt(ranks.size() + 1);
+            String before = at > 0 ? ranks.get(at - 1) : null;
+            String after  = at < ranks.size() ? ranks.get(at) : null;
+            ranks.add(at, BacklogRank.between(before, after));
+        }
+        for (int i = 1; i < ranks.size(); i++) {
+            assertThat(ranks.get(i)).isGreaterThan(ranks.get(i - 1));
+        }
+    }
+
+    @Test
+    void afterAppendsWithFixedStep() {
+        String first = BacklogRank.after(null);
+        assertThat(first).isEqualTo("000000010000");
+        assertThat(BacklogRank.after(first)).isEqualTo("000000020000");
+        assertThat(BacklogRank.after("i")).isEqualTo("i00000010000");
+        assertThat(BacklogRank.after("zzzzzzzzzzzz")).isEqualTo("zzzzzzzzzzzzi");
+        assertThat(BacklogRank.after("0000000001i")).hasSize(BacklogRank.WIDTH)
+                                                    .isGreaterThan("0000000001i");
+    }
+
+    @Test
+    void spreadIsEvenAscendingAndFixedWidth() {
+        String[] ranks = BacklogRank.spread(1_000);
+        assertThat(ranks).allSatisfy(rank -> assertThat(rank).hasSize(BacklogRank.WIDTH));
+        for (int i = 1; i < ranks.length; i++) {
+            assertThat(ranks[i]).isGreaterThan(ranks[i - 1]);
+        }
+        assertThat(BacklogRank.spread(1)).containsExactly("i00000000000");
+    }
+}
@@ -0,0 +1,76 @@
+package com.sprinter.service.planning;
+
+import com.sprinter.service.schedule.ScheduleGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Měření plánovače sprintu nad velkým backlogem (výchozí 20 000 položek,
+ * až dva předchůdci na položku, deset řešitelů).
+ *
+ * <p>Spouští se jen ručně, v běžném {@code mvn test} se přeskočí:</p>
+ * <pre>
+ * mvn -B test -Dtest=SprintPlannerBenchmarkTest -Dsprinter.bench.planner=true
+ * </pre>
+ *
+ * <p>Počet položek nastaví {@code sprinter.bench.items}; vypíše se nejlepší
+ * a průměrný čas z deseti běhů po dvaceti bězích na zahřátí JIT.</p>
+ */
+@EnabledIfSystemProperty(named = "sprinter.bench.planner", matches = "true")
+class SprintPlannerBenchmarkTest {
+
+    @Test
+    void planLargeBacklog() {
+        int n = Integer.getInteger("sprinter.bench.items", 20_000);
+        var random     = new Random(35);
+        long[] ids     = new long[n];
+        int[] prio     = new int[n];
+        double[] cost  = new double[n];
+        int[] assignee = new int[n];
+        long[] from    = new long[2 * n];
+        long[] to      = new long[2 * n];
+        int edges = 0;
+        for (int i = 0; i < n; i++) {
+            ids[i]      = i + 1;
+            prio[i]     = random.nextInt(5);
+            cost[i]     = 1 + random.nextInt(8);
+            assignee[i] = random.nextInt(11) - 1;
+            // Každá položka má až dva předchůdce mezi dřívějšími položkami
+            for (int k = 0; k < 2 && i > 0; k++) {
+                if (random.nextInt(3) > 0) {
+                    from[edges] = 1 + random.nextInt(i);
+                    to[edges++] = i + 1;
+                }
+            }
+        }
+        var graph = ScheduleGraph.build(ids, Arrays.copyOf(from, edges), Arrays.copyOf(to, edges),
+                                        new byte[edges], new int[edges]);
+        double capacity = 0.15 * n;
+        double[] perAssignee = new double[10];
+        Arrays.fill(perAssignee, capacity / 7.5);
+
+        for (int i = 0; i < 20; i++) {
+            SprintPlanner.plan(ids, prio, cost, assignee, capacity, perAssignee, graph);
+        }
+        long best  = Long.MAX_VALUE;
+        long total = 0;
+        SprintPlanner.Result result = null;
+        for (int i = 0; i < 10; i++) {
+            long started = System.nanoTime();
+            result = SprintPlanner.plan(ids, prio, cost, assignee, capacity, perAssignee, graph);
+            long elapsed = System.nanoTime() - started;
+            best   = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        System.out.printf("%nSprintPlanner: %d items, %d edges, best %.2f ms, mean %.2f ms%n",
+                          n, edges, best / 1e6, total / 10 / 1e6);
+
+        assertThat(result.selected()).isNotEmpty();
+        assertThat(result.used()).isLessThanOrEqualTo(capacity);
+    }
+}
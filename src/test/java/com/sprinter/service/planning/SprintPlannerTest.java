@@ -0,0 +1,124 @@
+package com.sprinter.service.planning;
+
+import com.sprinter.service.schedule.ScheduleGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static com.sprinter.service.planning.SprintPlanner.BLOCKED;
+import static com.sprinter.service.planning.SprintPlanner.OVER_CAPACITY;
+import static com.sprinter.service.planning.SprintPlanner.SELECTED;
+import static com.sprinter.service.planning.SprintPlanner.UNESTIMATED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hladový plánovač sprintu: pořadí podle priority, dědění priority od nástupníků,
+ * celková a osobní kapacita a blokované položky. Kandidáti mají ID 1..n,
+ * takže jejich index je ID − 1.
+ */
+class SprintPlannerTest {
+
+    private static final int NONE = -1;
+
+    @Test
+    void selectsByPriorityThenInputOrder() {
+        var result = plan(new int[] {1, 3, 2, 3}, costs(1, 1, 1, 1), 10, graph(4));
+
+        assertThat(result.selected()).containsExactly(1, 3, 2, 0);
+        assertThat(result.used()).isEqualTo(4);
+    }
+
+    @Test
+    void predecessorInheritsPriorityOfWorkItBlocks() {
+        // A(1) → B(3); C(2) bez závislostí – A se vybere před C kvůli B
+        var result = plan(new int[] {1, 3, 2}, costs(1, 1, 1), 10, graph(3, 1, 2));
+
+        assertThat(result.selected()).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    void inheritedPriorityPropagatesTransitively() {
+        // A(1) → B(1) → C(5); D(4) – celý řetězec před D
+        var result = plan(new int[] {1, 1, 5, 4}, costs(1, 1, 1, 1), 10, graph(4, 1, 2, 2, 3));
+
+        assertThat(result.selected()).containsExactly(0, 1, 2, 3);
+    }
+
+    @Test
+    void skipsItemsOverCapacityAndKeepsFillingWithSmallerOnes() {
+        var result = plan(new int[] {3, 2, 1}, costs(5, 4, 3), 8, graph(3));
+
+        assertThat(result.outcome()).containsExactly(SELECTED, OVER_CAPACITY, SELECTED);
+        assertThat(result.selected()).containsExactly(0, 2);
+        assertThat(result.used()).isEqualTo(8);
+    }
+
+    @Test
+    void assigneeCapacityLimitsOnlyTheirItems() {
+        var result = SprintPlanner.plan(ids(3), new int[] {3, 2, 1}, costs(2, 2, 2), new int[] {0, 0, NONE},
+                                        10, new double[] {3}, graph(3));
+
+        assertThat(result.outcome()).containsExactly(SELECTED, OVER_CAPACITY, SELECTED);
+        assertThat(result.assigneeUsed()).containsExactly(2);
+        assertThat(result.used()).isEqualTo(4);
+    }
+
+    @Test
+    void successorsOfSkippedItemsStayBlocked() {
+        // A(nevejde se) → B, C(bez odhadu) → D
+        var result = plan(new int[] {2, 2, 1, 1}, costs(20, 1, Double.NaN, 1), 10, graph(4, 1, 2, 3, 4));
+
+        assertThat(result.outcome()).containsExactly(OVER_CAPACITY, BLOCKED, UNESTIMATED, BLOCKED);
+        assertThat(result.selected()).isEmpty();
+        assertThat(result.count(BLOCKED)).isEqualTo(2);
+    }
+
+    @Test
+    void predecessorsOutsideCandidatesCountAsDone() {
+        // 1 → 2 v grafu projektu, kandidátem je jen 2 (1 je už ve sprintu)
+        var result = SprintPlanner.plan(new long[] {2}, new int[] {1}, costs(1), new int[] {NONE},
+                                        10, new double[0], graph(2, 1, 2));
+
+        assertThat(result.outcome()).containsExactly(SELECTED);
+    }
+
+    @Test
+    void cycleBetweenCandidatesBlocksIt() {
+        var result = plan(new int[] {1, 1, 1}, costs(1, 1, 1), 10, graph(3, 1, 2, 2, 1));
+
+        assertThat(result.outcome()).containsExactly(BLOCKED, BLOCKED, SELECTED);
+    }
+
+    // ---- Pomocné metody ----
+
+    /** Kandidáti 1..n, všichni bez řešitele. */
+    private static SprintPlanner.Result plan(int[] priority, double[] cost, double capacity, ScheduleGraph graph) {
+        int[] assignee = new int[priority.length];
+        Arrays.fill(assignee, NONE);
+        return SprintPlanner.plan(ids(priority.length), priority, cost, assignee, capacity, new double[0], graph);
+    }
+
+    /** Graf s uzly 1..n a hranami FS zadanými dvojicemi ID (od, do). */
+    private static ScheduleGraph graph(int n, long... pairs) {
+        int m = pairs.length / 2;
+        long[] from = new long[m];
+        long[] to   = new long[m];
+        for (int e = 0; e < m; e++) {
+            from[e] = pairs[2 * e];
+            to[e]   = pairs[2 * e + 1];
+        }
+        return ScheduleGraph.build(ids(n), from, to, new byte[m], new int[m]);
+    }
+
+    private static long[] ids(int n) {
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+        }
+        return ids;
+    }
+
+    private static double[] costs(double... costs) {
+        return costs;
+    }
+}
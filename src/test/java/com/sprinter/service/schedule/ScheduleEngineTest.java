@@ -0,0 +1,253 @@
+package com.sprinter.service.schedule;
+
+import com.sprinter.domain.enums.DependencyType;
+import org.junit.jupiter.api.Test;
+
+import static com.sprinter.service.schedule.ScheduleGraph.FF;
+import static com.sprinter.service.schedule.ScheduleGraph.FS;
+import static com.sprinter.service.schedule.ScheduleGraph.SF;
+import static com.sprinter.service.schedule.ScheduleGraph.SS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CPM nad {@link ScheduleGraph}: dopředný a zpětný průchod pro všechny typy
+ * závislostí s lagem, rezervy, cykly a pomocné průchody grafu.
+ * Očekávané hodnoty jsou spočítané ručně; ID uzlů jsou 1..n, takže index je ID − 1.
+ */
+class ScheduleEngineTest {
+
+    private static final long A = 1, B = 2, C = 3, D = 4, E = 5;
+
+    @Test
+    void finishToStartWithLagAndParallelBranch() {
+        // A(3) ─FS→ B(2) ─FS→ D(1)
+        //  └─FS+1→ C(4) ─FS──┘
+        var graph = graph(4, edge(A, B, FS, 0), edge(A, C, FS, 1), edge(B, D, FS, 0), edge(C, D, FS, 0));
+        var result = ScheduleEngine.compute(graph, new int[4], new int[] {3, 2, 4, 1});
+
+        assertTimes(result, A, 0, 3, 0, 3);
+        assertTimes(result, B, 3, 5, 6, 8);
+        assertTimes(result, C, 4, 8, 4, 8);
+        assertTimes(result, D, 8, 9, 8, 9);
+        assertThat(result.finish()).isEqualTo(9);
+        assertThat(slacks(result)).containsExactly(0, 3, 0, 0);
+        assertThat(critical(result)).containsExactly(true, false, true, true);
+        assertThat(result.cyclic()).isFalse();
+    }
+
+    @Test
+    void startToStartFinishToFinishAndStartToFinishWithLags() {
+        // B: ES ≥ ES(A)+2, C: EF ≥ EF(A)+1, D: EF ≥ ES(A)+3
+        var graph = graph(4, edge(A, B, SS, 2), edge(A, C, FF, 1), edge(A, D, SF, 3));
+        var result = ScheduleEngine.compute(graph, new int[4], new int[] {5, 3, 2, 4});
+
+        assertTimes(result, A, 0, 5, 0, 5);
+        assertTimes(result, B, 2, 5, 3, 6);
+        assertTimes(result, C, 4, 6, 4, 6);
+        assertTimes(result, D, 0, 4, 2, 6);
+        assertThat(result.finish()).isEqualTo(6);
+        assertThat(slacks(result)).containsExactly(0, 1, 0, 2);
+    }
+
+    @Test
+    void negativeLagOverlapsFinishToStart() {
+        var graph = graph(2, edge(A, B, FS, -1));
+        var result = ScheduleEngine.compute(graph, new int[2], new int[] {3, 2});
+
+        assertTimes(result, B, 2, 4, 2, 4);
+        assertThat(result.finish()).isEqualTo(4);
+        assertThat(critical(result)).containsExactly(true, true);
+    }
+
+    @Test
+    void plannedStartLaterThanPredecessorCreatesSlack() {
+        var graph = graph(2, edge(A, B, FS, 0));
+        var result = ScheduleEngine.compute(graph, new int[] {0, 5}, new int[] {2, 1});
+
+        assertTimes(result, A, 0, 2, 3, 5);
+        assertTimes(result, B, 5, 6, 5, 6);
+        assertThat(slacks(result)).containsExactly(3, 0);
+    }
+
+    @Test
+    void nodesWithoutDependenciesFloatToProjectFinish() {
+        var graph = ScheduleGraph.build(new long[] {A, B, C}, new long[] {A}, new long[] {B},
+                                        new byte[] {FS}, new int[] {0});
+        var result = ScheduleEngine.compute(graph, new int[3], new int[] {4, 4, 1});
+
+        assertThat(result.finish()).isEqualTo(8);
+        assertTimes(result, C, 0, 1, 7, 8);
+        assertThat(result.critical(index(C))).isFalse();
+    }
+
+    @Test
+    void cycleLeavesItsNodesAndSuccessorsUnscheduled() {
+        // A → B → C → B (cyklus), C → D; E samostatně
+        var graph = graph(5, edge(A, B, FS, 0), edge(B, C, FS, 0), edge(C, B, FS, 0), edge(C, D, FS, 0));
+        int[] earliest = {0, 7, 7, 7, 0};
+        var result = ScheduleEngine.compute(graph, earliest, new int[] {2, 1, 1, 1, 3});
+
+        assertThat(result.cyclic()).isTrue();
+        assertThat(result.scheduled(index(A))).isTrue();
+        assertThat(result.scheduled(index(E))).isTrue();
+        for (long id : new long[] {B, C, D}) {
+            assertThat(result.scheduled(index(id))).as("uzel %d", id).isFalse();
+            assertThat(result.critical(index(id))).as("uzel %d", id).isFalse();
+            assertThat(result.earlyStart(index(id))).as("uzel %d", id).isEqualTo(7);
+        }
+    }
+
+    // ---- ScheduleGraph ----
+
+    @Test
+    void buildDropsEdgesOutsideProjectAndSelfLoops() {
+        var graph = ScheduleGraph.build(new long[] {A, B, C},
+                new long[] {A, A, 99, B},
+                new long[] {B, A, C, C},
+                new byte[] {FS, FS, FS, SS},
+                new int[] {0, 0, 0, 2});
+
+        assertThat(graph.edgeCount()).isEqualTo(2);
+        assertThat(graph.outDegree(index(A))).isEqualTo(1);
+        assertThat(graph.inDegree(index(C))).isEqualTo(1);
+        int slot = graph.inEdgeAt(index(C), 0);
+        assertThat(graph.idOf(graph.edgeSource(slot))).isEqualTo(B);
+        assertThat(graph.edgeType(slot)).isEqualTo(SS);
+        assertThat(graph.edgeLag(slot)).isEqualTo(2);
+        assertThat(graph.indexOf(99)).isNegative();
+    }
+
+    @Test
+    void fromEdgesCollectsParticipatingNodes() {
+        var graph = ScheduleGraph.fromEdges(new long[] {30, 10}, new long[] {20, 30}, new byte[] {FS, FS}, new int[2]);
+
+        assertThat(graph.nodeCount()).isEqualTo(3);
+        assertThat(graph.idOf(0)).isEqualTo(10);
+        assertThat(graph.idOf(2)).isEqualTo(30);
+        assertThat(graph.findPath(10, 20)).containsExactly(10, 30, 20);
+        assertThat(graph.findPath(20, 10)).isNull();
+    }
+
+    @Test
+    void findPathFollowsLongChainAndIgnoresUnreachableNodes() {
+        // Řetězec 1 → 2 → … → 100 a izolovaná větev 200 → 201
+        int    n    = 100;
+        long[] from = new long[n];
+        long[] to   = new long[n];
+        for (int i = 0; i < n - 1; i++) {
+            from[i] = i + 1;
+            to[i]   = i + 2;
+        }
+        from[n - 1] = 200;
+        to[n - 1]   = 201;
+        var graph = ScheduleGraph.fromEdges(from, to, new byte[n], new int[n]);
+
+        long[] path = graph.findPath(1, 100);
+        assertThat(path).hasSize(100).startsWith(1, 2).endsWith(99, 100);
+        assertThat(graph.findPath(1, 201)).isNull();
+        assertThat(graph.findPath(100, 1)).isNull();
+        assertThat(graph.findPath(1, 999)).isNull();
+    }
+
+    @Test
+    void withEdgeReturnsExtendedCopy() {
+        var graph    = ScheduleGraph.fromEdges(new long[] {10}, new long[] {20}, new byte[] {FS}, new int[1]);
+        var extended = graph.withEdge(20, 30, SS, 2);
+
+        assertThat(graph.edgeCount()).isEqualTo(1);
+        assertThat(graph.indexOf(30)).isNegative();
+        assertThat(extended.edgeCount()).isEqualTo(2);
+        assertThat(extended.findPath(10, 30)).containsExactly(10, 20, 30);
+        int slot = extended.inEdgeAt(extended.indexOf(30), 0);
+        assertThat(extended.edgeType(slot)).isEqualTo(SS);
+        assertThat(extended.edgeLag(slot)).isEqualTo(2);
+    }
+
+    @Test
+    void downstreamOrderIsTopologicalWithinReachableSubgraph() {
+        // A → B → D, A → C → D, D → E; B a C před D, D před E
+        var graph = graph(5, edge(A, B, FS, 0), edge(A, C, FS, 0), edge(B, D, FS, 0),
+                          edge(C, D, FS, 0), edge(D, E, FS, 0));
+
+        int[] order = graph.downstreamOrder(index(A));
+        assertThat(order).hasSize(4);
+        assertThat(positionOf(order, D)).isGreaterThan(positionOf(order, B));
+        assertThat(positionOf(order, D)).isGreaterThan(positionOf(order, C));
+        assertThat(positionOf(order, E)).isEqualTo(3);
+        assertThat(graph.downstreamOrder(index(C))).containsExactly(index(D), index(E));
+    }
+
+    @Test
+    void dependencyTypeCodes() {
+        assertThat(ScheduleGraph.code(DependencyType.BLOCKS)).isEqualTo(FS);
+        assertThat(ScheduleGraph.code(DependencyType.FINISH_TO_START)).isEqualTo(FS);
+        assertThat(ScheduleGraph.code(DependencyType.START_TO_START)).isEqualTo(SS);
+        assertThat(ScheduleGraph.code(DependencyType.FINISH_TO_FINISH)).isEqualTo(FF);
+        assertThat(ScheduleGraph.code(DependencyType.START_TO_FINISH)).isEqualTo(SF);
+        assertThat(ScheduleGraph.abbreviation(SF)).isEqualTo("SF");
+    }
+
+    // ---- Pomocné metody ----
+
+    private record Edge(long from, long to, byte type, int lag) {}
+
+    private static Edge edge(long from, long to, byte type, int lag) {
+        return new Edge(from, to, type, lag);
+    }
+
+    /** Graf s uzly 1..n a danými hranami. */
+    private static ScheduleGraph graph(int n, Edge... edges) {
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+        }
+        long[] from  = new long[edges.length];
+        long[] to    = new long[edges.length];
+        byte[] types = new byte[edges.length];
+        int[]  lags  = new int[edges.length];
+        for (int e = 0; e < edges.length; e++) {
+            from[e]  = edges[e].from();
+            to[e]    = edges[e].to();
+            types[e] = edges[e].type();
+            lags[e]  = edges[e].lag();
+        }
+        return ScheduleGraph.build(ids, from, to, types, lags);
+    }
+
+    private static int index(long id) {
+        return (int) id - 1;
+    }
+
+    private static void assertTimes(ScheduleResult result, long id, int es, int ef, int ls, int lf) {
+        int node = index(id);
+        assertThat(new int[] {result.earlyStart(node), result.earlyFinish(node),
+                              result.lateStart(node), result.lateFinish(node)})
+                .as("ES, EF, LS, LF uzlu %d", id)
+                .containsExactly(es, ef, ls, lf);
+    }
+
+    private static int[] slacks(ScheduleResult result) {
+        int[] slacks = new int[result.graph().nodeCount()];
+        for (int u = 0; u < slacks.length; u++) {
+            slacks[u] = result.slack(u);
+        }
+        return slacks;
+    }
+
+    private static boolean[] critical(ScheduleResult result) {
+        boolean[] critical = new boolean[result.graph().nodeCount()];
+        for (int u = 0; u < critical.length; u++) {
+            critical[u] = result.critical(u);
+        }
+        return critical;
+    }
+
+    private static int positionOf(int[] order, long id) {
+        for (int i = 0; i < order.length; i++) {
+            if (order[i] == index(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,418 @@
+package com.sprinter.service.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link S3BlobStore} proti minimální náhradě S3 API na {@link HttpServer}
+ * (PUT/GET/HEAD/DELETE objektu, vícedílné nahrávání, ListObjectsV2 po stránkách).
+ * Náhrada ověřuje podpis každého požadavku.
+ */
+class S3BlobStoreTest {
+
+    private static final String BUCKET     = "sprinter";
+    private static final String PREFIX     = "tenant a/";
+    private static final String ACCESS_KEY = "test-access";
+    private static final String SECRET_KEY = "test-secret";
+    private static final int    PART_BYTES = 5 * 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private StubS3 s3;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        s3 = new StubS3();
+    }
+
+    @AfterEach
+    void stopServer() {
+        s3.server.stop(0);
+        assertThat(s3.errors).isEmpty();
+    }
+
+    @Test
+    void storesAndReadsSmallObject() throws IOException {
+        var store = store(0);
+        byte[] content = "Ahoj, S3!".getBytes(StandardCharsets.UTF_8);
+
+        store.store("blobs/ab/cd/abcd", file(content));
+
+        assertThat(s3.objects).containsKey(PREFIX + "blobs/ab/cd/abcd");
+        assertThat(store.exists("blobs/ab/cd/abcd")).isTrue();
+        assertThat(store.size("blobs/ab/cd/abcd")).isEqualTo(content.length);
+        try (InputStream in = store.open("blobs/ab/cd/abcd")) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+        try (InputStream in = store.openRange("blobs/ab/cd/abcd", 6, 7)) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("S3");
+        }
+        assertThat(s3.multipartCreated).hasValue(0);
+    }
+
+    @Test
+    void uploadsLargeObjectInParts() throws IOException {
+        var store = store(0);
+        byte[] content = random(2 * PART_BYTES + 1234);
+
+        store.store("blobs/ef/01/ef01", file(content));
+
+        assertThat(s3.objects.get(PREFIX + "blobs/ef/01/ef01")).isEqualTo(content);
+        assertThat(s3.multipartCreated).hasValue(1);
+        assertThat(s3.partsReceived).hasValue(3);
+        assertThat(s3.uploads).isEmpty();
+
+        // Rozsah přes hranici částí
+        try (InputStream in = store.openRange("blobs/ef/01/ef01", PART_BYTES - 2, PART_BYTES + 1)) {
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(content, PART_BYTES - 2, PART_BYTES + 2));
+        }
+    }
+
+    @Test
+    void abortsMultipartUploadWhenPartFails() throws IOException {
+        var store = store(0);
+        s3.failPart = 2;
+
+        assertThatThrownBy(() -> store.store("blobs/12/34/1234", file(random(2 * PART_BYTES + 1))))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("HTTP 500");
+
+        assertThat(s3.objects).doesNotContainKey(PREFIX + "blobs/12/34/1234");
+        assertThat(s3.aborted).hasValue(1);
+        assertThat(s3.uploads).isEmpty();
+    }
+
+    @Test
+    void skipsToRangeWhenServiceIgnoresRangeHeader() throws IOException {
+        var store = store(0);
+        store.store("blobs/aa/bb/aabb", file("0123456789".getBytes(StandardCharsets.UTF_8)));
+        s3.ignoreRange = true;
+
+        try (InputStream in = store.openRange("blobs/aa/bb/aabb", 3, 5)) {
+            assertThat(new String(in.readNBytes(3), StandardCharsets.UTF_8)).isEqualTo("345");
+        }
+    }
+
+    @Test
+    void listsObjectsAcrossPages() throws IOException {
+        var store = store(0);
+        for (String key : List.of("previews/a.png", "previews/b c.png", "previews/c.png", "blobs/x")) {
+            store.store(key, file(key.getBytes(StandardCharsets.UTF_8)));
+        }
+        s3.pageSize = 2;
+
+        List<StoredObject> listed;
+        try (var stream = store.list("previews/")) {
+            listed = stream.toList();
+        }
+
+        assertThat(listed).extracting(StoredObject::key)
+                .containsExactly("previews/a.png", "previews/b c.png", "previews/c.png");
+        assertThat(listed).extracting(StoredObject::size).containsExactly(14L, 16L, 14L);
+        assertThat(s3.listRequests).hasValue(2);
+    }
+
+    @Test
+    void deletesObjectsAndReportsMissingOnes() throws IOException {
+        var store = store(0);
+        store.store("blobs/de/ad/dead", file(new byte[] {1, 2, 3}));
+
+        store.delete("blobs/de/ad/dead");
+        store.delete("blobs/de/ad/dead");   // chybějící objekt není chyba
+
+        assertThat(store.exists("blobs/de/ad/dead")).isFalse();
+        assertThatThrownBy(() -> store.open("blobs/de/ad/dead")).isInstanceOf(NoSuchFileException.class);
+        assertThatThrownBy(() -> store.size("blobs/de/ad/dead")).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void servesStoredObjectFromLocalCache() throws IOException {
+        var store = store(1);
+        byte[] content = random(1000);
+
+        store.store("blobs/ca/fe/cafe", file(content));
+        int gets = s3.gets.get();
+
+        assertThat(store.localFile("blobs/ca/fe/cafe")).isPresent();
+        try (InputStream in = store.open("blobs/ca/fe/cafe")) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+        assertThat(s3.gets).hasValue(gets);
+    }
+
+    @Test
+    void rejectsWrongCredentials() throws IOException {
+        var store = store(0);
+        ReflectionTestUtils.setField(store, "signer", new S3RequestSigner(ACCESS_KEY, "wrong", "us-east-1"));
+
+        assertThatThrownBy(() -> store.store("blobs/00/00/0000", file(new byte[] {1})))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("SignatureDoesNotMatch");
+    }
+
+    // ---- Pomocné metody ----
+
+    private S3BlobStore store(long cacheMaxObjectMb) {
+        var store = new S3BlobStore();
+        ReflectionTestUtils.setField(store, "endpoint", "http://localhost:" + s3.server.getAddress().getPort() + "/");
+        ReflectionTestUtils.setField(store, "region", "us-east-1");
+        ReflectionTestUtils.setField(store, "bucket", BUCKET);
+        ReflectionTestUtils.setField(store, "keyPrefix", PREFIX);
+        ReflectionTestUtils.setField(store, "accessKey", ACCESS_KEY);
+        ReflectionTestUtils.setField(store, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(store, "partSizeMb", 5L);
+        ReflectionTestUtils.setField(store, "uploadConcurrency", 2);
+        ReflectionTestUtils.setField(store, "requestTimeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(store, "cacheDir", tempDir.resolve("cache").toString());
+        ReflectionTestUtils.setField(store, "cacheMaxSizeMb", 16L);
+        ReflectionTestUtils.setField(store, "cacheMaxObjectMb", cacheMaxObjectMb);
+        store.init();
+        return store;
+    }
+
+    private Path file(byte[] content) throws IOException {
+        return Files.write(Files.createTempFile(tempDir, "upload", ".bin"), content);
+    }
+
+    private static byte[] random(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    /** Minimální S3 (adresování cestou, jeden bucket) v paměti. */
+    private static final class StubS3 {
+
+        private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+                .withZone(ZoneOffset.UTC);
+        private static final Pattern PART = Pattern.compile(
+                "<PartNumber>(\\d+)</PartNumber><ETag>&quot;([^&]+)&quot;</ETag>");
+
+        final HttpServer server;
+        final S3RequestSigner signer = new S3RequestSigner(ACCESS_KEY, SECRET_KEY, "us-east-1");
+        final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+        final AtomicInteger multipartCreated = new AtomicInteger();
+        final AtomicInteger partsReceived    = new AtomicInteger();
+        final AtomicInteger aborted          = new AtomicInteger();
+        final AtomicInteger listRequests     = new AtomicInteger();
+        final AtomicInteger gets             = new AtomicInteger();
+        final List<String> errors = new CopyOnWriteArrayList<>();
+        volatile int     failPart;
+        volatile boolean ignoreRange;
+        volatile int     pageSize = 1000;
+
+        StubS3() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", exchange -> {
+                try (exchange) {
+                    handle(exchange);
+                } catch (RuntimeException e) {
+                    errors.add(e.toString());
+                    throw e;
+                }
+            });
+            server.start();
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            URI uri = exchange.getRequestURI();
+            String method = exchange.getRequestMethod();
+            byte[] body = exchange.getRequestBody().readAllBytes();
+
+            if (!signatureValid(exchange, uri)) {
+                error(exchange, 403, "SignatureDoesNotMatch");
+                return;
+            }
+
+            String path = uri.getPath();
+            if (!path.startsWith("/" + BUCKET)) {
+                error(exchange, 404, "NoSuchBucket");
+                return;
+            }
+            String key = path.length() > BUCKET.length() + 2 ? path.substring(BUCKET.length() + 2) : null;
+            Map<String, String> query = query(uri.getRawQuery());
+
+            if (key == null && "GET".equals(method)) {
+                list(exchange, query);
+            } else if ("POST".equals(method) && query.containsKey("uploads")) {
+                String uploadId = "upload-" + multipartCreated.incrementAndGet();
+                uploads.put(uploadId, new ConcurrentHashMap<>());
+                xml(exchange, 200, "<InitiateMultipartUploadResult><UploadId>" + uploadId
+                        + "</UploadId></InitiateMultipartUploadResult>");
+            } else if ("PUT".equals(method) && query.containsKey("partNumber")) {
+                int partNumber = Integer.parseInt(query.get("partNumber"));
+                if (partNumber == failPart) {
+                    error(exchange, 500, "InternalError");
+                    return;
+                }
+                uploads.get(query.get("uploadId")).put(partNumber, body);
+                partsReceived.incrementAndGet();
+                exchange.getResponseHeaders().set("ETag", "\"etag-" + partNumber + "\"");
+                exchange.sendResponseHeaders(200, -1);
+            } else if ("POST".equals(method) && query.containsKey("uploadId")) {
+                completeMultipart(exchange, key, query.get("uploadId"), new String(body, StandardCharsets.UTF_8));
+            } else if ("DELETE".equals(method) && query.containsKey("uploadId")) {
+                uploads.remove(query.get("uploadId"));
+                aborted.incrementAndGet();
+                exchange.sendResponseHeaders(204, -1);
+            } else if ("PUT".equals(method)) {
+                objects.put(key, body);
+                exchange.getResponseHeaders().set("ETag", "\"object\"");
+                exchange.sendResponseHeaders(200, -1);
+            } else if ("DELETE".equals(method)) {
+                exchange.sendResponseHeaders(objects.remove(key) != null ? 204 : 404, -1);
+            } else if ("HEAD".equals(method)) {
+                byte[] object = objects.get(key);
+                if (object == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().set("Content-Length", String.valueOf(object.length));
+                exchange.sendResponseHeaders(200, -1);
+            } else if ("GET".equals(method)) {
+                get(exchange, key);
+            } else {
+                error(exchange, 405, "MethodNotAllowed");
+            }
+        }
+
+        private void get(HttpExchange exchange, String key) throws IOException {
+            gets.incrementAndGet();
+            byte[] object = objects.get(key);
+            if (object == null) {
+                error(exchange, 404, "NoSuchKey");
+                return;
+            }
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            if (range != null && !ignoreRange) {
+                String[] bounds = range.substring("bytes=".length()).split("-");
+                int start = Integer.parseInt(bounds[0]);
+                int end   = Math.min(object.length - 1, Integer.parseInt(bounds[1]));
+                exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + object.length);
+                exchange.sendResponseHeaders(206, end - start + 1);
+                exchange.getResponseBody().write(object, start, end - start + 1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, object.length);
+            exchange.getResponseBody().write(object);
+        }
+
+        private void completeMultipart(HttpExchange exchange, String key, String uploadId, String body)
+                throws IOException {
+            Map<Integer, byte[]> parts = uploads.remove(uploadId);
+            if (parts == null) {
+                error(exchange, 404, "NoSuchUpload");
+                return;
+            }
+            var content = new ByteArrayOutputStream();
+            Matcher matcher = PART.matcher(body);
+            int expected = 1;
+            while (matcher.find()) {
+                int partNumber = Integer.parseInt(matcher.group(1));
+                if (partNumber != expected++ || !matcher.group(2).equals("etag-" + partNumber)
+                        || !parts.containsKey(partNumber)) {
+                    xml(exchange, 200, "<Error><Code>InvalidPart</Code></Error>");
+                    return;
+                }
+                content.write(parts.get(partNumber));
+            }
+            objects.put(key, content.toByteArray());
+            xml(exchange, 200, "<CompleteMultipartUploadResult><Key>" + key + "</Key></CompleteMultipartUploadResult>");
+        }
+
+        private void list(HttpExchange exchange, Map<String, String> query) throws IOException {
+            listRequests.incrementAndGet();
+            String prefix = query.getOrDefault("prefix", "");
+            List<String> keys = new TreeMap<>(objects).keySet().stream()
+                    .filter(k -> k.startsWith(prefix))
+                    .collect(Collectors.toCollection(ArrayList::new));
+            int from = Integer.parseInt(query.getOrDefault("continuation-token", "0"));
+            int to   = Math.min(keys.size(), from + pageSize);
+            var xml = new StringBuilder("<ListBucketResult><IsTruncated>").append(to < keys.size())
+                    .append("</IsTruncated>");
+            if (to < keys.size()) {
+                xml.append("<NextContinuationToken>").append(to).append("</NextContinuationToken>");
+            }
+            for (String key : keys.subList(from, to)) {
+                xml.append("<Contents><Key>").append(key).append("</Key><Size>").append(objects.get(key).length)
+                   .append("</Size><LastModified>2024-01-01T00:00:00.000Z</LastModified></Contents>");
+            }
+            xml(exchange, 200, xml.append("</ListBucketResult>").toString());
+        }
+
+        private boolean signatureValid(HttpExchange exchange, URI uri) {
+            String date = exchange.getRequestHeaders().getFirst("x-amz-date");
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            if (date == null || authorization == null) {
+                return false;
+            }
+            URI signed = URI.create("http://" + exchange.getRequestHeaders().getFirst("Host") + uri.getRawPath()
+                    + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : ""));
+            String expected = signer.authorization(exchange.getRequestMethod(), signed, Map.of(),
+                    exchange.getRequestHeaders().getFirst("x-amz-content-sha256"),
+                    Instant.from(AMZ_DATE.parse(date)));
+            return expected.equals(authorization);
+        }
+
+        private static Map<String, String> query(String rawQuery) {
+            var params = new HashMap<String, String>();
+            if (rawQuery != null) {
+                for (String param : rawQuery.split("&")) {
+                    int eq = param.indexOf('=');
+                    params.put(eq < 0 ? param : param.substring(0, eq),
+                               eq < 0 ? "" : URLDecoder.decode(param.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+            return params;
+        }
+
+        private static void error(HttpExchange exchange, int status, String code) throws IOException {
+            xml(exchange, status, "<Error><Code>" + code + "</Code></Error>");
+        }
+
+        private static void xml(HttpExchange exchange, int status, String xml) throws IOException {
+            byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/xml");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+}
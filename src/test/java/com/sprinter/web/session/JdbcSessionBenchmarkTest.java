@@ -0,0 +1,220 @@
+package com.sprinter.web.session;
+
+import com.sprinter.domain.entity.User;
+import com.sprinter.security.SprinterUserDetails;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.web.http.CookieHttpSessionIdResolver;
+import org.springframework.session.web.http.DefaultCookieSerializer;
+import org.springframework.session.web.http.SessionRepositoryFilter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Měření režie sdílených session (Spring Session JDBC – {@link SessionRepositoryFilter}
+ * + {@link JdbcIndexedSessionRepository}, jak je skládá Spring Boot) na jeden požadavek:
+ * načtení session a uložení na konci požadavku.
+ *
+ * <p>Spouští se jen ručně proti zadané databázi, v běžném {@code mvn test} se přeskočí:</p>
+ * <pre>
+ * mvn -B test -Dtest=JdbcSessionBenchmarkTest \
+ *     -Dsprinter.bench.jdbc-url=jdbc:postgresql://localhost:5432/sprinter \
+ *     -Dsprinter.bench.jdbc-user=sprinter -Dsprinter.bench.jdbc-password=sprinter
+ * </pre>
+ *
+ * <p>Tabulky Spring Session se založí ve vlastním schématu {@code session_bench},
+ * které se na konci smaže. Měří se dva případy, každý nad vlastní session
+ * se security contextem a CSRF tokenem jako po přihlášení:</p>
+ * <ul>
+ *   <li><b>read</b> – požadavek session jen čte (zapíše se jen čas přístupu),</li>
+ *   <li><b>changed</b> – požadavek navíc změní jeden atribut.</li>
+ * </ul>
+ * <p>Počet měřených požadavků nastaví {@code sprinter.bench.iterations}
+ * (výchozí 20000, před měřením se stejný počet zahodí na zahřátí JIT).</p>
+ */
+@EnabledIfSystemProperty(named = "sprinter.bench.jdbc-url", matches = ".+")
+class JdbcSessionBenchmarkTest {
+
+    private static final String SCHEMA      = "session_bench";
+    private static final String COOKIE_NAME = "SESSION";
+    private static final String CSRF_ATTRIBUTE =
+            "org.springframework.security.web.csrf.HttpSessionCsrfTokenRepository.CSRF_TOKEN";
+
+    private static HikariDataSource dataSource;
+    private static int              iterations;
+
+    private final MockServletContext servletContext = new MockServletContext();
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        iterations = Integer.getInteger("sprinter.bench.iterations", 20_000);
+
+        var admin = new HikariDataSource();
+        admin.setJdbcUrl(System.getProperty("sprinter.bench.jdbc-url"));
+        admin.setUsername(System.getProperty("sprinter.bench.jdbc-user"));
+        admin.setPassword(System.getProperty("sprinter.bench.jdbc-password"));
+        admin.setMaximumPoolSize(1);
+        try (admin) {
+            var jdbc = new JdbcTemplate(admin);
+            jdbc.execute("DROP SCHEMA IF EXISTS \"" + SCHEMA + "\" CASCADE");
+            jdbc.execute("CREATE SCHEMA \"" + SCHEMA + "\"");
+        }
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("sprinter.bench.jdbc-url"));
+        dataSource.setUsername(System.getProperty("sprinter.bench.jdbc-user"));
+        dataSource.setPassword(System.getProperty("sprinter.bench.jdbc-password"));
+        dataSource.setSchema(SCHEMA);
+        dataSource.setMaximumPoolSize(2);
+
+        var jdbc = new JdbcTemplate(dataSource);
+        String platform = DatabaseDriver.fromJdbcUrl(dataSource.getJdbcUrl()).getId();
+        String ddl = new ClassPathResource("org/springframework/session/jdbc/schema-" + platform + ".sql")
+                .getContentAsString(StandardCharsets.UTF_8);
+        for (String statement : ddl.split(";")) {
+            if (!statement.isBlank()) {
+                jdbc.execute(statement);
+            }
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (dataSource != null) {
+            new JdbcTemplate(dataSource).execute("DROP SCHEMA \"" + SCHEMA + "\" CASCADE");
+            dataSource.close();
+        }
+    }
+
+    @Test
+    void measureRequestOverhead() throws Exception {
+        SessionRepositoryFilter<?> filter = filter();
+
+        FilterChain read = (req, res) ->
+                requireSession(req).getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+        int[] counter = {0};
+        FilterChain write = (req, res) -> {
+            HttpSession session = requireSession(req);
+            session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+            session.setAttribute("sprinter.lastFilter", "project=7&sprint=" + counter[0]++);
+        };
+
+        System.out.printf("%nJdbcSession: %d requests, %s%n", iterations, dataSource.getJdbcUrl());
+        System.out.printf("%-10s %9s %9s %9s %9s %9s%n", "scenario", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        report("read",    run(filter, createSession(filter), read));
+        report("changed", run(filter, createSession(filter), write));
+
+        Integer rows = new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM spring_session", Integer.class);
+        assertThat(rows).isEqualTo(2);
+    }
+
+    // ---- Pomocné metody ----
+
+    /** Filtr a repository se stejným nastavením, jaké vytváří Spring Boot. */
+    private SessionRepositoryFilter<?> filter() {
+        var jdbc       = new JdbcTemplate(dataSource);
+        var repository = new JdbcIndexedSessionRepository(jdbc,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        repository.afterPropertiesSet();
+        var cookies = new DefaultCookieSerializer();
+        cookies.setCookieName(COOKIE_NAME);
+        var resolver = new CookieHttpSessionIdResolver();
+        resolver.setCookieSerializer(cookies);
+        var filter = new SessionRepositoryFilter<>(repository);
+        filter.setHttpSessionIdResolver(resolver);
+        return filter;
+    }
+
+    /** Založí session se stejnými atributy, jaké má přihlášený uživatel. */
+    private String createSession(SessionRepositoryFilter<?> filter) throws Exception {
+        var user = new User();
+        user.setId(42L);
+        user.setUsername("benchmark");
+        user.setFirstName("Jana");
+        user.setLastName("Nováková");
+        user.setPasswordHash("{bcrypt}$2a$10$abcdefghijklmnopqrstuv");
+        var details = SprinterUserDetails.from(user);
+        details.eraseCredentials();
+        var authentication = UsernamePasswordAuthenticationToken.authenticated(details, null, details.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetails("10.0.0.15", UUID.randomUUID().toString()));
+
+        var request  = new MockHttpServletRequest(servletContext, "POST", "/sprinter/login");
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            HttpSession session = ((HttpServletRequest) req).getSession();
+            session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                                 new SecurityContextImpl(authentication));
+            session.setAttribute(CSRF_ATTRIBUTE,
+                                 new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", UUID.randomUUID().toString()));
+        });
+        String cookie = response.getHeader("Set-Cookie");
+        assertThat(cookie).startsWith(COOKIE_NAME + "=");
+        return cookie.substring(COOKIE_NAME.length() + 1, cookie.indexOf(';'));
+    }
+
+    /** Provede zahřátí a pak {@link #iterations} požadavků; vrátí jejich časy v ns. */
+    private long[] run(SessionRepositoryFilter<?> filter, String sessionId, FilterChain chain) throws Exception {
+        for (int i = 0; i < iterations; i++) {
+            request(filter, sessionId, chain);
+        }
+        long[] times = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            times[i] = request(filter, sessionId, chain);
+        }
+        return times;
+    }
+
+    private long request(SessionRepositoryFilter<?> filter, String sessionId, FilterChain chain) throws Exception {
+        var request = new MockHttpServletRequest(servletContext, "GET", "/sprinter/dashboard");
+        request.setCookies(new Cookie(COOKIE_NAME, sessionId));
+        var response = new MockHttpServletResponse();
+        long started = System.nanoTime();
+        filter.doFilter(request, response, chain);
+        return System.nanoTime() - started;
+    }
+
+    private static HttpSession requireSession(ServletRequest request) {
+        HttpSession session = ((HttpServletRequest) request).getSession(false);
+        assertThat(session).as("session z DB").isNotNull();
+        return session;
+    }
+
+    private static void report(String name, long[] times) {
+        Arrays.sort(times);
+        double mean = Arrays.stream(times).average().orElse(0);
+        System.out.printf("%-10s %9.3f %9.3f %9.3f %9.3f %9.3f%n", name, mean / 1e6,
+                          percentile(times, 50), percentile(times, 90), percentile(times, 99),
+                          times[times.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}